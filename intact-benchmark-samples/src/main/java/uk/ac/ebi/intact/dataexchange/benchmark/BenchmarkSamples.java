@@ -0,0 +1,115 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.benchmark;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the samples of the benchmarks from the samples folder of the classpath, so that the benchmarks run offline.
+ * The samples are test files of the modules:
+ * <ul>
+ *     <li>P37173_scored.txt: MITAB 2.5, 13 interactions</li>
+ *     <li>p20053.txt: MITAB 2.6, 66 interactions</li>
+ *     <li>intactWithRig.txt: MITAB 2.7, 35 interactions with features, annotations and checksums</li>
+ *     <li>intact_2006-07-19.xml: PSI-MI XML 2.5, 6 interactions with features and experiment details</li>
+ *     <li>psi-mi.obo and goslim_generic.obo: the PSI-MI ontology and the GO slim</li>
+ * </ul>
+ *
+ * @version $Id$
+ */
+public final class BenchmarkSamples {
+
+    public static final String SAMPLES_FOLDER = "/samples/";
+
+    public static final String MITAB25 = "P37173_scored.txt";
+    public static final String MITAB26 = "p20053.txt";
+    public static final String MITAB27 = "intactWithRig.txt";
+    public static final String PSI_XML25 = "intact_2006-07-19.xml";
+    public static final String PSI_MI_OBO = "psi-mi.obo";
+    public static final String GO_SLIM_OBO = "goslim_generic.obo";
+
+    private BenchmarkSamples() {
+    }
+
+    /**
+     * @return the URL of the sample
+     * @throws IOException if there is no such sample
+     */
+    public static URL getResource(String name) throws IOException {
+        URL url = BenchmarkSamples.class.getResource(SAMPLES_FOLDER + name);
+        if (url == null) {
+            throw new IOException("Sample not found: " + SAMPLES_FOLDER + name);
+        }
+        return url;
+    }
+
+    /**
+     * @return a new stream reading the sample
+     * @throws IOException if there is no such sample
+     */
+    public static InputStream openStream(String name) throws IOException {
+        InputStream stream = BenchmarkSamples.class.getResourceAsStream(SAMPLES_FOLDER + name);
+        if (stream == null) {
+            throw new IOException("Sample not found: " + SAMPLES_FOLDER + name);
+        }
+        return stream;
+    }
+
+    /**
+     * @return the content of the sample, to be parsed again from memory with a ByteArrayInputStream
+     */
+    public static byte[] readBytes(String name) throws IOException {
+        InputStream stream = openStream(name);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * @return the lines of the sample, without the empty lines and the comments such as the MITAB header
+     */
+    public static String[] readLines(String name) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(openStream(name), StandardCharsets.UTF_8));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() > 0 && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.dbimporter.listener;
+
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import psidev.psi.mi.jami.model.Interaction;
+import uk.ac.ebi.intact.dataexchange.enricher.engine.EnrichmentEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prefetches the objects referenced by the interactions of a chunk before they are enriched.
+ *
+ * A chunk is read completely before its first item is processed, so the interactions are collected as they are read
+ * and all of them are given to the {@link EnrichmentEngine} just before the first one is processed. The enricher
+ * processors then find the proteins, organisms, CV terms and publications of the whole chunk in the caches.
+ *
+ * The prefetch is only done if it is enabled with enrichmentThreads in the EnricherConfig.
+ */
+public class EnrichmentPrefetchListener implements ItemReadListener<Object>, ItemProcessListener<Object, Object> {
+
+    private EnrichmentEngine enrichmentEngine;
+
+    private final List<Interaction> chunk = new ArrayList<Interaction>();
+
+    public EnrichmentPrefetchListener() {
+
+    }
+
+    public void beforeRead() {
+        // nothing to do
+    }
+
+    public void afterRead(Object item) {
+        if (item instanceof Interaction) {
+            chunk.add((Interaction) item);
+        }
+    }
+
+    public void onReadError(Exception ex) {
+        // nothing to do
+    }
+
+    public void beforeProcess(Object item) {
+        if (!chunk.isEmpty()) {
+            try {
+                if (enrichmentEngine != null) {
+                    enrichmentEngine.prefetch(chunk);
+                }
+            } finally {
+                chunk.clear();
+            }
+        }
+    }
+
+    public void afterProcess(Object item, Object result) {
+        // nothing to do
+    }
+
+    public void onProcessError(Object item, Exception e) {
+        // nothing to do
+    }
+
+    public EnrichmentEngine getEnrichmentEngine() {
+        return enrichmentEngine;
+    }
+
+    public void setEnrichmentEngine(EnrichmentEngine enrichmentEngine) {
+        this.enrichmentEngine = enrichmentEngine;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the enricher application context with the stub remote fetchers of enricher-benchmark-spring.xml.
+ *
+ * The run settings are fixed here rather than left to the command line defaults, so that the results of two
+ * commits can be compared; the remote services answer with the latency and miss ratio of the parameters.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+public abstract class AbstractEnricherBenchmark {
+
+    public static final String SPRING_CONFIG = "META-INF/enricher-benchmark-spring.xml";
+
+    /**
+     * Latency of a call to a remote service, in microseconds.
+     */
+    @Param({"0", "200"})
+    public long latencyMicros;
+
+    /**
+     * Ratio of the identifiers unknown to the remote services.
+     */
+    @Param({"0.0", "0.1"})
+    public double missRatio;
+
+    protected ClassPathXmlApplicationContext applicationContext;
+    protected EnricherContext enricherContext;
+    protected StubRemoteService remoteService;
+
+    @Setup(Level.Trial)
+    public void startContext() throws Exception {
+        applicationContext = new ClassPathXmlApplicationContext(SPRING_CONFIG);
+        enricherContext = applicationContext.getBean(EnricherContext.class);
+        remoteService = applicationContext.getBean(StubRemoteService.class);
+        remoteService.setLatencyMicros(latencyMicros);
+        remoteService.setMissRatio(missRatio);
+        setUp();
+    }
+
+    protected void setUp() throws Exception {
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        if (applicationContext != null) {
+            applicationContext.close();
+        }
+    }
+
+    /**
+     * Empties all the caches of the enricher, including the negative results.
+     */
+    protected void clearCaches() {
+        enricherContext.getCacheManager().clearAll();
+        remoteService.reset();
+    }
+}
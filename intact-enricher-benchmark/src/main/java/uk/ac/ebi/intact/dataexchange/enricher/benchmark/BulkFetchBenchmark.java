@@ -0,0 +1,99 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import psidev.psi.mi.jami.bridges.fetcher.CvTermFetcher;
+import psidev.psi.mi.jami.bridges.fetcher.ProteinFetcher;
+import psidev.psi.mi.jami.model.CvTerm;
+import uk.ac.ebi.intact.dataexchange.enricher.fetch.OboTermIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Resolution of a batch of identifiers through the caches of the fetchers, either in one bulk call or one
+ * identifier at a time, with no cached identifier (cold) or half of them already cached (half).
+ *
+ */
+public class BulkFetchBenchmark extends AbstractEnricherBenchmark {
+
+    @Param({"10", "100"})
+    public int batchSize;
+
+    @Param({"cold", "half"})
+    public String caches;
+
+    private ProteinFetcher proteinFetcher;
+    private CvTermFetcher<CvTerm> cvTermFetcher;
+
+    private List<String> proteinIdentifiers;
+    private List<String> termIdentifiers;
+
+    @Override
+    protected void setUp() throws Exception {
+        proteinFetcher = (ProteinFetcher) applicationContext.getBean("intactProteinFetcher");
+        cvTermFetcher = (CvTermFetcher<CvTerm>) applicationContext.getBean("intactOlsCvObjectFetcher");
+
+        SplittableRandom random = new SplittableRandom(4321L);
+        proteinIdentifiers = new ArrayList<String>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            proteinIdentifiers.add(String.format("P%05d", random.nextInt(100000)));
+        }
+
+        OboTermIndex index = StubCvTermFetcher.getIndex();
+        termIdentifiers = new ArrayList<String>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            termIdentifiers.add(index.getId(random.nextInt(index.size())));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareCaches() throws BridgeFailedException {
+        clearCaches();
+        if ("half".equals(caches)) {
+            proteinFetcher.fetchByIdentifiers(proteinIdentifiers.subList(0, batchSize / 2));
+            cvTermFetcher.fetchByIdentifiers(termIdentifiers.subList(0, batchSize / 2), CvTerm.PSI_MI);
+        }
+    }
+
+    @Benchmark
+    public void fetchProteinsInBulk(Blackhole blackhole) throws BridgeFailedException {
+        blackhole.consume(proteinFetcher.fetchByIdentifiers(proteinIdentifiers));
+    }
+
+    @Benchmark
+    public void fetchProteinsOneByOne(Blackhole blackhole) throws BridgeFailedException {
+        for (String identifier : proteinIdentifiers) {
+            blackhole.consume(proteinFetcher.fetchByIdentifier(identifier));
+        }
+    }
+
+    @Benchmark
+    public void fetchCvTermsInBulk(Blackhole blackhole) throws BridgeFailedException {
+        blackhole.consume(cvTermFetcher.fetchByIdentifiers(termIdentifiers, CvTerm.PSI_MI));
+    }
+
+    @Benchmark
+    public void fetchCvTermsOneByOne(Blackhole blackhole) throws BridgeFailedException {
+        for (String identifier : termIdentifiers) {
+            blackhole.consume(cvTermFetcher.fetchByIdentifier(identifier, CvTerm.PSI_MI));
+        }
+    }
+}
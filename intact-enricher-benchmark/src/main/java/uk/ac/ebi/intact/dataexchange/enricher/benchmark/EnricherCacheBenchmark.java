@@ -0,0 +1,138 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheConfig;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EvictionPolicy;
+import uk.ac.ebi.intact.dataexchange.enricher.fetch.RequestCoalescer;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention on one EnricherCache shared by several enrichment threads.
+ *
+ * The keys follow a skewed distribution, as the identifiers of a dataset do (a few proteins and most CV terms
+ * appear in many interactions). With a key space larger than the cache, the lookups also pay for the evictions.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+public class EnricherCacheBenchmark {
+
+    private static final int MAX_ENTRIES = 10000;
+    private static final int KEYS_PER_THREAD = 1 << 14;
+
+    @Param({"LRU", "LFU"})
+    public EvictionPolicy evictionPolicy;
+
+    /**
+     * Number of distinct keys, compared with the 10000 entries of the cache.
+     */
+    @Param({"5000", "50000"})
+    public int keySpace;
+
+    private EnricherCache cache;
+    private RequestCoalescer requestCoalescer;
+
+    @Setup(Level.Iteration)
+    public void createCache() {
+        cache = new EnricherCache("Benchmark", new EnricherCacheConfig(MAX_ENTRIES, 0, evictionPolicy));
+        requestCoalescer = new RequestCoalescer();
+        for (int i = 0; i < Math.min(keySpace, MAX_ENTRIES); i++) {
+            String key = key(i);
+            cache.put(key, value(key));
+        }
+    }
+
+    /**
+     * Keys looked up by one thread, generated from the thread index so that every run uses the same sequences.
+     */
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+
+        private String[] keys;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void generateKeys(EnricherCacheBenchmark benchmark, ThreadParams threadParams) {
+            SplittableRandom random = new SplittableRandom(1234L + threadParams.getThreadIndex());
+            keys = new String[KEYS_PER_THREAD];
+            for (int i = 0; i < keys.length; i++) {
+                // the product of two uniform numbers favours the small keys
+                double skewed = random.nextDouble() * random.nextDouble();
+                keys[i] = key((int) (skewed * benchmark.keySpace));
+            }
+        }
+
+        String nextKey() {
+            String key = keys[next];
+            next = (next + 1) & (KEYS_PER_THREAD - 1);
+            return key;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object getOrLoad(ThreadKeys keys) {
+        String key = keys.nextKey();
+        return cache.get(key, () -> value(key));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object getOrLoadContended(ThreadKeys keys) {
+        String key = keys.nextKey();
+        return cache.get(key, () -> value(key));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object getOrLoadCoalesced(ThreadKeys keys) {
+        String key = keys.nextKey();
+        return requestCoalescer.get(cache, key, () -> value(key));
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(6)
+    public Object readWriteGet(ThreadKeys keys) {
+        return cache.get(keys.nextKey());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(2)
+    public Object readWritePut(ThreadKeys keys) {
+        String key = keys.nextKey();
+        return cache.put(key, value(key));
+    }
+
+    private static String key(int i) {
+        return "P" + (10000 + i);
+    }
+
+    private static Object value(String key) {
+        return key + "_value";
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import psidev.psi.mi.jami.enricher.exception.EnricherException;
+import psidev.psi.mi.jami.model.Complex;
+import psidev.psi.mi.jami.model.InteractionEvidence;
+import uk.ac.ebi.intact.dataexchange.benchmark.BenchmarkSamples;
+import uk.ac.ebi.intact.dataexchange.enricher.engine.EnrichmentEngine;
+import uk.ac.ebi.intact.dataexchange.enricher.standard.ComplexEnricher;
+import uk.ac.ebi.intact.dataexchange.enricher.standard.InteractionEvidenceEnricher;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Enrichment of all the interactions of a sample, with the caches emptied before each pass (cold) or kept from
+ * the previous passes (warm). The interactions are given all together to the enrichment engine, which prefetches
+ * their proteins, organisms, CV terms and publications with the given number of workers (1 disables the prefetch).
+ *
+ */
+public class InteractionEnrichmentBenchmark extends AbstractEnricherBenchmark {
+
+    /**
+     * The MITAB 2.5 and 2.6 samples of BenchmarkSamples and its PSI-MI XML sample.
+     */
+    @Param({BenchmarkSamples.MITAB25, BenchmarkSamples.MITAB26, BenchmarkSamples.PSI_XML25})
+    public String sample;
+
+    @Param({"cold", "warm"})
+    public String caches;
+
+    @Param({"1", "4"})
+    public int enrichmentThreads;
+
+    private InteractionSamples samples;
+    private InteractionEvidenceEnricher interactionEvidenceEnricher;
+    private ComplexEnricher complexEnricher;
+    private EnrichmentEngine enrichmentEngine;
+
+    private List<InteractionEvidence> interactionEvidences;
+    private List<Complex> complexes;
+
+    @Override
+    protected void setUp() throws Exception {
+        samples = new InteractionSamples(sample);
+        interactionEvidenceEnricher = (InteractionEvidenceEnricher) applicationContext.getBean("intactInteractionEvidenceEnricher");
+        complexEnricher = (ComplexEnricher) applicationContext.getBean("intactComplexEnricher");
+        enrichmentEngine = (EnrichmentEngine) applicationContext.getBean("intactEnrichmentEngine");
+        enricherContext.getConfig().setEnrichmentThreads(enrichmentThreads);
+    }
+
+    @Setup(Level.Invocation)
+    public void readSample() throws IOException {
+        if ("cold".equals(caches)) {
+            clearCaches();
+        }
+        interactionEvidences = samples.readInteractionEvidences();
+        complexes = samples.readComplexes();
+    }
+
+    @Benchmark
+    public void enrichInteractionEvidences(Blackhole blackhole) throws EnricherException {
+        enrichmentEngine.enrich(interactionEvidences, interactionEvidenceEnricher);
+        blackhole.consume(interactionEvidences);
+    }
+
+    @Benchmark
+    public void enrichComplexes(Blackhole blackhole) throws EnricherException {
+        enrichmentEngine.enrich(complexes, complexEnricher);
+        blackhole.consume(complexes);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import psidev.psi.mi.jami.commons.MIDataSourceOptionFactory;
+import psidev.psi.mi.jami.commons.PsiJami;
+import psidev.psi.mi.jami.datasource.InteractionStream;
+import psidev.psi.mi.jami.factory.MIDataSourceFactory;
+import psidev.psi.mi.jami.factory.options.MIFileDataSourceOptions;
+import psidev.psi.mi.jami.model.*;
+import psidev.psi.mi.jami.model.impl.DefaultComplex;
+import psidev.psi.mi.jami.model.impl.DefaultModelledParticipant;
+import uk.ac.ebi.intact.dataexchange.benchmark.BenchmarkSamples;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interactions of a sample of BenchmarkSamples, kept in memory and parsed again each time fresh interactions are
+ * needed, as the enrichment modifies them.
+ *
+ */
+public class InteractionSamples {
+
+    private final String name;
+    private final byte[] content;
+
+    public InteractionSamples(String name) throws IOException {
+        this.name = name;
+        this.content = BenchmarkSamples.readBytes(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the interaction evidences of the sample, newly parsed
+     */
+    public List<InteractionEvidence> readInteractionEvidences() throws IOException {
+        PsiJami.initialiseAllMIDataSources();
+
+        Map<String, Object> options = MIDataSourceOptionFactory.getInstance().getDefaultOptions(new ByteArrayInputStream(content));
+        options.put(MIFileDataSourceOptions.INTERACTION_CATEGORY_OPTION_KEY, InteractionCategory.evidence);
+        InteractionStream<InteractionEvidence> dataSource = MIDataSourceFactory.getInstance().getInteractionSourceWith(options);
+        if (dataSource == null) {
+            throw new IOException("The sample " + name + " is not recognized as a valid MI file");
+        }
+
+        try {
+            List<InteractionEvidence> interactions = new ArrayList<InteractionEvidence>();
+            Iterator<InteractionEvidence> iterator = dataSource.getInteractionsIterator();
+            while (iterator.hasNext()) {
+                interactions.add(iterator.next());
+            }
+            return interactions;
+        } finally {
+            dataSource.close();
+        }
+    }
+
+    /**
+     * @return one complex per interaction evidence of the sample, with the same interactors and interaction type
+     */
+    public List<Complex> readComplexes() throws IOException {
+        List<InteractionEvidence> interactions = readInteractionEvidences();
+        List<Complex> complexes = new ArrayList<Complex>(interactions.size());
+        int number = 0;
+        for (InteractionEvidence interaction : interactions) {
+            Complex complex = new DefaultComplex("complex_" + (++number));
+            complex.setInteractionType(interaction.getInteractionType());
+            for (ParticipantEvidence participant : interaction.getParticipants()) {
+                if (complex.getOrganism() == null) {
+                    complex.setOrganism(participant.getInteractor().getOrganism());
+                }
+                complex.addParticipant(new DefaultModelledParticipant(participant.getInteractor(), participant.getBiologicalRole()));
+            }
+            complexes.add(complex);
+        }
+        return complexes;
+    }
+}
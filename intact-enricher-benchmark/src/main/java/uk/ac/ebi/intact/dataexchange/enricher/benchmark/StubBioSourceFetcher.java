@@ -0,0 +1,61 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import psidev.psi.mi.jami.bridges.fetcher.OrganismFetcher;
+import psidev.psi.mi.jami.model.Organism;
+import psidev.psi.mi.jami.model.impl.DefaultOrganism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Remote fetcher of the intact BioSourceFetcher generating the organisms locally instead of querying the UniProt
+ * taxonomy.
+ *
+ * Every call waits for the latency of the StubRemoteService and the organisms it reports as missing are not returned.
+ *
+ */
+public class StubBioSourceFetcher implements OrganismFetcher {
+
+    @Autowired
+    private StubRemoteService remoteService;
+
+    public StubBioSourceFetcher() {
+    }
+
+    @Override
+    public Organism fetchByTaxID(int taxID) throws BridgeFailedException {
+        Collection<Organism> organisms = fetchByTaxIDs(Collections.singleton(taxID));
+        return organisms.isEmpty() ? null : organisms.iterator().next();
+    }
+
+    @Override
+    public Collection<Organism> fetchByTaxIDs(Collection<Integer> taxIDs) throws BridgeFailedException {
+        remoteService.call(taxIDs.size());
+        Collection<Organism> organisms = new ArrayList<Organism>(taxIDs.size());
+        for (Integer taxID : taxIDs) {
+            // the negative tax ids (in vitro, chemical synthesis...) are always known
+            if (taxID < 0 || !remoteService.isMissing(taxID)) {
+                organisms.add(new DefaultOrganism(taxID, "organism" + taxID, "Stub organism " + taxID));
+            }
+        }
+        return organisms;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import psidev.psi.mi.jami.bridges.fetcher.CvTermFetcher;
+import psidev.psi.mi.jami.model.CvTerm;
+import psidev.psi.mi.jami.utils.CvTermUtils;
+import uk.ac.ebi.intact.dataexchange.benchmark.BenchmarkSamples;
+import uk.ac.ebi.intact.dataexchange.enricher.fetch.IndexedOboCvTermFetcher;
+import uk.ac.ebi.intact.dataexchange.enricher.fetch.OboTermIndex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Remote fetcher of the intact OlsCvObjectFetcher answering from the PSI-MI ontology of the samples instead of
+ * querying OLS.
+ *
+ * Every call waits for the latency of the StubRemoteService and the terms it reports as missing are not returned.
+ *
+ */
+public class StubCvTermFetcher implements CvTermFetcher<CvTerm> {
+
+    private static OboTermIndex index;
+
+    @Autowired
+    private StubRemoteService remoteService;
+
+    private CvTermFetcher<CvTerm> delegate;
+
+    public StubCvTermFetcher() {
+    }
+
+    /**
+     * The ontology of the samples is parsed once per JVM and shared by the application contexts of the benchmarks.
+     */
+    static synchronized OboTermIndex getIndex() throws IOException {
+        if (index == null) {
+            InputStream stream = BenchmarkSamples.openStream(BenchmarkSamples.PSI_MI_OBO);
+            try {
+                index = OboTermIndex.load(stream);
+            } finally {
+                stream.close();
+            }
+        }
+        return index;
+    }
+
+    private synchronized CvTermFetcher<CvTerm> getDelegate() throws BridgeFailedException {
+        if (delegate == null) {
+            try {
+                delegate = new IndexedOboCvTermFetcher(getIndex(), CvTermUtils.createPsiMiDatabase());
+            } catch (IOException e) {
+                throw new BridgeFailedException("Cannot read the sample " + BenchmarkSamples.PSI_MI_OBO, e);
+            }
+        }
+        return delegate;
+    }
+
+    @Override
+    public CvTerm fetchByIdentifier(String termIdentifier, String miOntologyName) throws BridgeFailedException {
+        remoteService.call(1);
+        return remoteService.isMissing(termIdentifier) ? null : getDelegate().fetchByIdentifier(termIdentifier, miOntologyName);
+    }
+
+    @Override
+    public CvTerm fetchByIdentifier(String termIdentifier, CvTerm ontologyDatabase) throws BridgeFailedException {
+        remoteService.call(1);
+        return remoteService.isMissing(termIdentifier) ? null : getDelegate().fetchByIdentifier(termIdentifier, ontologyDatabase);
+    }
+
+    @Override
+    public CvTerm fetchByName(String searchName, String miOntologyName) throws BridgeFailedException {
+        remoteService.call(1);
+        return remoteService.isMissing(searchName) ? null : getDelegate().fetchByName(searchName, miOntologyName);
+    }
+
+    @Override
+    public Collection<CvTerm> fetchByName(String searchName) throws BridgeFailedException {
+        remoteService.call(1);
+        return remoteService.isMissing(searchName) ? Collections.<CvTerm>emptyList() : getDelegate().fetchByName(searchName);
+    }
+
+    @Override
+    public Collection<CvTerm> fetchByIdentifiers(Collection<String> termIdentifiers, String miOntologyName) throws BridgeFailedException {
+        remoteService.call(termIdentifiers.size());
+        return getDelegate().fetchByIdentifiers(retainKnown(termIdentifiers), miOntologyName);
+    }
+
+    @Override
+    public Collection<CvTerm> fetchByIdentifiers(Collection<String> termIdentifiers, CvTerm ontologyDatabase) throws BridgeFailedException {
+        remoteService.call(termIdentifiers.size());
+        return getDelegate().fetchByIdentifiers(retainKnown(termIdentifiers), ontologyDatabase);
+    }
+
+    @Override
+    public Collection<CvTerm> fetchByNames(Collection<String> searchNames, String miOntologyName) throws BridgeFailedException {
+        remoteService.call(searchNames.size());
+        return getDelegate().fetchByNames(retainKnown(searchNames), miOntologyName);
+    }
+
+    @Override
+    public Collection<CvTerm> fetchByNames(Collection<String> searchNames) throws BridgeFailedException {
+        remoteService.call(searchNames.size());
+        return getDelegate().fetchByNames(retainKnown(searchNames));
+    }
+
+    private Collection<String> retainKnown(Collection<String> identifiers) {
+        Collection<String> known = new ArrayList<String>(identifiers.size());
+        for (String identifier : identifiers) {
+            if (!remoteService.isMissing(identifier)) {
+                known.add(identifier);
+            }
+        }
+        return known;
+    }
+}
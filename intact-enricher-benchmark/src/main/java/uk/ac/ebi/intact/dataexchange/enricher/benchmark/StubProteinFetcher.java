@@ -0,0 +1,95 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import psidev.psi.mi.jami.bridges.fetcher.ProteinFetcher;
+import psidev.psi.mi.jami.model.Alias;
+import psidev.psi.mi.jami.model.Protein;
+import psidev.psi.mi.jami.model.Xref;
+import psidev.psi.mi.jami.model.impl.DefaultAlias;
+import psidev.psi.mi.jami.model.impl.DefaultOrganism;
+import psidev.psi.mi.jami.model.impl.DefaultProtein;
+import psidev.psi.mi.jami.utils.CvTermUtils;
+import psidev.psi.mi.jami.utils.XrefUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * Remote fetcher of the intact ProteinFetcher generating the proteins locally instead of querying UniProt.
+ *
+ * Every call waits for the latency of the StubRemoteService and the proteins it reports as missing are not returned.
+ *
+ */
+public class StubProteinFetcher implements ProteinFetcher {
+
+    private static final String AMINO_ACIDS = "ACDEFGHIKLMNPQRSTVWY";
+
+    static final int[] TAX_IDS = {9606, 10090, 10116, 559292, 7227, 6239, 3702, 83333};
+
+    @Autowired
+    private StubRemoteService remoteService;
+
+    public StubProteinFetcher() {
+    }
+
+    @Override
+    public Collection<Protein> fetchByIdentifier(String identifier) throws BridgeFailedException {
+        return fetchByIdentifiers(Collections.singleton(identifier));
+    }
+
+    @Override
+    public Collection<Protein> fetchByIdentifiers(Collection<String> identifiers) throws BridgeFailedException {
+        remoteService.call(identifiers.size());
+        Collection<Protein> proteins = new ArrayList<Protein>(identifiers.size());
+        for (String identifier : identifiers) {
+            if (!remoteService.isMissing(identifier)) {
+                proteins.add(createProtein(identifier, remoteService.hash(identifier)));
+            }
+        }
+        return proteins;
+    }
+
+    private static Protein createProtein(String identifier, long hash) {
+        String accession = identifier.toUpperCase(Locale.ROOT);
+        String geneName = "GENE" + Long.toString(hash & 0xffff, 36).toUpperCase(Locale.ROOT);
+        int taxId = TAX_IDS[(int) ((hash >>> 16) & 0x7)];
+
+        DefaultProtein protein = new DefaultProtein(geneName.toLowerCase(Locale.ROOT) + "_stub",
+                "Stub protein " + accession, XrefUtils.createUniprotIdentity(accession));
+        protein.setOrganism(new DefaultOrganism(taxId));
+        protein.setSequence(createSequence(hash));
+        protein.getAliases().add(new DefaultAlias(CvTermUtils.createMICvTerm(Alias.GENE_NAME, Alias.GENE_NAME_MI), geneName));
+        protein.getXrefs().add(XrefUtils.createXrefWithQualifier(Xref.GO, Xref.GO_MI,
+                String.format("GO:%07d", (hash >>> 20) % 100000), Xref.IDENTITY, Xref.IDENTITY_MI));
+        return protein;
+    }
+
+    private static String createSequence(long hash) {
+        int length = 100 + (int) ((hash >>> 24) % 700);
+        StringBuilder sequence = new StringBuilder(length);
+        long state = hash;
+        for (int i = 0; i < length; i++) {
+            state = state * 6364136223846793005L + 1442695040888963407L;
+            sequence.append(AMINO_ACIDS.charAt((int) ((state >>> 33) % AMINO_ACIDS.length())));
+        }
+        return sequence.toString();
+    }
+}
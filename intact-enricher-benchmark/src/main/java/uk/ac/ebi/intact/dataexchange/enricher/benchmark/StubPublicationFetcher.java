@@ -0,0 +1,82 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import psidev.psi.mi.jami.bridges.fetcher.PublicationFetcher;
+import psidev.psi.mi.jami.model.Publication;
+import psidev.psi.mi.jami.model.impl.DefaultPublication;
+import psidev.psi.mi.jami.utils.XrefUtils;
+
+import java.util.*;
+
+/**
+ * Remote fetcher of the intact PublicationFetcher generating the publications locally instead of querying Europe PMC.
+ *
+ * Every call waits for the latency of the StubRemoteService and the publications it reports as missing are not
+ * returned.
+ *
+ */
+public class StubPublicationFetcher implements PublicationFetcher {
+
+    private static final String[] JOURNALS = {"J Biol Chem", "Nature", "Cell", "Mol Cell", "EMBO J", "Proteomics"};
+
+    @Autowired
+    private StubRemoteService remoteService;
+
+    public StubPublicationFetcher() {
+    }
+
+    @Override
+    public Publication fetchByIdentifier(String id, String source) throws BridgeFailedException {
+        Collection<Publication> publications = fetchByIdentifiers(Collections.singleton(id), source);
+        return publications.isEmpty() ? null : publications.iterator().next();
+    }
+
+    @Override
+    public Collection<Publication> fetchByIdentifiers(Map<String, Collection<String>> identifiers) throws BridgeFailedException {
+        List<Publication> publications = new ArrayList<Publication>();
+        for (Map.Entry<String, Collection<String>> entry : identifiers.entrySet()) {
+            publications.addAll(fetchByIdentifiers(entry.getValue(), entry.getKey()));
+        }
+        return publications;
+    }
+
+    private Collection<Publication> fetchByIdentifiers(Collection<String> identifiers, String source) {
+        remoteService.call(identifiers.size());
+        Collection<Publication> publications = new ArrayList<Publication>(identifiers.size());
+        for (String id : identifiers) {
+            if (remoteService.isMissing(id)) {
+                continue;
+            }
+            long hash = remoteService.hash(id);
+            Calendar date = new GregorianCalendar(1990 + (int) ((hash >>> 8) % 30), (int) ((hash >>> 16) % 12), 1);
+
+            DefaultPublication publication = new DefaultPublication();
+            publication.getIdentifiers().add(XrefUtils.createIdentityXref(source, id));
+            publication.setTitle("Stub publication " + id);
+            publication.setJournal(JOURNALS[(int) ((hash >>> 24) % JOURNALS.length)]);
+            publication.setPublicationDate(date.getTime());
+            int authorCount = 1 + (int) ((hash >>> 32) % 6);
+            for (int i = 0; i < authorCount; i++) {
+                publication.getAuthors().add("Author" + ((hash >>> (i * 4)) & 0xff) + " " + (char) ('A' + i));
+            }
+            publications.add(publication);
+        }
+        return publications;
+    }
+}
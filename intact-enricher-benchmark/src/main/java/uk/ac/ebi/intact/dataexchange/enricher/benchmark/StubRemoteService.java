@@ -0,0 +1,124 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates the remote services behind the stub fetchers.
+ *
+ * Each remote call waits for the configured latency, whatever the number of identifiers it carries, and
+ * the identifiers which are not found are chosen from a hash of the identifier and of the seed, so that
+ * two runs with the same settings send the same calls and miss the same identifiers.
+ *
+ */
+public class StubRemoteService {
+
+    private long latencyMicros;
+    private double missRatio;
+    private long seed = 42;
+
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong requestedCount = new AtomicLong();
+
+    public StubRemoteService() {
+    }
+
+    /**
+     * Waits for the latency of one remote call.
+     *
+     * @param identifierCount the number of identifiers sent with the call
+     */
+    public void call(int identifierCount) {
+        callCount.incrementAndGet();
+        requestedCount.addAndGet(identifierCount);
+        if (latencyMicros > 0) {
+            // parking leaves the cpu to the other threads, as a thread waiting for a socket would
+            long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+
+    /**
+     * @return true if the remote service does not know this identifier
+     */
+    public boolean isMissing(Object identifier) {
+        if (missRatio <= 0) {
+            return false;
+        }
+        if (missRatio >= 1) {
+            return true;
+        }
+        long hash = mix(seed ^ String.valueOf(identifier).hashCode());
+        return (hash >>> 11) * 0x1.0p-53 < missRatio;
+    }
+
+    /**
+     * @return a number derived from the identifier and the seed, used to generate the fetched objects
+     */
+    public long hash(Object identifier) {
+        return mix(seed * 31 + String.valueOf(identifier).hashCode());
+    }
+
+    private static long mix(long z) {
+        // splitmix64 finaliser
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    public long getCallCount() {
+        return callCount.get();
+    }
+
+    public long getRequestedCount() {
+        return requestedCount.get();
+    }
+
+    public void reset() {
+        callCount.set(0);
+        requestedCount.set(0);
+    }
+
+    public long getLatencyMicros() {
+        return latencyMicros;
+    }
+
+    public void setLatencyMicros(long latencyMicros) {
+        this.latencyMicros = latencyMicros;
+    }
+
+    public double getMissRatio() {
+        return missRatio;
+    }
+
+    public void setMissRatio(double missRatio) {
+        this.missRatio = missRatio;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+}
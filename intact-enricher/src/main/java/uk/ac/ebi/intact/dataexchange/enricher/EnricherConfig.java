@@ -37,6 +37,13 @@ public class EnricherConfig {
     private boolean updateCvTerms = true;
     private boolean updateCellTypesAndTissues = false;
     private boolean updateCvInXrefsAliasesAnnotations = true;
+    private String cacheSnapshotFile;
+    private int enrichmentThreads = 1;
+    private boolean offlineCvTerms = false;
+    private boolean metricsJmxEnabled = false;
+    private long metricsLogInterval = 0;
+    private boolean enrichmentFingerprints = false;
+    private int prefetchBatchSize = 50;
 
     public EnricherConfig() {
     }
@@ -144,4 +151,81 @@ public class EnricherConfig {
     public void setUpdateInteractorPool(boolean updateInteractorPool) {
         this.updateInteractorPool = updateInteractorPool;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return the local file where the enricher caches are saved at shutdown and restored from at startup,
+     * or null if the caches are not persisted
+     */
+    public String getCacheSnapshotFile() {
+        return cacheSnapshotFile;
+    }
+
+    public void setCacheSnapshotFile(String cacheSnapshotFile) {
+        this.cacheSnapshotFile = cacheSnapshotFile;
+    }
+
+    /**
+     * @return the number of workers used to prefetch the objects to enrich, 1 (the default) disables the prefetch
+     */
+    public int getEnrichmentThreads() {
+        return enrichmentThreads;
+    }
+
+    public void setEnrichmentThreads(int enrichmentThreads) {
+        this.enrichmentThreads = enrichmentThreads;
+    }
+
+    public int getPrefetchBatchSize() {
+        return prefetchBatchSize;
+    }
+
+    public void setPrefetchBatchSize(int prefetchBatchSize) {
+        this.prefetchBatchSize = prefetchBatchSize;
+    }
+
+    /**
+     * @return true if the CV terms usually resolved through OLS are resolved from the OBO file instead
+     */
+    public boolean isOfflineCvTerms() {
+        return offlineCvTerms;
+    }
+
+    public void setOfflineCvTerms(boolean offlineCvTerms) {
+        this.offlineCvTerms = offlineCvTerms;
+    }
+
+    /**
+     * @return true if the fetcher and enricher metrics are registered as MBeans, false by default
+     */
+    public boolean isMetricsJmxEnabled() {
+        return metricsJmxEnabled;
+    }
+
+    public void setMetricsJmxEnabled(boolean metricsJmxEnabled) {
+        this.metricsJmxEnabled = metricsJmxEnabled;
+    }
+
+    /**
+     * @return the interval in seconds between two summaries of the metrics in the log, 0 (the default) to disable
+     * the summary
+     */
+    public long getMetricsLogInterval() {
+        return metricsLogInterval;
+    }
+
+    public void setMetricsLogInterval(long metricsLogInterval) {
+        this.metricsLogInterval = metricsLogInterval;
+    }
+
+    /**
+     * @return true if the fingerprints of the objects not changed by enrichment are stored, so that objects with
+     * the same fingerprint are not enriched again
+     */
+    public boolean isEnrichmentFingerprints() {
+        return enrichmentFingerprints;
+    }
+
+    public void setEnrichmentFingerprints(boolean enrichmentFingerprints) {
+        this.enrichmentFingerprints = enrichmentFingerprints;
+    }
+}
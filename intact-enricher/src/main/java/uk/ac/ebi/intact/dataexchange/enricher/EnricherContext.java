@@ -19,8 +19,17 @@ import net.sf.ehcache.CacheManager;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheManager;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheStore;
+import uk.ac.ebi.intact.dataexchange.enricher.fetch.OboTermIndex;
+import uk.ac.ebi.intact.dataexchange.enricher.fingerprint.EnrichmentFingerprintStore;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.EnricherMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
 
 /**
  * TODO comment this
@@ -28,7 +37,7 @@ import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheManager;
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
-public class EnricherContext implements DisposableBean {
+public class EnricherContext implements InitializingBean, DisposableBean {
 
     /**
      * Sets up a logger for that class.
@@ -40,6 +49,12 @@ public class EnricherContext implements DisposableBean {
 
     private EnricherConfig config;
 
+    private volatile EnricherMetrics metrics;
+    private volatile EnrichmentFingerprintStore fingerprintStore;
+
+    private OboTermIndex oboTermIndex;
+    private String oboTermIndexUrl;
+
     public EnricherContext(EnricherConfig enricherConfig) {
         this.config = enricherConfig;
     }
@@ -56,6 +71,51 @@ public class EnricherContext implements DisposableBean {
         return enricherCacheManager;
     }
 
+    /**
+     * @return the metrics of the fetchers and enrichers using this context
+     */
+    public EnricherMetrics getMetrics() {
+        EnricherMetrics enricherMetrics = metrics;
+        if (enricherMetrics == null) {
+            synchronized (this) {
+                if (metrics == null) {
+                    metrics = new EnricherMetrics(enricherCacheManager);
+                }
+                enricherMetrics = metrics;
+            }
+        }
+        return enricherMetrics;
+    }
+
+    /**
+     * @return the store of the fingerprints of the objects not changed by enrichment, which is only used if enabled in the config
+     */
+    public EnrichmentFingerprintStore getFingerprintStore() {
+        EnrichmentFingerprintStore store = fingerprintStore;
+        if (store == null) {
+            synchronized (this) {
+                if (fingerprintStore == null) {
+                    fingerprintStore = new EnrichmentFingerprintStore(enricherCacheManager.getCache(EnricherCacheManager.ENRICHMENT_FINGERPRINT_CACHE), config);
+                }
+                store = fingerprintStore;
+            }
+        }
+        return store;
+    }
+
+    /**
+     * @return the index of the OBO file of the config, parsed on first use and shared by all the CV fetchers
+     */
+    public synchronized OboTermIndex getOboTermIndex() throws IOException {
+        String oboUrl = config.getOboUrl();
+        if (oboTermIndex == null || !oboUrl.equals(oboTermIndexUrl)) {
+            if (log.isInfoEnabled()) log.info("Indexing OBO file " + oboUrl);
+            oboTermIndex = OboTermIndex.load(new URL(oboUrl));
+            oboTermIndexUrl = oboUrl;
+        }
+        return oboTermIndex;
+    }
+
     public void close() {
         try {
             destroy();
@@ -64,8 +124,62 @@ public class EnricherContext implements DisposableBean {
         }
     }
 
+    public void afterPropertiesSet() throws Exception {
+        loadCacheSnapshot();
+        if (config != null) {
+            if (config.isMetricsJmxEnabled()) {
+                getMetrics().registerMBeans();
+            }
+            getMetrics().startReporting(config.getMetricsLogInterval());
+        }
+    }
+
     public void destroy() throws Exception {
+        if (metrics != null) {
+            metrics.stopReporting();
+            metrics.logSummary();
+            metrics.unregisterMBeans();
+        }
+        saveCacheSnapshot();
         if (log.isDebugEnabled()) log.debug("Clearing all caches from CacheManager");
         CacheManager.getInstance().clearAll();
     }
+
+    /**
+     * Restores the enricher caches from the snapshot file, if one is configured.
+     * A snapshot which cannot be read is ignored and the caches start empty.
+     */
+    public void loadCacheSnapshot() {
+        EnricherCacheStore store = getCacheStore();
+        if (store == null || enricherCacheManager == null) {
+            return;
+        }
+        try {
+            store.load(enricherCacheManager);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot restore the enricher caches from " + store.getFile(), e);
+        }
+    }
+
+    /**
+     * Saves the enricher caches to the snapshot file, if one is configured.
+     */
+    public void saveCacheSnapshot() {
+        EnricherCacheStore store = getCacheStore();
+        if (store == null || enricherCacheManager == null) {
+            return;
+        }
+        try {
+            store.save(enricherCacheManager);
+        } catch (IOException e) {
+            log.error("Cannot save the enricher caches to " + store.getFile(), e);
+        }
+    }
+
+    private EnricherCacheStore getCacheStore() {
+        if (config == null || config.getCacheSnapshotFile() == null || config.getCacheSnapshotFile().trim().isEmpty()) {
+            return null;
+        }
+        return new EnricherCacheStore(new File(config.getCacheSnapshotFile()));
+    }
 }
\ No newline at end of file
@@ -15,37 +15,412 @@
  */
 package uk.ac.ebi.intact.dataexchange.enricher.cache;
 
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
+ * Thread safe cache used by the enricher fetchers.
+ *
+ * The cache is bounded by number of entries and/or by estimated weight, evicts entries following
+ * its {@link EvictionPolicy} and expires entries older than the configured time to live.
+ * Null values are cached so a lookup that returned nothing is not repeated.
+ *
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
 public class EnricherCache {
 
-    private Map<Object,Object> map = new WeakHashMap(512);
+    /**
+     * Number of least recently used entries inspected when looking for the least frequently used one.
+     */
+    private static final int LFU_SAMPLE_SIZE = 16;
+
+    private static final Object NULL_VALUE = new Object();
+
+    private final String name;
+    private final EnricherCacheConfig config;
+
+    // access ordered so the head is always the least recently used entry
+    private final LinkedHashMap<Object,CacheEntry> map;
+    private long currentWeight = 0;
+
+    private final AtomicLong inMemoryHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong loadFailureCount = new AtomicLong();
+    private final AtomicLong totalLoadTime = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong expirationCount = new AtomicLong();
+
+    public EnricherCache() {
+        this("default", new EnricherCacheConfig());
+    }
+
+    public EnricherCache(String name, EnricherCacheConfig config) {
+        this.name = name;
+        this.config = config != null ? config.copy() : new EnricherCacheConfig();
+        this.map = new LinkedHashMap<Object,CacheEntry>(512, 0.75f, true);
+    }
 
-    long inMemoryHits = 0;
+    public String getName() {
+        return name;
+    }
+
+    public EnricherCacheConfig getConfig() {
+        return config;
+    }
 
     public boolean isKeyInCache(Object key) {
-        return map.containsKey(key);
+        synchronized (map) {
+            CacheEntry entry = map.get(key);
+            if (entry == null) {
+                return false;
+            }
+            else if (isExpired(entry, System.currentTimeMillis())) {
+                removeEntry(key);
+                expirationCount.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
     }
 
     public Object put(Object key, Object value) {
-        return map.put(key, value);
+        return put(key, value, System.currentTimeMillis());
     }
 
+    /**
+     * Puts a value which was created at the given time, for instance when restoring a cache from a snapshot.
+     * The time to live of the entry is counted from its creation time.
+     */
+    public Object put(Object key, Object value, long creationTime) {
+        long weight = Math.max(0, config.getWeigher().weigh(key, value));
+        CacheEntry newEntry = new CacheEntry(value != null ? value : NULL_VALUE, weight, creationTime);
+
+        synchronized (map) {
+            CacheEntry previous = map.put(key, newEntry);
+            currentWeight += weight;
+            if (previous != null) {
+                currentWeight -= previous.weight;
+            }
+            evictIfNecessary(key);
+            return previous != null ? unwrap(previous.value) : null;
+        }
+    }
+
+    /**
+     * @return the cached value or null if the key is not in the cache (or if null was cached for that key)
+     */
     public Object get(Object key) {
-        inMemoryHits++;
-        return map.get(key);
+        synchronized (map) {
+            CacheEntry entry = map.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            else if (isExpired(entry, System.currentTimeMillis())) {
+                removeEntry(key);
+                expirationCount.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            entry.hits++;
+            inMemoryHits.incrementAndGet();
+            return unwrap(entry.value);
+        }
+    }
+
+    /**
+     * Looks up a key without updating the hit and miss statistics.
+     *
+     * @return the cached value (which can be null if null was cached) or absentValue if the key is not in the cache
+     */
+    public Object peek(Object key, Object absentValue) {
+        synchronized (map) {
+            CacheEntry entry = map.get(key);
+            if (entry == null || isExpired(entry, System.currentTimeMillis())) {
+                return absentValue;
+            }
+            return unwrap(entry.value);
+        }
+    }
+
+    /**
+     * Looks up several keys at once.
+     *
+     * @return the keys which are in the cache with their value (which can be null if null was cached)
+     */
+    public Map<Object,Object> getAll(Collection<?> keys) {
+        Map<Object,Object> found = new LinkedHashMap<Object,Object>(keys.size());
+        long now = System.currentTimeMillis();
+        synchronized (map) {
+            for (Object key : keys) {
+                CacheEntry entry = map.get(key);
+                if (entry != null && isExpired(entry, now)) {
+                    removeEntry(key);
+                    expirationCount.incrementAndGet();
+                    entry = null;
+                }
+                if (entry == null) {
+                    misses.incrementAndGet();
+                }
+                else {
+                    entry.hits++;
+                    inMemoryHits.incrementAndGet();
+                    found.put(key, unwrap(entry.value));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the cached value for this key or loads it with the loader and caches it.
+     * The loader is called outside of the cache lock so a slow load does not block other keys.
+     */
+    public <V, E extends Exception> V get(Object key, EnricherCacheLoader<V, E> loader) throws E {
+        return get(key, loader, value -> true);
+    }
+
+    /**
+     * Returns the value of the key, loading it on a miss like {@link #get(Object, EnricherCacheLoader)}.
+     * The loaded value is only cached if it is accepted by the filter.
+     */
+    public <V, E extends Exception> V get(Object key, EnricherCacheLoader<V, E> loader, Predicate<? super V> cacheable) throws E {
+        synchronized (map) {
+            CacheEntry entry = map.get(key);
+            if (entry != null) {
+                if (!isExpired(entry, System.currentTimeMillis())) {
+                    entry.hits++;
+                    inMemoryHits.incrementAndGet();
+                    return (V) unwrap(entry.value);
+                }
+                removeEntry(key);
+                expirationCount.incrementAndGet();
+            }
+            misses.incrementAndGet();
+        }
+
+        V value = load(loader);
+        if (cacheable.test(value)) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public Object remove(Object key) {
+        synchronized (map) {
+            CacheEntry entry = removeEntry(key);
+            return entry != null ? unwrap(entry.value) : null;
+        }
+    }
+
+    public void clear() {
+        synchronized (map) {
+            map.clear();
+            currentWeight = 0;
+        }
+    }
+
+    /**
+     * Removes all the expired entries.
+     *
+     * @return the number of removed entries
+     */
+    public int evictExpired() {
+        if (config.getTimeToLive() <= 0) {
+            return 0;
+        }
+        int removed = 0;
+        long now = System.currentTimeMillis();
+        synchronized (map) {
+            Iterator<CacheEntry> iterator = map.values().iterator();
+            while (iterator.hasNext()) {
+                CacheEntry entry = iterator.next();
+                if (isExpired(entry, now)) {
+                    iterator.remove();
+                    currentWeight -= entry.weight;
+                    removed++;
+                }
+            }
+        }
+        expirationCount.addAndGet(removed);
+        return removed;
+    }
+
+    /**
+     * @return a copy of the entries which are not expired, from the least to the most recently used
+     */
+    public List<EnricherCacheElement> getElements() {
+        long now = System.currentTimeMillis();
+        synchronized (map) {
+            List<EnricherCacheElement> elements = new ArrayList<EnricherCacheElement>(map.size());
+            for (Map.Entry<Object,CacheEntry> entry : map.entrySet()) {
+                if (!isExpired(entry.getValue(), now)) {
+                    elements.add(new EnricherCacheElement(entry.getKey(), unwrap(entry.getValue().value),
+                            entry.getValue().creationTime));
+                }
+            }
+            return elements;
+        }
+    }
+
+    public int getSize() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    public long getWeight() {
+        synchronized (map) {
+            return currentWeight;
+        }
     }
 
     public long getInMemoryHits() {
-        return inMemoryHits;
+        return inMemoryHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.get();
+    }
+
+    /**
+     * @return the total time spent in loaders, in nanoseconds
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getExpirationCount() {
+        return expirationCount.get();
+    }
+
+    public double getHitRatio() {
+        long hits = inMemoryHits.get();
+        long requests = hits + misses.get();
+        return requests == 0 ? 0 : (double) hits / requests;
     }
 
     public void clearStatistics() {
-        inMemoryHits = 0;
+        inMemoryHits.set(0);
+        misses.set(0);
+        loadCount.set(0);
+        loadFailureCount.set(0);
+        totalLoadTime.set(0);
+        evictionCount.set(0);
+        expirationCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "EnricherCache{name=" + name + ", size=" + getSize() + ", hits=" + getInMemoryHits() +
+                ", misses=" + getMisses() + ", evictions=" + getEvictionCount() + "}";
+    }
+
+    private <V, E extends Exception> V load(EnricherCacheLoader<V, E> loader) throws E {
+        long start = System.nanoTime();
+        boolean loaded = false;
+        try {
+            V value = loader.load();
+            loaded = true;
+            return value;
+        } finally {
+            totalLoadTime.addAndGet(System.nanoTime() - start);
+            if (loaded) {
+                loadCount.incrementAndGet();
+            }
+            else {
+                loadFailureCount.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean isExpired(CacheEntry entry, long now) {
+        return config.getTimeToLive() > 0 && now - entry.creationTime > config.getTimeToLive();
+    }
+
+    private CacheEntry removeEntry(Object key) {
+        CacheEntry entry = map.remove(key);
+        if (entry != null) {
+            currentWeight -= entry.weight;
+        }
+        return entry;
+    }
+
+    /**
+     * Must be called while holding the lock. The entry which has just been added is never evicted
+     * unless it is the only one left and it exceeds the bounds alone.
+     */
+    private void evictIfNecessary(Object justAdded) {
+        while (isOverBounds() && !map.isEmpty()) {
+            Object victim = selectVictim(justAdded);
+            if (victim == null) {
+                break;
+            }
+            removeEntry(victim);
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    private boolean isOverBounds() {
+        return (config.getMaxEntries() > 0 && map.size() > config.getMaxEntries())
+                || (config.getMaxWeight() > 0 && currentWeight > config.getMaxWeight());
+    }
+
+    private Object selectVictim(Object justAdded) {
+        long now = System.currentTimeMillis();
+        Object victim = null;
+        long victimHits = Long.MAX_VALUE;
+        int inspected = 0;
+
+        for (Map.Entry<Object,CacheEntry> entry : map.entrySet()) {
+            Object key = entry.getKey();
+            if (map.size() > 1 && (key == justAdded || (key != null && key.equals(justAdded)))) {
+                continue;
+            }
+            // expired entries and, for LRU, the eldest entry are evicted first
+            if (isExpired(entry.getValue(), now) || config.getEvictionPolicy() == EvictionPolicy.LRU) {
+                return key;
+            }
+            if (entry.getValue().hits < victimHits) {
+                victim = key;
+                victimHits = entry.getValue().hits;
+            }
+            if (++inspected >= LFU_SAMPLE_SIZE) {
+                break;
+            }
+        }
+        return victim;
+    }
+
+    private static Object unwrap(Object value) {
+        return value == NULL_VALUE ? null : value;
+    }
+
+    private static class CacheEntry {
+        private final Object value;
+        private final long weight;
+        private final long creationTime;
+        private long hits;
+
+        private CacheEntry(Object value, long weight, long creationTime) {
+            this.value = value;
+            this.weight = weight;
+            this.creationTime = creationTime;
+        }
     }
 }
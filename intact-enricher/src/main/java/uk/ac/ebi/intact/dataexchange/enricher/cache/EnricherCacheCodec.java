@@ -0,0 +1,485 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+import psidev.psi.mi.jami.model.*;
+import psidev.psi.mi.jami.model.impl.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Object streams used to write the cached JAMI objects to the enricher cache snapshot and to read them back.
+ *
+ * The JAMI model classes are not serializable, so the CV terms, sources, organisms, proteins, genes, nucleic acids,
+ * bioactive entities and publications, and their xrefs, aliases, annotations and checksums, are written as
+ * serializable copies of their properties. They are read back as the Default* classes of JAMI. An object referenced
+ * several times in an entry (for instance a CV term used by several xrefs) is read back as one object, including a
+ * CV term referenced by its own xrefs, such as the identity xref of psi-mi.
+ *
+ * Other objects are written with the default serialization.
+ *
+ * @version $Id$
+ */
+public final class EnricherCacheCodec {
+
+    private EnricherCacheCodec() {
+    }
+
+    public static ObjectOutputStream createOutputStream(OutputStream out) throws IOException {
+        return new CodecOutputStream(out);
+    }
+
+    public static ObjectInputStream createInputStream(InputStream in) throws IOException {
+        return new CodecInputStream(in);
+    }
+
+    private static class CodecOutputStream extends ObjectOutputStream {
+
+        private final Encoder encoder = new Encoder();
+
+        private CodecOutputStream(OutputStream out) throws IOException {
+            super(out);
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            return encoder.encode(obj);
+        }
+    }
+
+    private static class CodecInputStream extends ObjectInputStream {
+
+        private CodecInputStream(InputStream in) throws IOException {
+            super(in);
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            // a copy referenced several times is only resolved once, the stream returns the same object afterwards
+            return obj instanceof ObjectData ? ((ObjectData) obj).create() : obj;
+        }
+    }
+
+    /**
+     * Copies the JAMI objects with all the objects they reference, so that the stream only sees serializable
+     * copies. An object referenced several times is copied once.
+     *
+     * The copy of a CV term is registered before its xrefs are copied, so that a CV term referenced while it is
+     * being copied, for instance by one of its own xrefs, is written as a reference to the same copy. The other
+     * objects referenced while they are being copied are copied again: their cycles always go through a CV term,
+     * which stops the copy.
+     */
+    private static class Encoder {
+
+        private final Map<Object, Object> encoded = new IdentityHashMap<Object, Object>();
+        private final Map<Object, Object> inProgress = new IdentityHashMap<Object, Object>();
+
+        /**
+         * @return the serializable copy of a JAMI object, or the object itself if it does not need one
+         */
+        Object encode(Object object) {
+            if (object == null || object instanceof Serializable || !isSupported(object)) {
+                return object;
+            }
+            Object data = encoded.get(object);
+            if (data != null) {
+                return data;
+            }
+            if (object instanceof CvTerm) {
+                CvTermData termData = new CvTermData();
+                encoded.put(object, termData);
+                termData.copy((CvTerm) object, this);
+                return termData;
+            }
+            if (inProgress.containsKey(object)) {
+                return createData(object);
+            }
+
+            inProgress.put(object, object);
+            try {
+                data = createData(object);
+            } finally {
+                inProgress.remove(object);
+            }
+            encoded.put(object, data);
+            return data;
+        }
+
+        private List<Object> encodeAll(Collection<?> objects) {
+            List<Object> data = new ArrayList<Object>(objects.size());
+            for (Object object : objects) {
+                data.add(encode(object));
+            }
+            return data;
+        }
+
+        private static boolean isSupported(Object object) {
+            return object instanceof CvTerm || object instanceof Organism || object instanceof Publication
+                    || (object instanceof Interactor && InteractorData.kindOf((Interactor) object) != null)
+                    || object instanceof Xref || object instanceof Alias || object instanceof Annotation
+                    || object instanceof Checksum;
+        }
+
+        private Object createData(Object object) {
+            if (object instanceof Organism) {
+                return new OrganismData((Organism) object, this);
+            }
+            else if (object instanceof Interactor) {
+                return new InteractorData((Interactor) object, this);
+            }
+            else if (object instanceof Publication) {
+                return new PublicationData((Publication) object, this);
+            }
+            else if (object instanceof Xref) {
+                return new XrefData((Xref) object, this);
+            }
+            else if (object instanceof Alias) {
+                return new AliasData((Alias) object, this);
+            }
+            else if (object instanceof Annotation) {
+                return new AnnotationData((Annotation) object, this);
+            }
+            return new ChecksumData((Checksum) object, this);
+        }
+    }
+
+    private static <T> void addAll(Collection<T> target, List<Object> objects, Class<T> type) {
+        for (Object object : objects) {
+            target.add(type.cast(resolve(object)));
+        }
+    }
+
+    /**
+     * @return the object read back from a property, a CV term still being read being only referenced by its copy
+     */
+    private static Object resolve(Object object) {
+        return object instanceof CvTermData ? ((CvTermData) object).term : object;
+    }
+
+    private interface ObjectData extends Serializable {
+
+        /**
+         * @return the object of the copy, from the properties which have already been read back as objects
+         */
+        Object create();
+    }
+
+    /**
+     * Writes the short name first, so that the CV term is created before its xrefs are read, and the xrefs
+     * referencing the term while it is being read find it.
+     */
+    private static class CvTermData implements ObjectData {
+        private static final long serialVersionUID = 2L;
+
+        private boolean source;
+        private String shortName;
+        private String fullName;
+        private List<Object> identifiers;
+        private List<Object> xrefs;
+        private List<Object> synonyms;
+        private List<Object> annotations;
+        private String url;
+        private String postalAddress;
+        private Object publication;
+
+        private transient CvTerm term;
+
+        private void copy(CvTerm term, Encoder encoder) {
+            this.source = term instanceof Source;
+            this.shortName = term.getShortName();
+            this.fullName = term.getFullName();
+            this.identifiers = encoder.encodeAll(term.getIdentifiers());
+            this.xrefs = encoder.encodeAll(term.getXrefs());
+            this.synonyms = encoder.encodeAll(term.getSynonyms());
+            this.annotations = encoder.encodeAll(term.getAnnotations());
+            this.url = source ? ((Source) term).getUrl() : null;
+            this.postalAddress = source ? ((Source) term).getPostalAddress() : null;
+            this.publication = source ? encoder.encode(((Source) term).getPublication()) : null;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.writeBoolean(source);
+            out.writeObject(shortName);
+            out.writeObject(fullName);
+            out.writeObject(identifiers);
+            out.writeObject(xrefs);
+            out.writeObject(synonyms);
+            out.writeObject(annotations);
+            out.writeObject(url);
+            out.writeObject(postalAddress);
+            out.writeObject(publication);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            source = in.readBoolean();
+            shortName = (String) in.readObject();
+            term = source ? new DefaultSource(shortName) : new DefaultCvTerm(shortName);
+            fullName = (String) in.readObject();
+            identifiers = (List<Object>) in.readObject();
+            xrefs = (List<Object>) in.readObject();
+            synonyms = (List<Object>) in.readObject();
+            annotations = (List<Object>) in.readObject();
+            url = (String) in.readObject();
+            postalAddress = (String) in.readObject();
+            publication = in.readObject();
+        }
+
+        public Object create() {
+            term.setFullName(fullName);
+            addAll(term.getIdentifiers(), identifiers, Xref.class);
+            addAll(term.getXrefs(), xrefs, Xref.class);
+            addAll(term.getSynonyms(), synonyms, Alias.class);
+            addAll(term.getAnnotations(), annotations, Annotation.class);
+            if (source) {
+                ((Source) term).setUrl(url);
+                ((Source) term).setPostalAddress(postalAddress);
+                ((Source) term).setPublication((Publication) publication);
+            }
+            return term;
+        }
+    }
+
+    private static class OrganismData implements ObjectData {
+        private static final long serialVersionUID = 1L;
+
+        private final int taxId;
+        private final String commonName;
+        private final String scientificName;
+        private final List<Object> aliases;
+        private final Object cellType;
+        private final Object tissue;
+        private final Object compartment;
+
+        private OrganismData(Organism organism, Encoder encoder) {
+            this.taxId = organism.getTaxId();
+            this.commonName = organism.getCommonName();
+            this.scientificName = organism.getScientificName();
+            this.aliases = encoder.encodeAll(organism.getAliases());
+            this.cellType = encoder.encode(organism.getCellType());
+            this.tissue = encoder.encode(organism.getTissue());
+            this.compartment = encoder.encode(organism.getCompartment());
+        }
+
+        public Object create() {
+            Organism organism = new DefaultOrganism(taxId);
+            organism.setCommonName(commonName);
+            organism.setScientificName(scientificName);
+            addAll(organism.getAliases(), aliases, Alias.class);
+            organism.setCellType((CvTerm) resolve(cellType));
+            organism.setTissue((CvTerm) resolve(tissue));
+            organism.setCompartment((CvTerm) resolve(compartment));
+            return organism;
+        }
+    }
+
+    private static class InteractorData implements ObjectData {
+        private static final long serialVersionUID = 1L;
+
+        private enum Kind { PROTEIN, NUCLEIC_ACID, GENE, BIOACTIVE_ENTITY }
+
+        private final Kind kind;
+        private final String shortName;
+        private final String fullName;
+        private final Object interactorType;
+        private final Object organism;
+        private final List<Object> identifiers;
+        private final List<Object> xrefs;
+        private final List<Object> aliases;
+        private final List<Object> annotations;
+        private final List<Object> checksums;
+        private final String sequence;
+
+        private InteractorData(Interactor interactor, Encoder encoder) {
+            this.kind = kindOf(interactor);
+            this.shortName = interactor.getShortName();
+            this.fullName = interactor.getFullName();
+            this.interactorType = encoder.encode(interactor.getInteractorType());
+            this.organism = encoder.encode(interactor.getOrganism());
+            this.identifiers = encoder.encodeAll(interactor.getIdentifiers());
+            this.xrefs = encoder.encodeAll(interactor.getXrefs());
+            this.aliases = encoder.encodeAll(interactor.getAliases());
+            this.annotations = encoder.encodeAll(interactor.getAnnotations());
+            this.checksums = encoder.encodeAll(interactor.getChecksums());
+            this.sequence = interactor instanceof Polymer ? ((Polymer) interactor).getSequence() : null;
+        }
+
+        private static Kind kindOf(Interactor interactor) {
+            if (interactor instanceof Protein) {
+                return Kind.PROTEIN;
+            }
+            else if (interactor instanceof NucleicAcid) {
+                return Kind.NUCLEIC_ACID;
+            }
+            else if (interactor instanceof Gene) {
+                return Kind.GENE;
+            }
+            else if (interactor instanceof BioactiveEntity) {
+                return Kind.BIOACTIVE_ENTITY;
+            }
+            return null;
+        }
+
+        public Object create() {
+            Interactor interactor;
+            switch (kind) {
+                case PROTEIN:
+                    interactor = new DefaultProtein(shortName);
+                    break;
+                case NUCLEIC_ACID:
+                    interactor = new DefaultNucleicAcid(shortName);
+                    break;
+                case GENE:
+                    interactor = new DefaultGene(shortName);
+                    break;
+                default:
+                    interactor = new DefaultBioactiveEntity(shortName);
+                    break;
+            }
+            interactor.setFullName(fullName);
+            interactor.setInteractorType((CvTerm) resolve(interactorType));
+            interactor.setOrganism((Organism) organism);
+            addAll(interactor.getIdentifiers(), identifiers, Xref.class);
+            addAll(interactor.getXrefs(), xrefs, Xref.class);
+            addAll(interactor.getAliases(), aliases, Alias.class);
+            addAll(interactor.getAnnotations(), annotations, Annotation.class);
+            addAll(interactor.getChecksums(), checksums, Checksum.class);
+            if (interactor instanceof Polymer) {
+                ((Polymer) interactor).setSequence(sequence);
+            }
+            return interactor;
+        }
+    }
+
+    private static class PublicationData implements ObjectData {
+        private static final long serialVersionUID = 1L;
+
+        private final String title;
+        private final String journal;
+        private final Date publicationDate;
+        private final List<String> authors;
+        private final List<Object> identifiers;
+        private final List<Object> xrefs;
+        private final List<Object> annotations;
+        private final CurationDepth curationDepth;
+        private final Date releasedDate;
+        private final Object source;
+
+        private PublicationData(Publication publication, Encoder encoder) {
+            this.title = publication.getTitle();
+            this.journal = publication.getJournal();
+            this.publicationDate = publication.getPublicationDate();
+            this.authors = new ArrayList<String>(publication.getAuthors());
+            this.identifiers = encoder.encodeAll(publication.getIdentifiers());
+            this.xrefs = encoder.encodeAll(publication.getXrefs());
+            this.annotations = encoder.encodeAll(publication.getAnnotations());
+            this.curationDepth = publication.getCurationDepth();
+            this.releasedDate = publication.getReleasedDate();
+            this.source = encoder.encode(publication.getSource());
+        }
+
+        public Object create() {
+            Publication publication = new DefaultPublication();
+            publication.setTitle(title);
+            publication.setJournal(journal);
+            publication.setPublicationDate(publicationDate);
+            publication.getAuthors().addAll(authors);
+            addAll(publication.getIdentifiers(), identifiers, Xref.class);
+            addAll(publication.getXrefs(), xrefs, Xref.class);
+            addAll(publication.getAnnotations(), annotations, Annotation.class);
+            publication.setCurationDepth(curationDepth);
+            publication.setReleasedDate(releasedDate);
+            publication.setSource((Source) resolve(source));
+            return publication;
+        }
+    }
+
+    private static class XrefData implements ObjectData {
+        private static final long serialVersionUID = 1L;
+
+        private final Object database;
+        private final String id;
+        private final String version;
+        private final Object qualifier;
+
+        private XrefData(Xref xref, Encoder encoder) {
+            this.database = encoder.encode(xref.getDatabase());
+            this.id = xref.getId();
+            this.version = xref.getVersion();
+            this.qualifier = encoder.encode(xref.getQualifier());
+        }
+
+        public Object create() {
+            return new DefaultXref((CvTerm) resolve(database), id, version, (CvTerm) resolve(qualifier));
+        }
+    }
+
+    private static class AliasData implements ObjectData {
+        private static final long serialVersionUID = 1L;
+
+        private final Object type;
+        private final String name;
+
+        private AliasData(Alias alias, Encoder encoder) {
+            this.type = encoder.encode(alias.getType());
+            this.name = alias.getName();
+        }
+
+        public Object create() {
+            return new DefaultAlias((CvTerm) resolve(type), name);
+        }
+    }
+
+    private static class AnnotationData implements ObjectData {
+        private static final long serialVersionUID = 1L;
+
+        private final Object topic;
+        private final String value;
+
+        private AnnotationData(Annotation annotation, Encoder encoder) {
+            this.topic = encoder.encode(annotation.getTopic());
+            this.value = annotation.getValue();
+        }
+
+        public Object create() {
+            return new DefaultAnnotation((CvTerm) resolve(topic), value);
+        }
+    }
+
+    private static class ChecksumData implements ObjectData {
+        private static final long serialVersionUID = 1L;
+
+        private final Object method;
+        private final String value;
+
+        private ChecksumData(Checksum checksum, Encoder encoder) {
+            this.method = encoder.encode(checksum.getMethod());
+            this.value = checksum.getValue();
+        }
+
+        public Object create() {
+            return new DefaultChecksum((CvTerm) resolve(method), value);
+        }
+    }
+}
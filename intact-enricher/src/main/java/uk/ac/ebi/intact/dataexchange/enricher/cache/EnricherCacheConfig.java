@@ -0,0 +1,131 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+/**
+ * Bounds and expiry settings of an {@link EnricherCache}.
+ *
+ * A value lower or equal to 0 for maxEntries, maxWeight or timeToLive disables the corresponding limit.
+ *
+ * @version $Id$
+ */
+public class EnricherCacheConfig {
+
+    private int maxEntries = 10000;
+    private long maxWeight = 0;
+    private long timeToLive = 0;
+    private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+    private EnricherCacheWeigher weigher = EnricherCacheWeigher.UNIT;
+    private boolean persistent = true;
+    private String snapshotVersion = "1";
+    private long maxSnapshotAge = 0;
+
+    public EnricherCacheConfig() {
+    }
+
+    public EnricherCacheConfig(int maxEntries, long timeToLive, EvictionPolicy evictionPolicy) {
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public void setMaxWeight(long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @return the time to live of an entry in milliseconds
+     */
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    public EvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy != null ? evictionPolicy : EvictionPolicy.LRU;
+    }
+
+    public EnricherCacheWeigher getWeigher() {
+        return weigher;
+    }
+
+    public void setWeigher(EnricherCacheWeigher weigher) {
+        this.weigher = weigher != null ? weigher : EnricherCacheWeigher.UNIT;
+    }
+
+    /**
+     * @return true if the cache is saved to and restored from the snapshot store
+     */
+    public boolean isPersistent() {
+        return persistent;
+    }
+
+    public void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+    }
+
+    /**
+     * Entries saved with another snapshot version are ignored when restoring the cache. Change the version
+     * when the cached objects change (new fetcher, new data source) to discard old snapshots.
+     */
+    public String getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    public void setSnapshotVersion(String snapshotVersion) {
+        this.snapshotVersion = snapshotVersion;
+    }
+
+    /**
+     * @return the maximum age in milliseconds of an entry restored from a snapshot
+     */
+    public long getMaxSnapshotAge() {
+        return maxSnapshotAge;
+    }
+
+    public void setMaxSnapshotAge(long maxSnapshotAge) {
+        this.maxSnapshotAge = maxSnapshotAge;
+    }
+
+    public EnricherCacheConfig copy() {
+        EnricherCacheConfig copy = new EnricherCacheConfig(maxEntries, timeToLive, evictionPolicy);
+        copy.setMaxWeight(maxWeight);
+        copy.setWeigher(weigher);
+        copy.setPersistent(persistent);
+        copy.setSnapshotVersion(snapshotVersion);
+        copy.setMaxSnapshotAge(maxSnapshotAge);
+        return copy;
+    }
+}
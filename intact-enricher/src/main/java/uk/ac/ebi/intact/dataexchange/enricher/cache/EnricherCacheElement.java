@@ -0,0 +1,46 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+/**
+ * A key/value pair of an {@link EnricherCache} with its creation time.
+ *
+ * @version $Id$
+ */
+public class EnricherCacheElement {
+
+    private final Object key;
+    private final Object value;
+    private final long creationTime;
+
+    public EnricherCacheElement(Object key, Object value, long creationTime) {
+        this.key = key;
+        this.value = value;
+        this.creationTime = creationTime;
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+/**
+ * Loads the value of a missing cache entry, typically from a remote service.
+ *
+ * @param <V> the type of the loaded value
+ * @param <E> the exception thrown when the value cannot be loaded
+ * @version $Id$
+ */
+public interface EnricherCacheLoader<V, E extends Exception> {
+
+    V load() throws E;
+}
@@ -15,32 +15,137 @@
  */
 package uk.ac.ebi.intact.dataexchange.enricher.cache;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Creates and keeps the named enricher caches.
+ *
+ * Each cache uses the config registered for its name or the default config.
+ *
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
 public class EnricherCacheManager {
 
-    private Map<String,EnricherCache> caches;
+    /**
+     * Name of the cache holding the identifiers which could not be resolved
+     */
+    public static final String NEGATIVE_RESULT_CACHE = "NegativeResult";
+
+    /**
+     * Name of the cache holding the fingerprints of the objects not changed by enrichment
+     */
+    public static final String ENRICHMENT_FINGERPRINT_CACHE = "EnrichmentFingerprint";
+
+    private final Map<String,EnricherCache> caches;
+    private Map<String,EnricherCacheConfig> cacheConfigs;
+    private EnricherCacheConfig defaultConfig;
+    private EnricherCacheConfig negativeResultConfig;
+    private EnricherCacheConfig fingerprintConfig;
+    private volatile NegativeResultCache negativeResultCache;
 
     public EnricherCacheManager() {
-        caches = new HashMap<String,EnricherCache>(8);
+        caches = new ConcurrentHashMap<String,EnricherCache>(16);
+        cacheConfigs = new ConcurrentHashMap<String,EnricherCacheConfig>(16);
+        defaultConfig = new EnricherCacheConfig();
+        // unresolved identifiers are retried after a day, as the remote services may have been updated meanwhile
+        negativeResultConfig = new EnricherCacheConfig(100000, 24L * 60 * 60 * 1000, EvictionPolicy.LRU);
+        // the remote services are updated over time, so an unchanged object is enriched again after a week
+        fingerprintConfig = new EnricherCacheConfig(100000, 7L * 24 * 60 * 60 * 1000, EvictionPolicy.LRU);
     }
 
     public EnricherCache getCache(String name) {
-        EnricherCache cache;
+        EnricherCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        return caches.computeIfAbsent(name, n -> new EnricherCache(n, getCacheConfig(n)));
+    }
+
+    public EnricherCacheConfig getCacheConfig(String name) {
+        EnricherCacheConfig config = cacheConfigs.get(name);
+        if (config == null && NEGATIVE_RESULT_CACHE.equals(name)) {
+            return negativeResultConfig;
+        }
+        else if (config == null && ENRICHMENT_FINGERPRINT_CACHE.equals(name)) {
+            return fingerprintConfig;
+        }
+        return config != null ? config : defaultConfig;
+    }
 
-        if (caches.containsKey(name)) {
-            return caches.get(name);
-        } else {
-            cache = new EnricherCache();
-            caches.put(name, cache);
+    /**
+     * @return the cache of the identifiers which could not be resolved, shared by all the fetchers
+     */
+    public NegativeResultCache getNegativeResultCache() {
+        NegativeResultCache negativeCache = negativeResultCache;
+        if (negativeCache == null) {
+            synchronized (this) {
+                if (negativeResultCache == null) {
+                    negativeResultCache = new NegativeResultCache(getCache(NEGATIVE_RESULT_CACHE));
+                }
+                negativeCache = negativeResultCache;
+            }
         }
+        return negativeCache;
+    }
+
+    public EnricherCacheConfig getNegativeResultConfig() {
+        return negativeResultConfig;
+    }
+
+    /**
+     * Sets the size limit and time to live of the negative result cache, unless a config is registered for its name.
+     * Only taken into account if the cache has not been created yet.
+     */
+    public void setNegativeResultConfig(EnricherCacheConfig negativeResultConfig) {
+        this.negativeResultConfig = negativeResultConfig != null ? negativeResultConfig : new EnricherCacheConfig();
+    }
+
+    public EnricherCacheConfig getFingerprintConfig() {
+        return fingerprintConfig;
+    }
+
+    /**
+     * Sets the size limit and time to live of the enrichment fingerprint cache, unless a config is registered for
+     * its name. Only taken into account if the cache has not been created yet.
+     */
+    public void setFingerprintConfig(EnricherCacheConfig fingerprintConfig) {
+        this.fingerprintConfig = fingerprintConfig != null ? fingerprintConfig : new EnricherCacheConfig();
+    }
+
+    /**
+     * Sets the config of the caches by name. Only caches created afterwards are affected.
+     */
+    public void setCacheConfigs(Map<String,EnricherCacheConfig> cacheConfigs) {
+        this.cacheConfigs = new ConcurrentHashMap<String,EnricherCacheConfig>(cacheConfigs);
+    }
+
+    public EnricherCacheConfig getDefaultConfig() {
+        return defaultConfig;
+    }
+
+    public void setDefaultConfig(EnricherCacheConfig defaultConfig) {
+        this.defaultConfig = defaultConfig != null ? defaultConfig : new EnricherCacheConfig();
+    }
+
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(new TreeSet<String>(caches.keySet()));
+    }
+
+    public Collection<EnricherCache> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
 
-        return cache;
+    public void clearAll() {
+        for (EnricherCache cache : caches.values()) {
+            cache.clear();
+        }
     }
 
+    public void clearAllStatistics() {
+        for (EnricherCache cache : caches.values()) {
+            cache.clearStatistics();
+        }
+    }
 }
@@ -0,0 +1,236 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+
+/**
+ * Local file store used to save the enricher caches at shutdown and to restore them at startup.
+ *
+ * The file starts with a header (magic number and format version) followed by independent records
+ * (cache name, snapshot version, creation time and the serialized key and value). Records can be appended
+ * to an existing file and, when a key appears several times, the last record wins. A truncated last
+ * record (for instance after a crash while appending) is ignored, and so is a record which cannot be read back,
+ * for instance a record written by an older version of the codec.
+ *
+ * The keys and values are written with the {@link EnricherCacheCodec}, which also stores the JAMI objects cached
+ * by the fetchers. Entries which still cannot be serialized are skipped.
+ *
+ * @version $Id$
+ */
+public class EnricherCacheStore {
+
+    private static final Log log = LogFactory.getLog(EnricherCacheStore.class);
+
+    private static final int MAGIC = 0x49434348;
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+
+    public EnricherCacheStore(File file) {
+        if (file == null) {
+            throw new IllegalArgumentException("The cache store file cannot be null");
+        }
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Restores the persistent caches of the manager from the store file.
+     *
+     * @return the number of restored entries
+     */
+    public int load(EnricherCacheManager cacheManager) throws IOException {
+        if (!file.exists()) {
+            if (log.isDebugEnabled()) log.debug("No enricher cache snapshot found in " + file);
+            return 0;
+        }
+
+        int restored = 0;
+        int skipped = 0;
+        long now = System.currentTimeMillis();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (!readHeader(in)) {
+                return 0;
+            }
+
+            while (true) {
+                String cacheName;
+                String version;
+                long creationTime;
+                byte[] payload;
+                try {
+                    cacheName = in.readUTF();
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    version = in.readUTF();
+                    creationTime = in.readLong();
+                    int length = in.readInt();
+                    if (length < 0 || length > file.length()) {
+                        log.warn("The enricher cache snapshot " + file + " has a corrupted record, the end of the file is ignored");
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    log.warn("The enricher cache snapshot " + file + " ends with a truncated record which is ignored");
+                    break;
+                }
+
+                EnricherCacheConfig config = cacheManager.getCacheConfig(cacheName);
+                if (!config.isPersistent()
+                        || !version.equals(config.getSnapshotVersion())
+                        || (config.getMaxSnapshotAge() > 0 && now - creationTime > config.getMaxSnapshotAge())) {
+                    skipped++;
+                    continue;
+                }
+
+                try (ObjectInputStream objectIn = EnricherCacheCodec.createInputStream(new ByteArrayInputStream(payload))) {
+                    Object key = objectIn.readObject();
+                    Object value = objectIn.readObject();
+                    cacheManager.getCache(cacheName).put(key, value, creationTime);
+                    restored++;
+                } catch (ClassNotFoundException | IOException | RuntimeException e) {
+                    // a corrupted or stale record, which the codec or the JAMI constructors reject
+                    if (log.isDebugEnabled()) log.debug("Cannot restore entry of cache " + cacheName, e);
+                    skipped++;
+                }
+            }
+        }
+
+        log.info("Restored " + restored + " enricher cache entries from " + file + " (" + skipped + " stale or incompatible entries skipped)");
+        return restored;
+    }
+
+    /**
+     * Writes all the persistent caches of the manager in a new store file which replaces the existing one.
+     *
+     * @return the number of saved entries
+     */
+    public int save(EnricherCacheManager cacheManager) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+
+        File tempFile = new File(file.getAbsolutePath() + ".tmp");
+        int saved = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+            writeHeader(out);
+            for (EnricherCache cache : cacheManager.getCaches()) {
+                if (cache.getConfig().isPersistent()) {
+                    saved += writeRecords(out, cache.getName(), cache.getConfig(), cache.getElements());
+                }
+            }
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        log.info("Saved " + saved + " enricher cache entries to " + file);
+        return saved;
+    }
+
+    /**
+     * Appends the elements of one cache at the end of the store file, creating it if necessary.
+     *
+     * @return the number of appended entries
+     */
+    public int append(String cacheName, EnricherCacheConfig config, Collection<EnricherCacheElement> elements) throws IOException {
+        boolean newFile = !file.exists() || file.length() == 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            if (newFile) {
+                writeHeader(out);
+            }
+            return writeRecords(out, cacheName, config, elements);
+        }
+    }
+
+    private boolean readHeader(DataInputStream in) throws IOException {
+        try {
+            if (in.readInt() != MAGIC) {
+                log.warn(file + " is not an enricher cache snapshot and is ignored");
+                return false;
+            }
+            int formatVersion = in.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                log.warn("The enricher cache snapshot " + file + " has the unsupported format version " + formatVersion + " and is ignored");
+                return false;
+            }
+        } catch (EOFException e) {
+            log.warn("The enricher cache snapshot " + file + " is empty or truncated and is ignored");
+            return false;
+        }
+        return true;
+    }
+
+    private void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+    }
+
+    private int writeRecords(DataOutputStream out, String cacheName, EnricherCacheConfig config,
+                             Collection<EnricherCacheElement> elements) throws IOException {
+        int written = 0;
+        int notSerializable = 0;
+        String notSerializableClass = null;
+
+        for (EnricherCacheElement element : elements) {
+            byte[] payload;
+            try {
+                payload = serialize(element);
+            } catch (NotSerializableException e) {
+                notSerializable++;
+                notSerializableClass = e.getMessage();
+                continue;
+            }
+            out.writeUTF(cacheName);
+            out.writeUTF(config.getSnapshotVersion());
+            out.writeLong(element.getCreationTime());
+            out.writeInt(payload.length);
+            out.write(payload);
+            written++;
+        }
+
+        if (notSerializable > 0) {
+            log.warn(notSerializable + " entries of cache " + cacheName + " are not serializable and were not saved (" +
+                    notSerializableClass + ")");
+        }
+        return written;
+    }
+
+    private byte[] serialize(EnricherCacheElement element) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream objectOut = EnricherCacheCodec.createOutputStream(bytes)) {
+            objectOut.writeObject(element.getKey());
+            objectOut.writeObject(element.getValue());
+        }
+        return bytes.toByteArray();
+    }
+}
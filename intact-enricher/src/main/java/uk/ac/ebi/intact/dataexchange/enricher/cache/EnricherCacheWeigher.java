@@ -0,0 +1,49 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+import java.util.Collection;
+
+/**
+ * Estimates the weight of a cache entry, used when a cache is bounded by weight.
+ *
+ * @version $Id$
+ */
+public interface EnricherCacheWeigher {
+
+    /**
+     * Every entry weighs 1.
+     */
+    EnricherCacheWeigher UNIT = new EnricherCacheWeigher() {
+        public long weigh(Object key, Object value) {
+            return 1;
+        }
+    };
+
+    /**
+     * Collections weigh their number of elements (at least 1), other values weigh 1.
+     */
+    EnricherCacheWeigher COLLECTION_SIZE = new EnricherCacheWeigher() {
+        public long weigh(Object key, Object value) {
+            if (value instanceof Collection) {
+                return Math.max(1, ((Collection) value).size());
+            }
+            return 1;
+        }
+    };
+
+    long weigh(Object key, Object value);
+}
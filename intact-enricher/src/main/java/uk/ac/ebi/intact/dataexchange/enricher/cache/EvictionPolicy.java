@@ -0,0 +1,34 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+/**
+ * Policy used by an {@link EnricherCache} to choose the entry to drop when it is full.
+ *
+ * @version $Id$
+ */
+public enum EvictionPolicy {
+
+    /**
+     * Drops the least recently accessed entry.
+     */
+    LRU,
+
+    /**
+     * Drops the least frequently accessed entry among the least recently accessed ones.
+     */
+    LFU
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Remembers the identifiers which could not be resolved to a single object, so they are not looked up remotely again.
+ *
+ * Outcomes are kept per database and identifier in their own {@link EnricherCache}, with its own size limit and
+ * time to live, so the caches of the fetchers only contain resolved objects. The database is given by the name of
+ * the fetcher cache, as each fetcher cache holds the objects of one database or service.
+ *
+ * @version $Id$
+ */
+public class NegativeResultCache {
+
+    public enum Outcome {
+        /** The lookup did not return anything */
+        NOT_FOUND,
+        /** The lookup returned several candidates */
+        AMBIGUOUS
+    }
+
+    private final EnricherCache cache;
+
+    public NegativeResultCache(EnricherCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the objects of the identifier. The recorded candidates are returned without calling the loader if the
+     * identifier is known to be not found or ambiguous, otherwise the lookup goes through the cache of the fetcher
+     * and its outcome is recorded here when it does not resolve to exactly one object.
+     */
+    public <T, E extends Exception> Collection<T> get(EnricherCache objectCache, Object identifier,
+                                                      EnricherCacheLoader<Collection<T>, E> loader) throws E {
+        String database = objectCache.getName();
+        Collection<T> candidates = getCandidates(database, identifier);
+        if (candidates != null) {
+            return candidates;
+        }
+
+        Collection<T> objects = objectCache.get(identifier, loader, NegativeResultCache::isResolved);
+        if (!isResolved(objects)) {
+            record(database, identifier, objects);
+        }
+        return objects;
+    }
+
+    /**
+     * Stores the objects returned for an identifier: in the object cache if the identifier is resolved, as a
+     * negative result otherwise.
+     */
+    public void store(EnricherCache objectCache, Object identifier, Collection<?> objects) {
+        if (isResolved(objects)) {
+            objectCache.put(identifier, objects);
+        }
+        else {
+            record(objectCache.getName(), identifier, objects);
+        }
+    }
+
+    /**
+     * @return the candidates recorded for the identifier, empty if it was not found and null if no outcome is recorded
+     */
+    public <T> Collection<T> getCandidates(String database, Object identifier) {
+        NegativeResult result = (NegativeResult) cache.get(createKey(database, identifier));
+        return result != null ? (Collection<T>) result.candidates : null;
+    }
+
+    /**
+     * @return the recorded outcome of the identifier, null if none is recorded
+     */
+    public Outcome getOutcome(String database, Object identifier) {
+        NegativeResult result = (NegativeResult) cache.peek(createKey(database, identifier), null);
+        return result != null ? result.outcome : null;
+    }
+
+    /**
+     * Records the objects returned for an identifier which did not resolve to exactly one object.
+     */
+    public void record(String database, Object identifier, Collection<?> objects) {
+        if (isResolved(objects)) {
+            throw new IllegalArgumentException("The identifier " + identifier + " is resolved and cannot be recorded as a negative result");
+        }
+        cache.put(createKey(database, identifier), new NegativeResult(objects));
+    }
+
+    public void remove(String database, Object identifier) {
+        cache.remove(createKey(database, identifier));
+    }
+
+    public EnricherCache getCache() {
+        return cache;
+    }
+
+    private static Object createKey(String database, Object identifier) {
+        return database + ":" + identifier;
+    }
+
+    private static boolean isResolved(Collection<?> objects) {
+        return objects != null && objects.size() == 1;
+    }
+
+    private static class NegativeResult implements Serializable {
+
+        private final Outcome outcome;
+        private final Collection<?> candidates;
+
+        private NegativeResult(Collection<?> objects) {
+            if (objects == null || objects.isEmpty()) {
+                this.outcome = Outcome.NOT_FOUND;
+                this.candidates = Collections.emptyList();
+            }
+            else {
+                this.outcome = Outcome.AMBIGUOUS;
+                this.candidates = Collections.unmodifiableList(new ArrayList<Object>(objects));
+            }
+        }
+    }
+}
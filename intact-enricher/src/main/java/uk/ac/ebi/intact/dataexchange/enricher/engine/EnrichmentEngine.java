@@ -0,0 +1,186 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.engine;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import psidev.psi.mi.jami.bridges.fetcher.CvTermFetcher;
+import psidev.psi.mi.jami.enricher.MIEnricher;
+import psidev.psi.mi.jami.enricher.exception.EnricherException;
+import psidev.psi.mi.jami.model.CvTerm;
+import psidev.psi.mi.jami.model.Interaction;
+import psidev.psi.mi.jami.model.Xref;
+import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
+import uk.ac.ebi.intact.dataexchange.enricher.fetch.BioSourceFetcher;
+import uk.ac.ebi.intact.dataexchange.enricher.fetch.ProteinFetcher;
+import uk.ac.ebi.intact.dataexchange.enricher.fetch.PublicationFetcher;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enrichment engine which overlaps the remote lookups of the enrichers.
+ *
+ * The proteins, organisms, CV terms and publications referenced by a set of interactions are first fetched
+ * concurrently, in batches, on a bounded pool of workers, which fills the enricher caches. The interactions are then
+ * enriched one after the other in their original order: all the lookups are answered from the caches so the result
+ * is the same as a sequential enrichment, and the enrichers, which share mutable CV terms and organisms between
+ * interactions, are never called from several threads.
+ *
+ * The number of workers and the batch size are taken from the EnricherConfig. The prefetch is disabled by default,
+ * with one worker, and is enabled by setting more workers.
+ *
+ * @version $Id$
+ */
+@Component(value = "intactEnrichmentEngine")
+@Lazy
+public class EnrichmentEngine implements DisposableBean {
+
+    private static final Log log = LogFactory.getLog(EnrichmentEngine.class);
+
+    @Autowired
+    private EnricherContext enricherContext;
+
+    @Autowired
+    @Qualifier("intactProteinFetcher")
+    private ProteinFetcher proteinFetcher;
+
+    @Autowired
+    @Qualifier("intactBioSourceFetcher")
+    private BioSourceFetcher bioSourceFetcher;
+
+    @Autowired
+    @Qualifier("miCvObjectFetcher")
+    private CvTermFetcher<CvTerm> cvTermFetcher;
+
+    @Autowired
+    @Qualifier("intactPublicationFetcher")
+    private PublicationFetcher publicationFetcher;
+
+    private ExecutorService executor;
+
+    public EnrichmentEngine() {
+    }
+
+    /**
+     * Prefetches the objects referenced by the interactions and then enriches the interactions in order.
+     */
+    public <I extends Interaction> void enrich(Collection<I> interactions, MIEnricher<I> enricher) throws EnricherException {
+        prefetch(interactions);
+        for (I interaction : interactions) {
+            enricher.enrich(interaction);
+        }
+    }
+
+    /**
+     * Fetches concurrently the proteins, organisms, CV terms and publications referenced by the interactions so
+     * that the enrichers find them in the caches. Failures are only logged: the enrichers will fetch the objects
+     * again and report the error themselves.
+     */
+    public void prefetch(Collection<? extends Interaction> interactions) {
+        int threads = enricherContext.getConfig().getEnrichmentThreads();
+        if (threads <= 1 || interactions == null || interactions.isEmpty()) {
+            return;
+        }
+
+        EnrichmentKeys keys = new EnrichmentKeys(enricherContext.getConfig());
+        for (Interaction interaction : interactions) {
+            keys.collect(interaction);
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        int batchSize = Math.max(1, enricherContext.getConfig().getPrefetchBatchSize());
+        List<Future<?>> tasks = new ArrayList<Future<?>>();
+        ExecutorService executor = getExecutor(threads);
+
+        for (final List<String> batch : split(keys.getUniprotAccessions(), batchSize)) {
+            tasks.add(executor.submit(() -> proteinFetcher.fetchByIdentifiers(batch)));
+        }
+        for (final List<Integer> batch : split(keys.getTaxIds(), batchSize)) {
+            tasks.add(executor.submit(() -> bioSourceFetcher.fetchByTaxIDs(batch)));
+        }
+        for (final List<String> batch : split(keys.getMiIdentifiers(), batchSize)) {
+            tasks.add(executor.submit(() -> cvTermFetcher.fetchByIdentifiers(batch, CvTerm.PSI_MI)));
+        }
+        for (final List<String> batch : split(keys.getPubmedIds(), batchSize)) {
+            tasks.add(executor.submit(() -> publicationFetcher.fetchByIdentifiers(
+                    Collections.<String, Collection<String>>singletonMap(Xref.PUBMED, batch))));
+        }
+
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                log.warn("Cannot prefetch objects for enrichment", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while prefetching objects for enrichment");
+                return;
+            }
+        }
+    }
+
+    public void destroy() throws Exception {
+        shutdown();
+    }
+
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ExecutorService getExecutor(int threads) {
+        if (executor == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            // the queue is bounded and the caller runs the overflowing tasks so a big batch cannot exhaust the memory
+            executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(threads * 16),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "enricher-worker-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        return executor;
+    }
+
+    private static <K> List<List<K>> split(Collection<K> keys, int batchSize) {
+        List<List<K>> batches = new ArrayList<List<K>>(keys.size() / batchSize + 1);
+        List<K> batch = new ArrayList<K>(batchSize);
+        for (K key : keys) {
+            batch.add(key);
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new ArrayList<K>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+}
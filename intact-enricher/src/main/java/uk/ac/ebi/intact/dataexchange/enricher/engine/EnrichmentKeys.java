@@ -0,0 +1,174 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.engine;
+
+import psidev.psi.mi.jami.model.*;
+import uk.ac.ebi.intact.dataexchange.enricher.EnricherConfig;
+
+import java.util.*;
+
+/**
+ * Collects the identifiers of the objects that the enrichers will fetch remotely for a set of interactions:
+ * UniProtKB accessions of proteins, taxids of organisms, PSI-MI identifiers of CV terms and pubmed ids of publications.
+ *
+ * Only the identifiers of the objects which are enabled in the EnricherConfig are collected.
+ *
+ * @version $Id$
+ */
+public class EnrichmentKeys {
+
+    private final EnricherConfig config;
+
+    private final Set<String> uniprotAccessions = new LinkedHashSet<String>();
+    private final Set<Integer> taxIds = new LinkedHashSet<Integer>();
+    private final Set<String> miIdentifiers = new LinkedHashSet<String>();
+    private final Set<String> pubmedIds = new LinkedHashSet<String>();
+
+    // avoids walking twice the same complex, experiment or interaction
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+    public EnrichmentKeys(EnricherConfig config) {
+        this.config = config;
+    }
+
+    public void collect(Interaction interaction) {
+        if (interaction == null || !visited.add(interaction)) {
+            return;
+        }
+
+        collectCvTerm(interaction.getInteractionType());
+        collectXrefs(interaction.getXrefs());
+        collectAnnotations(interaction.getAnnotations());
+
+        if (interaction instanceof InteractionEvidence) {
+            collectExperiment(((InteractionEvidence) interaction).getExperiment());
+        }
+
+        for (Object obj : interaction.getParticipants()) {
+            collectParticipant((Participant) obj);
+        }
+    }
+
+    public Set<String> getUniprotAccessions() {
+        return uniprotAccessions;
+    }
+
+    public Set<Integer> getTaxIds() {
+        return taxIds;
+    }
+
+    public Set<String> getMiIdentifiers() {
+        return miIdentifiers;
+    }
+
+    public Set<String> getPubmedIds() {
+        return pubmedIds;
+    }
+
+    public boolean isEmpty() {
+        return uniprotAccessions.isEmpty() && taxIds.isEmpty() && miIdentifiers.isEmpty() && pubmedIds.isEmpty();
+    }
+
+    private void collectExperiment(Experiment experiment) {
+        if (experiment == null || !visited.add(experiment)) {
+            return;
+        }
+        collectCvTerm(experiment.getInteractionDetectionMethod());
+        collectOrganism(experiment.getHostOrganism());
+        if (config.isUpdateExperiments() && experiment.getPublication() != null
+                && experiment.getPublication().getPubmedId() != null) {
+            pubmedIds.add(experiment.getPublication().getPubmedId());
+        }
+    }
+
+    private void collectParticipant(Participant participant) {
+        if (participant == null) {
+            return;
+        }
+        collectCvTerm(participant.getBiologicalRole());
+        collectXrefs(participant.getXrefs());
+        collectAnnotations(participant.getAnnotations());
+
+        if (participant instanceof ParticipantEvidence) {
+            ParticipantEvidence evidence = (ParticipantEvidence) participant;
+            collectCvTerm(evidence.getExperimentalRole());
+            for (CvTerm method : evidence.getIdentificationMethods()) {
+                collectCvTerm(method);
+            }
+            collectOrganism(evidence.getExpressedInOrganism());
+        }
+
+        for (Object obj : participant.getFeatures()) {
+            collectCvTerm(((Feature) obj).getType());
+        }
+
+        collectInteractor(participant.getInteractor());
+    }
+
+    private void collectInteractor(Interactor interactor) {
+        if (interactor == null || !visited.add(interactor)) {
+            return;
+        }
+        collectCvTerm(interactor.getInteractorType());
+        collectOrganism(interactor.getOrganism());
+
+        if (interactor instanceof Protein) {
+            String uniprotkb = ((Protein) interactor).getUniprotkb();
+            if (config.isUpdateProteins() && uniprotkb != null) {
+                uniprotAccessions.add(uniprotkb);
+            }
+        }
+        else if (interactor instanceof InteractorPool) {
+            for (Interactor element : (InteractorPool) interactor) {
+                collectInteractor(element);
+            }
+        }
+
+        if (interactor instanceof Interaction) {
+            visited.remove(interactor);
+            collect((Interaction) interactor);
+        }
+    }
+
+    private void collectOrganism(Organism organism) {
+        // negative taxids (in vitro, chemical synthesis, ...) are not fetched remotely
+        if (config.isUpdateOrganisms() && organism != null && organism.getTaxId() > 0) {
+            taxIds.add(organism.getTaxId());
+        }
+    }
+
+    private void collectXrefs(Collection<? extends Xref> xrefs) {
+        if (!config.isUpdateCvInXrefsAliasesAnnotations()) {
+            return;
+        }
+        for (Xref xref : xrefs) {
+            collectCvTerm(xref.getDatabase());
+            collectCvTerm(xref.getQualifier());
+        }
+    }
+
+    private void collectAnnotations(Collection<? extends Annotation> annotations) {
+        for (Annotation annotation : annotations) {
+            collectCvTerm(annotation.getTopic());
+        }
+    }
+
+    private void collectCvTerm(CvTerm term) {
+        if (config.isUpdateCvTerms() && term != null && term.getMIIdentifier() != null) {
+            miIdentifiers.add(term.getMIIdentifier());
+        }
+    }
+}
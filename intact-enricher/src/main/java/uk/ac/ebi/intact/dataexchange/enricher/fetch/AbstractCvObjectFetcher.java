@@ -20,10 +20,14 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
 import psidev.psi.mi.jami.bridges.fetcher.CvTermFetcher;
+import psidev.psi.mi.jami.model.Alias;
 import psidev.psi.mi.jami.model.CvTerm;
+import psidev.psi.mi.jami.model.Xref;
 import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.FetcherMetrics;
 
+import java.util.ArrayList;
 import java.util.Collection;
 
 /**
@@ -40,6 +44,7 @@ public abstract class AbstractCvObjectFetcher<T extends CvTerm> implements CvTer
     @Autowired
     private EnricherContext enricherContext;
     private CvTermFetcher<T> oboFetcher;
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
 
     public AbstractCvObjectFetcher() {
     }
@@ -48,42 +53,21 @@ public abstract class AbstractCvObjectFetcher<T extends CvTerm> implements CvTer
     public T fetchByIdentifier(String termIdentifier, String miOntologyName) throws BridgeFailedException {
         EnricherCache cvCache = enricherContext.getCacheManager().getCache("CvObject");
         String key = termIdentifier+"_"+miOntologyName;
-        if (cvCache.isKeyInCache(key)) {
-            return (T) cvCache.get(key);
-        }
-        else{
-            T term = getOboFetcher().fetchByIdentifier(termIdentifier, miOntologyName);
-            cvCache.put(key, term);
-            return term;
-        }
+        return requestCoalescer.get(cvCache, key, () -> getMetrics().time(() -> getOboFetcher().fetchByIdentifier(termIdentifier, miOntologyName)));
     }
 
     @Override
     public T fetchByIdentifier(String termIdentifier, CvTerm ontologyDatabase) throws BridgeFailedException {
         EnricherCache cvCache = enricherContext.getCacheManager().getCache("CvObject");
         String key = termIdentifier+"_"+ontologyDatabase.getShortName();
-        if (cvCache.isKeyInCache(key)) {
-            return (T) cvCache.get(key);
-        }
-        else{
-            T term = getOboFetcher().fetchByIdentifier(termIdentifier, ontologyDatabase);
-            cvCache.put(key, term);
-            return term;
-        }
+        return requestCoalescer.get(cvCache, key, () -> getMetrics().time(() -> getOboFetcher().fetchByIdentifier(termIdentifier, ontologyDatabase)));
     }
 
     @Override
     public T fetchByName(String searchName, String miOntologyName) throws BridgeFailedException {
         EnricherCache cvCache = enricherContext.getCacheManager().getCache("CvObject");
         String key = searchName+"_"+miOntologyName;
-        if (cvCache.isKeyInCache(key)) {
-            return (T) cvCache.get(key);
-        }
-        else{
-            T term = getOboFetcher().fetchByName(searchName, miOntologyName);
-            cvCache.put(key, term);
-            return term;
-        }
+        return requestCoalescer.get(cvCache, key, () -> getMetrics().time(() -> getOboFetcher().fetchByName(searchName, miOntologyName)));
     }
 
     @Override
@@ -93,17 +77,29 @@ public abstract class AbstractCvObjectFetcher<T extends CvTerm> implements CvTer
 
     @Override
     public Collection<T> fetchByIdentifiers(Collection<String> termIdentifiers, String miOntologyName) throws BridgeFailedException {
-        return getOboFetcher().fetchByIdentifiers(termIdentifiers, miOntologyName);
+        EnricherCache cvCache = enricherContext.getCacheManager().getCache("CvObject");
+        BulkCacheResolver<String, T> bulkResolver = new BulkCacheResolver<String, T>(id -> id+"_"+miOntologyName,
+                AbstractCvObjectFetcher::getTermIdentifiers, null, false);
+        return bulkResolver.resolve(cvCache, termIdentifiers,
+                misses -> getMetrics().time(() -> getOboFetcher().fetchByIdentifiers(misses, miOntologyName)));
     }
 
     @Override
     public Collection<T> fetchByIdentifiers(Collection<String> termIdentifiers, CvTerm ontologyDatabase) throws BridgeFailedException {
-        return getOboFetcher().fetchByIdentifiers(termIdentifiers, ontologyDatabase);
+        EnricherCache cvCache = enricherContext.getCacheManager().getCache("CvObject");
+        BulkCacheResolver<String, T> bulkResolver = new BulkCacheResolver<String, T>(id -> id+"_"+ontologyDatabase.getShortName(),
+                AbstractCvObjectFetcher::getTermIdentifiers, null, false);
+        return bulkResolver.resolve(cvCache, termIdentifiers,
+                misses -> getMetrics().time(() -> getOboFetcher().fetchByIdentifiers(misses, ontologyDatabase)));
     }
 
     @Override
     public Collection<T> fetchByNames(Collection<String> searchNames, String miOntologyName) throws BridgeFailedException {
-        return getOboFetcher().fetchByNames(searchNames, miOntologyName);
+        EnricherCache cvCache = enricherContext.getCacheManager().getCache("CvObject");
+        BulkCacheResolver<String, T> bulkResolver = new BulkCacheResolver<String, T>(name -> name+"_"+miOntologyName,
+                AbstractCvObjectFetcher::getTermNames, BulkCacheResolver.CASE_INSENSITIVE, false);
+        return bulkResolver.resolve(cvCache, searchNames,
+                misses -> getMetrics().time(() -> getOboFetcher().fetchByNames(misses, miOntologyName)));
     }
 
     @Override
@@ -111,6 +107,27 @@ public abstract class AbstractCvObjectFetcher<T extends CvTerm> implements CvTer
         return getOboFetcher().fetchByNames(searchNames);
     }
 
+    private static Collection<String> getTermIdentifiers(CvTerm term) {
+        Collection<String> ids = new ArrayList<String>(term.getIdentifiers().size() + 3);
+        ids.add(term.getMIIdentifier());
+        ids.add(term.getMODIdentifier());
+        ids.add(term.getPARIdentifier());
+        for (Xref identifier : term.getIdentifiers()) {
+            ids.add(identifier.getId());
+        }
+        return ids;
+    }
+
+    private static Collection<String> getTermNames(CvTerm term) {
+        Collection<String> names = new ArrayList<String>(term.getSynonyms().size() + 2);
+        names.add(term.getShortName());
+        names.add(term.getFullName());
+        for (Alias synonym : term.getSynonyms()) {
+            names.add(synonym.getName());
+        }
+        return names;
+    }
+
     protected CvTermFetcher<T> getOboFetcher() throws BridgeFailedException{
         if (this.oboFetcher == null){
             initialiseDefaultFetcher();
@@ -127,4 +144,8 @@ public abstract class AbstractCvObjectFetcher<T extends CvTerm> implements CvTer
     protected EnricherContext getEnricherContext() {
         return enricherContext;
     }
+
+    private FetcherMetrics getMetrics() {
+        return enricherContext.getMetrics().getFetcherMetrics(getClass().getSimpleName(), "CvObject");
+    }
 }
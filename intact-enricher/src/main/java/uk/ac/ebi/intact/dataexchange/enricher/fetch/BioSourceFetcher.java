@@ -21,14 +21,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import psidev.psi.mi.jami.bridges.fetcher.OrganismFetcher;
 import psidev.psi.mi.jami.bridges.uniprot.taxonomy.UniprotTaxonomyFetcher;
 import psidev.psi.mi.jami.model.Organism;
 import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.FetcherMetrics;
+
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * TODO comment this
  *
+ * The organisms missing from the cache are fetched by the remote fetcher, which queries the UniProt taxonomy unless
+ * another fetcher is set.
+ *
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
@@ -41,9 +49,15 @@ public class BioSourceFetcher extends UniprotTaxonomyFetcher{
      */
     public static final Log log = LogFactory.getLog(BioSourceFetcher.class);
 
+    private static final BulkCacheResolver<Integer, Organism> bulkResolver =
+            new BulkCacheResolver<Integer, Organism>(taxId -> taxId, organism -> Collections.singleton(organism.getTaxId()),
+                    null, false);
+
     @Autowired
     private EnricherContext enricherContext;
 
+    private OrganismFetcher remoteFetcher = new TaxonomyFetcher();
+
     public BioSourceFetcher() {
     }
 
@@ -52,13 +66,40 @@ public class BioSourceFetcher extends UniprotTaxonomyFetcher{
 
         EnricherCache bioSourceCache = enricherContext.getCacheManager().getCache("BioSource");
 
-        if (bioSourceCache.isKeyInCache(taxID)) {
-            return (Organism) bioSourceCache.get(taxID);
+        return bioSourceCache.get(taxID, () -> getMetrics().time(() -> remoteFetcher.fetchByTaxID(taxID)));
+    }
+
+    @Override
+    public Collection<Organism> fetchByTaxIDs(Collection<Integer> taxIDs) throws BridgeFailedException {
+
+        EnricherCache bioSourceCache = enricherContext.getCacheManager().getCache("BioSource");
+
+        return bulkResolver.resolve(bioSourceCache, taxIDs, misses -> getMetrics().time(() -> remoteFetcher.fetchByTaxIDs(misses)));
+    }
+
+    private FetcherMetrics getMetrics() {
+        return enricherContext.getMetrics().getFetcherMetrics("BioSourceFetcher", "BioSource");
+    }
+
+    public OrganismFetcher getRemoteFetcher() {
+        return remoteFetcher;
+    }
+
+    public void setRemoteFetcher(OrganismFetcher remoteFetcher) {
+        this.remoteFetcher = remoteFetcher != null ? remoteFetcher : new TaxonomyFetcher();
+    }
+
+    /**
+     * Queries the UniProt taxonomy with the inherited UniprotTaxonomyFetcher.
+     */
+    private class TaxonomyFetcher implements OrganismFetcher {
+
+        public Organism fetchByTaxID(int taxID) throws BridgeFailedException {
+            return BioSourceFetcher.super.fetchByTaxID(taxID);
         }
-        else{
-            Organism term = super.fetchByTaxID(taxID);
-            bioSourceCache.put(taxID, term);
-            return term;
+
+        public Collection<Organism> fetchByTaxIDs(Collection<Integer> taxIDs) throws BridgeFailedException {
+            return BioSourceFetcher.super.fetchByTaxIDs(taxIDs);
         }
     }
 }
@@ -25,6 +25,7 @@ import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
 import psidev.psi.mi.jami.model.BioactiveEntity;
 import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.FetcherMetrics;
 
 import java.util.Collection;
 
@@ -50,13 +51,11 @@ public class BioactiveEntityFetcher extends ChebiFetcher{
     public Collection<BioactiveEntity> fetchByIdentifier(String identifier) throws BridgeFailedException {
         EnricherCache entityCache = enricherContext.getCacheManager().getCache("BioactiveEntity");
 
-        if (entityCache.isKeyInCache(identifier)) {
-            return (Collection<BioactiveEntity>) entityCache.get(identifier);
-        }
-        else{
-            Collection<BioactiveEntity> terms = super.fetchByIdentifier(identifier);
-            entityCache.put(identifier, terms);
-            return terms;
-        }
+        return enricherContext.getCacheManager().getNegativeResultCache()
+                .get(entityCache, identifier, () -> getMetrics().time(() -> super.fetchByIdentifier(identifier)));
     }
-}
\ No newline at end of file
+
+    private FetcherMetrics getMetrics() {
+        return enricherContext.getMetrics().getFetcherMetrics("BioactiveEntityFetcher", "BioactiveEntity");
+    }
+}
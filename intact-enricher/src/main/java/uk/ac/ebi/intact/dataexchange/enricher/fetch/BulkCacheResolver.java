@@ -0,0 +1,204 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fetch;
+
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Resolves a batch of identifiers through an {@link EnricherCache}: identifiers found in the cache are
+ * answered from it, the missing ones are sent to the underlying fetcher in one grouped call and the
+ * fetched objects are written back in the cache under the same key as the single identifier lookup.
+ *
+ * Fetched objects are attributed to the requested identifiers with the identifiers they expose. When all
+ * fetched objects could be attributed, requested identifiers without result are cached as not found.
+ *
+ * @param <K> the type of the requested identifiers
+ * @param <T> the type of the fetched objects
+ */
+public class BulkCacheResolver<K, T> {
+
+    /**
+     * Matches string identifiers ignoring the case
+     */
+    public static final Function<String, Object> CASE_INSENSITIVE = new Function<String, Object>() {
+        public Object apply(String id) {
+            return id.toLowerCase(Locale.ROOT);
+        }
+    };
+
+    private final Function<K, Object> cacheKeyFunction;
+    private final Function<T, Collection<K>> identifiersFunction;
+    private final Function<K, Object> matchKeyFunction;
+    private final boolean collectionValues;
+
+    /**
+     * @param cacheKeyFunction gives the cache key of a requested identifier
+     * @param identifiersFunction gives the identifiers of a fetched object, used to attribute it to the requested identifiers
+     * @param matchKeyFunction normalises identifiers before matching fetched objects with requested identifiers
+     * @param collectionValues true if the cache holds a collection of objects per key, false if it holds a single object
+     */
+    public BulkCacheResolver(Function<K, Object> cacheKeyFunction, Function<T, Collection<K>> identifiersFunction,
+                             Function<K, Object> matchKeyFunction, boolean collectionValues) {
+        this.cacheKeyFunction = cacheKeyFunction;
+        this.identifiersFunction = identifiersFunction;
+        this.matchKeyFunction = matchKeyFunction != null ? matchKeyFunction : k -> k;
+        this.collectionValues = collectionValues;
+    }
+
+    public <E extends Exception> Collection<T> resolve(EnricherCache cache, Collection<K> identifiers,
+                                                       BulkLoader<K, T, E> loader) throws E {
+        return resolve(cache, identifiers, loader, null);
+    }
+
+    /**
+     * Resolves the identifiers like {@link #resolve(EnricherCache, Collection, BulkLoader)}, except that the fetched
+     * identifiers which are not found or which match several objects are given to the unresolved handler instead of
+     * being cached. Only used when the cache holds collections of objects.
+     */
+    public <E extends Exception> Collection<T> resolve(EnricherCache cache, Collection<K> identifiers,
+                                                       BulkLoader<K, T, E> loader,
+                                                       BiConsumer<K, List<T>> unresolvedHandler) throws E {
+        if (identifiers == null || identifiers.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Object, K> requested = new LinkedHashMap<Object, K>(identifiers.size());
+        for (K identifier : identifiers) {
+            if (identifier != null) {
+                requested.put(cacheKeyFunction.apply(identifier), identifier);
+            }
+        }
+
+        ResultCollector results = new ResultCollector();
+        Map<Object, Object> cached = cache.getAll(requested.keySet());
+        List<K> misses = new ArrayList<K>(requested.size() - cached.size());
+        for (Map.Entry<Object, K> entry : requested.entrySet()) {
+            if (cached.containsKey(entry.getKey())) {
+                results.addCachedValue(cached.get(entry.getKey()));
+            }
+            else {
+                misses.add(entry.getValue());
+            }
+        }
+
+        if (misses.isEmpty()) {
+            return results.getResults();
+        }
+
+        Collection<T> loaded = loader.load(misses);
+
+        Map<Object, List<K>> missIndex = new HashMap<Object, List<K>>(misses.size());
+        for (K miss : misses) {
+            missIndex.computeIfAbsent(matchKeyFunction.apply(miss), k -> new ArrayList<K>(1)).add(miss);
+        }
+
+        Map<K, List<T>> fetchedPerIdentifier = new HashMap<K, List<T>>(misses.size());
+        boolean allAttributed = true;
+        if (loaded != null) {
+            for (T object : loaded) {
+                if (object == null) {
+                    continue;
+                }
+                results.add(object);
+                boolean attributed = false;
+                Collection<K> objectIdentifiers = identifiersFunction.apply(object);
+                if (objectIdentifiers != null) {
+                    for (K objectIdentifier : objectIdentifiers) {
+                        if (objectIdentifier == null) {
+                            continue;
+                        }
+                        List<K> matchingMisses = missIndex.get(matchKeyFunction.apply(objectIdentifier));
+                        if (matchingMisses != null) {
+                            attributed = true;
+                            for (K miss : matchingMisses) {
+                                List<T> fetched = fetchedPerIdentifier.computeIfAbsent(miss, k -> new ArrayList<T>(1));
+                                if (!containsInstance(fetched, object)) {
+                                    fetched.add(object);
+                                }
+                            }
+                        }
+                    }
+                }
+                allAttributed &= attributed;
+            }
+        }
+
+        for (K miss : misses) {
+            List<T> fetched = fetchedPerIdentifier.get(miss);
+            if (unresolvedHandler != null && collectionValues && (fetched != null ? fetched.size() > 1 : allAttributed)) {
+                unresolvedHandler.accept(miss, fetched != null ? fetched : new ArrayList<T>(0));
+            }
+            else if (fetched != null) {
+                cache.put(cacheKeyFunction.apply(miss), collectionValues ? fetched : fetched.iterator().next());
+            }
+            else if (allAttributed) {
+                cache.put(cacheKeyFunction.apply(miss), collectionValues ? new ArrayList<T>(0) : null);
+            }
+        }
+
+        return results.getResults();
+    }
+
+    private static boolean containsInstance(Collection<?> objects, Object object) {
+        for (Object o : objects) {
+            if (o == object) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fetches the objects matching several identifiers in one call.
+     */
+    public interface BulkLoader<K, T, E extends Exception> {
+
+        Collection<T> load(Collection<K> identifiers) throws E;
+    }
+
+    /**
+     * Keeps the resolved objects in order, without returning twice the same instance.
+     */
+    private class ResultCollector {
+        private final List<T> results = new ArrayList<T>();
+        private final Set<T> seen = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+
+        private void add(T object) {
+            if (object != null && seen.add(object)) {
+                results.add(object);
+            }
+        }
+
+        private void addCachedValue(Object value) {
+            if (value instanceof Collection && collectionValues) {
+                for (Object object : (Collection<?>) value) {
+                    add((T) object);
+                }
+            }
+            else if (value != null) {
+                add((T) value);
+            }
+        }
+
+        private List<T> getResults() {
+            return results;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
 import psidev.psi.mi.jami.model.Gene;
 import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.FetcherMetrics;
 
 import java.util.Collection;
 
@@ -24,13 +25,11 @@ public class EnsemblGeneFetcher extends psidev.psi.mi.jami.bridges.ensembl.Ensem
     public Collection<Gene> fetchByIdentifier(String identifier) throws BridgeFailedException {
         EnricherCache ensembleGeneCache = enricherContext.getCacheManager().getCache("EnsembleGene");
 
-        if (ensembleGeneCache.isKeyInCache(identifier)) {
-            return (Collection<Gene>) ensembleGeneCache.get(identifier);
-        }
-        else{
-            Collection<Gene> terms = super.fetchByIdentifier(identifier);
-            ensembleGeneCache.put(identifier, terms);
-            return terms;
-        }
+        return enricherContext.getCacheManager().getNegativeResultCache()
+                .get(ensembleGeneCache, identifier, () -> getMetrics().time(() -> super.fetchByIdentifier(identifier)));
+    }
+
+    private FetcherMetrics getMetrics() {
+        return enricherContext.getMetrics().getFetcherMetrics("EnsemblGeneFetcher", "EnsembleGene");
     }
 }
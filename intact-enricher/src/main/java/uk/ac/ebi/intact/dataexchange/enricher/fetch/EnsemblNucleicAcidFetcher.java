@@ -7,6 +7,7 @@ import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
 import psidev.psi.mi.jami.model.NucleicAcid;
 import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.FetcherMetrics;
 
 import java.util.Collection;
 
@@ -24,13 +25,10 @@ public class EnsemblNucleicAcidFetcher extends psidev.psi.mi.jami.bridges.ensemb
     public Collection<NucleicAcid> fetchByIdentifier(String identifier) throws BridgeFailedException {
         EnricherCache ensembleNucleicAcidCache = enricherContext.getCacheManager().getCache("EnsemblNucleicAcid");
 
-        if (ensembleNucleicAcidCache.isKeyInCache(identifier)) {
-            return (Collection<NucleicAcid>) ensembleNucleicAcidCache.get(identifier);
-        }
-        else{
-            Collection<NucleicAcid> terms = super.fetchByIdentifier(identifier);
-            ensembleNucleicAcidCache.put(identifier, terms);
-            return terms;
-        }
+        return ensembleNucleicAcidCache.get(identifier, () -> getMetrics().time(() -> super.fetchByIdentifier(identifier)));
+    }
+
+    private FetcherMetrics getMetrics() {
+        return enricherContext.getMetrics().getFetcherMetrics("EnsemblNucleicAcidFetcher", "EnsemblNucleicAcid");
     }
 }
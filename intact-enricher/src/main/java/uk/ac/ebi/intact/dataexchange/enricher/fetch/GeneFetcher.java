@@ -25,6 +25,7 @@ import psidev.psi.mi.jami.bridges.uniprot.UniprotGeneFetcher;
 import psidev.psi.mi.jami.model.Gene;
 import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.FetcherMetrics;
 
 import java.util.Collection;
 
@@ -50,27 +51,19 @@ public class GeneFetcher extends UniprotGeneFetcher{
     public Collection<Gene> fetchByIdentifier(String identifier, int taxID) throws BridgeFailedException {
         EnricherCache geneCache = enricherContext.getCacheManager().getCache("Gene");
         String key = identifier+"_"+taxID;
-        if (geneCache.isKeyInCache(key)) {
-            return (Collection<Gene>) geneCache.get(key);
-        }
-        else{
-            Collection<Gene> terms = super.fetchByIdentifier(identifier, taxID);
-            geneCache.put(key, terms);
-            return terms;
-        }
+        return enricherContext.getCacheManager().getNegativeResultCache()
+                .get(geneCache, key, () -> getMetrics().time(() -> super.fetchByIdentifier(identifier, taxID)));
     }
 
     @Override
     public Collection<Gene> fetchByIdentifier(String identifier) throws BridgeFailedException {
         EnricherCache geneCache = enricherContext.getCacheManager().getCache("Gene");
         String key = identifier;
-        if (geneCache.isKeyInCache(key)) {
-            return (Collection<Gene>) geneCache.get(key);
-        }
-        else{
-            Collection<Gene> terms = super.fetchByIdentifier(identifier);
-            geneCache.put(key, terms);
-            return terms;
-        }
+        return enricherContext.getCacheManager().getNegativeResultCache()
+                .get(geneCache, key, () -> getMetrics().time(() -> super.fetchByIdentifier(identifier)));
     }
-}
\ No newline at end of file
+
+    private FetcherMetrics getMetrics() {
+        return enricherContext.getMetrics().getFetcherMetrics("GeneFetcher", "Gene");
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fetch;
+
+import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import psidev.psi.mi.jami.bridges.fetcher.CvTermFetcher;
+import psidev.psi.mi.jami.model.Alias;
+import psidev.psi.mi.jami.model.CvTerm;
+import psidev.psi.mi.jami.model.impl.DefaultCvTerm;
+import psidev.psi.mi.jami.model.impl.DefaultXref;
+import psidev.psi.mi.jami.utils.AliasUtils;
+import psidev.psi.mi.jami.utils.AnnotationUtils;
+import psidev.psi.mi.jami.utils.CvTermUtils;
+
+import java.util.*;
+
+/**
+ * CvTerm fetcher answering the lookups of the indexed ontology from an {@link OboTermIndex}, with no remote call.
+ *
+ * The terms are looked up in the index when the ontology name or database given to the fetch methods is the
+ * ontology database given at construction, or is not given, and their identifier is attached to this database.
+ * The lookups of the other ontologies go to the fallback fetcher if there is one, for instance OLS for the GO or
+ * PSI-MOD terms, and are answered from the index otherwise.
+ *
+ */
+public class IndexedOboCvTermFetcher implements CvTermFetcher<CvTerm> {
+
+    private static final Map<String, String> ANNOTATION_TOPIC_MIS = new HashMap<String, String>();
+
+    static {
+        ANNOTATION_TOPIC_MIS.put("search-url", "MI:0615");
+        ANNOTATION_TOPIC_MIS.put("id-validation-regexp", "MI:0628");
+    }
+
+    private final OboTermIndex index;
+    private final CvTerm ontologyDatabase;
+    private final CvTermFetcher<CvTerm> fallbackFetcher;
+
+    public IndexedOboCvTermFetcher(OboTermIndex index, CvTerm ontologyDatabase) {
+        this(index, ontologyDatabase, null);
+    }
+
+    /**
+     * @param fallbackFetcher the fetcher of the terms of the other ontologies, null to look them up in the index
+     */
+    public IndexedOboCvTermFetcher(OboTermIndex index, CvTerm ontologyDatabase, CvTermFetcher<CvTerm> fallbackFetcher) {
+        if (index == null) {
+            throw new IllegalArgumentException("The OBO term index cannot be null");
+        }
+        this.index = index;
+        this.ontologyDatabase = ontologyDatabase != null ? ontologyDatabase : CvTermUtils.createPsiMiDatabase();
+        this.fallbackFetcher = fallbackFetcher;
+    }
+
+    public OboTermIndex getIndex() {
+        return index;
+    }
+
+    public CvTermFetcher<CvTerm> getFallbackFetcher() {
+        return fallbackFetcher;
+    }
+
+    @Override
+    public CvTerm fetchByIdentifier(String termIdentifier, String miOntologyName) throws BridgeFailedException {
+        if (isFallback(miOntologyName)) {
+            return fallbackFetcher.fetchByIdentifier(termIdentifier, miOntologyName);
+        }
+        return createTerm(index.indexOf(termIdentifier));
+    }
+
+    @Override
+    public CvTerm fetchByIdentifier(String termIdentifier, CvTerm ontologyDatabase) throws BridgeFailedException {
+        if (isFallback(ontologyDatabase)) {
+            return fallbackFetcher.fetchByIdentifier(termIdentifier, ontologyDatabase);
+        }
+        return createTerm(index.indexOf(termIdentifier));
+    }
+
+    @Override
+    public CvTerm fetchByName(String searchName, String miOntologyName) throws BridgeFailedException {
+        if (isFallback(miOntologyName)) {
+            return fallbackFetcher.fetchByName(searchName, miOntologyName);
+        }
+        int[] terms = index.findByName(searchName);
+        if (terms.length == 0) {
+            terms = index.findBySynonym(searchName);
+        }
+        return terms.length > 0 ? createTerm(terms[0]) : null;
+    }
+
+    /**
+     * Searches the name in all the ontologies: the terms of the index, or the terms of the fallback fetcher when
+     * the index has none.
+     */
+    @Override
+    public Collection<CvTerm> fetchByName(String searchName) throws BridgeFailedException {
+        Set<Integer> terms = new LinkedHashSet<Integer>();
+        for (int term : index.findByName(searchName)) {
+            terms.add(term);
+        }
+        for (int term : index.findBySynonym(searchName)) {
+            terms.add(term);
+        }
+        List<CvTerm> results = new ArrayList<CvTerm>(terms.size());
+        for (int term : terms) {
+            results.add(createTerm(term));
+        }
+        if (results.isEmpty() && fallbackFetcher != null) {
+            return fallbackFetcher.fetchByName(searchName);
+        }
+        return results;
+    }
+
+    @Override
+    public Collection<CvTerm> fetchByIdentifiers(Collection<String> termIdentifiers, String miOntologyName) throws BridgeFailedException {
+        if (isFallback(miOntologyName)) {
+            return fallbackFetcher.fetchByIdentifiers(termIdentifiers, miOntologyName);
+        }
+        List<CvTerm> results = new ArrayList<CvTerm>(termIdentifiers.size());
+        for (String identifier : termIdentifiers) {
+            CvTerm term = fetchByIdentifier(identifier, miOntologyName);
+            if (term != null) {
+                results.add(term);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Collection<CvTerm> fetchByIdentifiers(Collection<String> termIdentifiers, CvTerm ontologyDatabase) throws BridgeFailedException {
+        if (isFallback(ontologyDatabase)) {
+            return fallbackFetcher.fetchByIdentifiers(termIdentifiers, ontologyDatabase);
+        }
+        return fetchByIdentifiers(termIdentifiers, (String) null);
+    }
+
+    @Override
+    public Collection<CvTerm> fetchByNames(Collection<String> searchNames, String miOntologyName) throws BridgeFailedException {
+        if (isFallback(miOntologyName)) {
+            return fallbackFetcher.fetchByNames(searchNames, miOntologyName);
+        }
+        List<CvTerm> results = new ArrayList<CvTerm>(searchNames.size());
+        for (String name : searchNames) {
+            CvTerm term = fetchByName(name, miOntologyName);
+            if (term != null) {
+                results.add(term);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Collection<CvTerm> fetchByNames(Collection<String> searchNames) throws BridgeFailedException {
+        List<CvTerm> results = new ArrayList<CvTerm>(searchNames.size());
+        for (String name : searchNames) {
+            results.addAll(fetchByName(name));
+        }
+        return results;
+    }
+
+    /**
+     * @return true if the terms of the ontology are fetched by the fallback fetcher
+     */
+    private boolean isFallback(String ontologyName) {
+        return fallbackFetcher != null && ontologyName != null
+                && !ontologyName.equalsIgnoreCase(ontologyDatabase.getShortName());
+    }
+
+    private boolean isFallback(CvTerm ontologyDatabase) {
+        if (fallbackFetcher == null || ontologyDatabase == null) {
+            return false;
+        }
+        if (ontologyDatabase.getMIIdentifier() != null && this.ontologyDatabase.getMIIdentifier() != null) {
+            return !ontologyDatabase.getMIIdentifier().equals(this.ontologyDatabase.getMIIdentifier());
+        }
+        return isFallback(ontologyDatabase.getShortName());
+    }
+
+    private CvTerm createTerm(int term) {
+        if (term < 0) {
+            return null;
+        }
+        CvTerm cvTerm = new DefaultCvTerm(index.getShortLabel(term), index.getName(term),
+                new DefaultXref(ontologyDatabase, index.getId(term), CvTermUtils.createIdentityQualifier()));
+        for (String synonym : index.getSynonyms(term)) {
+            cvTerm.getSynonyms().add(AliasUtils.createAlias(Alias.SYNONYM, Alias.SYNONYM_MI, synonym));
+        }
+        for (String[] annotation : index.getAnnotations(term)) {
+            cvTerm.getAnnotations().add(AnnotationUtils.createAnnotation(annotation[0], ANNOTATION_TOPIC_MIS.get(annotation[0]), annotation[1]));
+        }
+        return cvTerm;
+    }
+}
@@ -18,19 +18,13 @@ package uk.ac.ebi.intact.dataexchange.enricher.fetch;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
-import psidev.psi.mi.jami.bridges.obo.OboCvTermFetcher;
-import psidev.psi.mi.jami.commons.MIFileUtils;
 import psidev.psi.mi.jami.model.CvTerm;
 import psidev.psi.mi.jami.utils.CvTermUtils;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.MalformedURLException;
-import java.net.URL;
 
 /**
- * MI obo fetcher
+ * MI obo fetcher, resolving the terms from the indexed OBO file of the EnricherConfig
  *
  */
 @Component(value = "miCvObjectFetcher")
@@ -44,30 +38,11 @@ public class MiCvObjectFetcher extends AbstractCvObjectFetcher<CvTerm>{
     @Override
     protected void initialiseDefaultFetcher() throws BridgeFailedException {
         String urlString = getEnricherContext().getConfig().getOboUrl();
-        InputStream stream = null;
-        File tempFile = null;
         try {
-            URL url = new URL(urlString);
-            stream = url.openStream();
-            tempFile = MIFileUtils.storeAsTemporaryFile(stream, "cvFetcher_" + System.currentTimeMillis(), ".obo");
-
-            super.setOboFetcher(new OboCvTermFetcher(CvTermUtils.createPsiMiDatabase(), tempFile.getAbsolutePath()));
-
-        } catch (MalformedURLException e) {
-            throw new BridgeFailedException("Cannot open URL "+urlString, e);
+            super.setOboFetcher(new IndexedOboCvTermFetcher(getEnricherContext().getOboTermIndex(),
+                    CvTermUtils.createPsiMiDatabase()));
         } catch (IOException e) {
             throw new BridgeFailedException("Cannot read URL "+urlString, e);
-        } finally {
-            if (stream != null){
-                try {
-                    stream.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (tempFile != null){
-                tempFile.delete();
-            }
         }
     }
 }
@@ -7,6 +7,7 @@ import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
 import psidev.psi.mi.jami.model.NucleicAcid;
 import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.FetcherMetrics;
 
 import java.util.Collection;
 
@@ -24,13 +25,11 @@ public class NucleicAcidFetcher extends psidev.psi.mi.jami.bridges.rna.central.R
     public Collection<NucleicAcid> fetchByIdentifier(String identifier) throws BridgeFailedException {
         EnricherCache nucleicAcidCache = enricherContext.getCacheManager().getCache("NucleicAcid");
 
-        if (nucleicAcidCache.isKeyInCache(identifier)) {
-            return (Collection<NucleicAcid>) nucleicAcidCache.get(identifier);
-        }
-        else{
-            Collection<NucleicAcid> terms = super.fetchByIdentifier(identifier);
-            nucleicAcidCache.put(identifier, terms);
-            return terms;
-        }
+        return enricherContext.getCacheManager().getNegativeResultCache()
+                .get(nucleicAcidCache, identifier, () -> getMetrics().time(() -> super.fetchByIdentifier(identifier)));
+    }
+
+    private FetcherMetrics getMetrics() {
+        return enricherContext.getMetrics().getFetcherMetrics("NucleicAcidFetcher", "NucleicAcid");
     }
 }
@@ -0,0 +1,436 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fetch;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In memory index of the terms of an OBO file, built once and then read concurrently without locking.
+ *
+ * Terms are numbered in file order and stored in parallel arrays. The index gives access to terms by identifier,
+ * by name and by synonym (both case insensitive), and to the parents (is_a and part_of) and children of a term
+ * and their transitive closures.
+ *
+ */
+public class OboTermIndex {
+
+    /**
+     * Synonym type used by PSI-MI for the short labels
+     */
+    public static final String PSI_MI_SHORT = "PSI-MI-short";
+
+    /**
+     * OBO xrefs which PSI-MI uses as annotations of the database terms
+     */
+    public static final List<String> ANNOTATION_XREFS = Collections.unmodifiableList(Arrays.asList("search-url", "id-validation-regexp"));
+
+    private static final int[] NO_TERMS = new int[0];
+
+    private final String[] ids;
+    private final String[] names;
+    private final String[] shortLabels;
+    private final String[] definitions;
+    private final String[][] synonyms;
+    private final String[][] annotations;
+    private final boolean[] obsolete;
+    private final int[][] parents;
+    private final int[][] children;
+
+    private final Map<String, Integer> idIndex;
+    private final Map<String, int[]> nameIndex;
+    private final Map<String, int[]> synonymIndex;
+
+    // closures are computed on first use and then shared
+    private final AtomicReferenceArray<int[]> ancestorClosures;
+    private final AtomicReferenceArray<int[]> descendantClosures;
+
+    private OboTermIndex(List<TermStanza> stanzas) {
+        int size = stanzas.size();
+        ids = new String[size];
+        names = new String[size];
+        shortLabels = new String[size];
+        definitions = new String[size];
+        synonyms = new String[size][];
+        annotations = new String[size][];
+        obsolete = new boolean[size];
+        idIndex = new HashMap<String, Integer>(size * 2);
+
+        for (int i = 0; i < size; i++) {
+            TermStanza stanza = stanzas.get(i);
+            ids[i] = stanza.id;
+            names[i] = stanza.name;
+            shortLabels[i] = stanza.shortLabel != null ? stanza.shortLabel : stanza.name;
+            definitions[i] = stanza.definition;
+            synonyms[i] = stanza.synonyms.toArray(new String[stanza.synonyms.size()]);
+            annotations[i] = stanza.annotations.toArray(new String[stanza.annotations.size()]);
+            obsolete[i] = stanza.obsolete;
+            idIndex.put(stanza.id, i);
+        }
+
+        Map<String, List<Integer>> names = new HashMap<String, List<Integer>>(size * 2);
+        Map<String, List<Integer>> synonyms = new HashMap<String, List<Integer>>(size * 2);
+        List<List<Integer>> childLists = new ArrayList<List<Integer>>(size);
+        parents = new int[size][];
+        for (int i = 0; i < size; i++) {
+            childLists.add(new ArrayList<Integer>(2));
+        }
+
+        for (int i = 0; i < size; i++) {
+            TermStanza stanza = stanzas.get(i);
+            addToIndex(names, stanza.name, i);
+            addToIndex(names, stanza.shortLabel, i);
+            for (String synonym : stanza.synonyms) {
+                addToIndex(synonyms, synonym, i);
+            }
+
+            List<Integer> termParents = new ArrayList<Integer>(stanza.parentIds.size());
+            for (String parentId : stanza.parentIds) {
+                Integer parent = idIndex.get(parentId);
+                if (parent != null && !termParents.contains(parent)) {
+                    termParents.add(parent);
+                    childLists.get(parent).add(i);
+                }
+            }
+            parents[i] = toArray(termParents);
+        }
+
+        children = new int[size][];
+        for (int i = 0; i < size; i++) {
+            children[i] = toArray(childLists.get(i));
+        }
+
+        nameIndex = toArrayIndex(names);
+        synonymIndex = toArrayIndex(synonyms);
+        ancestorClosures = new AtomicReferenceArray<int[]>(size);
+        descendantClosures = new AtomicReferenceArray<int[]>(size);
+    }
+
+    public static OboTermIndex load(URL url) throws IOException {
+        try (InputStream stream = url.openStream()) {
+            return load(stream);
+        }
+    }
+
+    public static OboTermIndex load(InputStream stream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        List<TermStanza> stanzas = new ArrayList<TermStanza>(4096);
+        TermStanza current = null;
+        boolean inTerm = false;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("!")) {
+                continue;
+            }
+            if (line.startsWith("[")) {
+                if (current != null && current.id != null) {
+                    stanzas.add(current);
+                }
+                inTerm = "[Term]".equals(line);
+                current = inTerm ? new TermStanza() : null;
+                continue;
+            }
+            if (!inTerm) {
+                continue;
+            }
+
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String tag = line.substring(0, colon);
+            String value = stripComment(line.substring(colon + 1).trim());
+
+            if ("id".equals(tag)) {
+                current.id = value;
+            }
+            else if ("name".equals(tag)) {
+                current.name = value;
+            }
+            else if ("def".equals(tag)) {
+                current.definition = quotedText(value);
+            }
+            else if ("synonym".equals(tag)) {
+                String synonym = quotedText(value);
+                if (synonym != null) {
+                    if (value.contains(PSI_MI_SHORT)) {
+                        current.shortLabel = synonym;
+                    }
+                    else {
+                        current.synonyms.add(synonym);
+                    }
+                }
+            }
+            else if ("xref".equals(tag)) {
+                for (String topic : ANNOTATION_XREFS) {
+                    if (value.startsWith(topic)) {
+                        current.annotations.add(topic);
+                        current.annotations.add(xrefValue(value.substring(topic.length())));
+                    }
+                }
+            }
+            else if ("is_a".equals(tag)) {
+                current.parentIds.add(firstToken(value));
+            }
+            else if ("relationship".equals(tag)) {
+                String[] tokens = value.split("\\s+");
+                if (tokens.length >= 2 && "part_of".equals(tokens[0])) {
+                    current.parentIds.add(tokens[1]);
+                }
+            }
+            else if ("is_obsolete".equals(tag)) {
+                current.obsolete = "true".equalsIgnoreCase(value);
+            }
+        }
+        if (current != null && current.id != null) {
+            stanzas.add(current);
+        }
+
+        return new OboTermIndex(stanzas);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return the index of the term with this identifier or -1
+     */
+    public int indexOf(String id) {
+        Integer index = id != null ? idIndex.get(id) : null;
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return the indexes of the terms having this name or short label, ignoring the case
+     */
+    public int[] findByName(String name) {
+        int[] found = name != null ? nameIndex.get(normalise(name)) : null;
+        return found != null ? found : NO_TERMS;
+    }
+
+    /**
+     * @return the indexes of the terms having this synonym, ignoring the case
+     */
+    public int[] findBySynonym(String synonym) {
+        int[] found = synonym != null ? synonymIndex.get(normalise(synonym)) : null;
+        return found != null ? found : NO_TERMS;
+    }
+
+    public String getId(int term) {
+        return ids[term];
+    }
+
+    public String getName(int term) {
+        return names[term];
+    }
+
+    /**
+     * @return the PSI-MI short label of the term or its name if it has no short label
+     */
+    public String getShortLabel(int term) {
+        return shortLabels[term];
+    }
+
+    public String getDefinition(int term) {
+        return definitions[term];
+    }
+
+    public List<String> getSynonyms(int term) {
+        return Collections.unmodifiableList(Arrays.asList(synonyms[term]));
+    }
+
+    /**
+     * @return the annotations of the term as (topic, value) pairs, the topics being one of {@link #ANNOTATION_XREFS}
+     */
+    public List<String[]> getAnnotations(int term) {
+        List<String[]> termAnnotations = new ArrayList<String[]>(annotations[term].length / 2);
+        for (int i = 0; i + 1 < annotations[term].length; i += 2) {
+            termAnnotations.add(new String[]{annotations[term][i], annotations[term][i + 1]});
+        }
+        return termAnnotations;
+    }
+
+    public boolean isObsolete(int term) {
+        return obsolete[term];
+    }
+
+    public int[] getParents(int term) {
+        return parents[term].clone();
+    }
+
+    public int[] getChildren(int term) {
+        return children[term].clone();
+    }
+
+    /**
+     * @return all the ancestors of the term, following is_a and part_of relationships
+     */
+    public int[] getAncestors(int term) {
+        int[] closure = ancestorClosures.get(term);
+        if (closure == null) {
+            closure = closure(term, parents);
+            ancestorClosures.set(term, closure);
+        }
+        return closure.clone();
+    }
+
+    /**
+     * @return all the descendants of the term, following is_a and part_of relationships
+     */
+    public int[] getDescendants(int term) {
+        int[] closure = descendantClosures.get(term);
+        if (closure == null) {
+            closure = closure(term, children);
+            descendantClosures.set(term, closure);
+        }
+        return closure.clone();
+    }
+
+    private static int[] closure(int term, int[][] edges) {
+        BitSet visited = new BitSet(edges.length);
+        Deque<Integer> toVisit = new ArrayDeque<Integer>();
+        toVisit.push(term);
+        while (!toVisit.isEmpty()) {
+            for (int next : edges[toVisit.pop()]) {
+                if (!visited.get(next)) {
+                    visited.set(next);
+                    toVisit.push(next);
+                }
+            }
+        }
+        visited.clear(term);
+        return visited.stream().toArray();
+    }
+
+    private static void addToIndex(Map<String, List<Integer>> index, String key, int term) {
+        if (key == null) {
+            return;
+        }
+        List<Integer> terms = index.computeIfAbsent(normalise(key), k -> new ArrayList<Integer>(1));
+        if (!terms.contains(term)) {
+            terms.add(term);
+        }
+    }
+
+    private static Map<String, int[]> toArrayIndex(Map<String, List<Integer>> index) {
+        Map<String, int[]> arrayIndex = new HashMap<String, int[]>(index.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : index.entrySet()) {
+            arrayIndex.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        return arrayIndex;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        if (values.isEmpty()) {
+            return NO_TERMS;
+        }
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    private static String normalise(String key) {
+        return key.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String stripComment(String value) {
+        // the comments start with an unescaped ! outside of quotes
+        boolean quoted = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                i++;
+            }
+            else if (c == '"') {
+                quoted = !quoted;
+            }
+            else if (c == '!' && !quoted) {
+                return value.substring(0, i).trim();
+            }
+        }
+        return value;
+    }
+
+    private static String quotedText(String value) {
+        int start = value.indexOf('"');
+        if (start < 0) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = start + 1; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                text.append(value.charAt(++i));
+            }
+            else if (c == '"') {
+                return text.toString();
+            }
+            else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * PSI-MI writes the annotation xrefs as topic:"value" or topic:\"value\" with escaped characters
+     */
+    private static String xrefValue(String value) {
+        String trimmed = value.trim();
+        if (trimmed.startsWith(":")) {
+            trimmed = trimmed.substring(1).trim();
+        }
+        StringBuilder text = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '\\' && i + 1 < trimmed.length()) {
+                text.append(trimmed.charAt(++i));
+            }
+            else {
+                text.append(c);
+            }
+        }
+        int length = text.length();
+        if (length >= 2 && text.charAt(0) == '"' && text.charAt(length - 1) == '"') {
+            return text.substring(1, length - 1);
+        }
+        return text.toString();
+    }
+
+    private static String firstToken(String value) {
+        int space = value.indexOf(' ');
+        return space > 0 ? value.substring(0, space) : value;
+    }
+
+    private static class TermStanza {
+        private String id;
+        private String name;
+        private String shortLabel;
+        private String definition;
+        private boolean obsolete;
+        private final List<String> synonyms = new ArrayList<String>(2);
+        private final List<String> annotations = new ArrayList<String>(0);
+        private final List<String> parentIds = new ArrayList<String>(2);
+    }
+}
@@ -18,23 +18,54 @@ package uk.ac.ebi.intact.dataexchange.enricher.fetch;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import psidev.psi.mi.jami.bridges.fetcher.CvTermFetcher;
 import psidev.psi.mi.jami.bridges.ols.OlsCvTermFetcher;
 import psidev.psi.mi.jami.model.CvTerm;
+import psidev.psi.mi.jami.utils.CvTermUtils;
+
+import java.io.IOException;
 
 /**
- * Intact ols fetcher
+ * Intact ols fetcher. When the CV terms are resolved offline, the PSI-MI terms are looked up in the indexed OBO
+ * file of the EnricherConfig instead of OLS, the terms of the other ontologies being still fetched from OLS.
+ *
+ * The terms are fetched from OLS by the remote fetcher, an OlsCvTermFetcher unless another fetcher is set.
  *
  */
 @Component(value = "intactOlsCvObjectFetcher")
 @Lazy
 public class OlsCvObjectFetcher extends AbstractCvObjectFetcher<CvTerm>{
 
+    private CvTermFetcher<CvTerm> remoteFetcher;
 
     public OlsCvObjectFetcher() {
     }
 
     @Override
     protected void initialiseDefaultFetcher() throws BridgeFailedException {
-        super.setOboFetcher(new OlsCvTermFetcher());
+        CvTermFetcher<CvTerm> olsFetcher = remoteFetcher != null ? remoteFetcher : new OlsCvTermFetcher();
+        if (getEnricherContext().getConfig().isOfflineCvTerms()) {
+            String urlString = getEnricherContext().getConfig().getOboUrl();
+            try {
+                super.setOboFetcher(new IndexedOboCvTermFetcher(getEnricherContext().getOboTermIndex(),
+                        CvTermUtils.createPsiMiDatabase(), olsFetcher));
+            } catch (IOException e) {
+                throw new BridgeFailedException("Cannot read URL "+urlString, e);
+            }
+        }
+        else {
+            super.setOboFetcher(olsFetcher);
+        }
+    }
+
+    /**
+     * @return the fetcher querying OLS, null for a new OlsCvTermFetcher
+     */
+    public CvTermFetcher<CvTerm> getRemoteFetcher() {
+        return remoteFetcher;
+    }
+
+    public void setRemoteFetcher(CvTermFetcher<CvTerm> remoteFetcher) {
+        this.remoteFetcher = remoteFetcher;
     }
 }
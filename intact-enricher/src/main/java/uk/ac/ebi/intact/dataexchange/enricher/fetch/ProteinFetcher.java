@@ -21,15 +21,23 @@ import org.springframework.stereotype.Component;
 import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
 import psidev.psi.mi.jami.bridges.uniprot.UniprotProteinFetcher;
 import psidev.psi.mi.jami.model.Protein;
+import psidev.psi.mi.jami.model.Xref;
 import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.NegativeResultCache;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.FetcherMetrics;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.logging.Logger;
 
 /**
  * Protein Fetcher.
  *
+ * The proteins missing from the caches are fetched by the remote fetcher, which queries UniProt unless another
+ * fetcher is set.
+ *
  * @version $Id$
  */
 @Component(value = "intactProteinFetcher")
@@ -38,9 +46,17 @@ public class ProteinFetcher extends UniprotProteinFetcher{
 
     private static final Logger log = Logger.getLogger(ProteinFetcher.class.getName());
 
+    private static final BulkCacheResolver<String, Protein> bulkResolver =
+            new BulkCacheResolver<String, Protein>(id -> id, ProteinFetcher::getProteinIdentifiers,
+                    BulkCacheResolver.CASE_INSENSITIVE, true);
+
     @Autowired
     private EnricherContext enricherContext;
 
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+
+    private psidev.psi.mi.jami.bridges.fetcher.ProteinFetcher remoteFetcher = new UniprotFetcher();
+
     public ProteinFetcher() {
         super();
     }
@@ -48,14 +64,74 @@ public class ProteinFetcher extends UniprotProteinFetcher{
     @Override
     public Collection<Protein> fetchByIdentifier(String identifier) throws BridgeFailedException {
         EnricherCache proteinCache = enricherContext.getCacheManager().getCache("Protein");
+        NegativeResultCache negativeResults = enricherContext.getCacheManager().getNegativeResultCache();
+
+        return negativeResults.get(proteinCache, identifier,
+                () -> requestCoalescer.execute(identifier, () -> getMetrics().time(() -> remoteFetcher.fetchByIdentifier(identifier)),
+                        proteins -> negativeResults.store(proteinCache, identifier, proteins)));
+    }
+
+    @Override
+    public Collection<Protein> fetchByIdentifiers(Collection<String> identifiers) throws BridgeFailedException {
+        if (identifiers == null || identifiers.isEmpty()) {
+            return Collections.emptyList();
+        }
+        EnricherCache proteinCache = enricherContext.getCacheManager().getCache("Protein");
+        NegativeResultCache negativeResults = enricherContext.getCacheManager().getNegativeResultCache();
+
+        // identifiers already known to be not found or ambiguous are not sent again
+        Collection<Protein> proteins = new ArrayList<Protein>();
+        Collection<String> unknownIdentifiers = new ArrayList<String>(identifiers.size());
+        for (String identifier : identifiers) {
+            Collection<Protein> candidates = negativeResults.getCandidates(proteinCache.getName(), identifier);
+            if (candidates != null) {
+                proteins.addAll(candidates);
+            }
+            else {
+                unknownIdentifiers.add(identifier);
+            }
+        }
+
+        if (!unknownIdentifiers.isEmpty()) {
+            proteins.addAll(bulkResolver.resolve(proteinCache, unknownIdentifiers, misses -> getMetrics().time(() -> remoteFetcher.fetchByIdentifiers(misses)),
+                    (identifier, candidates) -> negativeResults.record(proteinCache.getName(), identifier, candidates)));
+        }
+        return proteins;
+    }
 
-        if (proteinCache.isKeyInCache(identifier)) {
-            return (Collection<Protein>) proteinCache.get(identifier);
+    private static Collection<String> getProteinIdentifiers(Protein protein) {
+        Collection<String> ids = new ArrayList<String>(protein.getIdentifiers().size() + 2);
+        ids.add(protein.getUniprotkb());
+        ids.add(protein.getShortName());
+        for (Xref identifier : protein.getIdentifiers()) {
+            ids.add(identifier.getId());
         }
-        else{
-            Collection<Protein> terms = super.fetchByIdentifier(identifier);
-            proteinCache.put(identifier, terms);
-            return terms;
+        return ids;
+    }
+
+    private FetcherMetrics getMetrics() {
+        return enricherContext.getMetrics().getFetcherMetrics("ProteinFetcher", "Protein");
+    }
+
+    public psidev.psi.mi.jami.bridges.fetcher.ProteinFetcher getRemoteFetcher() {
+        return remoteFetcher;
+    }
+
+    public void setRemoteFetcher(psidev.psi.mi.jami.bridges.fetcher.ProteinFetcher remoteFetcher) {
+        this.remoteFetcher = remoteFetcher != null ? remoteFetcher : new UniprotFetcher();
+    }
+
+    /**
+     * Queries UniProt with the inherited UniprotProteinFetcher.
+     */
+    private class UniprotFetcher implements psidev.psi.mi.jami.bridges.fetcher.ProteinFetcher {
+
+        public Collection<Protein> fetchByIdentifier(String identifier) throws BridgeFailedException {
+            return ProteinFetcher.super.fetchByIdentifier(identifier);
+        }
+
+        public Collection<Protein> fetchByIdentifiers(Collection<String> identifiers) throws BridgeFailedException {
+            return ProteinFetcher.super.fetchByIdentifiers(identifiers);
         }
     }
-}
\ No newline at end of file
+}
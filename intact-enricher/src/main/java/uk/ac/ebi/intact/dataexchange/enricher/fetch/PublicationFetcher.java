@@ -23,12 +23,19 @@ import org.springframework.stereotype.Component;
 import psidev.psi.mi.jami.bridges.europubmedcentral.EuroPubmedCentralFetcher;
 import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
 import psidev.psi.mi.jami.model.Publication;
+import psidev.psi.mi.jami.model.Xref;
 import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
 import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.FetcherMetrics;
+
+import java.util.*;
 
 /**
  * Intact extension of publication fetcher
  *
+ * The publications missing from the cache are fetched by the remote fetcher, which queries Europe PMC unless another
+ * fetcher is set.
+ *
  */
 @Component(value = "intactPublicationFetcher")
 @Lazy
@@ -42,6 +49,8 @@ public class PublicationFetcher extends EuroPubmedCentralFetcher{
     @Autowired
     private EnricherContext enricherContext;
 
+    private psidev.psi.mi.jami.bridges.fetcher.PublicationFetcher remoteFetcher = new EuropePmcFetcher();
+
     public PublicationFetcher() throws BridgeFailedException {
         super();
     }
@@ -50,13 +59,62 @@ public class PublicationFetcher extends EuroPubmedCentralFetcher{
     public Publication fetchByIdentifier(String id, String source) throws BridgeFailedException {
         EnricherCache publicationCache = enricherContext.getCacheManager().getCache("Publication");
         String key = id+"_"+source;
-        if (publicationCache.isKeyInCache(key)) {
-            return (Publication) publicationCache.get(key);
+        return publicationCache.get(key, () -> getMetrics().time(() -> remoteFetcher.fetchByIdentifier(id, source)));
+    }
+
+    /**
+     * The identifiers are resolved through the cache one source at a time and the missing ones
+     * of each source are fetched in one call.
+     */
+    @Override
+    public Collection<Publication> fetchByIdentifiers(Map<String, Collection<String>> identifiers) throws BridgeFailedException {
+        EnricherCache publicationCache = enricherContext.getCacheManager().getCache("Publication");
+        List<Publication> publications = new ArrayList<Publication>();
+        for (Map.Entry<String, Collection<String>> entry : identifiers.entrySet()) {
+            final String source = entry.getKey();
+            BulkCacheResolver<String, Publication> bulkResolver =
+                    new BulkCacheResolver<String, Publication>(id -> id+"_"+source, PublicationFetcher::getPublicationIdentifiers,
+                            BulkCacheResolver.CASE_INSENSITIVE, false);
+            publications.addAll(bulkResolver.resolve(publicationCache, entry.getValue(),
+                    misses -> getMetrics().time(() -> remoteFetcher.fetchByIdentifiers(Collections.singletonMap(source, misses)))));
+        }
+        return publications;
+    }
+
+    private static Collection<String> getPublicationIdentifiers(Publication publication) {
+        Collection<String> ids = new ArrayList<String>(publication.getIdentifiers().size() + 3);
+        ids.add(publication.getPubmedId());
+        ids.add(publication.getDoi());
+        ids.add(publication.getImexId());
+        for (Xref identifier : publication.getIdentifiers()) {
+            ids.add(identifier.getId());
         }
-        else{
-            Publication term = super.fetchByIdentifier(id, source);
-            publicationCache.put(key, term);
-            return term;
+        return ids;
+    }
+
+    private FetcherMetrics getMetrics() {
+        return enricherContext.getMetrics().getFetcherMetrics("PublicationFetcher", "Publication");
+    }
+
+    public psidev.psi.mi.jami.bridges.fetcher.PublicationFetcher getRemoteFetcher() {
+        return remoteFetcher;
+    }
+
+    public void setRemoteFetcher(psidev.psi.mi.jami.bridges.fetcher.PublicationFetcher remoteFetcher) {
+        this.remoteFetcher = remoteFetcher != null ? remoteFetcher : new EuropePmcFetcher();
+    }
+
+    /**
+     * Queries Europe PMC with the inherited EuroPubmedCentralFetcher.
+     */
+    private class EuropePmcFetcher implements psidev.psi.mi.jami.bridges.fetcher.PublicationFetcher {
+
+        public Publication fetchByIdentifier(String id, String source) throws BridgeFailedException {
+            return PublicationFetcher.super.fetchByIdentifier(id, source);
+        }
+
+        public Collection<Publication> fetchByIdentifiers(Map<String, Collection<String>> identifiers) throws BridgeFailedException {
+            return PublicationFetcher.super.fetchByIdentifiers(identifiers);
         }
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fetch;
+
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheLoader;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces concurrent lookups of the same key: the first caller runs the remote lookup and the callers asking
+ * for the same key while it is in flight wait for it and receive the same result, or the same exception.
+ *
+ * A loaded value is stored before the lookup leaves the in-flight map, so a caller coming after the lookup finds
+ * it in the cache instead of starting another lookup.
+ *
+ */
+public class RequestCoalescer {
+
+    private static final Object ABSENT = new Object();
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<Object, CompletableFuture<Object>>();
+
+    /**
+     * Returns the cached value of the key or loads it, sharing the load with the concurrent callers asking for the
+     * same key. The loaded value is written in the cache before the waiting callers are released and before the
+     * lookup leaves the in-flight map.
+     */
+    public <V, E extends Exception> V get(final EnricherCache cache, final Object key, final EnricherCacheLoader<V, E> loader) throws E {
+        // the value is cached by the coalesced lookup, not again by the cache
+        return cache.get(key, () -> execute(key, () -> {
+            // the value may have been cached by a lookup which completed after our cache miss
+            Object cached = cache.peek(key, ABSENT);
+            if (cached != ABSENT) {
+                return (V) cached;
+            }
+            V value = loader.load();
+            cache.put(key, value);
+            return value;
+        }), value -> false);
+    }
+
+    /**
+     * Runs the loader unless a lookup of the same key is already in flight, in which case its result is returned.
+     */
+    public <V, E extends Exception> V execute(Object key, EnricherCacheLoader<V, E> loader) throws E {
+        return execute(key, loader, null);
+    }
+
+    /**
+     * Runs the loader like {@link #execute(Object, EnricherCacheLoader)} and gives the loaded value to the store, which
+     * caches it, before the waiting callers are released and before the lookup leaves the in-flight map.
+     */
+    public <V, E extends Exception> V execute(Object key, EnricherCacheLoader<V, E> loader, Consumer<? super V> store) throws E {
+        CompletableFuture<Object> future = new CompletableFuture<Object>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            return waitFor(existing);
+        }
+
+        try {
+            V value = loader.load();
+            if (store != null) {
+                store.accept(value);
+            }
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * @return the number of lookups currently in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private <V, E extends Exception> V waitFor(CompletableFuture<Object> future) throws E {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return (V) future.get();
+                } catch (InterruptedException e) {
+                    // the lookup belongs to another caller, keep waiting and restore the flag afterwards
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw (E) cause;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fingerprint;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.ac.ebi.intact.dataexchange.enricher.EnricherConfig;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.fingerprint.ObjectStates.ObjectState;
+import uk.ac.ebi.intact.dataexchange.enricher.metrics.TimedAction;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers by the fingerprint of their input the CV terms, organisms, interactors and publications which were not
+ * changed by enrichment, so that an object with the same input is not enriched again.
+ *
+ * The fingerprint is a SHA-256 digest of the state of the object before enrichment and of the enricher config.
+ * Objects changed by enrichment are always enriched, so that they get the terms and objects of the fetchers and the
+ * enricher listeners are notified. The fingerprints are kept in an {@link EnricherCache}, so they are bounded,
+ * expire and are saved in the cache snapshot between runs like the fetched objects.
+ *
+ * The store is only used when enrichmentFingerprints is enabled in the {@link EnricherConfig}, otherwise the
+ * objects are always enriched.
+ *
+ * @version $Id$
+ */
+public class EnrichmentFingerprintStore {
+
+    private static final Log log = LogFactory.getLog(EnrichmentFingerprintStore.class);
+
+    private final EnricherCache cache;
+    private final EnricherConfig config;
+
+    private final AtomicLong unchangedCount = new AtomicLong();
+    private final AtomicLong recordCount = new AtomicLong();
+
+    public EnrichmentFingerprintStore(EnricherCache cache, EnricherConfig config) {
+        this.cache = cache;
+        this.config = config;
+    }
+
+    /**
+     * Enriches the object, unless an earlier object with the same fingerprint was not changed by enrichment.
+     * Objects of an unsupported type are always enriched.
+     */
+    public <E extends Exception> void enrich(Object object, TimedAction<E> enrichment) throws E {
+        if (config == null || !config.isEnrichmentFingerprints()) {
+            enrichment.run();
+            return;
+        }
+
+        ObjectState input = ObjectStates.capture(object);
+        String fingerprint = input != null ? fingerprint(input) : null;
+        if (fingerprint == null) {
+            enrichment.run();
+            return;
+        }
+
+        if (cache.get(fingerprint) != null) {
+            // the enrichment did not change objects with this input
+            unchangedCount.incrementAndGet();
+            return;
+        }
+
+        enrichment.run();
+
+        if (fingerprint.equals(fingerprint(ObjectStates.capture(object)))) {
+            cache.put(fingerprint, fingerprint);
+            recordCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return the fingerprint of the object before enrichment, null if the type of the object is not supported
+     */
+    public String getFingerprint(Object object) {
+        ObjectState state = ObjectStates.capture(object);
+        return state != null ? fingerprint(state) : null;
+    }
+
+    public EnricherCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @return the number of enrichments skipped because objects with the same input were not changed by enrichment
+     */
+    public long getUnchangedCount() {
+        return unchangedCount.get();
+    }
+
+    /**
+     * @return the number of fingerprints recorded for objects not changed by enrichment
+     */
+    public long getRecordCount() {
+        return recordCount.get();
+    }
+
+    private String fingerprint(ObjectState state) {
+        MessageDigest digest = createDigest();
+        digest.update(createConfigFingerprint(config));
+        try (ObjectOutputStream out = new ObjectOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            out.writeObject(state);
+        } catch (IOException e) {
+            log.warn("Cannot compute the enrichment fingerprint of " + state.getClass().getSimpleName(), e);
+            return null;
+        }
+        StringBuilder hex = new StringBuilder("enrichment:");
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] createConfigFingerprint(EnricherConfig config) {
+        if (config == null) {
+            return new byte[0];
+        }
+        String flags = config.isUpdateOrganisms() + "," + config.isUpdateProteins() + "," +
+                config.isUpdateSmallMolecules() + "," + config.isUpdateGenes() + "," +
+                config.isUpdateNucleicAcids() + "," + config.isUpdateCvTerms() + "," +
+                config.isUpdateCellTypesAndTissues() + "," + config.isUpdateCvInXrefsAliasesAnnotations() + "," +
+                config.isOfflineCvTerms() + "," + config.getOboUrl();
+        return flags.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
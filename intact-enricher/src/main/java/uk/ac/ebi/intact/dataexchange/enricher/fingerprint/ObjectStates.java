@@ -0,0 +1,258 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fingerprint;
+
+import psidev.psi.mi.jami.model.*;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Serializable copies of the properties an enricher reads and updates on CV terms, organisms, interactors and
+ * publications. A state captured before enrichment is the input of the fingerprint, which is compared to the
+ * fingerprint of the state captured after enrichment to find out whether the enrichment changed the object.
+ *
+ * CV terms referenced by xrefs, aliases, annotations and checksums are kept by short name and MI identifier.
+ *
+ * @version $Id$
+ */
+public final class ObjectStates {
+
+    private ObjectStates() {
+    }
+
+    /**
+     * @return the state of the object, or null if objects of this type are not supported
+     */
+    public static ObjectState capture(Object object) {
+        // complexes and pools are enriched through their participants and members, which are not kept
+        if (object instanceof Complex || object instanceof InteractorPool) {
+            return null;
+        }
+        else if (object instanceof Interactor) {
+            return new InteractorState((Interactor) object);
+        }
+        else if (object instanceof Organism) {
+            return new OrganismState((Organism) object);
+        }
+        else if (object instanceof Publication) {
+            return new PublicationState((Publication) object);
+        }
+        // sources have their own properties which are not kept
+        else if (object instanceof CvTerm && !(object instanceof Source)) {
+            return new CvTermState((CvTerm) object);
+        }
+        return null;
+    }
+
+    /**
+     * Properties of an object which are part of its fingerprint.
+     */
+    public interface ObjectState extends Serializable {
+    }
+
+    static class CvTermState implements ObjectState {
+        private static final long serialVersionUID = 1L;
+
+        private final String shortName;
+        private final String fullName;
+        private final List<XrefState> identifiers;
+        private final List<XrefState> xrefs;
+        private final List<AliasState> synonyms;
+        private final List<AnnotationState> annotations;
+
+        CvTermState(CvTerm term) {
+            this.shortName = term.getShortName();
+            this.fullName = term.getFullName();
+            this.identifiers = XrefState.of(term.getIdentifiers());
+            this.xrefs = XrefState.of(term.getXrefs());
+            this.synonyms = AliasState.of(term.getSynonyms());
+            this.annotations = AnnotationState.of(term.getAnnotations());
+        }
+
+        private static CvTermState of(CvTerm term) {
+            return term != null ? new CvTermState(term) : null;
+        }
+    }
+
+    static class OrganismState implements ObjectState {
+        private static final long serialVersionUID = 1L;
+
+        private final int taxId;
+        private final String commonName;
+        private final String scientificName;
+        private final List<AliasState> aliases;
+        private final CvTermState cellType;
+        private final CvTermState tissue;
+        private final CvTermState compartment;
+
+        OrganismState(Organism organism) {
+            this.taxId = organism.getTaxId();
+            this.commonName = organism.getCommonName();
+            this.scientificName = organism.getScientificName();
+            this.aliases = AliasState.of(organism.getAliases());
+            this.cellType = CvTermState.of(organism.getCellType());
+            this.tissue = CvTermState.of(organism.getTissue());
+            this.compartment = CvTermState.of(organism.getCompartment());
+        }
+
+        private static OrganismState of(Organism organism) {
+            return organism != null ? new OrganismState(organism) : null;
+        }
+    }
+
+    static class InteractorState implements ObjectState {
+        private static final long serialVersionUID = 1L;
+
+        private final String type;
+        private final String shortName;
+        private final String fullName;
+        private final CvTermState interactorType;
+        private final OrganismState organism;
+        private final List<XrefState> identifiers;
+        private final List<XrefState> xrefs;
+        private final List<AliasState> aliases;
+        private final List<AnnotationState> annotations;
+        private final List<AnnotationState> checksums;
+        private final String sequence;
+
+        InteractorState(Interactor interactor) {
+            // the class is part of the input so that interactors of different types never share a fingerprint
+            this.type = interactor.getClass().getName();
+            this.shortName = interactor.getShortName();
+            this.fullName = interactor.getFullName();
+            this.interactorType = CvTermState.of(interactor.getInteractorType());
+            this.organism = OrganismState.of(interactor.getOrganism());
+            this.identifiers = XrefState.of(interactor.getIdentifiers());
+            this.xrefs = XrefState.of(interactor.getXrefs());
+            this.aliases = AliasState.of(interactor.getAliases());
+            this.annotations = AnnotationState.of(interactor.getAnnotations());
+            this.checksums = new ArrayList<AnnotationState>(interactor.getChecksums().size());
+            for (Checksum checksum : interactor.getChecksums()) {
+                this.checksums.add(new AnnotationState(checksum.getMethod(), checksum.getValue()));
+            }
+            this.sequence = interactor instanceof Polymer ? ((Polymer) interactor).getSequence() : null;
+        }
+    }
+
+    static class PublicationState implements ObjectState {
+        private static final long serialVersionUID = 1L;
+
+        private final String title;
+        private final String journal;
+        private final Date publicationDate;
+        private final List<String> authors;
+        private final List<XrefState> identifiers;
+        private final List<XrefState> xrefs;
+        private final List<AnnotationState> annotations;
+
+        PublicationState(Publication publication) {
+            this.title = publication.getTitle();
+            this.journal = publication.getJournal();
+            this.publicationDate = publication.getPublicationDate();
+            this.authors = new ArrayList<String>(publication.getAuthors());
+            this.identifiers = XrefState.of(publication.getIdentifiers());
+            this.xrefs = XrefState.of(publication.getXrefs());
+            this.annotations = AnnotationState.of(publication.getAnnotations());
+        }
+    }
+
+    /**
+     * CV term referenced by its short name and MI identifier
+     */
+    static class TermReference implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String shortName;
+        private final String mi;
+
+        private TermReference(CvTerm term) {
+            this.shortName = term.getShortName();
+            this.mi = term.getMIIdentifier();
+        }
+
+        private static TermReference of(CvTerm term) {
+            return term != null ? new TermReference(term) : null;
+        }
+    }
+
+    static class XrefState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final TermReference database;
+        private final String id;
+        private final String version;
+        private final TermReference qualifier;
+
+        private XrefState(Xref xref) {
+            this.database = TermReference.of(xref.getDatabase());
+            this.id = xref.getId();
+            this.version = xref.getVersion();
+            this.qualifier = TermReference.of(xref.getQualifier());
+        }
+
+        private static List<XrefState> of(Collection<? extends Xref> xrefs) {
+            List<XrefState> states = new ArrayList<XrefState>(xrefs.size());
+            for (Xref xref : xrefs) {
+                states.add(new XrefState(xref));
+            }
+            return states;
+        }
+    }
+
+    static class AliasState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final TermReference type;
+        private final String name;
+
+        private AliasState(Alias alias) {
+            this.type = TermReference.of(alias.getType());
+            this.name = alias.getName();
+        }
+
+        private static List<AliasState> of(Collection<? extends Alias> aliases) {
+            List<AliasState> states = new ArrayList<AliasState>(aliases.size());
+            for (Alias alias : aliases) {
+                states.add(new AliasState(alias));
+            }
+            return states;
+        }
+    }
+
+    static class AnnotationState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final TermReference topic;
+        private final String value;
+
+        private AnnotationState(CvTerm topic, String value) {
+            this.topic = TermReference.of(topic);
+            this.value = value;
+        }
+
+        private static List<AnnotationState> of(Collection<? extends Annotation> annotations) {
+            List<AnnotationState> states = new ArrayList<AnnotationState>(annotations.size());
+            for (Annotation annotation : annotations) {
+                states.add(new AnnotationState(annotation.getTopic(), annotation.getValue()));
+            }
+            return states;
+        }
+    }
+}
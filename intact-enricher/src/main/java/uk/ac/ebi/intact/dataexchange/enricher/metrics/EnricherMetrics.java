@@ -0,0 +1,206 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheManager;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the metrics of the fetchers and enrichers of an enricher context.
+ *
+ * The metrics can be registered as MBeans under the {@link #JMX_DOMAIN} domain and summarised in the log
+ * at a fixed interval.
+ *
+ * @version $Id$
+ */
+public class EnricherMetrics {
+
+    private static final Log log = LogFactory.getLog(EnricherMetrics.class);
+
+    public static final String JMX_DOMAIN = "uk.ac.ebi.intact.enricher";
+
+    private final EnricherCacheManager cacheManager;
+    private final ConcurrentMap<String, FetcherMetrics> fetcherMetrics = new ConcurrentHashMap<String, FetcherMetrics>();
+    private final ConcurrentMap<String, OperationMetrics> enricherMetrics = new ConcurrentHashMap<String, OperationMetrics>();
+    private final Set<ObjectName> registeredNames = Collections.newSetFromMap(new ConcurrentHashMap<ObjectName, Boolean>());
+
+    private volatile boolean jmxEnabled;
+    private ScheduledExecutorService reporter;
+
+    public EnricherMetrics(EnricherCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * @return the metrics of the fetcher, created on first use
+     */
+    public FetcherMetrics getFetcherMetrics(String fetcherName, String cacheName) {
+        FetcherMetrics metrics = fetcherMetrics.get(fetcherName);
+        if (metrics != null) {
+            return metrics;
+        }
+        return fetcherMetrics.computeIfAbsent(fetcherName, name -> {
+            FetcherMetrics created = new FetcherMetrics(name, cacheName, cacheManager);
+            if (jmxEnabled) {
+                register("Fetcher", name, created);
+            }
+            return created;
+        });
+    }
+
+    /**
+     * @return the metrics of the enricher, created on first use
+     */
+    public OperationMetrics getEnricherMetrics(String enricherName) {
+        OperationMetrics metrics = enricherMetrics.get(enricherName);
+        if (metrics != null) {
+            return metrics;
+        }
+        return enricherMetrics.computeIfAbsent(enricherName, name -> {
+            OperationMetrics created = new OperationMetrics(name);
+            if (jmxEnabled) {
+                register("Enricher", name, created);
+            }
+            return created;
+        });
+    }
+
+    public Collection<FetcherMetrics> getFetcherMetrics() {
+        return Collections.unmodifiableCollection(fetcherMetrics.values());
+    }
+
+    public Collection<OperationMetrics> getEnricherMetrics() {
+        return Collections.unmodifiableCollection(enricherMetrics.values());
+    }
+
+    /**
+     * Registers the existing and future metrics as MBeans
+     */
+    public synchronized void registerMBeans() {
+        jmxEnabled = true;
+        for (FetcherMetrics metrics : fetcherMetrics.values()) {
+            register("Fetcher", metrics.getName(), metrics);
+        }
+        for (OperationMetrics metrics : enricherMetrics.values()) {
+            register("Enricher", metrics.getName(), metrics);
+        }
+    }
+
+    public synchronized void unregisterMBeans() {
+        jmxEnabled = false;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registeredNames) {
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (Exception e) {
+                log.warn("Cannot unregister the enricher MBean " + name, e);
+            }
+        }
+        registeredNames.clear();
+    }
+
+    /**
+     * Starts logging a summary of the metrics at a fixed interval, does nothing if the interval is lower or equal to 0.
+     */
+    public synchronized void startReporting(long intervalSeconds) {
+        if (intervalSeconds <= 0 || reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "enricher-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(this::logSummary, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * Logs the metrics of the fetchers, enrichers and caches, slowest first.
+     */
+    public void logSummary() {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        log.info(getSummary());
+    }
+
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder("Enricher metrics");
+        appendSection(summary, "fetchers", fetcherMetrics.values());
+        appendSection(summary, "enrichers", enricherMetrics.values());
+        if (cacheManager != null) {
+            summary.append("\n  caches:");
+            for (EnricherCache cache : cacheManager.getCaches()) {
+                summary.append("\n    ").append(cache);
+            }
+        }
+        return summary.toString();
+    }
+
+    public void reset() {
+        for (OperationMetrics metrics : fetcherMetrics.values()) {
+            metrics.reset();
+        }
+        for (OperationMetrics metrics : enricherMetrics.values()) {
+            metrics.reset();
+        }
+    }
+
+    private void appendSection(StringBuilder summary, String title, Collection<? extends OperationMetrics> metrics) {
+        List<OperationMetrics> sorted = new ArrayList<OperationMetrics>(metrics);
+        sorted.sort(Comparator.comparingDouble(OperationMetrics::getTotalTimeSeconds).reversed());
+        summary.append("\n  ").append(title).append(":");
+        for (OperationMetrics m : sorted) {
+            summary.append("\n    ").append(m);
+        }
+    }
+
+    private void register(String type, String name, Object mbean) {
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                // left by another enricher context of the same JVM, the latest context is exposed
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(mbean, objectName);
+            registeredNames.add(objectName);
+        } catch (Exception e) {
+            log.warn("Cannot register the MBean of " + name, e);
+        }
+    }
+}
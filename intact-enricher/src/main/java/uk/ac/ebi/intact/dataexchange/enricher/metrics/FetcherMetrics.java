@@ -0,0 +1,78 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.metrics;
+
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheManager;
+
+import java.util.Locale;
+
+/**
+ * Metrics of a fetcher. The calls recorded are the remote calls, the lookups answered by the cache
+ * being given by the cache statistics.
+ *
+ * @version $Id$
+ */
+public class FetcherMetrics extends OperationMetrics implements FetcherMetricsMBean {
+
+    private final String cacheName;
+    private final EnricherCacheManager cacheManager;
+
+    public FetcherMetrics(String name, String cacheName, EnricherCacheManager cacheManager) {
+        super(name);
+        this.cacheName = cacheName;
+        this.cacheManager = cacheManager;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public int getCacheSize() {
+        EnricherCache cache = getCache();
+        return cache != null ? cache.getSize() : 0;
+    }
+
+    public long getCacheHits() {
+        EnricherCache cache = getCache();
+        return cache != null ? cache.getInMemoryHits() : 0;
+    }
+
+    public long getCacheMisses() {
+        EnricherCache cache = getCache();
+        return cache != null ? cache.getMisses() : 0;
+    }
+
+    public double getCacheHitRatio() {
+        EnricherCache cache = getCache();
+        return cache != null ? cache.getHitRatio() : 0;
+    }
+
+    public long getCacheEvictionCount() {
+        EnricherCache cache = getCache();
+        return cache != null ? cache.getEvictionCount() : 0;
+    }
+
+    private EnricherCache getCache() {
+        return cacheManager != null && cacheName != null ? cacheManager.getCache(cacheName) : null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s, cache %s hit ratio %.2f (%d entries)",
+                super.toString(), cacheName, getCacheHitRatio(), getCacheSize());
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.metrics;
+
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheLoader;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Call count, error count and latency histogram of an enricher or a fetcher.
+ *
+ * The time of nested calls is included, so the elapsed time of an enricher contains the time of the enrichers and
+ * fetchers it delegates to.
+ *
+ * @version $Id$
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Runs the call and records its latency, the call being counted as an error if it throws an exception.
+     */
+    public <V, E extends Exception> V time(EnricherCacheLoader<V, E> call) throws E {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            V value = call.load();
+            failed = false;
+            return value;
+        } finally {
+            record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Runs the action and records its latency, the action being counted as an error if it throws an exception.
+     */
+    public <E extends Exception> void run(TimedAction<E> action) throws E {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            action.run();
+            failed = false;
+        } finally {
+            record(System.nanoTime() - start, failed);
+        }
+    }
+
+    public void record(long nanos, boolean failed) {
+        histogram.record(nanos);
+        if (failed) {
+            errorCount.incrementAndGet();
+        }
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCallCount() {
+        return histogram.getCount();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    public double getMeanLatencyMillis() {
+        return histogram.getMeanMillis();
+    }
+
+    public double getMaxLatencyMillis() {
+        return histogram.getMaxMillis();
+    }
+
+    public double getMedianLatencyMillis() {
+        return histogram.getPercentileMillis(50);
+    }
+
+    public double get95thPercentileLatencyMillis() {
+        return histogram.getPercentileMillis(95);
+    }
+
+    public double get99thPercentileLatencyMillis() {
+        return histogram.getPercentileMillis(99);
+    }
+
+    public double getTotalTimeSeconds() {
+        return histogram.getTotalTime() / 1000000000d;
+    }
+
+    public long[] getLatencyBucketBounds() {
+        return LatencyHistogram.getBucketBounds();
+    }
+
+    public long[] getLatencyBucketCounts() {
+        return histogram.getBucketCounts();
+    }
+
+    public void reset() {
+        histogram.reset();
+        errorCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %d calls, %d errors, %.1fs total, mean %.1fms, p50 %.0fms, p95 %.0fms, p99 %.0fms, max %.1fms",
+                name, getCallCount(), getErrorCount(), getTotalTimeSeconds(), getMeanLatencyMillis(),
+                getMedianLatencyMillis(), get95thPercentileLatencyMillis(), get99thPercentileLatencyMillis(),
+                getMaxLatencyMillis());
+    }
+}
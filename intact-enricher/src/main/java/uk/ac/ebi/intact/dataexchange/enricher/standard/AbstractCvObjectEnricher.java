@@ -43,6 +43,12 @@ public abstract class AbstractCvObjectEnricher<T extends CvTerm> extends FullCvT
         super(intactCvObjectFetcher);
     }
 
+    @Override
+    public void enrich(T objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(
+                () -> enricherContext.getFingerprintStore().enrich(objectToEnrich, () -> super.enrich(objectToEnrich)));
+    }
+
     @Override
     protected void processAnnotations(T cvTermToEnrich, T termFetched) throws EnricherException{
         if (termFetched != null){
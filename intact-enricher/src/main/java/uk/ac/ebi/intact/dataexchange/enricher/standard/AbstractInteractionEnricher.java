@@ -45,6 +45,11 @@ public abstract class AbstractInteractionEnricher<T extends Interaction> extends
     public AbstractInteractionEnricher() {
     }
 
+    @Override
+    public void enrich(T objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(() -> super.enrich(objectToEnrich));
+    }
+
     @Override
     protected void processOtherProperties(T interactionToEnrich) throws EnricherException {
         super.processOtherProperties(interactionToEnrich);
@@ -52,6 +52,12 @@ public class BioActiveEntityEnricher extends FullBioactiveEntityEnricher {
         super(intactBioactiveEntityFetcher);
     }
 
+    @Override
+    public void enrich(BioactiveEntity objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(
+                () -> enricherContext.getFingerprintStore().enrich(objectToEnrich, () -> super.enrich(objectToEnrich)));
+    }
+
     @Override
     protected void onEnrichedVersionNotFound(BioactiveEntity objectToEnrich) throws EnricherException {
 
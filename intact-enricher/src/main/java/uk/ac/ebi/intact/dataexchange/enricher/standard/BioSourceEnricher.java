@@ -49,6 +49,12 @@ public class BioSourceEnricher extends FullOrganismEnricher {
         super(bioSourceFetcher);
     }
 
+    @Override
+    public void enrich(Organism objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(
+                () -> enricherContext.getFingerprintStore().enrich(objectToEnrich, () -> super.enrich(objectToEnrich)));
+    }
+
     @Override
     /**
      * Overrides scientific name if not the same
@@ -57,10 +57,11 @@ public class ComponentEnricher extends FullParticipantEvidenceEnricher<Participa
 
     @Override
     public void enrich(ParticipantEvidence participantToEnrich) throws EnricherException {
-        super.enrich(participantToEnrich);
-        // enrich other properties
-        intactParticipantEnricher.enrich(participantToEnrich);
-
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(() -> {
+            super.enrich(participantToEnrich);
+            // enrich other properties
+            intactParticipantEnricher.enrich(participantToEnrich);
+        });
     }
 
     @Override
@@ -60,6 +60,11 @@ public class ExperimentEnricher extends FullExperimentEnricher {
         super();
     }
 
+    @Override
+    public void enrich(Experiment objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(() -> super.enrich(objectToEnrich));
+    }
+
     @Override
     protected void processOtherProperties(Experiment experimentToEnrich) throws EnricherException {
         super.processOtherProperties(experimentToEnrich);
@@ -55,6 +55,11 @@ public class FeatureEnricher<F extends Feature> extends FullFeatureEnricher<F> {
         }
     }
 
+    @Override
+    public void enrich(F objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(() -> super.enrich(objectToEnrich));
+    }
+
     @Override
     protected void processFeatureType(F featureToEnrich) throws EnricherException {
         if(enricherContext.getConfig().isUpdateCvTerms()
@@ -46,10 +46,12 @@ public class FeatureEvidenceEnricher extends MinimalFeatureEvidenceEnricher {
 
     @Override
     public void enrich(FeatureEvidence featureToEnrich) throws EnricherException {
-        // enrich full feature
-        getIntactFeatureEnricher().enrich(featureToEnrich);
-        // enrich other properties
-        super.enrich(featureToEnrich);
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(() -> {
+            // enrich full feature
+            getIntactFeatureEnricher().enrich(featureToEnrich);
+            // enrich other properties
+            super.enrich(featureToEnrich);
+        });
     }
 
     @Override
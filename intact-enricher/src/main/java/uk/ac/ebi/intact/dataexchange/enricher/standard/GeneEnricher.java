@@ -54,6 +54,12 @@ public class GeneEnricher extends FullGeneEnricher {
         this.setEnsemblFetcher(ensemblGeneFetcher);
     }
 
+    @Override
+    public void enrich(Gene objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(
+                () -> enricherContext.getFingerprintStore().enrich(objectToEnrich, () -> super.enrich(objectToEnrich)));
+    }
+
     @Override
     protected void onEnrichedVersionNotFound(Gene objectToEnrich) throws EnricherException {
 
@@ -55,6 +55,11 @@ public class InteractionEvidenceEnricher extends FullInteractionEvidenceEnricher
         getInteractionEnricher().setParticipantEnricher(getParticipantEnricher());
     }
 
+    @Override
+    public void enrich(InteractionEvidence objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(() -> super.enrich(objectToEnrich));
+    }
+
     @Override
     protected void processConfidences(InteractionEvidence objectToEnrich, InteractionEvidence objectSource) throws EnricherException {
         if (objectSource != null){
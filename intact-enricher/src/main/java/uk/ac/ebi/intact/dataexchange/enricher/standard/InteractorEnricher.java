@@ -50,6 +50,12 @@ public class InteractorEnricher extends FullInteractorBaseEnricher<Interactor> {
         super();
     }
 
+    @Override
+    public void enrich(Interactor objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(
+                () -> enricherContext.getFingerprintStore().enrich(objectToEnrich, () -> super.enrich(objectToEnrich)));
+    }
+
     @Override
     protected void processOrganism(Interactor entityToEnrich) throws EnricherException {
         if (enricherContext.getConfig().isUpdateOrganisms()
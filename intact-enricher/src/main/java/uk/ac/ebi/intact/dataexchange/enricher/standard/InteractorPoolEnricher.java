@@ -47,6 +47,11 @@ public class InteractorPoolEnricher extends FullInteractorPoolEnricher {
         super();
     }
 
+    @Override
+    public void enrich(InteractorPool objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(() -> super.enrich(objectToEnrich));
+    }
+
     @Override
     protected void processOrganism(InteractorPool entityToEnrich) throws EnricherException {
         if (enricherContext.getConfig().isUpdateOrganisms()
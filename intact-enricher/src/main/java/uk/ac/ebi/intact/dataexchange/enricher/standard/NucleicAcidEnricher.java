@@ -55,6 +55,12 @@ public class NucleicAcidEnricher extends FullNucleicAcidEnricher {
         this.setEnsemblFetcher(ensemblNucleicAcidFetcherFetcher);
     }
 
+    @Override
+    public void enrich(NucleicAcid objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(
+                () -> enricherContext.getFingerprintStore().enrich(objectToEnrich, () -> super.enrich(objectToEnrich)));
+    }
+
     @Override
     protected void onEnrichedVersionNotFound(NucleicAcid objectToEnrich) throws EnricherException {
 
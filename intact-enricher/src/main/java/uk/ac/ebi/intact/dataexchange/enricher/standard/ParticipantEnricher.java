@@ -51,6 +51,11 @@ public class ParticipantEnricher<P extends Participant, F extends Feature> exten
     public ParticipantEnricher() {
     }
 
+    @Override
+    public void enrich(P objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(() -> super.enrich(objectToEnrich));
+    }
+
     @Override
     protected void processCausalRelationships(P objectToEnrich, P objectSource) throws EnricherException {
         if (objectSource != null){
@@ -52,6 +52,12 @@ public class ProteinEnricher extends FullProteinEnricher {
         super(proteinFetcher);
     }
 
+    @Override
+    public void enrich(Protein objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(
+                () -> enricherContext.getFingerprintStore().enrich(objectToEnrich, () -> super.enrich(objectToEnrich)));
+    }
+
     @Override
     protected void onEnrichedVersionNotFound(Protein objectToEnrich) throws EnricherException {
 
@@ -68,6 +68,12 @@ public class PublicationEnricher extends FullPublicationEnricher implements Cura
         super(intactPublicationFetcher);
     }
 
+    @Override
+    public void enrich(Publication objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(
+                () -> enricherContext.getFingerprintStore().enrich(objectToEnrich, () -> super.enrich(objectToEnrich)));
+    }
+
     @Override
     protected void processCurationDepth(Publication publicationToEnrich, Publication fetched) throws EnricherException {
         if (fetched != null){
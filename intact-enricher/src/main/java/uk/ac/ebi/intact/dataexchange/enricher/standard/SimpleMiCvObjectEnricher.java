@@ -50,6 +50,12 @@ public class SimpleMiCvObjectEnricher extends FullCvTermEnricher<CvTerm> {
         super(intactCvObjectFetcher);
     }
 
+    @Override
+    public void enrich(CvTerm objectToEnrich) throws EnricherException {
+        enricherContext.getMetrics().getEnricherMetrics(getClass().getSimpleName()).run(
+                () -> enricherContext.getFingerprintStore().enrich(objectToEnrich, () -> super.enrich(objectToEnrich)));
+    }
+
     @Override
     protected void processFullName(CvTerm cvTermToEnrich, CvTerm cvTermFetched) throws EnricherException{
         if((cvTermFetched.getFullName() != null && !cvTermFetched.getFullName().equals(cvTermToEnrich.getFullName()))
@@ -0,0 +1,215 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import psidev.psi.mi.jami.model.CvTerm;
+import psidev.psi.mi.jami.model.Organism;
+import psidev.psi.mi.jami.model.Protein;
+import psidev.psi.mi.jami.model.Xref;
+import psidev.psi.mi.jami.model.impl.DefaultCvTerm;
+import psidev.psi.mi.jami.model.impl.DefaultOrganism;
+import psidev.psi.mi.jami.model.impl.DefaultProtein;
+import psidev.psi.mi.jami.model.impl.DefaultXref;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for the EnricherCacheStore
+ *
+ * @version $Id$
+ */
+public class EnricherCacheStoreTest {
+
+    private File file;
+
+    @Before
+    public void before() throws Exception {
+        file = File.createTempFile("enricher-cache", ".snapshot");
+        file.delete();
+    }
+
+    @After
+    public void after() {
+        file.delete();
+    }
+
+    @Test
+    public void saveAndLoad() throws Exception {
+        EnricherCacheManager manager = new EnricherCacheManager();
+        manager.getCache("Protein").put("P12345", Arrays.asList("protein"));
+        manager.getCache("BioSource").put(9606, "human");
+        manager.getCache("BioSource").put(-5, null);
+        manager.getCache("Publication").put("not serializable", new Object());
+
+        EnricherCacheStore store = new EnricherCacheStore(file);
+        Assert.assertEquals(3, store.save(manager));
+
+        EnricherCacheManager restored = new EnricherCacheManager();
+        Assert.assertEquals(3, store.load(restored));
+        Assert.assertEquals(Arrays.asList("protein"), restored.getCache("Protein").get("P12345"));
+        Assert.assertEquals("human", restored.getCache("BioSource").get(9606));
+        Assert.assertTrue(restored.getCache("BioSource").isKeyInCache(-5));
+        Assert.assertFalse(restored.getCache("Publication").isKeyInCache("not serializable"));
+    }
+
+    @Test
+    public void saveAndLoad_jamiObjects() throws Exception {
+        CvTerm identity = new DefaultCvTerm("identity");
+        CvTerm psiMi = new DefaultCvTerm("psi-mi");
+        psiMi.getIdentifiers().add(new DefaultXref(psiMi, "MI:0488", identity));
+        CvTerm uniprot = new DefaultCvTerm("uniprotkb", "UniProt Knowledge Base", new DefaultXref(psiMi, "MI:0486", identity));
+        CvTerm proteinType = new DefaultCvTerm("protein", "protein", new DefaultXref(psiMi, "MI:0326", identity));
+
+        Organism human = new DefaultOrganism(9606, "human", "Homo sapiens");
+        Protein protein = new DefaultProtein("mk01_human");
+        protein.setFullName("Mitogen-activated protein kinase 1");
+        protein.setSequence("MAAAAAAGAGPEMVRGQVFDVGPRYTNLSYIGEGAYGMV");
+        protein.setOrganism(human);
+        protein.setInteractorType(proteinType);
+        protein.getIdentifiers().add(new DefaultXref(uniprot, "P28482", identity));
+
+        EnricherCacheManager manager = new EnricherCacheManager();
+        manager.getCache("Protein").put("P28482", Collections.singletonList(protein));
+        manager.getCache("BioSource").put(9606, human);
+        manager.getCache("CvObject").put("MI:0326_psi-mi", proteinType);
+        manager.getCache("CvObject").put("MI:0488_psi-mi", psiMi);
+        manager.getNegativeResultCache().record("Protein", "Q00000", Arrays.asList(protein, new DefaultProtein("other")));
+
+        EnricherCacheStore store = new EnricherCacheStore(file);
+        Assert.assertEquals(5, store.save(manager));
+
+        EnricherCacheManager restored = new EnricherCacheManager();
+        Assert.assertEquals(5, store.load(restored));
+
+        Collection<Protein> proteins = (Collection<Protein>) restored.getCache("Protein").get("P28482");
+        Assert.assertEquals(1, proteins.size());
+        Protein restoredProtein = proteins.iterator().next();
+        Assert.assertEquals("mk01_human", restoredProtein.getShortName());
+        Assert.assertEquals("Mitogen-activated protein kinase 1", restoredProtein.getFullName());
+        Assert.assertEquals("MAAAAAAGAGPEMVRGQVFDVGPRYTNLSYIGEGAYGMV", restoredProtein.getSequence());
+        Assert.assertEquals("Homo sapiens", restoredProtein.getOrganism().getScientificName());
+        Assert.assertEquals("protein", restoredProtein.getInteractorType().getFullName());
+
+        Xref identifier = restoredProtein.getIdentifiers().iterator().next();
+        Assert.assertEquals("P28482", identifier.getId());
+        Assert.assertEquals("UniProt Knowledge Base", identifier.getDatabase().getFullName());
+        Xref databaseIdentifier = identifier.getDatabase().getIdentifiers().iterator().next();
+        Assert.assertEquals("MI:0486", databaseIdentifier.getId());
+        // the same term is read back as one object within an entry
+        Assert.assertSame(identifier.getQualifier(), databaseIdentifier.getQualifier());
+        Assert.assertEquals("MI:0488", databaseIdentifier.getDatabase().getIdentifiers().iterator().next().getId());
+
+        Organism restoredHuman = (Organism) restored.getCache("BioSource").get(9606);
+        Assert.assertEquals(9606, restoredHuman.getTaxId());
+        Assert.assertEquals("human", restoredHuman.getCommonName());
+
+        CvTerm restoredType = (CvTerm) restored.getCache("CvObject").get("MI:0326_psi-mi");
+        Assert.assertEquals("MI:0326", restoredType.getIdentifiers().iterator().next().getId());
+
+        // the identity xref of psi-mi references psi-mi itself
+        CvTerm restoredPsiMi = (CvTerm) restored.getCache("CvObject").get("MI:0488_psi-mi");
+        Xref psiMiIdentifier = restoredPsiMi.getIdentifiers().iterator().next();
+        Assert.assertEquals("MI:0488", psiMiIdentifier.getId());
+        Assert.assertSame(restoredPsiMi, psiMiIdentifier.getDatabase());
+        Assert.assertEquals("identity", psiMiIdentifier.getQualifier().getShortName());
+
+        Collection<Protein> candidates = restored.getNegativeResultCache().getCandidates("Protein", "Q00000");
+        Assert.assertEquals(2, candidates.size());
+        Assert.assertEquals(NegativeResultCache.Outcome.AMBIGUOUS, restored.getNegativeResultCache().getOutcome("Protein", "Q00000"));
+    }
+
+    @Test
+    public void versionAndAgeLimits() throws Exception {
+        EnricherCacheStore store = new EnricherCacheStore(file);
+        long now = System.currentTimeMillis();
+        store.append("Protein", new EnricherCacheConfig(), Collections.singletonList(new EnricherCacheElement("old", "v", now - 100000)));
+        store.append("Protein", new EnricherCacheConfig(), Collections.singletonList(new EnricherCacheElement("recent", "v", now)));
+        EnricherCacheConfig otherVersion = new EnricherCacheConfig();
+        otherVersion.setSnapshotVersion("0");
+        store.append("Gene", otherVersion, Collections.singletonList(new EnricherCacheElement("gene", "v", now)));
+
+        EnricherCacheConfig config = new EnricherCacheConfig();
+        config.setMaxSnapshotAge(10000);
+        Map<String, EnricherCacheConfig> configs = new HashMap<String, EnricherCacheConfig>();
+        configs.put("Protein", config);
+        EnricherCacheManager manager = new EnricherCacheManager();
+        manager.setCacheConfigs(configs);
+
+        Assert.assertEquals(1, store.load(manager));
+        Assert.assertTrue(manager.getCache("Protein").isKeyInCache("recent"));
+        Assert.assertFalse(manager.getCache("Protein").isKeyInCache("old"));
+        Assert.assertFalse(manager.getCache("Gene").isKeyInCache("gene"));
+    }
+
+    @Test
+    public void corruptedRecordsAreSkipped() throws Exception {
+        // a term without short name, which the JAMI constructors reject when it is read back
+        CvTerm noShortName = new DefaultCvTerm("no short name") {
+            @Override
+            public String getShortName() {
+                return null;
+            }
+        };
+        long now = System.currentTimeMillis();
+        EnricherCacheStore store = new EnricherCacheStore(file);
+        store.append("CvObject", new EnricherCacheConfig(), Arrays.asList(new EnricherCacheElement("a", "1", now),
+                new EnricherCacheElement("broken", noShortName, now)));
+
+        // a record which is not a serialized entry
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true));
+        out.writeUTF("CvObject");
+        out.writeUTF(new EnricherCacheConfig().getSnapshotVersion());
+        out.writeLong(now);
+        out.writeInt(4);
+        out.write(new byte[] {1, 2, 3, 4});
+        out.close();
+
+        store.append("CvObject", new EnricherCacheConfig(), Collections.singletonList(new EnricherCacheElement("b", "2", now)));
+
+        EnricherCacheManager manager = new EnricherCacheManager();
+        Assert.assertEquals(2, store.load(manager));
+        Assert.assertEquals("1", manager.getCache("CvObject").get("a"));
+        Assert.assertEquals("2", manager.getCache("CvObject").get("b"));
+        Assert.assertFalse(manager.getCache("CvObject").isKeyInCache("broken"));
+    }
+
+    @Test
+    public void truncatedRecordIsIgnored() throws Exception {
+        EnricherCacheStore store = new EnricherCacheStore(file);
+        store.append("Protein", new EnricherCacheConfig(), Arrays.asList(new EnricherCacheElement("a", "1", System.currentTimeMillis()),
+                new EnricherCacheElement("b", "2", System.currentTimeMillis())));
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() - 3);
+        raf.close();
+
+        EnricherCacheManager manager = new EnricherCacheManager();
+        Assert.assertEquals(1, store.load(manager));
+        Assert.assertEquals("1", manager.getCache("Protein").get("a"));
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the EnricherCache
+ *
+ * @version $Id$
+ */
+public class EnricherCacheTest {
+
+    @Test
+    public void hitsAndMisses() throws Exception {
+        EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig());
+
+        Assert.assertEquals("value", cache.get("key", () -> "value"));
+        Assert.assertEquals("value", cache.get("key", () -> "other"));
+
+        Assert.assertEquals(1, cache.getInMemoryHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(1, cache.getLoadCount());
+        Assert.assertEquals(0.5, cache.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void nullValuesAreCached() throws Exception {
+        EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig());
+
+        Assert.assertNull(cache.get("key", () -> null));
+        Assert.assertTrue(cache.isKeyInCache("key"));
+        Assert.assertNull(cache.get("key", () -> "value"));
+        Assert.assertEquals(1, cache.getLoadCount());
+    }
+
+    @Test
+    public void lruEviction() throws Exception {
+        EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig(2, 0, EvictionPolicy.LRU));
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        Assert.assertTrue(cache.isKeyInCache("a"));
+        Assert.assertFalse(cache.isKeyInCache("b"));
+        Assert.assertTrue(cache.isKeyInCache("c"));
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void lfuEviction() throws Exception {
+        EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig(2, 0, EvictionPolicy.LFU));
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        cache.get("a");
+        cache.put("c", 3);
+
+        Assert.assertTrue(cache.isKeyInCache("a"));
+        Assert.assertFalse(cache.isKeyInCache("b"));
+        Assert.assertTrue(cache.isKeyInCache("c"));
+    }
+
+    @Test
+    public void weightBound() throws Exception {
+        EnricherCacheConfig config = new EnricherCacheConfig(0, 0, EvictionPolicy.LRU);
+        config.setMaxWeight(4);
+        config.setWeigher(EnricherCacheWeigher.COLLECTION_SIZE);
+        EnricherCache cache = new EnricherCache("test", config);
+
+        cache.put("a", Arrays.asList(1, 2));
+        cache.put("b", Arrays.asList(1, 2));
+        Assert.assertEquals(4, cache.getWeight());
+
+        cache.put("c", Arrays.asList(1));
+        Assert.assertFalse(cache.isKeyInCache("a"));
+        Assert.assertEquals(3, cache.getWeight());
+    }
+
+    @Test
+    public void timeToLive() throws Exception {
+        EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig(10, 50, EvictionPolicy.LRU));
+
+        cache.put("a", 1);
+        Assert.assertEquals(1, cache.get("a"));
+        Thread.sleep(100);
+        Assert.assertFalse(cache.isKeyInCache("a"));
+        Assert.assertEquals(1, cache.getExpirationCount());
+    }
+
+    @Test
+    public void concurrentAccess() throws Exception {
+        final EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig(100, 0, EvictionPolicy.LRU));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    final int key = i % 200;
+                    cache.get(key, () -> key);
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        Assert.assertEquals(80000, cache.getInMemoryHits() + cache.getMisses());
+        Assert.assertEquals(cache.getMisses(), cache.getLoadCount());
+        Assert.assertTrue(cache.getSize() <= 100);
+    }
+}
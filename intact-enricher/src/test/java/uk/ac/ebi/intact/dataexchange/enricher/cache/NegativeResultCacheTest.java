@@ -0,0 +1,94 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the NegativeResultCache
+ *
+ * @version $Id$
+ */
+public class NegativeResultCacheTest {
+
+    @Test
+    public void notFoundIsNotLookedUpAgain() throws Exception {
+        EnricherCacheManager manager = new EnricherCacheManager();
+        NegativeResultCache negativeResults = manager.getNegativeResultCache();
+        EnricherCache proteinCache = manager.getCache("Protein");
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            Collection<String> result = negativeResults.get(proteinCache, "P00000", () -> {
+                loads.incrementAndGet();
+                return Collections.<String>emptyList();
+            });
+            Assert.assertTrue(result.isEmpty());
+        }
+
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(NegativeResultCache.Outcome.NOT_FOUND, negativeResults.getOutcome("Protein", "P00000"));
+        Assert.assertFalse(proteinCache.isKeyInCache("P00000"));
+    }
+
+    @Test
+    public void ambiguousResultKeepsTheCandidates() throws Exception {
+        EnricherCacheManager manager = new EnricherCacheManager();
+        NegativeResultCache negativeResults = manager.getNegativeResultCache();
+        EnricherCache geneCache = manager.getCache("Gene");
+
+        negativeResults.get(geneCache, "BRCA1", () -> Arrays.asList("P38398", "Q3LRJ0"));
+        Collection<String> candidates = negativeResults.get(geneCache, "BRCA1", () -> {
+            throw new IllegalStateException("should not be fetched again");
+        });
+
+        Assert.assertEquals(Arrays.asList("P38398", "Q3LRJ0"), candidates);
+        Assert.assertEquals(NegativeResultCache.Outcome.AMBIGUOUS, negativeResults.getOutcome("Gene", "BRCA1"));
+        Assert.assertNull(negativeResults.getOutcome("Protein", "BRCA1"));
+    }
+
+    @Test
+    public void resolvedIdentifierGoesToTheFetcherCache() throws Exception {
+        EnricherCacheManager manager = new EnricherCacheManager();
+        NegativeResultCache negativeResults = manager.getNegativeResultCache();
+        EnricherCache proteinCache = manager.getCache("Protein");
+
+        negativeResults.get(proteinCache, "P28482", () -> Collections.singletonList("MK01_HUMAN"));
+
+        Assert.assertTrue(proteinCache.isKeyInCache("P28482"));
+        Assert.assertNull(negativeResults.getOutcome("Protein", "P28482"));
+        Assert.assertEquals(0, negativeResults.getCache().getSize());
+    }
+
+    @Test
+    public void negativeResultsExpireWithTheirOwnTimeToLive() throws Exception {
+        EnricherCacheManager manager = new EnricherCacheManager();
+        manager.setNegativeResultConfig(new EnricherCacheConfig(10, 1, EvictionPolicy.LRU));
+        NegativeResultCache negativeResults = manager.getNegativeResultCache();
+
+        negativeResults.record("Protein", "P00000", Collections.emptyList());
+        Thread.sleep(10);
+
+        Assert.assertNull(negativeResults.getCandidates("Protein", "P00000"));
+        Assert.assertEquals(100000, new EnricherCacheManager().getCacheConfig(EnricherCacheManager.NEGATIVE_RESULT_CACHE).getMaxEntries());
+    }
+}
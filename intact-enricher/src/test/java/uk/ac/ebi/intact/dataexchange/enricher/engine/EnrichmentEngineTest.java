@@ -0,0 +1,116 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.engine;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import psidev.psi.mi.jami.model.*;
+import psidev.psi.mi.jami.model.impl.*;
+import psidev.psi.mi.jami.utils.CvTermUtils;
+import uk.ac.ebi.intact.dataexchange.enricher.EnricherBasicTestCase;
+import uk.ac.ebi.intact.dataexchange.enricher.EnricherContext;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.fetch.ProteinFetcher;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tests the concurrent prefetch of the enrichment engine.
+ *
+ * @version $Id$
+ */
+public class EnrichmentEngineTest extends EnricherBasicTestCase {
+
+    @Resource(name = "intactEnrichmentEngine")
+    private EnrichmentEngine enrichmentEngine;
+
+    @Resource(name = "intactProteinFetcher")
+    private ProteinFetcher proteinFetcher;
+
+    @Autowired
+    private EnricherContext enricherContext;
+
+    private int enrichmentThreads;
+    private int prefetchBatchSize;
+
+    @Before
+    public void before() throws Exception {
+        enrichmentThreads = enricherContext.getConfig().getEnrichmentThreads();
+        prefetchBatchSize = enricherContext.getConfig().getPrefetchBatchSize();
+        enricherContext.getCacheManager().clearAll();
+    }
+
+    @After
+    public void restoreConfig() throws Exception {
+        enricherContext.getConfig().setEnrichmentThreads(enrichmentThreads);
+        enricherContext.getConfig().setPrefetchBatchSize(prefetchBatchSize);
+        enricherContext.getCacheManager().clearAll();
+    }
+
+    @Test
+    public void prefetch() throws Exception {
+        // one key per batch so that the workers run concurrently
+        enricherContext.getConfig().setEnrichmentThreads(4);
+        enricherContext.getConfig().setPrefetchBatchSize(1);
+
+        enrichmentEngine.prefetch(createInteractions());
+
+        final EnricherCache proteinCache = enricherContext.getCacheManager().getCache("Protein");
+        Assert.assertTrue(proteinCache.isKeyInCache("P45531"));
+        Assert.assertTrue(proteinCache.isKeyInCache("P45532"));
+        Assert.assertTrue(enricherContext.getCacheManager().getCache("BioSource").isKeyInCache(83333));
+        Assert.assertTrue(enricherContext.getCacheManager().getCache("CvObject").isKeyInCache("MI:0018_" + CvTerm.PSI_MI));
+
+        // the enrichers then find the prefetched proteins in memory
+        proteinCache.clearStatistics();
+        Collection<Protein> proteins = proteinFetcher.fetchByIdentifier("P45531");
+        Assert.assertEquals(1, proteins.size());
+        Assert.assertEquals(1, proteinCache.getInMemoryHits());
+        Assert.assertEquals(0, proteinCache.getMisses());
+    }
+
+    @Test
+    public void prefetch_disabled() throws Exception {
+        enricherContext.getConfig().setEnrichmentThreads(1);
+
+        enrichmentEngine.prefetch(createInteractions());
+
+        Assert.assertFalse(enricherContext.getCacheManager().getCache("Protein").isKeyInCache("P45531"));
+        Assert.assertFalse(enricherContext.getCacheManager().getCache("BioSource").isKeyInCache(83333));
+    }
+
+    private static List<InteractionEvidence> createInteractions() {
+        List<InteractionEvidence> interactions = new ArrayList<InteractionEvidence>();
+        for (String uniprot : new String[] {"P45531", "P45532"}) {
+            InteractionEvidence interaction = new DefaultInteractionEvidence();
+            interaction.setExperiment(new DefaultExperiment(new DefaultPublication("10831611"),
+                    CvTermUtils.createMICvTerm("two hybrid", "MI:0018")));
+
+            Protein protein = new DefaultProtein("unk");
+            protein.setUniprotkb(uniprot);
+            protein.setOrganism(new DefaultOrganism(83333));
+            interaction.addParticipant(new DefaultParticipantEvidence(protein));
+            interactions.add(interaction);
+        }
+        return interactions;
+    }
+}
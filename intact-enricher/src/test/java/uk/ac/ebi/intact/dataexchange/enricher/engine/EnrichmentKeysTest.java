@@ -0,0 +1,113 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.engine;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import psidev.psi.mi.jami.model.*;
+import psidev.psi.mi.jami.model.impl.*;
+import psidev.psi.mi.jami.utils.CvTermUtils;
+import uk.ac.ebi.intact.dataexchange.enricher.EnricherConfig;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for the EnrichmentKeys
+ *
+ * @version $Id$
+ */
+public class EnrichmentKeysTest {
+
+    private EnricherConfig config;
+
+    @Before
+    public void before() {
+        config = new EnricherConfig();
+    }
+
+    @Test
+    public void collect() throws Exception {
+        EnrichmentKeys keys = new EnrichmentKeys(config);
+        keys.collect(createInteraction("P45531", "P45532"));
+        keys.collect(createInteraction("P45532", "P28482"));
+
+        Assert.assertEquals(Arrays.asList("P45531", "P45532", "P28482"), Arrays.asList(keys.getUniprotAccessions().toArray()));
+        // the in vitro host organism is not fetched
+        Assert.assertEquals(Arrays.asList(83333), Arrays.asList(keys.getTaxIds().toArray()));
+        // the default type of the proteins is MI:0326
+        Assert.assertTrue(keys.getMiIdentifiers().containsAll(Arrays.asList("MI:0915", "MI:0018", "MI:0499", "MI:0496", "MI:0117", "MI:0326")));
+        Assert.assertEquals(6, keys.getMiIdentifiers().size());
+        Assert.assertEquals(Arrays.asList("10831611"), Arrays.asList(keys.getPubmedIds().toArray()));
+        Assert.assertFalse(keys.isEmpty());
+    }
+
+    @Test
+    public void collect_disabledObjects() throws Exception {
+        config.setUpdateProteins(false);
+        config.setUpdateOrganisms(false);
+        config.setUpdateCvTerms(false);
+        config.setUpdateExperiments(false);
+
+        EnrichmentKeys keys = new EnrichmentKeys(config);
+        keys.collect(createInteraction("P45531", "P45532"));
+
+        Assert.assertTrue(keys.isEmpty());
+    }
+
+    @Test
+    public void collect_interactorPool() throws Exception {
+        InteractorPool pool = new DefaultInteractorPool("pool");
+        for (String uniprot : Arrays.asList("P45531", "P45532")) {
+            Protein protein = new DefaultProtein("unk");
+            protein.setUniprotkb(uniprot);
+            pool.add(protein);
+        }
+
+        InteractionEvidence interaction = new DefaultInteractionEvidence("pool interaction");
+        interaction.addParticipant(new DefaultParticipantEvidence(pool));
+
+        EnrichmentKeys keys = new EnrichmentKeys(config);
+        keys.collect(interaction);
+
+        Assert.assertEquals(Arrays.asList("P45531", "P45532"), Arrays.asList(keys.getUniprotAccessions().toArray()));
+    }
+
+    private InteractionEvidence createInteraction(String uniprotA, String uniprotB) {
+        Organism ecoli = new DefaultOrganism(83333, "ecoli");
+
+        Experiment experiment = new DefaultExperiment(new DefaultPublication("10831611"));
+        experiment.setInteractionDetectionMethod(CvTermUtils.createMICvTerm("two hybrid", "MI:0018"));
+        experiment.setHostOrganism(new DefaultOrganism(-1, "in vitro"));
+
+        InteractionEvidence interaction = new DefaultInteractionEvidence("interaction");
+        interaction.setInteractionType(CvTermUtils.createMICvTerm("physical association", "MI:0915"));
+        interaction.setExperiment(experiment);
+
+        for (String uniprot : Arrays.asList(uniprotA, uniprotB)) {
+            Protein protein = new DefaultProtein("unk", ecoli);
+            protein.setUniprotkb(uniprot);
+            ParticipantEvidence participant = new DefaultParticipantEvidence(protein);
+            participant.setBiologicalRole(CvTermUtils.createMICvTerm("unspecified role", "MI:0499"));
+            participant.setExperimentalRole(CvTermUtils.createMICvTerm("bait", "MI:0496"));
+            FeatureEvidence feature = new DefaultFeatureEvidence();
+            feature.setType(CvTermUtils.createMICvTerm("binding-associated region", "MI:0117"));
+            participant.addFeature(feature);
+            interaction.addParticipant(participant);
+        }
+        return interaction;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fetch;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheConfig;
+
+import java.util.*;
+
+/**
+ * Unit tests for the BulkCacheResolver
+ *
+ */
+public class BulkCacheResolverTest {
+
+    private final BulkCacheResolver<String, String> resolver = new BulkCacheResolver<String, String>(id -> id + "_test",
+            value -> Collections.singleton(value.substring(0, value.indexOf(':'))), BulkCacheResolver.CASE_INSENSITIVE, false);
+
+    @Test
+    public void onlyMissesAreFetched() throws Exception {
+        EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig());
+        cache.put("a_test", "a:cached");
+        final List<Collection<String>> calls = new ArrayList<Collection<String>>();
+
+        Collection<String> results = resolver.resolve(cache, Arrays.asList("a", "b", "C"), misses -> {
+            calls.add(new ArrayList<String>(misses));
+            return Arrays.asList("b:fetched", "c:fetched");
+        });
+
+        Assert.assertEquals(Arrays.asList("a:cached", "b:fetched", "c:fetched"), results);
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(Arrays.asList("b", "C"), calls.get(0));
+        Assert.assertEquals("b:fetched", cache.get("b_test"));
+        Assert.assertEquals("c:fetched", cache.get("C_test"));
+    }
+
+    @Test
+    public void notFoundIdentifiersAreCached() throws Exception {
+        EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig());
+
+        resolver.resolve(cache, Arrays.asList("a", "b"), misses -> Collections.singletonList("a:fetched"));
+
+        Assert.assertTrue(cache.isKeyInCache("b_test"));
+        Collection<String> results = resolver.resolve(cache, Arrays.asList("a", "b"), misses -> {
+            throw new IllegalStateException("Should not fetch again");
+        });
+        Assert.assertEquals(Collections.singletonList("a:fetched"), results);
+    }
+
+    @Test
+    public void notFoundIdentifiersAreNotCachedWhenResultsCannotBeAttributed() throws Exception {
+        EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig());
+
+        Collection<String> results = resolver.resolve(cache, Arrays.asList("a", "b"), misses -> Collections.singletonList("z:fetched"));
+
+        Assert.assertEquals(Collections.singletonList("z:fetched"), results);
+        Assert.assertFalse(cache.isKeyInCache("a_test"));
+        Assert.assertFalse(cache.isKeyInCache("b_test"));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fetch;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import psidev.psi.mi.jami.bridges.fetcher.CvTermFetcher;
+import psidev.psi.mi.jami.model.CvTerm;
+import psidev.psi.mi.jami.model.Xref;
+import psidev.psi.mi.jami.model.impl.DefaultCvTerm;
+import psidev.psi.mi.jami.utils.CvTermUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Unit tests for the IndexedOboCvTermFetcher
+ *
+ */
+public class IndexedOboCvTermFetcherTest {
+
+    private static final String OBO = "format-version: 1.2\n" +
+            "\n" +
+            "[Term]\n" +
+            "id: MI:0001\n" +
+            "name: interaction detection method\n";
+
+    private OboTermIndex index;
+    private RecordingCvTermFetcher fallbackFetcher;
+
+    @Before
+    public void before() throws Exception {
+        index = OboTermIndex.load(new ByteArrayInputStream(OBO.getBytes(StandardCharsets.UTF_8)));
+        fallbackFetcher = new RecordingCvTermFetcher();
+    }
+
+    @Test
+    public void psiMiTermsFromTheIndex() throws Exception {
+        IndexedOboCvTermFetcher fetcher = new IndexedOboCvTermFetcher(index, CvTermUtils.createPsiMiDatabase(), fallbackFetcher);
+
+        Assert.assertEquals("MI:0001", fetcher.fetchByIdentifier("MI:0001", CvTerm.PSI_MI).getMIIdentifier());
+        Assert.assertEquals("MI:0001", fetcher.fetchByIdentifier("MI:0001", CvTermUtils.createPsiMiDatabase()).getMIIdentifier());
+        Assert.assertEquals("MI:0001", fetcher.fetchByName("interaction detection method", CvTerm.PSI_MI).getMIIdentifier());
+        Assert.assertEquals(1, fetcher.fetchByIdentifiers(Arrays.asList("MI:0001", "MI:9999"), CvTermUtils.createPsiMiDatabase()).size());
+        Assert.assertTrue(fallbackFetcher.lookups.isEmpty());
+    }
+
+    @Test
+    public void otherOntologiesFromTheFallback() throws Exception {
+        IndexedOboCvTermFetcher fetcher = new IndexedOboCvTermFetcher(index, CvTermUtils.createPsiMiDatabase(), fallbackFetcher);
+
+        CvTerm term = fetcher.fetchByIdentifier("MOD:00001", CvTerm.PSI_MOD);
+        Assert.assertEquals("MOD:00001", term.getShortName());
+
+        fetcher.fetchByIdentifier("GO:0005634", CvTermUtils.createMICvTerm(Xref.GO, Xref.GO_MI));
+        fetcher.fetchByIdentifiers(Collections.singletonList("MOD:00002"), CvTermUtils.createMICvTerm(CvTerm.PSI_MOD, CvTerm.PSI_MOD_MI));
+        fetcher.fetchByName("nucleus", "go");
+
+        Assert.assertEquals(Arrays.asList("MOD:00001_psi-mod", "GO:0005634_go", "MOD:00002_psi-mod", "nucleus_go"),
+                fallbackFetcher.lookups);
+    }
+
+    @Test
+    public void allOntologiesFromTheIndexWithoutFallback() throws Exception {
+        IndexedOboCvTermFetcher fetcher = new IndexedOboCvTermFetcher(index, CvTermUtils.createPsiMiDatabase());
+
+        CvTerm term = fetcher.fetchByIdentifier("MI:0001", CvTerm.PSI_MOD);
+        Assert.assertEquals("MI:0001", term.getMIIdentifier());
+        Assert.assertNull(fetcher.fetchByIdentifier("MOD:00001", CvTerm.PSI_MOD));
+    }
+
+    /**
+     * Records the lookups and creates a term named after the looked up identifier or name.
+     */
+    private static class RecordingCvTermFetcher implements CvTermFetcher<CvTerm> {
+
+        private final List<String> lookups = new ArrayList<String>();
+
+        private CvTerm lookup(String value, String ontology) {
+            lookups.add(value + "_" + ontology);
+            return new DefaultCvTerm(value);
+        }
+
+        public CvTerm fetchByIdentifier(String termIdentifier, String miOntologyName) throws BridgeFailedException {
+            return lookup(termIdentifier, miOntologyName);
+        }
+
+        public CvTerm fetchByIdentifier(String termIdentifier, CvTerm ontologyDatabase) throws BridgeFailedException {
+            return lookup(termIdentifier, ontologyDatabase.getShortName());
+        }
+
+        public CvTerm fetchByName(String searchName, String miOntologyName) throws BridgeFailedException {
+            return lookup(searchName, miOntologyName);
+        }
+
+        public Collection<CvTerm> fetchByName(String searchName) throws BridgeFailedException {
+            return Collections.singletonList(lookup(searchName, null));
+        }
+
+        public Collection<CvTerm> fetchByIdentifiers(Collection<String> termIdentifiers, String miOntologyName) throws BridgeFailedException {
+            List<CvTerm> terms = new ArrayList<CvTerm>();
+            for (String termIdentifier : termIdentifiers) {
+                terms.add(lookup(termIdentifier, miOntologyName));
+            }
+            return terms;
+        }
+
+        public Collection<CvTerm> fetchByIdentifiers(Collection<String> termIdentifiers, CvTerm ontologyDatabase) throws BridgeFailedException {
+            return fetchByIdentifiers(termIdentifiers, ontologyDatabase.getShortName());
+        }
+
+        public Collection<CvTerm> fetchByNames(Collection<String> searchNames, String miOntologyName) throws BridgeFailedException {
+            return fetchByIdentifiers(searchNames, miOntologyName);
+        }
+
+        public Collection<CvTerm> fetchByNames(Collection<String> searchNames) throws BridgeFailedException {
+            List<CvTerm> terms = new ArrayList<CvTerm>();
+            for (String searchName : searchNames) {
+                terms.addAll(fetchByName(searchName));
+            }
+            return terms;
+        }
+    }
+}
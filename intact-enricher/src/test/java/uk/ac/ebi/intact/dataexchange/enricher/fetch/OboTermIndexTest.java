@@ -0,0 +1,124 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fetch;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for the OboTermIndex
+ *
+ */
+public class OboTermIndexTest {
+
+    private static final String OBO = "format-version: 1.2\n" +
+            "\n" +
+            "[Term]\n" +
+            "id: MI:0000\n" +
+            "name: molecular interaction\n" +
+            "def: \"Controlled vocabularies originally created for protein protein interactions.\" [PMID:14755292]\n" +
+            "\n" +
+            "[Term]\n" +
+            "id: MI:0001\n" +
+            "name: interaction detection method\n" +
+            "def: \"Method to determine the interaction.\" [PMID:14755292]\n" +
+            "synonym: \"interaction detect\" EXACT PSI-MI-short []\n" +
+            "synonym: \"detection method\" RELATED []\n" +
+            "is_a: MI:0000 ! molecular interaction\n" +
+            "\n" +
+            "[Term]\n" +
+            "id: MI:0045\n" +
+            "name: experimental interaction detection\n" +
+            "synonym: \"experimental interac\" EXACT PSI-MI-short []\n" +
+            "xref: id-validation-regexp:\\\"MI:[0-9]{4}\\\"\n" +
+            "is_a: MI:0001 ! interaction detection method\n" +
+            "\n" +
+            "[Term]\n" +
+            "id: MI:0002\n" +
+            "name: old term\n" +
+            "is_obsolete: true\n" +
+            "\n" +
+            "[Typedef]\n" +
+            "id: part_of\n" +
+            "name: part of\n";
+
+    private OboTermIndex index;
+
+    @Before
+    public void before() throws Exception {
+        index = OboTermIndex.load(new ByteArrayInputStream(OBO.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void termsAreIndexed() throws Exception {
+        Assert.assertEquals(4, index.size());
+        Assert.assertEquals(-1, index.indexOf("MI:9999"));
+
+        int term = index.indexOf("MI:0001");
+        Assert.assertEquals("interaction detection method", index.getName(term));
+        Assert.assertEquals("interaction detect", index.getShortLabel(term));
+        Assert.assertEquals("Method to determine the interaction.", index.getDefinition(term));
+        Assert.assertEquals(1, index.getSynonyms(term).size());
+        Assert.assertEquals("detection method", index.getSynonyms(term).get(0));
+        Assert.assertTrue(index.isObsolete(index.indexOf("MI:0002")));
+        Assert.assertFalse(index.isObsolete(term));
+    }
+
+    @Test
+    public void termsAreFoundByNameAndSynonym() throws Exception {
+        int term = index.indexOf("MI:0045");
+        Assert.assertArrayEquals(new int[]{term}, index.findByName("experimental interaction detection"));
+        Assert.assertArrayEquals(new int[]{term}, index.findByName("experimental interac"));
+        Assert.assertArrayEquals(new int[]{index.indexOf("MI:0001")}, index.findBySynonym("Detection Method"));
+        Assert.assertEquals(0, index.findByName("unknown").length);
+    }
+
+    @Test
+    public void annotationXrefsAreUnescaped() throws Exception {
+        int term = index.indexOf("MI:0045");
+        Assert.assertEquals(1, index.getAnnotations(term).size());
+        Assert.assertEquals("id-validation-regexp", index.getAnnotations(term).get(0)[0]);
+        Assert.assertEquals("MI:[0-9]{4}", index.getAnnotations(term).get(0)[1]);
+    }
+
+    @Test
+    public void closuresFollowTheHierarchy() throws Exception {
+        int root = index.indexOf("MI:0000");
+        int method = index.indexOf("MI:0001");
+        int experimental = index.indexOf("MI:0045");
+
+        Assert.assertArrayEquals(new int[]{method}, index.getParents(experimental));
+        Assert.assertArrayEquals(new int[]{experimental}, index.getChildren(method));
+        Assert.assertEquals(2, index.getAncestors(experimental).length);
+        Assert.assertTrue(contains(index.getAncestors(experimental), root));
+        Assert.assertTrue(contains(index.getAncestors(experimental), method));
+        Assert.assertEquals(2, index.getDescendants(root).length);
+        Assert.assertEquals(0, index.getDescendants(experimental).length);
+    }
+
+    private static boolean contains(int[] terms, int term) {
+        for (int t : terms) {
+            if (t == term) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
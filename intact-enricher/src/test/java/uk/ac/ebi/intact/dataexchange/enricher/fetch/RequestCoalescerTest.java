@@ -0,0 +1,118 @@
+/*
+ * Copyright 2001-2007 The European Bioinformatics Institute.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fetch;
+
+import org.junit.Assert;
+import org.junit.Test;
+import psidev.psi.mi.jami.bridges.exception.BridgeFailedException;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the RequestCoalescer
+ *
+ */
+public class RequestCoalescerTest {
+
+    @Test
+    public void concurrentLookupsShareOneLoad() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer();
+        final EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig());
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> coalescer.get(cache, "MI:0001", () -> {
+                loads.incrementAndGet();
+                release.await();
+                return "term";
+            })));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            Assert.assertEquals("term", result.get(1, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(0, coalescer.getInFlightCount());
+        Assert.assertEquals("term", cache.get("MI:0001"));
+    }
+
+    @Test
+    public void valueCachedBeforeLeavingInFlight() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer();
+        final List<Integer> inFlightAtPut = new ArrayList<Integer>();
+        final EnricherCache cache = new EnricherCache("test", new EnricherCacheConfig()) {
+            @Override
+            public Object put(Object key, Object value) {
+                inFlightAtPut.add(coalescer.getInFlightCount());
+                return super.put(key, value);
+            }
+        };
+
+        Assert.assertEquals("term", coalescer.get(cache, "MI:0001", () -> "term"));
+
+        // a caller missing the cache while the lookup is still in flight waits for it, and one coming after it finds
+        // the value in the cache
+        Assert.assertEquals(Collections.singletonList(1), inFlightAtPut);
+        Assert.assertEquals(0, coalescer.getInFlightCount());
+        Assert.assertEquals("term", cache.get("MI:0001"));
+
+        final List<Integer> inFlightAtStore = new ArrayList<Integer>();
+        Assert.assertEquals("protein", coalescer.execute("P12345", () -> "protein",
+                value -> inFlightAtStore.add(coalescer.getInFlightCount())));
+        Assert.assertEquals(Collections.singletonList(1), inFlightAtStore);
+    }
+
+    @Test
+    public void failureIsSharedAndNotCached() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<String> first = executor.submit(() -> coalescer.execute("P12345", () -> {
+            release.await();
+            throw new BridgeFailedException("remote failure");
+        }));
+        Thread.sleep(100);
+        Future<String> second = executor.submit(() -> coalescer.execute("P12345", () -> "not called"));
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> result : new Future[]{first, second}) {
+            try {
+                result.get(1, TimeUnit.MINUTES);
+                Assert.fail("The failure should be propagated");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof BridgeFailedException);
+            }
+        }
+        executor.shutdown();
+
+        Assert.assertEquals("loaded", coalescer.execute("P12345", () -> "loaded"));
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.fingerprint;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import psidev.psi.mi.jami.model.Protein;
+import psidev.psi.mi.jami.model.impl.DefaultCvTerm;
+import psidev.psi.mi.jami.model.impl.DefaultOrganism;
+import psidev.psi.mi.jami.model.impl.DefaultProtein;
+import psidev.psi.mi.jami.model.impl.DefaultXref;
+import uk.ac.ebi.intact.dataexchange.enricher.EnricherConfig;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheConfig;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for the EnrichmentFingerprintStore
+ *
+ * @version $Id$
+ */
+public class EnrichmentFingerprintStoreTest {
+
+    private EnricherConfig config;
+    private EnrichmentFingerprintStore store;
+    private AtomicInteger enrichments;
+
+    @Before
+    public void before() {
+        config = new EnricherConfig();
+        config.setEnrichmentFingerprints(true);
+        store = new EnrichmentFingerprintStore(new EnricherCache("EnrichmentFingerprint", new EnricherCacheConfig()), config);
+        enrichments = new AtomicInteger();
+    }
+
+    @Test
+    public void changedObjectsAreEnrichedAgain() throws Exception {
+        Protein first = createRawProtein();
+        store.enrich(first, () -> enrich(first));
+
+        Protein second = createRawProtein();
+        store.enrich(second, () -> enrich(second));
+
+        Assert.assertEquals(2, enrichments.get());
+        Assert.assertEquals(0, store.getUnchangedCount());
+        Assert.assertEquals(0, store.getRecordCount());
+        Assert.assertEquals("mk01_human", second.getShortName());
+    }
+
+    @Test
+    public void unchangedObjectsAreSkipped() throws Exception {
+        Protein first = createRawProtein();
+        store.enrich(first, () -> enrichments.incrementAndGet());
+
+        Protein second = createRawProtein();
+        store.enrich(second, () -> enrichments.incrementAndGet());
+
+        Assert.assertEquals(1, enrichments.get());
+        Assert.assertEquals(1, store.getUnchangedCount());
+        Assert.assertEquals("p28482", second.getShortName());
+    }
+
+    @Test
+    public void fingerprintsExpire() throws Exception {
+        EnricherCacheConfig cacheConfig = new EnricherCacheManager().getCacheConfig(EnricherCacheManager.ENRICHMENT_FINGERPRINT_CACHE);
+        Assert.assertTrue(cacheConfig.getTimeToLive() > 0);
+    }
+
+    @Test
+    public void differentInputIsEnriched() throws Exception {
+        Protein first = createRawProtein();
+        store.enrich(first, () -> enrich(first));
+
+        Protein second = createRawProtein();
+        second.setShortName("erk2");
+        store.enrich(second, () -> enrich(second));
+
+        Assert.assertEquals(2, enrichments.get());
+        Assert.assertEquals(0, store.getUnchangedCount());
+    }
+
+    @Test
+    public void changingTheConfigChangesTheFingerprint() throws Exception {
+        Protein protein = createRawProtein();
+        String fingerprint = store.getFingerprint(protein);
+
+        config.setUpdateOrganisms(false);
+
+        Assert.assertNotEquals(fingerprint, store.getFingerprint(protein));
+        Assert.assertNull(store.getFingerprint(new Object()));
+    }
+
+    @Test
+    public void disabledStoreAlwaysEnriches() throws Exception {
+        config.setEnrichmentFingerprints(false);
+
+        Protein first = createRawProtein();
+        store.enrich(first, () -> enrich(first));
+        Protein second = createRawProtein();
+        store.enrich(second, () -> enrich(second));
+
+        Assert.assertEquals(2, enrichments.get());
+        Assert.assertEquals(0, store.getRecordCount());
+    }
+
+    private Protein createRawProtein() {
+        Protein protein = new DefaultProtein("p28482");
+        protein.getIdentifiers().add(new DefaultXref(new DefaultCvTerm("uniprotkb"), "P28482", new DefaultCvTerm("identity")));
+        protein.setOrganism(new DefaultOrganism(9606));
+        return protein;
+    }
+
+    private void enrich(Protein protein) {
+        enrichments.incrementAndGet();
+        protein.setShortName("mk01_human");
+        protein.setFullName("Mitogen-activated protein kinase 1");
+        protein.setSequence("MAAAAAAGAGPEMVRGQVFDVGPRYTNLSYIGEGAYGMVCSAYDNVNKVRVAIKKISPFEHQTYCQRTLREIKILLRFRHENIIGINDIIRAPTIEQMKDVYIVQDLMETDLYKLLKTQHLSNDHICYFLYQILRGLKYIHSANVLHRDLKPSNLLLNTTCDLKICDFGLARVADPDHDHTGFLTEYVATRWYRAPEIMLNSKGYTKSIDIWSVGCILAEMLSNRPIFPGKHYLDQLNHILGILGSPSQEDLNCIINLKARNYLLSLPHKNKVPWNRLFPNADSKALDLLDKMLTFNPHKRIEVEQALAHPYLEQYYDPSDEPIAEAPFKFDMELDDLPKEKLKELIFEETARFQPGYRS");
+        protein.getOrganism().setCommonName("human");
+        protein.getOrganism().setScientificName("Homo sapiens");
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.enricher.metrics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCache;
+import uk.ac.ebi.intact.dataexchange.enricher.cache.EnricherCacheManager;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for the EnricherMetrics
+ *
+ * @version $Id$
+ */
+public class EnricherMetricsTest {
+
+    private EnricherMetrics metrics;
+
+    @After
+    public void after() {
+        if (metrics != null) {
+            metrics.unregisterMBeans();
+        }
+    }
+
+    @Test
+    public void histogramPercentiles() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(300));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(150));
+        }
+
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(1, histogram.getPercentileMillis(50), 0);
+        // the bucket bound is capped by the slowest call
+        Assert.assertEquals(150, histogram.getPercentileMillis(95), 0);
+        Assert.assertEquals(150, histogram.getMaxMillis(), 0);
+        Assert.assertEquals(15.27, histogram.getMeanMillis(), 0.001);
+    }
+
+    @Test
+    public void callsAndErrorsAreCounted() throws Exception {
+        metrics = new EnricherMetrics(new EnricherCacheManager());
+        FetcherMetrics fetcher = metrics.getFetcherMetrics("ProteinFetcher", "Protein");
+
+        Assert.assertEquals("P28482", fetcher.time(() -> "P28482"));
+        try {
+            fetcher.time(() -> {
+                throw new IllegalStateException("remote service down");
+            });
+            Assert.fail("the exception of the call should be thrown");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        Assert.assertEquals(2, fetcher.getCallCount());
+        Assert.assertEquals(1, fetcher.getErrorCount());
+        Assert.assertSame(fetcher, metrics.getFetcherMetrics("ProteinFetcher", "Protein"));
+    }
+
+    @Test
+    public void fetcherMetricsExposeTheCacheHitRatio() throws Exception {
+        EnricherCacheManager cacheManager = new EnricherCacheManager();
+        metrics = new EnricherMetrics(cacheManager);
+        EnricherCache cache = cacheManager.getCache("Protein");
+        cache.get("P28482", () -> "MK01_HUMAN");
+        cache.get("P28482", () -> "MK01_HUMAN");
+
+        Assert.assertEquals(0.5, metrics.getFetcherMetrics("ProteinFetcher", "Protein").getCacheHitRatio(), 0);
+    }
+
+    @Test
+    public void metricsAreRegisteredAsMBeans() throws Exception {
+        metrics = new EnricherMetrics(new EnricherCacheManager());
+        metrics.getEnricherMetrics("ProteinEnricher").run(() -> { });
+        metrics.registerMBeans();
+        metrics.getFetcherMetrics("GeneFetcher", "Gene");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName enricherName = new ObjectName(EnricherMetrics.JMX_DOMAIN + ":type=Enricher,name=\"ProteinEnricher\"");
+        ObjectName fetcherName = new ObjectName(EnricherMetrics.JMX_DOMAIN + ":type=Fetcher,name=\"GeneFetcher\"");
+        Assert.assertEquals(1L, server.getAttribute(enricherName, "CallCount"));
+        Assert.assertEquals("Gene", server.getAttribute(fetcherName, "CacheName"));
+
+        metrics.unregisterMBeans();
+        Assert.assertFalse(server.isRegistered(enricherName));
+        Assert.assertTrue(metrics.getSummary().contains("ProteinEnricher: 1 calls"));
+    }
+}
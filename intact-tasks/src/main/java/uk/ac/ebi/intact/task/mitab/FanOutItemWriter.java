@@ -0,0 +1,138 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.task.mitab;
+
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Writes the collections of a chunk to several writers, each delegate receiving the whole chunk in one write.
+ *
+ * The collections are flattened once per chunk and all the delegates get the same unmodifiable list. Without task
+ * executor, the delegates are written one after the other, the first failure failing the chunk. With a task
+ * executor, the first delegate is written by the thread of the step, in the transaction of the chunk, while the
+ * other delegates are written concurrently by the executor: they are outside of the transaction, so they should be
+ * independent writers which do not rely on it, such as Solr writers. The chunk then fails once all the delegates
+ * are written if any of them failed, with the first failure, the others being added as suppressed exceptions.
+ *
+ * @version $Id$
+ */
+public class FanOutItemWriter<T> implements ItemWriter<Collection<? extends T>> {
+
+    private List<? extends ItemWriter<? super T>> delegates = Collections.emptyList();
+    private TaskExecutor taskExecutor;
+
+    public void write(List<? extends Collection<? extends T>> items) throws Exception {
+        List<T> chunk = flatten(items);
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        if (taskExecutor == null || delegates.size() < 2) {
+            writeSequentially(chunk);
+        } else {
+            writeConcurrently(chunk);
+        }
+    }
+
+    private List<T> flatten(List<? extends Collection<? extends T>> items) {
+        int size = 0;
+        for (Collection<? extends T> collection : items) {
+            size += collection.size();
+        }
+
+        List<T> chunk = new ArrayList<T>(size);
+        for (Collection<? extends T> collection : items) {
+            chunk.addAll(collection);
+        }
+        return Collections.unmodifiableList(chunk);
+    }
+
+    private void writeSequentially(List<T> chunk) throws Exception {
+        for (ItemWriter<? super T> delegate : delegates) {
+            delegate.write(chunk);
+        }
+    }
+
+    private void writeConcurrently(final List<T> chunk) throws Exception {
+        List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>(delegates.size() - 1);
+        for (final ItemWriter<? super T> delegate : delegates.subList(1, delegates.size())) {
+            FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+                public Void call() throws Exception {
+                    delegate.write(chunk);
+                    return null;
+                }
+            });
+            taskExecutor.execute(task);
+            tasks.add(task);
+        }
+
+        Exception failure = null;
+        try {
+            delegates.get(0).write(chunk);
+        } catch (Exception e) {
+            failure = e;
+        }
+
+        for (FutureTask<Void> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                failure = addFailure(failure, cause instanceof Exception ? (Exception) cause : e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = addFailure(failure, e);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static Exception addFailure(Exception failure, Exception e) {
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
+    }
+
+    public List<? extends ItemWriter<? super T>> getDelegates() {
+        return delegates;
+    }
+
+    public void setDelegates(List<? extends ItemWriter<? super T>> delegates) {
+        this.delegates = delegates != null ? delegates : Collections.<ItemWriter<? super T>>emptyList();
+    }
+
+    public TaskExecutor getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    /**
+     * Sets the executor writing all the delegates but the first one concurrently, null to write them sequentially.
+     */
+    public void setTaskExecutor(TaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+}
@@ -15,30 +15,13 @@
  */
 package uk.ac.ebi.intact.task.mitab;
 
-import org.springframework.batch.item.ItemWriter;
 import psidev.psi.mi.tab.model.BinaryInteraction;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
 /**
+ * Writes the binary interactions of a chunk to the BinaryInteractionItemWriter delegates, in one write per delegate.
+ *
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
-public class MitabCollectionCompositeWriter implements ItemWriter<Collection<? extends BinaryInteraction>> {
-
-    private List<BinaryInteractionItemWriter> delegates;
-
-    public void write(List<? extends Collection<? extends BinaryInteraction>> items) throws Exception {
-        for (Collection<? extends BinaryInteraction> binaryInteraction : items) {
-            for (BinaryInteractionItemWriter delegate : delegates) {
-                delegate.write(new ArrayList<BinaryInteraction>(binaryInteraction));
-            }
-        }
-    }
-
-    public void setDelegates(List<BinaryInteractionItemWriter> delegates) {
-        this.delegates = delegates;
-    }
-}
\ No newline at end of file
+public class MitabCollectionCompositeWriter extends FanOutItemWriter<BinaryInteraction> {
+}
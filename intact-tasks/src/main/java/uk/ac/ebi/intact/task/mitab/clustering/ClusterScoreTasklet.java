@@ -37,6 +37,11 @@ public class ClusterScoreTasklet implements Tasklet {
     private String scoreName;
     private String databaseToCluster = "uniprotkb,irefindex,ddbj/embl/genbank,chebi";
 
+    // clustering on disk
+    private boolean externalSort = false;
+    private String sortDirectoryName;
+    private long sortBufferSize = 64 * 1024 * 1024;
+
     public ClusterScoreTasklet(String mitabInputFolderName, String mitabOutputFolderName) {
         this.mitabInputFileName = mitabInputFolderName;
         this.mitabOutputFileName = mitabOutputFolderName;
@@ -119,6 +124,29 @@ public class ClusterScoreTasklet implements Tasklet {
     }
 
 
+    /**
+     * Cluster and score the mitab file sorted on disk by pair of interactors, one pair at a time
+     */
+    private void clusterOnDisk() throws IOException, PsimiTabException {
+        ExternalLineSorter sorter = new ExternalLineSorter();
+        sorter.setSortBufferSize(sortBufferSize);
+        if (sortDirectoryName != null){
+            File sortDirectory = new File(sortDirectoryName);
+            if (!sortDirectory.exists()){
+                sortDirectory.mkdirs();
+            }
+            sorter.setTempDirectory(sortDirectory);
+        }
+
+        ExternalClusterScorer scorer = new ExternalClusterScorer();
+        scorer.setSorter(sorter);
+        scorer.setScoreName(scoreName);
+        scorer.setDatabaseToCluster(databaseToCluster);
+        scorer.setHeader(header);
+
+        scorer.score(mitabInputFile, mitabOutputFile);
+    }
+
     /**
      * Execute takslet step
      * @param arg0
@@ -131,6 +159,11 @@ public class ClusterScoreTasklet implements Tasklet {
         this.checkOutputMitabFile();
         this.checkInputMitabFile();
 
+        if (externalSort){
+            clusterOnDisk();
+            return RepeatStatus.FINISHED;
+        }
+
         /* Get mitab file */
         PsimiTabReader mitabReader = new PsimiTabReader();
 
@@ -173,4 +206,38 @@ public class ClusterScoreTasklet implements Tasklet {
     public void setDatabaseToCluster(String databaseToCluster) {
         this.databaseToCluster = databaseToCluster;
     }
+
+    public boolean isExternalSort() {
+        return externalSort;
+    }
+
+    /**
+     * @param externalSort true to sort the interactions on disk by pair of interactors and cluster one pair at a time,
+     * instead of loading the whole mitab file in memory
+     */
+    public void setExternalSort(boolean externalSort) {
+        this.externalSort = externalSort;
+    }
+
+    public String getSortDirectoryName() {
+        return sortDirectoryName;
+    }
+
+    /**
+     * @param sortDirectoryName the directory of the temporary files of the sort, the default temporary directory if null
+     */
+    public void setSortDirectoryName(String sortDirectoryName) {
+        this.sortDirectoryName = sortDirectoryName;
+    }
+
+    public long getSortBufferSize() {
+        return sortBufferSize;
+    }
+
+    /**
+     * @param sortBufferSize the approximate memory in bytes used to sort the interactions on disk
+     */
+    public void setSortBufferSize(long sortBufferSize) {
+        this.sortBufferSize = sortBufferSize;
+    }
 }
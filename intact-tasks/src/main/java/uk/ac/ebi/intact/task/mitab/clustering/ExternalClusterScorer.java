@@ -0,0 +1,336 @@
+package uk.ac.ebi.intact.task.mitab.clustering;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import psidev.psi.mi.tab.PsimiTabException;
+import psidev.psi.mi.tab.PsimiTabReader;
+import psidev.psi.mi.tab.PsimiTabWriter;
+import psidev.psi.mi.tab.model.BinaryInteraction;
+import psidev.psi.mi.tab.model.CrossReference;
+import psidev.psi.mi.tab.model.Interactor;
+import psidev.psi.mi.tab.model.builder.PsimiTabVersion;
+import uk.ac.ebi.enfin.mi.cluster.Encore2Binary;
+import uk.ac.ebi.enfin.mi.cluster.EncoreInteraction;
+import uk.ac.ebi.enfin.mi.cluster.score.InteractionClusterScore;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clusters and scores a MITAB file too large to be clustered in memory.
+ *
+ * The binary interactions are first sorted on disk by the pair of their interactors, each interactor being
+ * identified as by the MitabClusterScoreItemProcessor, with the first identifier of the databases to cluster.
+ * The interactions of each pair are then clustered and scored together, one pair at a time, and the clustered
+ * interactions are sorted back in the order of the first interaction of their pair in the input file, which is
+ * the order of the clustering in memory. The memory used depends on the sort buffer size and on the largest pair,
+ * not on the number of interactions.
+ *
+ * The interactions of two pairs are never clustered together, so the output is the same as the clustering in
+ * memory as long as each interactor has the same identifier of the databases to cluster in all the interactions.
+ *
+ * The input, the output and the temporary files are read and written in UTF-8.
+ *
+ * @version $Id$
+ */
+public class ExternalClusterScorer {
+
+    private static final Log log = LogFactory.getLog(ExternalClusterScorer.class);
+
+    private static final char SEPARATOR = '\t';
+    private static final int INDEX_LENGTH = 12;
+
+    private String scoreName;
+    private String databaseToCluster;
+    private boolean header = true;
+    private ExternalLineSorter sorter = new ExternalLineSorter();
+
+    private final PsimiTabReader mitabReader = new PsimiTabReader();
+
+    // the end of line written by the PsimiTabWriter, kept in the output
+    private String lineEnd = "\n";
+
+    /**
+     * Clusters and scores the interactions of the input file, writing the clustered interactions in MITAB 2.6.
+     *
+     * @return the number of clustered interactions written
+     */
+    public long score(File mitabInput, File mitabOutput) throws IOException, PsimiTabException {
+        File keyed = createTempFile("keyed");
+        File scored = createTempFile("scored");
+        try {
+            long interactions = writeKeyedLines(mitabInput, keyed);
+            sorter.sort(keyed, keyed);
+
+            long clustered = writeScoredLines(keyed, scored);
+            keyed.delete();
+            sorter.sort(scored, scored);
+
+            writeOutput(scored, mitabOutput);
+
+            if (log.isInfoEnabled()) log.info("Clustered " + interactions + " binary interactions of " + mitabInput
+                    + " into " + clustered + " interactions");
+            return clustered;
+        } finally {
+            keyed.delete();
+            scored.delete();
+        }
+    }
+
+    /**
+     * Writes each interaction with the pair of its interactors and its index in the file, so that the sorted lines
+     * are grouped by pair and kept in the order of the file in a pair.
+     */
+    private long writeKeyedLines(File mitabInput, File keyed) throws IOException, PsimiTabException {
+        long index = 0;
+        BufferedReader reader = createReader(mitabInput);
+        try {
+            BufferedWriter writer = createWriter(keyed);
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().length() == 0 || line.startsWith("#")) {
+                        continue;
+                    }
+                    BinaryInteraction interaction = mitabReader.readLine(line);
+                    BinaryPair pair = createPair(interaction);
+
+                    writer.write(toKey(pair.getInteractorA()));
+                    writer.write(SEPARATOR);
+                    writer.write(toKey(pair.getInteractorB()));
+                    writer.write(SEPARATOR);
+                    writer.write(formatIndex(index++));
+                    writer.write(SEPARATOR);
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            } finally {
+                writer.close();
+            }
+        } finally {
+            reader.close();
+        }
+        return index;
+    }
+
+    /**
+     * Clusters the interactions of each pair, writing each clustered interaction with the index of the first
+     * interaction of its pair.
+     */
+    private long writeScoredLines(File keyed, File scored) throws IOException, PsimiTabException {
+        long clustered = 0;
+        BufferedReader reader = createReader(keyed);
+        try {
+            BufferedWriter writer = createWriter(scored);
+            try {
+                String pairKey = null;
+                String firstIndex = null;
+                List<BinaryInteraction> pairInteractions = new ArrayList<BinaryInteraction>();
+
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int keyEnd = line.indexOf(SEPARATOR, line.indexOf(SEPARATOR) + 1);
+                    int indexEnd = line.indexOf(SEPARATOR, keyEnd + 1);
+                    String key = line.substring(0, keyEnd);
+
+                    if (!key.equals(pairKey)) {
+                        clustered += scorePair(pairInteractions, firstIndex, writer);
+                        pairInteractions.clear();
+                        pairKey = key;
+                        firstIndex = line.substring(keyEnd + 1, indexEnd);
+                    }
+                    pairInteractions.add(mitabReader.readLine(line.substring(indexEnd + 1)));
+                }
+                clustered += scorePair(pairInteractions, firstIndex, writer);
+            } finally {
+                writer.close();
+            }
+        } finally {
+            reader.close();
+        }
+        return clustered;
+    }
+
+    private int scorePair(List<BinaryInteraction> pairInteractions, String firstIndex, Writer writer) throws IOException, PsimiTabException {
+        if (pairInteractions.isEmpty()) {
+            return 0;
+        }
+
+        InteractionClusterScore interactionClusterScore = new InteractionClusterScore();
+        interactionClusterScore.setScoreName(scoreName);
+        interactionClusterScore.setBinaryInteractionIterator(pairInteractions.iterator());
+        interactionClusterScore.setMappingIdDbNames(databaseToCluster);
+        interactionClusterScore.runService();
+
+        Map<Integer, EncoreInteraction> interactionMapping = interactionClusterScore.getInteractionMapping();
+        Encore2Binary iConverter = new Encore2Binary(interactionClusterScore.getMappingIdDbNames());
+        PsimiTabWriter mitabWriter = new PsimiTabWriter(PsimiTabVersion.v2_6);
+
+        int position = 0;
+        for (Integer mappingId : interactionMapping.keySet()) {
+            BinaryInteraction bI = iConverter.getBinaryInteractionForScoring(interactionMapping.get(mappingId));
+
+            StringWriter mitabLine = new StringWriter();
+            mitabWriter.write(bI, mitabLine);
+            String text = mitabLine.toString();
+            int end = text.length();
+            while (end > 0 && (text.charAt(end - 1) == '\n' || text.charAt(end - 1) == '\r')) {
+                end--;
+            }
+            if (end < text.length()) {
+                lineEnd = text.substring(end);
+            }
+
+            writer.write(firstIndex);
+            writer.write(SEPARATOR);
+            writer.write(formatIndex(position++));
+            writer.write(SEPARATOR);
+            writer.write(text, 0, end);
+            writer.write('\n');
+        }
+        return position;
+    }
+
+    private void writeOutput(File scored, File mitabOutput) throws IOException, PsimiTabException {
+        BufferedReader reader = createReader(scored);
+        try {
+            BufferedWriter outputWriter = createWriter(mitabOutput);
+            try {
+                if (header) {
+                    new PsimiTabWriter(PsimiTabVersion.v2_6).writeMitabHeader(outputWriter);
+                }
+
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    outputWriter.write(line, 2 * (INDEX_LENGTH + 1), line.length() - 2 * (INDEX_LENGTH + 1));
+                    outputWriter.write(lineEnd);
+                }
+            } finally {
+                outputWriter.close();
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private BinaryPair createPair(BinaryInteraction interaction) {
+        String firstInteractor = extractInteractorIdentifier(interaction.getInteractorA());
+        String secondInteractor = extractInteractorIdentifier(interaction.getInteractorB());
+
+        if (firstInteractor == null) {
+            firstInteractor = secondInteractor;
+        } else if (secondInteractor == null) {
+            secondInteractor = firstInteractor;
+        }
+        return new BinaryPair(firstInteractor, secondInteractor);
+    }
+
+    /**
+     * @return the first identifier of the databases to cluster, looking in the identifiers then in the alternative
+     * identifiers, the first identifier if none is found, null without interactor or identifier
+     */
+    private String extractInteractorIdentifier(Interactor interactor) {
+        if (interactor == null) {
+            return null;
+        }
+
+        if (databaseToCluster != null) {
+            String[] databases = databaseToCluster.split(",");
+
+            // we look first in the unique identifiers where we have intact acs
+            String identifier = findIdentifier(interactor.getIdentifiers(), databases);
+            if (identifier == null) {
+                identifier = findIdentifier(interactor.getAlternativeIdentifiers(), databases);
+            }
+            if (identifier != null) {
+                return identifier;
+            }
+        }
+
+        if (!interactor.getIdentifiers().isEmpty()) {
+            return toIdentifier(interactor.getIdentifiers().iterator().next());
+        }
+        if (!interactor.getAlternativeIdentifiers().isEmpty()) {
+            return toIdentifier(interactor.getAlternativeIdentifiers().iterator().next());
+        }
+        return null;
+    }
+
+    private static String findIdentifier(List<CrossReference> refs, String[] databases) {
+        for (String db : databases) {
+            for (CrossReference ref : refs) {
+                if (ref.getDatabase() != null && ref.getDatabase().equalsIgnoreCase(db.trim())) {
+                    return toIdentifier(ref);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String toIdentifier(CrossReference ref) {
+        return ref.getDatabase() + ":" + ref.getIdentifier();
+    }
+
+    private static String toKey(String interactor) {
+        return interactor != null ? interactor.replace(SEPARATOR, ' ') : "-";
+    }
+
+    /**
+     * @return the index padded with zeros, so that the indexes are sorted as strings in the order of the numbers
+     */
+    private static String formatIndex(long index) {
+        String digits = Long.toString(index);
+        StringBuilder formatted = new StringBuilder(INDEX_LENGTH);
+        for (int i = digits.length(); i < INDEX_LENGTH; i++) {
+            formatted.append('0');
+        }
+        return formatted.append(digits).toString();
+    }
+
+    private File createTempFile(String prefix) throws IOException {
+        return File.createTempFile(prefix, ".txt", sorter.getTempDirectory());
+    }
+
+    private static BufferedReader createReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    private static BufferedWriter createWriter(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+    }
+
+    public String getScoreName() {
+        return scoreName;
+    }
+
+    public void setScoreName(String scoreName) {
+        this.scoreName = scoreName;
+    }
+
+    public String getDatabaseToCluster() {
+        return databaseToCluster;
+    }
+
+    public void setDatabaseToCluster(String databaseToCluster) {
+        this.databaseToCluster = databaseToCluster;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    public void setHeader(boolean header) {
+        this.header = header;
+    }
+
+    public ExternalLineSorter getSorter() {
+        return sorter;
+    }
+
+    public void setSorter(ExternalLineSorter sorter) {
+        this.sorter = sorter;
+    }
+}
@@ -0,0 +1,239 @@
+package uk.ac.ebi.intact.task.mitab.clustering;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts the lines of a text file too large to be sorted in memory.
+ *
+ * The lines are read in runs of at most the sort buffer size, each run being sorted in memory and written to a
+ * temporary file. The runs are then merged, at most merge factor runs at a time, until one run is left. The memory
+ * used is bounded by the sort buffer size and by the buffers of the merged files, whatever the size of the file.
+ * The lines are sorted in the natural order of the strings and the files are read and written in UTF-8.
+ *
+ * @version $Id$
+ */
+public class ExternalLineSorter {
+
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    private File tempDirectory;
+    private long sortBufferSize = 64 * 1024 * 1024;
+    private int mergeFactor = 64;
+
+    /**
+     * Sorts the lines of the input file into the output file. The input file is left unchanged.
+     *
+     * @return the number of lines sorted
+     */
+    public long sort(File input, File output) throws IOException {
+        List<File> runs = new ArrayList<File>();
+        long lineCount = 0;
+
+        try {
+            BufferedReader reader = createReader(input);
+            try {
+                List<String> lines = new ArrayList<String>();
+                long bufferSize = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                    lineCount++;
+                    // the characters of the line, the string and the reference in the list
+                    bufferSize += 2 * line.length() + 64;
+
+                    if (bufferSize >= sortBufferSize) {
+                        runs.add(writeRun(lines));
+                        lines.clear();
+                        bufferSize = 0;
+                    }
+                }
+                if (!lines.isEmpty() || runs.isEmpty()) {
+                    runs.add(writeRun(lines));
+                }
+            } finally {
+                reader.close();
+            }
+
+            while (runs.size() > 1) {
+                List<File> mergedRuns = new ArrayList<File>();
+                for (int i = 0; i < runs.size(); i += mergeFactor) {
+                    List<File> mergedFiles = runs.subList(i, Math.min(runs.size(), i + mergeFactor));
+                    File merged = createTempFile();
+                    mergedRuns.add(merged);
+                    try {
+                        merge(mergedFiles, merged);
+                    } catch (IOException e) {
+                        deleteAll(mergedRuns);
+                        throw e;
+                    }
+                }
+                deleteAll(runs);
+                runs = mergedRuns;
+            }
+
+            File sorted = runs.remove(0);
+            if (output.exists() && !output.delete()) {
+                throw new IOException("Cannot replace the file " + output);
+            }
+            if (!sorted.renameTo(output)) {
+                copy(sorted, output);
+                sorted.delete();
+            }
+            return lineCount;
+
+        } finally {
+            deleteAll(runs);
+        }
+    }
+
+    private File writeRun(List<String> lines) throws IOException {
+        Collections.sort(lines);
+
+        File run = createTempFile();
+        BufferedWriter writer = createWriter(run);
+        try {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+        return run;
+    }
+
+    private void merge(List<File> runs, File output) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(runs.size());
+        BufferedWriter writer = createWriter(output);
+        try {
+            for (File run : runs) {
+                RunReader runReader = new RunReader(createReader(run));
+                if (runReader.next()) {
+                    queue.add(runReader);
+                } else {
+                    runReader.close();
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                RunReader runReader = queue.poll();
+                writer.write(runReader.line);
+                writer.write('\n');
+
+                if (runReader.next()) {
+                    queue.add(runReader);
+                } else {
+                    runReader.close();
+                }
+            }
+        } finally {
+            for (RunReader runReader : queue) {
+                runReader.close();
+            }
+            writer.close();
+        }
+    }
+
+    private static class RunReader implements Comparable<RunReader> {
+
+        private final BufferedReader reader;
+        private String line;
+
+        private RunReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private boolean next() throws IOException {
+            line = reader.readLine();
+            return line != null;
+        }
+
+        private void close() throws IOException {
+            reader.close();
+        }
+
+        public int compareTo(RunReader runReader) {
+            return line.compareTo(runReader.line);
+        }
+    }
+
+    private File createTempFile() throws IOException {
+        return File.createTempFile("sort-run", ".txt", tempDirectory);
+    }
+
+    private static BufferedReader createReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), FILE_BUFFER_SIZE);
+    }
+
+    private static BufferedWriter createWriter(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), FILE_BUFFER_SIZE);
+    }
+
+    private static void copy(File from, File to) throws IOException {
+        InputStream in = new FileInputStream(from);
+        try {
+            OutputStream out = new FileOutputStream(to);
+            try {
+                byte[] buffer = new byte[FILE_BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void deleteAll(List<File> files) {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    public File getTempDirectory() {
+        return tempDirectory;
+    }
+
+    /**
+     * Sets the directory of the temporary files, null for the default temporary directory.
+     */
+    public void setTempDirectory(File tempDirectory) {
+        this.tempDirectory = tempDirectory;
+    }
+
+    public long getSortBufferSize() {
+        return sortBufferSize;
+    }
+
+    /**
+     * Sets the approximate memory in bytes used to sort the runs.
+     */
+    public void setSortBufferSize(long sortBufferSize) {
+        if (sortBufferSize <= 0) {
+            throw new IllegalArgumentException("The sort buffer size must be positive: " + sortBufferSize);
+        }
+        this.sortBufferSize = sortBufferSize;
+    }
+
+    public int getMergeFactor() {
+        return mergeFactor;
+    }
+
+    /**
+     * Sets the maximum number of runs merged at a time, which is the number of files opened during the merge.
+     */
+    public void setMergeFactor(int mergeFactor) {
+        if (mergeFactor < 2) {
+            throw new IllegalArgumentException("The merge factor must be at least 2: " + mergeFactor);
+        }
+        this.mergeFactor = mergeFactor;
+    }
+}
@@ -16,13 +16,26 @@
 package uk.ac.ebi.intact.task.mitab.index;
 
 import org.apache.solr.client.solrj.impl.HttpSolrServer;
+import org.hupo.psi.calimocho.model.Row;
 import org.hupo.psi.mi.psicquic.indexing.batch.writer.SolrItemWriter;
 import org.springframework.batch.item.ExecutionContext;
 import org.springframework.batch.item.ItemStreamException;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitPolicy;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitStatistics;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.SolrCommitter;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.SolrDocumentConverter;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologySearcher;
 
+import java.io.IOException;
+import java.util.List;
+
 /**
+ * Writes MITAB rows in a Solr server, using the ontology server to expand the ontology terms.
+ *
+ * Without commit policy, the documents are committed as by the SolrItemWriter, once per chunk. With a commit
+ * policy, the chunk updates do not commit and the documents are committed when the policy says so, then once more
+ * with the merge of the policy when the writer is closed.
+ *
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
@@ -31,6 +44,9 @@ public class IntactSolrItemWriter extends SolrItemWriter {
     private String ontologiesSolrUrl;
     private OntologySearcher ontologySearcher;
 
+    private CommitPolicy commitPolicy;
+    private SolrCommitter solrCommitter;
+
     public IntactSolrItemWriter(){
         super();
     }
@@ -48,6 +64,33 @@ public class IntactSolrItemWriter extends SolrItemWriter {
 
         // create new SolrDocumentConverter
         this.solrConverter = new SolrDocumentConverter(solrServer, ontologySearcher);
+
+        if (commitPolicy != null) {
+            solrCommitter = new SolrCommitter(solrServer, commitPolicy);
+        }
+    }
+
+    @Override
+    public void write(List<? extends Row> items) throws Exception {
+        super.write(items);
+
+        if (solrCommitter != null) {
+            solrCommitter.added(items.size(), 0);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        if (solrCommitter == null) {
+            super.update(executionContext);
+            return;
+        }
+
+        try {
+            solrCommitter.commitIfDue();
+        } catch (IOException e) {
+            throw new ItemStreamException("Problem committing the documents", e);
+        }
     }
 
     private HttpSolrServer createOntologySolrServer() {
@@ -61,10 +104,32 @@ public class IntactSolrItemWriter extends SolrItemWriter {
         if (this.ontologySearcher != null){
             this.ontologySearcher.shutdown();
         }
+        if (solrCommitter != null) {
+            try {
+                solrCommitter.finish();
+            } catch (IOException e) {
+                throw new ItemStreamException("Problem committing the documents", e);
+            }
+        }
         super.close();
     }
 
     public void setOntologiesSolrUrl(String ontologiesSolrUrl) {
         this.ontologiesSolrUrl = ontologiesSolrUrl;
     }
+
+    public CommitPolicy getCommitPolicy() {
+        return commitPolicy;
+    }
+
+    public void setCommitPolicy(CommitPolicy commitPolicy) {
+        this.commitPolicy = commitPolicy;
+    }
+
+    /**
+     * @return the commits and merges done with the commit policy, null without commit policy
+     */
+    public CommitStatistics getCommitStatistics() {
+        return solrCommitter != null ? solrCommitter.getStatistics() : null;
+    }
 }
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.task.mitab.index;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Splits a MITAB file into byte ranges, one per partition of a partitioned indexing step.
+ *
+ * The ranges are contiguous, cover the whole file and start at the beginning of a line, so that each line is read
+ * by exactly one partition. Each partition gets the path of the file and its range in its execution context, under
+ * the FILE, START_OFFSET and END_OFFSET keys, to be given to a step scoped MitabRangeItemReader. The partitions are
+ * the same each time a file is split with the same grid size, so that a failed partition can be restarted alone.
+ *
+ * @version $Id$
+ */
+public class MitabFilePartitioner implements Partitioner {
+
+    private static final Log log = LogFactory.getLog(MitabFilePartitioner.class);
+
+    public static final String FILE = "mitab.file";
+    public static final String START_OFFSET = "mitab.startOffset";
+    public static final String END_OFFSET = "mitab.endOffset";
+    public static final String PARTITION_NAME_PREFIX = "partition";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private Resource resource;
+    private long minPartitionSize = 1024 * 1024;
+
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        if (resource == null) {
+            throw new ItemStreamException("The MITAB resource is null");
+        }
+
+        try {
+            File file = resource.getFile();
+            long length = file.length();
+            int partitions = (int) Math.max(1, Math.min(gridSize, (length + minPartitionSize - 1) / minPartitionSize));
+
+            Map<String, ExecutionContext> contexts = new LinkedHashMap<String, ExecutionContext>();
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                long start = 0;
+                for (int i = 1; i <= partitions && start < length; i++) {
+                    long end = i == partitions ? length : nextLineStart(randomAccessFile, length * i / partitions, length);
+
+                    // a line longer than a partition
+                    if (end <= start) {
+                        continue;
+                    }
+
+                    ExecutionContext context = new ExecutionContext();
+                    context.putString(FILE, file.getAbsolutePath());
+                    context.putLong(START_OFFSET, start);
+                    context.putLong(END_OFFSET, end);
+                    contexts.put(PARTITION_NAME_PREFIX + contexts.size(), context);
+
+                    start = end;
+                }
+            } finally {
+                randomAccessFile.close();
+            }
+
+            if (log.isInfoEnabled()) log.info("Split " + file + " (" + length + " bytes) into " + contexts.size() + " partitions");
+            return contexts;
+
+        } catch (IOException e) {
+            throw new ItemStreamException("Problem splitting the MITAB file " + resource, e);
+        }
+    }
+
+    /**
+     * @return the offset of the first line starting at or after the offset, or the length of the file
+     */
+    private static long nextLineStart(RandomAccessFile file, long offset, long length) throws IOException {
+        if (offset <= 0) {
+            return 0;
+        }
+
+        // the line starts at the offset if the previous byte ends a line
+        long position = offset - 1;
+        file.seek(position);
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = file.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return length;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public void setResource(Resource resource) {
+        this.resource = resource;
+    }
+
+    public long getMinPartitionSize() {
+        return minPartitionSize;
+    }
+
+    /**
+     * Sets the minimum size in bytes of a partition, so that a small file is not split in more partitions than
+     * worth the cost of opening the readers and Solr clients.
+     */
+    public void setMinPartitionSize(long minPartitionSize) {
+        if (minPartitionSize <= 0) {
+            throw new IllegalArgumentException("The minimum partition size must be positive: " + minPartitionSize);
+        }
+        this.minPartitionSize = minPartitionSize;
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.task.mitab.index;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a byte range of a MITAB file, as given by the MitabFilePartitioner, mapping them with a
+ * LineMapper. The empty lines and the comment lines starting with '#', such as the header, are skipped.
+ *
+ * The range must start at the beginning of a line; the line starting before the end of the range is the last one
+ * read. The reader saves its byte offset in the execution context, so that a restarted partition seeks back to the
+ * last committed line instead of reading again the beginning of its range.
+ *
+ * @version $Id$
+ */
+public class MitabRangeItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    private static final String POSITION = "position";
+    private static final String LINE_COUNT = "line.count";
+    private static final String COMMENT_PREFIX = "#";
+
+    private Resource resource;
+    private long startOffset;
+    private long endOffset = Long.MAX_VALUE;
+    private LineMapper<T> lineMapper;
+    private String encoding = "UTF-8";
+
+    private FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private long position;
+    private int lineCount;
+    private byte[] lineBuffer = new byte[4 * 1024];
+
+    private long restartPosition = -1;
+    private int restartLineCount;
+
+    public MitabRangeItemReader() {
+        setName(ClassUtils.getShortName(MitabRangeItemReader.class));
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        if (resource == null) {
+            throw new ItemStreamException("The MITAB resource is null");
+        }
+        if (lineMapper == null) {
+            throw new ItemStreamException("The line mapper is null");
+        }
+        if (startOffset < 0 || endOffset < startOffset) {
+            throw new ItemStreamException("Invalid range of " + resource + ": " + startOffset + "-" + endOffset);
+        }
+
+        channel = new FileInputStream(resource.getFile()).getChannel();
+        seek(startOffset);
+        lineCount = 0;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        restartPosition = executionContext.getLong(getExecutionContextKey(POSITION), -1);
+        restartLineCount = executionContext.getInt(getExecutionContextKey(LINE_COUNT), 0);
+        super.open(executionContext);
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (restartPosition < 0) {
+            super.jumpToItem(itemIndex);
+            return;
+        }
+        seek(restartPosition);
+        lineCount = restartLineCount;
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(POSITION), position);
+            executionContext.putInt(getExecutionContextKey(LINE_COUNT), lineCount);
+        }
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        String line;
+        while ((line = readLine()) != null) {
+            lineCount++;
+            if (line.length() == 0 || line.startsWith(COMMENT_PREFIX)) {
+                continue;
+            }
+            return lineMapper.mapLine(line, lineCount);
+        }
+        return null;
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void seek(long offset) throws IOException {
+        channel.position(offset);
+        buffer.clear().flip();
+        position = offset;
+    }
+
+    /**
+     * @return the next line of the range without its end of line, or null at the end of the range
+     */
+    private String readLine() throws IOException {
+        if (position >= endOffset) {
+            return null;
+        }
+
+        int length = 0;
+        boolean endOfLine = false;
+        while (!endOfLine) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int read = channel.read(buffer);
+                buffer.flip();
+                if (read <= 0) {
+                    if (length == 0) {
+                        return null;
+                    }
+                    break;
+                }
+            }
+
+            byte b = buffer.get();
+            position++;
+            if (b == '\n') {
+                endOfLine = true;
+            } else {
+                if (length == lineBuffer.length) {
+                    lineBuffer = Arrays.copyOf(lineBuffer, length * 2);
+                }
+                lineBuffer[length++] = b;
+            }
+        }
+
+        if (length > 0 && lineBuffer[length - 1] == '\r') {
+            length--;
+        }
+        return new String(lineBuffer, 0, length, encoding);
+    }
+
+    ///////////////////////////
+    // Getters and Setters
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public void setResource(Resource resource) {
+        this.resource = resource;
+    }
+
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    public void setStartOffset(long startOffset) {
+        this.startOffset = startOffset;
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * Sets the end of the range, exclusive. Without end, the lines are read up to the end of the file.
+     */
+    public void setEndOffset(long endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    public LineMapper<T> getLineMapper() {
+        return lineMapper;
+    }
+
+    public void setLineMapper(LineMapper<T> lineMapper) {
+        this.lineMapper = lineMapper;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.task.mitab.index;
+
+import org.hupo.psi.calimocho.model.Row;
+import org.hupo.psi.calimocho.tab.io.DefaultRowReader;
+import org.hupo.psi.calimocho.tab.io.RowReader;
+import org.hupo.psi.calimocho.tab.util.MitabDocumentDefinitionFactory;
+import org.springframework.batch.item.file.LineMapper;
+
+/**
+ * Maps MITAB 2.7 lines to the calimocho rows written by the IntactSolrItemWriter.
+ *
+ * @version $Id$
+ */
+public class MitabRowLineMapper implements LineMapper<Row> {
+
+    private RowReader rowReader;
+
+    public MitabRowLineMapper() {
+        this.rowReader = new DefaultRowReader(MitabDocumentDefinitionFactory.mitab27());
+    }
+
+    public Row mapLine(String line, int lineNumber) throws Exception {
+        try {
+            return rowReader.readLine(line);
+        } catch (Exception e) {
+            throw new Exception("Problem converting to row line " + lineNumber + ": " + line, e);
+        }
+    }
+}
@@ -27,14 +27,18 @@ import org.apache.solr.client.solrj.SolrServer;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.HttpSolrServer;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.step.tasklet.Tasklet;
 import org.springframework.batch.repeat.RepeatStatus;
 import uk.ac.ebi.intact.bridges.ontologies.OntologyMapping;
-import uk.ac.ebi.intact.bridges.ontologies.iterator.UniprotTaxonomyOntologyIterator;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.DefaultDocumentFilter;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologyIndexer;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologyIndexingStatistics;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologySource;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -47,6 +51,7 @@ public class OntologyPopulatorTasklet implements Tasklet{
     private List<OntologyMapping> oboOntologyMappings;
     private List<OntologyMapping> taxonomyOntologyMappings;
     private boolean indexUniprotTaxonomy;
+    private int parallelThreads;
 
     // settings SOLRServer
     private int maxTotalConnections = 128;
@@ -59,25 +64,36 @@ public class OntologyPopulatorTasklet implements Tasklet{
         HttpSolrServer ontologiesSolrServer = createSolrServer();
 
         OntologyIndexer ontologyIndexer = new OntologyIndexer(ontologiesSolrServer);
+        ontologyIndexer.setParallelThreads(parallelThreads);
 
         if (taxonomyOntologyMappings != null) {
             indexUniprotTaxonomy = true;
         }
 
+        // the taxonomy and the OBO ontologies are loaded at the same time
+        List<OntologySource> sources = new ArrayList<OntologySource>();
         if (indexUniprotTaxonomy) {
             if (taxonomyOntologyMappings == null) {
-                ontologyIndexer.indexUniprotTaxonomy();
+                sources.add(OntologySource.uniprotTaxonomy());
             } else {
                 for (OntologyMapping om : taxonomyOntologyMappings) {
-                    ontologyIndexer.indexOntology(new UniprotTaxonomyOntologyIterator(om.getUrl()));
+                    sources.add(OntologySource.uniprotTaxonomy(om.getUrl()));
                 }
             }
         }
+        if (oboOntologyMappings != null) {
+            sources.addAll(OntologySource.obo(oboOntologyMappings.toArray(new OntologyMapping[oboOntologyMappings.size()])));
+        }
 
-        ontologyIndexer.indexObo(oboOntologyMappings.toArray(new OntologyMapping[oboOntologyMappings.size()]));
+        ontologyIndexer.indexOntologies(sources, new DefaultDocumentFilter());
 
         long count = countDocs(ontologiesSolrServer);
-        contribution.getExitStatus().addExitDescription("Total docs in index: "+count);
+        // the exit status is immutable, addExitDescription returns a new one
+        ExitStatus exitStatus = contribution.getExitStatus().addExitDescription("Total docs in index: "+count);
+        for (OntologyIndexingStatistics statistics : ontologyIndexer.getLastIndexingStatistics()) {
+            exitStatus = exitStatus.addExitDescription(statistics.toString());
+        }
+        contribution.setExitStatus(exitStatus);
 
         ontologiesSolrServer.shutdown();
 
@@ -144,6 +160,13 @@ public class OntologyPopulatorTasklet implements Tasklet{
         this.indexUniprotTaxonomy = indexUniprotTaxonomy;
     }
 
+    /**
+     * Sets the maximum number of ontologies loaded at the same time, 0 for the default.
+     */
+    public void setParallelThreads(int parallelThreads) {
+        this.parallelThreads = parallelThreads;
+    }
+
     public void setTaxonomyOntologyMappings(List<OntologyMapping> taxonomyOntologyMappings) {
         this.taxonomyOntologyMappings = taxonomyOntologyMappings;
     }
@@ -0,0 +1,104 @@
+package uk.ac.ebi.intact.task.mitab;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.*;
+
+/**
+ * Unit tester of FanOutItemWriter
+ *
+ * @version $Id$
+ */
+public class FanOutItemWriterTest {
+
+    @Test
+    public void write_oneWritePerDelegate() throws Exception {
+        RecordingWriter first = new RecordingWriter();
+        RecordingWriter second = new RecordingWriter();
+        FanOutItemWriter<String> writer = new FanOutItemWriter<String>();
+        writer.setDelegates(Arrays.asList(first, second));
+
+        writer.write(createChunk());
+
+        Assert.assertEquals(1, first.writes.size());
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), first.writes.get(0));
+        // the same list for all the delegates
+        Assert.assertSame(first.writes.get(0), second.writes.get(0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void write_unmodifiableChunk() throws Exception {
+        FanOutItemWriter<String> writer = new FanOutItemWriter<String>();
+        writer.setDelegates(Collections.singletonList(new ItemWriter<String>() {
+            public void write(List<? extends String> items) {
+                items.remove(0);
+            }
+        }));
+
+        writer.write(createChunk());
+    }
+
+    @Test
+    public void write_concurrentDelegates() throws Exception {
+        RecordingWriter first = new RecordingWriter();
+        RecordingWriter second = new RecordingWriter();
+        RecordingWriter third = new RecordingWriter();
+        FanOutItemWriter<String> writer = new FanOutItemWriter<String>();
+        writer.setDelegates(Arrays.asList(first, second, third));
+        writer.setTaskExecutor(new SimpleAsyncTaskExecutor());
+
+        writer.write(createChunk());
+
+        Assert.assertEquals(Thread.currentThread(), first.thread);
+        Assert.assertNotSame(Thread.currentThread(), second.thread);
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), third.writes.get(0));
+    }
+
+    @Test
+    public void write_concurrentFailures() throws Exception {
+        RecordingWriter first = new RecordingWriter();
+        RecordingWriter second = new RecordingWriter();
+        second.failure = new IllegalStateException("Solr down");
+        RecordingWriter third = new RecordingWriter();
+        third.failure = new IllegalStateException("Disk full");
+        FanOutItemWriter<String> writer = new FanOutItemWriter<String>();
+        writer.setDelegates(Arrays.asList(first, second, third));
+        writer.setTaskExecutor(new SimpleAsyncTaskExecutor());
+
+        try {
+            writer.write(createChunk());
+            Assert.fail("The failures of the delegates should fail the chunk");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Solr down", e.getMessage());
+            Assert.assertEquals(1, e.getSuppressed().length);
+        }
+        // all the delegates have been written
+        Assert.assertEquals(1, first.writes.size());
+    }
+
+    private static List<Collection<String>> createChunk() {
+        List<Collection<String>> chunk = new ArrayList<Collection<String>>();
+        chunk.add(Arrays.asList("a", "b"));
+        chunk.add(Collections.<String>emptyList());
+        chunk.add(Arrays.asList("c", "d"));
+        return chunk;
+    }
+
+    private static class RecordingWriter implements ItemWriter<String> {
+
+        private final List<List<? extends String>> writes = new ArrayList<List<? extends String>>();
+        private volatile Thread thread;
+        private RuntimeException failure;
+
+        public void write(List<? extends String> items) throws Exception {
+            thread = Thread.currentThread();
+            if (failure != null) {
+                throw failure;
+            }
+            writes.add(items);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import javax.annotation.Resource;
 import java.io.File;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -50,6 +51,8 @@ public class ClusterScoreTaskletTest{
     public void deleteGeneratedMitab(){
         File file = new File("target/mitab-clustered");
         file.delete();
+        new File("target/mitab-clustered-memory.tsv").delete();
+        new File("target/mitab-clustered-disk.tsv").delete();
     }
 
 	@Test
@@ -67,4 +70,22 @@ public class ClusterScoreTaskletTest{
         
         Assert.assertTrue(file.exists());
 	}
+
+    @Test
+    public void clusterOnDisk_sameOutputAsInMemory() throws Exception {
+        ClusterScoreTasklet inMemory = new ClusterScoreTasklet("src/test/resources/mitab/mitab-legacy-2.7.tsv", "target/mitab-clustered-memory.tsv");
+        inMemory.setScoreName("intact-miscore");
+        inMemory.execute(null, null);
+
+        ClusterScoreTasklet onDisk = new ClusterScoreTasklet("src/test/resources/mitab/mitab-legacy-2.7.tsv", "target/mitab-clustered-disk.tsv");
+        onDisk.setScoreName("intact-miscore");
+        onDisk.setExternalSort(true);
+        onDisk.setSortDirectoryName("target/cluster-sort");
+        // several runs to merge
+        onDisk.setSortBufferSize(64 * 1024);
+        onDisk.execute(null, null);
+
+        Assert.assertEquals(Files.readAllLines(new File("target/mitab-clustered-memory.tsv").toPath()),
+                Files.readAllLines(new File("target/mitab-clustered-disk.tsv").toPath()));
+    }
 }
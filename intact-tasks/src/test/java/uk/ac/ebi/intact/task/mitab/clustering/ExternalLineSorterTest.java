@@ -0,0 +1,83 @@
+package uk.ac.ebi.intact.task.mitab.clustering;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tester of ExternalLineSorter
+ *
+ * @version $Id$
+ */
+public class ExternalLineSorterTest {
+
+    private File directory;
+
+    @Before
+    public void before() throws Exception {
+        directory = Files.createTempDirectory("sort").toFile();
+    }
+
+    @After
+    public void after() throws Exception {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void sort_severalMergePasses() throws Exception {
+        List<String> lines = new ArrayList<String>();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            lines.add("uniprotkb:P" + random.nextInt(1000) + "\tuniprotkb:Q" + random.nextInt(1000) + "\t" + i);
+        }
+        File input = new File(directory, "input.txt");
+        Files.write(input.toPath(), lines, StandardCharsets.UTF_8);
+
+        ExternalLineSorter sorter = new ExternalLineSorter();
+        sorter.setTempDirectory(directory);
+        // about 50 runs, merged 4 at a time
+        sorter.setSortBufferSize(10 * 1024);
+        sorter.setMergeFactor(4);
+
+        File output = new File(directory, "output.txt");
+        Assert.assertEquals(5000, sorter.sort(input, output));
+
+        Collections.sort(lines);
+        Assert.assertEquals(lines, Files.readAllLines(output.toPath(), StandardCharsets.UTF_8));
+        // only the input and the output are left
+        Assert.assertEquals(2, directory.listFiles().length);
+    }
+
+    @Test
+    public void sort_inPlace() throws Exception {
+        File file = new File(directory, "lines.txt");
+        Files.write(file.toPath(), Arrays.asList("c", "a", "b"), StandardCharsets.UTF_8);
+
+        new ExternalLineSorter().sort(file, file);
+
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void sort_emptyFile() throws Exception {
+        File input = new File(directory, "input.txt");
+        input.createNewFile();
+        File output = new File(directory, "output.txt");
+
+        Assert.assertEquals(0, new ExternalLineSorter().sort(input, output));
+        Assert.assertEquals(0, output.length());
+    }
+}
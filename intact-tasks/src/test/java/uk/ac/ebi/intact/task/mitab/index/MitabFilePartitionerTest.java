@@ -0,0 +1,132 @@
+package uk.ac.ebi.intact.task.mitab.index;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.mapping.PassThroughLineMapper;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tester of MitabFilePartitioner and MitabRangeItemReader
+ *
+ * @version $Id$
+ */
+public class MitabFilePartitionerTest {
+
+    private File file;
+
+    @Before
+    public void before() throws Exception {
+        file = File.createTempFile("mitab", ".txt");
+
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        writer.write("#ID(s) interactor A\tID(s) interactor B\n");
+        for (int i = 0; i < 1000; i++) {
+            // lines of different lengths, some with windows ends of line
+            writer.write("uniprotkb:P" + i + "\tuniprotkb:Q" + (i * i) + (i % 7 == 0 ? "\r\n" : "\n"));
+        }
+        // no end of line at the end of the file
+        writer.write("uniprotkb:last\tuniprotkb:line");
+        writer.close();
+    }
+
+    @After
+    public void after() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void partition_rangesAlignedOnLines() throws Exception {
+        MitabFilePartitioner partitioner = createPartitioner(1024);
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(8);
+
+        Assert.assertEquals(8, partitions.size());
+        long start = 0;
+        for (int i = 0; i < partitions.size(); i++) {
+            ExecutionContext context = partitions.get(MitabFilePartitioner.PARTITION_NAME_PREFIX + i);
+            Assert.assertEquals(file.getAbsolutePath(), context.getString(MitabFilePartitioner.FILE));
+            Assert.assertEquals(start, context.getLong(MitabFilePartitioner.START_OFFSET));
+            start = context.getLong(MitabFilePartitioner.END_OFFSET);
+            Assert.assertTrue(start > context.getLong(MitabFilePartitioner.START_OFFSET));
+        }
+        Assert.assertEquals(file.length(), start);
+    }
+
+    @Test
+    public void partition_smallFile() throws Exception {
+        MitabFilePartitioner partitioner = createPartitioner(file.length());
+
+        Map<String, ExecutionContext> partitions = partitioner.partition(8);
+
+        Assert.assertEquals(1, partitions.size());
+        Assert.assertEquals(file.length(), partitions.get("partition0").getLong(MitabFilePartitioner.END_OFFSET));
+    }
+
+    @Test
+    public void read_eachLineOnce() throws Exception {
+        Map<String, ExecutionContext> partitions = createPartitioner(1024).partition(5);
+
+        List<String> lines = new ArrayList<String>();
+        for (ExecutionContext partition : partitions.values()) {
+            MitabRangeItemReader<String> reader = createReader(partition);
+            reader.open(new ExecutionContext());
+            String line;
+            while ((line = reader.read()) != null) {
+                lines.add(line);
+            }
+            reader.close();
+        }
+
+        Assert.assertEquals(1001, lines.size());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals("uniprotkb:P" + i + "\tuniprotkb:Q" + (i * i), lines.get(i));
+        }
+        Assert.assertEquals("uniprotkb:last\tuniprotkb:line", lines.get(1000));
+    }
+
+    @Test
+    public void read_restartFromSavedPosition() throws Exception {
+        ExecutionContext partition = createPartitioner(file.length()).partition(1).get("partition0");
+
+        MitabRangeItemReader<String> reader = createReader(partition);
+        ExecutionContext stepContext = new ExecutionContext();
+        reader.open(stepContext);
+        for (int i = 0; i < 300; i++) {
+            reader.read();
+        }
+        reader.update(stepContext);
+        reader.close();
+
+        reader = createReader(partition);
+        reader.open(stepContext);
+        Assert.assertEquals("uniprotkb:P300\tuniprotkb:Q90000", reader.read());
+        reader.close();
+    }
+
+    private MitabFilePartitioner createPartitioner(long minPartitionSize) {
+        MitabFilePartitioner partitioner = new MitabFilePartitioner();
+        partitioner.setResource(new FileSystemResource(file));
+        partitioner.setMinPartitionSize(minPartitionSize);
+        return partitioner;
+    }
+
+    private static MitabRangeItemReader<String> createReader(ExecutionContext partition) {
+        MitabRangeItemReader<String> reader = new MitabRangeItemReader<String>();
+        reader.setResource(new FileSystemResource(partition.getString(MitabFilePartitioner.FILE)));
+        reader.setStartOffset(partition.getLong(MitabFilePartitioner.START_OFFSET));
+        reader.setEndOffset(partition.getLong(MitabFilePartitioner.END_OFFSET));
+        reader.setLineMapper(new PassThroughLineMapper());
+        return reader;
+    }
+}
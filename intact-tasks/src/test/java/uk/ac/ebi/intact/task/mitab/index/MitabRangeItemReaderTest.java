@@ -0,0 +1,182 @@
+package uk.ac.ebi.intact.task.mitab.index;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tester of MitabRangeItemReader
+ *
+ * @version $Id$
+ */
+public class MitabRangeItemReaderTest {
+
+    private static final String HEADER = "#ID(s) interactor A\tID(s) interactor B\n";
+    private static final String LINE_1 = "uniprotkb:P1\tuniprotkb:Q1\r\n";
+    private static final String LINE_2 = "uniprotkb:P2\tuniprotkb:Q2\n";
+    private static final String COMMENT = "# comment in the middle of the file\r\n";
+    private static final String EMPTY_LINE = "\n";
+    private static final String LINE_3 = "uniprotkb:P3\tuniprotkb:Q3\r\n";
+    private static final String LINE_4 = "uniprotkb:P4\tuniprotkb:Q4";
+
+    private File file;
+
+    // offsets of the beginning of the lines
+    private long line2Start;
+    private long commentStart;
+
+    @Before
+    public void before() throws Exception {
+        file = File.createTempFile("mitab", ".txt");
+
+        String content = HEADER + LINE_1 + LINE_2 + COMMENT + EMPTY_LINE + LINE_3 + LINE_4;
+        line2Start = (HEADER + LINE_1).length();
+        commentStart = line2Start + LINE_2.length();
+
+        OutputStream out = new FileOutputStream(file);
+        out.write(content.getBytes("UTF-8"));
+        out.close();
+    }
+
+    @After
+    public void after() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void read_wholeFile() throws Exception {
+        MitabRangeItemReader<String> reader = createReader(0, Long.MAX_VALUE);
+
+        Assert.assertEquals(Arrays.asList(
+                "2:uniprotkb:P1\tuniprotkb:Q1",
+                "3:uniprotkb:P2\tuniprotkb:Q2",
+                "6:uniprotkb:P3\tuniprotkb:Q3",
+                "7:uniprotkb:P4\tuniprotkb:Q4"), readAll(reader));
+    }
+
+    @Test
+    public void read_endOffsetAtLineStart() throws Exception {
+        MitabRangeItemReader<String> reader = createReader(0, line2Start);
+
+        Assert.assertEquals(Arrays.asList("2:uniprotkb:P1\tuniprotkb:Q1"), readAll(reader));
+    }
+
+    @Test
+    public void read_lineStraddlingEndOffset() throws Exception {
+        // the second line starts before the end of the range and is read in full
+        MitabRangeItemReader<String> reader = createReader(0, line2Start + 5);
+
+        Assert.assertEquals(Arrays.asList(
+                "2:uniprotkb:P1\tuniprotkb:Q1",
+                "3:uniprotkb:P2\tuniprotkb:Q2"), readAll(reader));
+    }
+
+    @Test
+    public void read_endOffsetOnCarriageReturn() throws Exception {
+        // the range ends between the \r and the \n of the first line, which is still read without its end of line
+        MitabRangeItemReader<String> reader = createReader(0, line2Start - 1);
+
+        Assert.assertEquals(Arrays.asList("2:uniprotkb:P1\tuniprotkb:Q1"), readAll(reader));
+    }
+
+    @Test
+    public void read_commentsInNextRange() throws Exception {
+        // the range following the straddling line starts with a comment and an empty line, both skipped
+        MitabRangeItemReader<String> reader = createReader(commentStart, Long.MAX_VALUE);
+
+        Assert.assertEquals(Arrays.asList(
+                "3:uniprotkb:P3\tuniprotkb:Q3",
+                "4:uniprotkb:P4\tuniprotkb:Q4"), readAll(reader));
+    }
+
+    @Test
+    public void read_emptyRange() throws Exception {
+        MitabRangeItemReader<String> reader = createReader(commentStart, commentStart);
+
+        Assert.assertTrue(readAll(reader).isEmpty());
+    }
+
+    @Test
+    public void read_restartFromSavedPosition() throws Exception {
+        MitabRangeItemReader<String> reader = createReader(0, Long.MAX_VALUE);
+        ExecutionContext stepContext = new ExecutionContext();
+        reader.open(stepContext);
+        Assert.assertEquals("2:uniprotkb:P1\tuniprotkb:Q1", reader.read());
+        Assert.assertEquals("3:uniprotkb:P2\tuniprotkb:Q2", reader.read());
+        reader.update(stepContext);
+        reader.close();
+
+        Assert.assertEquals(commentStart, stepContext.getLong("MitabRangeItemReader.position"));
+        Assert.assertEquals(3, stepContext.getInt("MitabRangeItemReader.line.count"));
+
+        // the restarted reader seeks to the saved position and keeps numbering the lines of the range
+        reader = createReader(0, Long.MAX_VALUE);
+        reader.open(stepContext);
+        Assert.assertEquals("6:uniprotkb:P3\tuniprotkb:Q3", reader.read());
+        Assert.assertEquals("7:uniprotkb:P4\tuniprotkb:Q4", reader.read());
+        Assert.assertNull(reader.read());
+        reader.update(stepContext);
+        reader.close();
+
+        Assert.assertEquals(file.length(), stepContext.getLong("MitabRangeItemReader.position"));
+        Assert.assertEquals(7, stepContext.getInt("MitabRangeItemReader.line.count"));
+    }
+
+    @Test
+    public void read_restartAtEndOfRange() throws Exception {
+        MitabRangeItemReader<String> reader = createReader(0, commentStart);
+        ExecutionContext stepContext = new ExecutionContext();
+        reader.open(stepContext);
+        Assert.assertEquals("2:uniprotkb:P1\tuniprotkb:Q1", reader.read());
+        Assert.assertEquals("3:uniprotkb:P2\tuniprotkb:Q2", reader.read());
+        Assert.assertNull(reader.read());
+        reader.update(stepContext);
+        reader.close();
+
+        reader = createReader(0, commentStart);
+        reader.open(stepContext);
+        Assert.assertNull(reader.read());
+        reader.close();
+    }
+
+    private MitabRangeItemReader<String> createReader(long startOffset, long endOffset) {
+        MitabRangeItemReader<String> reader = new MitabRangeItemReader<String>();
+        reader.setResource(new FileSystemResource(file));
+        reader.setStartOffset(startOffset);
+        reader.setEndOffset(endOffset);
+        reader.setLineMapper(new NumberedLineMapper());
+        return reader;
+    }
+
+    private static List<String> readAll(MitabRangeItemReader<String> reader) throws Exception {
+        List<String> lines = new ArrayList<String>();
+        reader.open(new ExecutionContext());
+        String line;
+        while ((line = reader.read()) != null) {
+            lines.add(line);
+        }
+        reader.close();
+        return lines;
+    }
+
+    /**
+     * Prefixes each line with its number in the range.
+     */
+    private static class NumberedLineMapper implements LineMapper<String> {
+
+        public String mapLine(String line, int lineNumber) throws Exception {
+            return lineNumber + ":" + line;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.benchmark;
+
+import org.hupo.psi.calimocho.model.Row;
+import org.hupo.psi.calimocho.tab.io.DefaultRowReader;
+import org.hupo.psi.calimocho.tab.io.RowReader;
+import org.hupo.psi.calimocho.tab.util.MitabDocumentDefinitionFactory;
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ebi.intact.dataexchange.benchmark.BenchmarkSamples;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a MITAB sample before the trial. Each operation of a benchmark converts one line, taking the lines of the
+ * sample in turn, so that the score is in lines per second and the allocation given by the gc profiler
+ * (<code>-prof gc</code>, gc.alloc.rate.norm) is the allocation per document.
+ *
+ * The run settings are fixed here rather than left to the command line defaults, so that the results of two
+ * commits can be compared.
+ *
+ * @version $Id$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+public abstract class AbstractConverterBenchmark {
+
+    /**
+     * The MITAB 2.5, 2.6 and 2.7 samples of BenchmarkSamples.
+     */
+    @Param({BenchmarkSamples.MITAB25, BenchmarkSamples.MITAB26, BenchmarkSamples.MITAB27})
+    public String sample;
+
+    protected String[] lines;
+    protected Row[] rows;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void readSample() throws Exception {
+        lines = BenchmarkSamples.readLines(sample);
+        rows = readRows(lines);
+        setUp();
+    }
+
+    protected void setUp() throws Exception {
+    }
+
+    /**
+     * @return the lines read as MITAB 2.7 rows, as the SolrDocumentConverter reads them
+     */
+    private static Row[] readRows(String[] lines) throws Exception {
+        RowReader rowReader = new DefaultRowReader(MitabDocumentDefinitionFactory.mitab27());
+
+        Row[] rows = new Row[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            rows[i] = rowReader.readLine(lines[i]);
+        }
+        return rows;
+    }
+
+    /**
+     * @return the index of the line to convert by the next operation
+     */
+    protected int nextIndex() {
+        int index = next;
+        next = index + 1 == lines.length ? 0 : index + 1;
+        return index;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.benchmark;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.hupo.psi.calimocho.key.InteractionKeys;
+import org.hupo.psi.calimocho.model.Row;
+import org.hupo.psi.calimocho.tab.io.DefaultRowReader;
+import org.hupo.psi.calimocho.tab.io.RowReader;
+import org.hupo.psi.calimocho.tab.util.MitabDocumentDefinitionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.FieldNames;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.RowDataSelectiveAdder;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.impl.BinaryIdSelectiveAdder;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.impl.ByInteractorTypeRowDataAdder;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.impl.ConfidenceScoreSelectiveAdder;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.impl.GeneNameSelectiveAdder;
+
+/**
+ * The stages of the SolrDocumentConverter which do not use the ontologies: the reading of the MITAB line and
+ * each of the selective adders of the IntAct fields, created as the converter creates them.
+ *
+ * The adders are given the rows read before the trial and add their fields to an empty document.
+ *
+ * @version $Id$
+ */
+public class ConverterStageBenchmark extends AbstractConverterBenchmark {
+
+    private RowReader rowReader;
+
+    private RowDataSelectiveAdder confidenceSelectiveAdder;
+    private RowDataSelectiveAdder geneSelectiveAdder;
+    private RowDataSelectiveAdder idATypeSelectiveAdder;
+    private RowDataSelectiveAdder idBTypeSelectiveAdder;
+    private RowDataSelectiveAdder altidATypeSelectiveAdder;
+    private RowDataSelectiveAdder altidBTypeSelectiveAdder;
+    private RowDataSelectiveAdder binarySelectiveAdder;
+
+    @Override
+    protected void setUp() throws Exception {
+        rowReader = new DefaultRowReader(MitabDocumentDefinitionFactory.mitab27());
+
+        confidenceSelectiveAdder = new ConfidenceScoreSelectiveAdder(FieldNames.INTACT_SCORE_NAME.toLowerCase());
+        geneSelectiveAdder = new GeneNameSelectiveAdder();
+        idATypeSelectiveAdder = new ByInteractorTypeRowDataAdder(InteractionKeys.KEY_ID_A,
+                InteractionKeys.KEY_INTERACTOR_TYPE_A);
+        idBTypeSelectiveAdder = new ByInteractorTypeRowDataAdder(InteractionKeys.KEY_ID_B,
+                InteractionKeys.KEY_INTERACTOR_TYPE_B);
+        altidATypeSelectiveAdder = new ByInteractorTypeRowDataAdder(InteractionKeys.KEY_ALTID_A,
+                InteractionKeys.KEY_INTERACTOR_TYPE_A);
+        altidBTypeSelectiveAdder = new ByInteractorTypeRowDataAdder(InteractionKeys.KEY_ALTID_B,
+                InteractionKeys.KEY_INTERACTOR_TYPE_B);
+        binarySelectiveAdder = new BinaryIdSelectiveAdder();
+    }
+
+    @Benchmark
+    public Row readRow() throws Exception {
+        return rowReader.readLine(lines[nextIndex()]);
+    }
+
+    @Benchmark
+    public SolrInputDocument confidenceScore() {
+        return add(confidenceSelectiveAdder);
+    }
+
+    @Benchmark
+    public SolrInputDocument geneName() {
+        return add(geneSelectiveAdder);
+    }
+
+    /**
+     * The ids of both interactors by interactor type, from the alternative ids when the ids have none, as in the
+     * converter.
+     */
+    @Benchmark
+    public SolrInputDocument byInteractorType() {
+        Row row = rows[nextIndex()];
+        SolrInputDocument doc = new SolrInputDocument();
+        if (!idATypeSelectiveAdder.addToDoc(doc, row)) {
+            altidATypeSelectiveAdder.addToDoc(doc, row);
+        }
+        if (!idBTypeSelectiveAdder.addToDoc(doc, row)) {
+            altidBTypeSelectiveAdder.addToDoc(doc, row);
+        }
+        return doc;
+    }
+
+    @Benchmark
+    public SolrInputDocument binaryId() {
+        return add(binarySelectiveAdder);
+    }
+
+    private SolrInputDocument add(RowDataSelectiveAdder selectiveAdder) {
+        SolrInputDocument doc = new SolrInputDocument();
+        selectiveAdder.addToDoc(doc, rows[nextIndex()]);
+        return doc;
+    }
+}
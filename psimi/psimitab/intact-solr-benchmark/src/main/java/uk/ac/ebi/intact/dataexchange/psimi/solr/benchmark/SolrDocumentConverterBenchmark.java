@@ -0,0 +1,115 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.benchmark;
+
+import org.apache.solr.common.SolrInputDocument;
+import org.hupo.psi.calimocho.model.Row;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import uk.ac.ebi.intact.bridges.ontologies.OntologyMapping;
+import uk.ac.ebi.intact.dataexchange.benchmark.BenchmarkSamples;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.SolrDocumentConverter;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.enricher.BaseFieldEnricher;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.enricher.FieldEnricher;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.enricher.OntologyFieldEnricher;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologySnapshot;
+
+import java.io.IOException;
+
+/**
+ * The SolrDocumentConverter as a whole and its PSICQUIC converter superclass, which expands the ontology fields
+ * when the converter has an ontology enricher.
+ *
+ * With the snapshot ontology, the terms are expanded with the parents and synonyms of the OntologySnapshot of the
+ * PSI-MI and GO slim samples, the enrichment used when indexing with a loaded snapshot. No Solr server is used: the
+ * converter only reads the schema of the HTTP servers.
+ *
+ * @version $Id$
+ */
+public class SolrDocumentConverterBenchmark extends AbstractConverterBenchmark {
+
+    /**
+     * none: no ontology enrichment, snapshot: enrichment with the ontology snapshot of the samples.
+     */
+    @Param({"none", "snapshot"})
+    public String ontology;
+
+    private SolrDocumentConverter converter;
+    private SolrDocumentConverter psicquicConverter;
+
+    @Override
+    protected void setUp() throws Exception {
+        FieldEnricher fieldEnricher;
+        if ("snapshot".equals(ontology)) {
+            fieldEnricher = new OntologyFieldEnricher(loadOntologySnapshot());
+        } else if ("none".equals(ontology)) {
+            fieldEnricher = new BaseFieldEnricher();
+        } else {
+            throw new IllegalArgumentException("Unknown ontology: " + ontology);
+        }
+
+        converter = new SolrDocumentConverter(null, fieldEnricher);
+        psicquicConverter = new PsicquicFieldsConverter(fieldEnricher);
+    }
+
+    /**
+     * The fields of the PSICQUIC converter only.
+     */
+    @Benchmark
+    public SolrInputDocument psicquicFields() throws Exception {
+        return psicquicConverter.toSolrDocument(rows[nextIndex()]);
+    }
+
+    /**
+     * The fields of the PSICQUIC converter and of the selective adders, from a row already read.
+     */
+    @Benchmark
+    public SolrInputDocument rowToDocument() throws Exception {
+        return converter.toSolrDocument(rows[nextIndex()]);
+    }
+
+    /**
+     * The whole chain, from the MITAB line.
+     */
+    @Benchmark
+    public SolrInputDocument lineToDocument() throws Exception {
+        return converter.toSolrDocument(lines[nextIndex()]);
+    }
+
+    /**
+     * @return the PSI-MI and GO slim ontologies in memory, as the indexer uses them once the snapshot is loaded
+     */
+    private static OntologySnapshot loadOntologySnapshot() throws IOException {
+        return OntologySnapshot.load(new OntologyMapping[]{
+                new OntologyMapping("psi-mi", BenchmarkSamples.getResource(BenchmarkSamples.PSI_MI_OBO)),
+                new OntologyMapping("go", BenchmarkSamples.getResource(BenchmarkSamples.GO_SLIM_OBO))
+        });
+    }
+
+    /**
+     * The converter without the fields specific to IntAct.
+     */
+    private static class PsicquicFieldsConverter extends SolrDocumentConverter {
+
+        private PsicquicFieldsConverter(FieldEnricher fieldEnricher) {
+            super(null, fieldEnricher);
+        }
+
+        @Override
+        protected void addIntactFields(Row row, SolrInputDocument doc) {
+        }
+    }
+}
@@ -18,20 +18,21 @@ package uk.ac.ebi.intact.dataexchange.psimi.solr;
 import org.apache.solr.client.solrj.SolrServer;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.HttpSolrServer;
-import org.apache.solr.common.SolrException;
-import org.apache.solr.common.SolrInputDocument;
-import org.hupo.psi.calimocho.io.IllegalFieldException;
-import org.hupo.psi.calimocho.io.IllegalRowException;
-import org.hupo.psi.calimocho.tab.io.IllegalColumnException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.ac.ebi.intact.bridges.ontologies.OntologyMapping;
 import uk.ac.ebi.intact.bridges.ontologies.iterator.OntologyIterator;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint.IndexingCheckpoint;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint.PositionedLineReader;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitPolicy;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitStatistics;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.SolrCommitter;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.SolrDocumentConverter;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.failure.FailFastFailureHandling;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.failure.FailureHandlingStrategy;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologyIndexer;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologySearcher;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologySnapshot;
 
 import java.io.*;
 import java.net.MalformedURLException;
@@ -49,10 +50,18 @@ public class IntactSolrIndexer {
 
     private SolrServer solrServer;
     private HttpSolrServer ontologySolrServer;
+    private OntologySearcher ontologySearcher;
     private SolrDocumentConverter converter;
 
     private int timesToRetry = 5;
 
+    private int workerThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private int documentBatchSize = 500;
+    private long maxBatchDelay = 5000;
+    private CommitPolicy commitPolicy = CommitPolicy.commitAndOptimize(10000);
+    private CommitPolicy ontologyCommitPolicy;
+    private CommitStatistics lastCommitStatistics;
+
     private FailureHandlingStrategy failureHandlingStrategy = new FailFastFailureHandling();
 
     //////////////////
@@ -76,7 +85,8 @@ public class IntactSolrIndexer {
     public IntactSolrIndexer(SolrServer solrServer, HttpSolrServer ontologySolrServer) {
         this(solrServer);
         this.ontologySolrServer = ontologySolrServer;
-        this.converter = new SolrDocumentConverter(solrServer, new OntologySearcher(ontologySolrServer));
+        this.ontologySearcher = new OntologySearcher(ontologySolrServer);
+        this.converter = new SolrDocumentConverter(solrServer, ontologySearcher);
     }
 
     ///////////////////////////
@@ -90,6 +100,36 @@ public class IntactSolrIndexer {
         this.failureHandlingStrategy = failureHandlingStrategy;
     }
 
+    /**
+     * Loads the whole ontology core in memory, so that the ontology fields of the MITAB lines indexed from then on
+     * are expanded without querying the ontology core.
+     */
+    public OntologySnapshot loadOntologySnapshot() throws IntactSolrException {
+        if (ontologySearcher == null) {
+            throw new IllegalStateException("To load the ontologies, an ontology SolrServer must be passed to the constructor");
+        }
+
+        try {
+            return ontologySearcher.loadSnapshot();
+        } catch (SolrServerException e) {
+            throw new IntactSolrException("Problem loading the ontology snapshot", e);
+        }
+    }
+
+    public OntologySnapshot getOntologySnapshot() {
+        return ontologySearcher != null ? ontologySearcher.getSnapshot() : null;
+    }
+
+    /**
+     * Uses a snapshot loaded elsewhere, for instance from the OBO files of the ontology core.
+     */
+    public void setOntologySnapshot(OntologySnapshot ontologySnapshot) {
+        if (ontologySearcher == null) {
+            throw new IllegalStateException("To use an ontology snapshot, an ontology SolrServer must be passed to the constructor");
+        }
+        ontologySearcher.setSnapshot(ontologySnapshot);
+    }
+
     /////////////////////
     // Indexing
 
@@ -100,8 +140,7 @@ public class IntactSolrIndexer {
         
         if (log.isInfoEnabled()) log.info("Indexing ontologies: "+ Arrays.asList(ontologyMappings));
         
-        OntologyIndexer ontologyIndexer = new OntologyIndexer(ontologySolrServer);
-        ontologyIndexer.indexObo(ontologyMappings);
+        createOntologyIndexer().indexObo(ontologyMappings);
     }
 
     public void indexOntology(OntologyIterator ontologyIterator) throws IntactSolrException {
@@ -109,32 +148,101 @@ public class IntactSolrIndexer {
             throw new IllegalStateException("To index an ontology, an ontology SolrServer must be passed to the constructor");
         }
 
+        createOntologyIndexer().indexOntology(ontologyIterator);
+    }
+
+    private OntologyIndexer createOntologyIndexer() {
         OntologyIndexer ontologyIndexer = new OntologyIndexer(ontologySolrServer);
-        ontologyIndexer.indexOntology(ontologyIterator);
+        if (ontologyCommitPolicy != null) {
+            ontologyIndexer.setCommitPolicy(ontologyCommitPolicy);
+        }
+        return ontologyIndexer;
     }
 
     public int indexMitab(File mitabFile, boolean hasHeader) throws IOException, IntactSolrException {
-        FileInputStream inputStream = new FileInputStream(mitabFile);
-        int num = 0;
-        try{
-            num = indexMitab(inputStream, hasHeader);
-        }
-        finally {
-            inputStream.close();
-        }
-        return num;
+        return indexMitab(mitabFile, hasHeader, null, null, null);
     }
 
     public int indexMitab(File mitabFile, boolean hasHeader, Integer firstLine, Integer batchSize) throws IOException, IntactSolrException {
-        FileInputStream inputStream = new FileInputStream(mitabFile);
-        int num = 0;
-        try{
-            num = indexMitab(new FileInputStream(mitabFile), hasHeader, firstLine, batchSize);
+        return indexMitab(mitabFile, hasHeader, firstLine, batchSize, null);
+    }
+
+    public int indexMitab(File mitabFile, boolean hasHeader, File checkpointFile) throws IOException, IntactSolrException {
+        return indexMitab(mitabFile, hasHeader, null, null, checkpointFile);
+    }
+
+    /**
+     * Indexes a MITAB file, plain or gzip compressed, into the database. After each hard commit, the position in the
+     * file up to which the lines have been committed is written to the checkpoint file. If the checkpoint file
+     * has been left by an interrupted index of the same lines of the same file, the reading starts at its
+     * position instead of the beginning of the file. The checkpoint file is deleted once the file is indexed.
+     *
+     * Gzip files can only be resumed at the beginning of a gzip member, and are decompressed from there up to the
+     * position: a file written by bgzip resumes almost straight away, a file compressed in one member is
+     * decompressed from its beginning but its lines are not indexed again.
+     *
+     * @param mitabFile The file to index
+     * @param hasHeader Whether the data has header or not
+     * @param firstLine The first line to process, being line 0 the first line in the file ignoring the header
+     * @param batchSize Number of lines to process
+     * @param checkpointFile The file where the checkpoints are written, null not to write checkpoints
+     * @return Count of indexed lines, including the lines indexed before the checkpoint
+     * @throws IOException Thrown if there is a problem reading the file or writing the checkpoints
+     * @throws IntactSolrException Thrown if there is a problem indexing the data
+     */
+    public int indexMitab(final File mitabFile, boolean hasHeader, Integer firstLine, Integer batchSize, final File checkpointFile) throws IOException, IntactSolrException {
+        final int first = firstLineNumber(hasHeader, firstLine);
+        final int end = endLineNumber(hasHeader, firstLine, batchSize);
+
+        IndexingCheckpoint checkpoint = null;
+        if (checkpointFile != null) {
+            checkpoint = IndexingCheckpoint.read(checkpointFile);
+            if (checkpoint != null && !checkpoint.isCheckpointOf(mitabFile, first, end)) {
+                if (log.isWarnEnabled()) log.warn("Ignoring the checkpoint " + checkpointFile + ", written while indexing "
+                        + checkpoint.getMitabFile() + " (lines " + checkpoint.getFirstLine() + ".." + checkpoint.getEndLine() + ")");
+                checkpoint = null;
+            }
         }
-        finally {
-            inputStream.close();
+
+        PositionedLineReader reader;
+        int lineNumber = 0;
+        final int previouslyIndexed;
+        if (checkpoint != null) {
+            if (log.isInfoEnabled()) log.info("Resuming the index of " + mitabFile + " from " + checkpoint);
+            reader = new PositionedLineReader(mitabFile, checkpoint.getBlockOffset(), checkpoint.getOffsetInBlock());
+            lineNumber = checkpoint.getLineNumber();
+            previouslyIndexed = checkpoint.getIndexedCount();
+        } else {
+            reader = new PositionedLineReader(mitabFile);
+            previouslyIndexed = 0;
         }
-        return num;
+
+        SolrCommitter solrCommitter = createCommitter();
+        int processed;
+        try {
+            MitabIndexingPipeline pipeline = createPipeline(solrCommitter);
+            if (checkpointFile != null) {
+                pipeline.setCheckpointListener(new MitabIndexingPipeline.CheckpointListener() {
+                    public void checkpoint(IndexingCheckpoint checkpoint) throws IOException {
+                        checkpoint.setIndexedFile(mitabFile, first, end);
+                        checkpoint.setIndexedCount(previouslyIndexed + checkpoint.getIndexedCount());
+                        checkpoint.write(checkpointFile);
+                        if (log.isDebugEnabled()) log.debug("Checkpoint written: " + checkpoint);
+                    }
+                });
+            }
+            processed = pipeline.index(reader, lineNumber, first, end);
+        } finally {
+            reader.close();
+        }
+
+        finish(solrCommitter);
+
+        if (checkpointFile != null && checkpointFile.exists() && !checkpointFile.delete()) {
+            if (log.isWarnEnabled()) log.warn("Cannot delete the checkpoint file " + checkpointFile + " of the completed index");
+        }
+
+        return previouslyIndexed + processed;
     }
 
     public int indexMitabFromClasspath(String resourceUrl, boolean hasHeader) throws IOException, IntactSolrException {
@@ -216,140 +324,162 @@ public class IntactSolrIndexer {
      * @throws IntactSolrException Thrown if there is a problem indexing the data
      */
     public int indexMitab(BufferedReader reader, boolean hasHeader, Integer firstLine, Integer batchSize) throws IOException, IntactSolrException {
-        int lineCount = 0;
+        int first = firstLineNumber(hasHeader, firstLine);
+        int end = endLineNumber(hasHeader, firstLine, batchSize);
 
-        int first = (firstLine == null)? 0 : firstLine;
-        int lastRes = (batchSize == null)? Integer.MAX_VALUE : batchSize;
-        int end = first + lastRes;
+        SolrCommitter solrCommitter = createCommitter();
+        int processed = createPipeline(solrCommitter).index(reader, first, end);
 
-        if (hasHeader) {
-            first++;
-            if (end != Integer.MAX_VALUE) end++;
-        }
-
-        if ( log.isDebugEnabled() ) log.debug( "Processing from " + first + ".." + end );
-
-        int processed = 0;
-
-        String line;
+        finish(solrCommitter);
 
-        while ((line = reader.readLine()) != null) {
-
-            try {
-
-                if (lineCount >= first && lineCount < end) {
+        return processed;
+    }
 
-                    addSolrDocument(line, timesToRetry);
+    private static int firstLineNumber(boolean hasHeader, Integer firstLine) {
+        int first = (firstLine == null)? 0 : firstLine;
+        return hasHeader ? first + 1 : first;
+    }
 
-                    processed++;
+    private static int endLineNumber(boolean hasHeader, Integer firstLine, Integer batchSize) {
+        if (batchSize == null) return Integer.MAX_VALUE;
 
-                    if (lineCount > 0 && lineCount % 100 == 0) {
-                        commitSolr(false, timesToRetry);
-                    }
+        int first = (firstLine == null)? 0 : firstLine;
+        int end = first + batchSize;
 
-                    if (log.isDebugEnabled() && processed % 1000 == 0) {
-                        if (log.isDebugEnabled()) log.debug("Processed: "+processed);
-                    }
-                }
+        if (hasHeader && end != Integer.MAX_VALUE) end++;
+        return end;
+    }
 
-                if (lineCount >= end) {
-                    if ( log.isDebugEnabled() ) log.debug( "Reached the end of the chunk to be processed (lineCount:"+
-                                                           lineCount+", end:"+ end +"), stopping here. " );
-                    break;
+    private MitabIndexingPipeline createPipeline(SolrCommitter solrCommitter) {
+        MitabIndexingPipeline pipeline = new MitabIndexingPipeline(solrServer, new MitabIndexingPipeline.LineConverterFactory() {
+            private boolean indexerConverterUsed;
+
+            public synchronized MitabIndexingPipeline.LineConverter createConverter() {
+                // the converters are not thread safe, the first worker uses the one of the indexer
+                final SolrDocumentConverter workerConverter;
+                if (!indexerConverterUsed) {
+                    indexerConverterUsed = true;
+                    workerConverter = converter;
+                } else {
+                    workerConverter = createWorkerConverter();
                 }
-
-            } catch( Throwable t ) {
-                failureHandlingStrategy.handleFailure( t, line, lineCount );
+                return workerConverter::toSolrDocument;
             }
+        });
+        pipeline.setFailureHandlingStrategy(failureHandlingStrategy);
+        pipeline.setWorkerThreads(workerThreads);
+        pipeline.setDocumentBatchSize(documentBatchSize);
+        pipeline.setMaxBatchDelay(maxBatchDelay);
+        pipeline.setTimesToRetry(timesToRetry);
+        pipeline.setCommitter(solrCommitter);
+        return pipeline;
+    }
 
-            lineCount++;
+    /**
+     * Creates a converter configured like the one of the indexer, for the workers indexing in parallel.
+     */
+    protected SolrDocumentConverter createWorkerConverter() {
+        if (ontologySolrServer != null) {
+            // the searchers are not thread safe, but they can share the snapshot
+            return new SolrDocumentConverter(solrServer, new OntologySearcher(ontologySolrServer, ontologySearcher.getSnapshot()));
         }
+        return new SolrDocumentConverter(solrServer);
+    }
 
-        commitSolr(true, timesToRetry);
-
-        return processed;
+    private SolrCommitter createCommitter() {
+        SolrCommitter solrCommitter = new SolrCommitter(solrServer, commitPolicy);
+        solrCommitter.setTimesToRetry(timesToRetry);
+        return solrCommitter;
     }
 
-    private void addSolrDocument(String line, int retriesLeft) throws IOException {
+    /**
+     * Commits the end of the index, merging the segments if the policy says so.
+     */
+    private void finish(SolrCommitter solrCommitter) throws IOException {
         try {
-           SolrInputDocument inputDocument = converter.toSolrDocument(line);
-           solrServer.add(inputDocument);
-
-        } catch (SolrServerException e) {
-
-            handleAddDocumentException( e, line, retriesLeft );
-
-        } catch (SolrException e) {
-
-            handleAddDocumentException( e, line, retriesLeft );
-        } catch (IllegalFieldException e) {
-            handleAddDocumentException( e, line, retriesLeft );
-        } catch (IllegalColumnException e) {
-            handleAddDocumentException( e, line, retriesLeft );
-        } catch (IllegalRowException e) {
-            handleAddDocumentException( e, line, retriesLeft );
+            solrCommitter.finish();
+        } finally {
+            lastCommitStatistics = solrCommitter.getStatistics();
         }
     }
 
-    private void handleAddDocumentException( Exception e, String line, int retriesLeft ) throws IOException {
-        if (retriesLeft > 0) {
-            if (log.isErrorEnabled())
-                log.error("Error adding document to the server. Retrying in 10 seconds. Times to retry: " + retriesLeft + ". Line in process: "+line, e);
-
-            try {
-                Thread.sleep(10 * 1000);
-            } catch (InterruptedException e1) {
-                log.error("Interrupted thread", e1);
-            }
-
-            addSolrDocument(line, retriesLeft - 1);
-
-        } else {
-            throw new IntactSolrException("Cannot add the document to the server, after retrying " + timesToRetry + " times");
-        }
+    /**
+     * @return the number of threads converting the MITAB lines
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
     }
 
-    private void commitSolr(boolean optimize, int retriesLeft) throws IOException, IntactSolrException {
-        try {
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
 
-            if (optimize) {
-                solrServer.optimize();
+    /**
+     * @return the maximum number of documents sent to the server in one request
+     */
+    public int getDocumentBatchSize() {
+        return documentBatchSize;
+    }
 
-                // Recommendations are that all searchers are closed and reopened when Solr index is optimized
-                // as files on the file system can be deleted and create NFS Stale File Handles.
-//                this.converter
-                
-            }
-            else {
-                solrServer.commit();
-            }
+    public void setDocumentBatchSize(int documentBatchSize) {
+        this.documentBatchSize = documentBatchSize;
+    }
 
-        } catch ( SolrServerException e ) {
+    /**
+     * @return the maximum time in milliseconds a converted document waits before being sent to the server
+     */
+    public long getMaxBatchDelay() {
+        return maxBatchDelay;
+    }
 
-            handleCommitException( e, optimize, retriesLeft );
+    public void setMaxBatchDelay(long maxBatchDelay) {
+        this.maxBatchDelay = maxBatchDelay;
+    }
 
-        } catch ( SolrException e ) {
+    /**
+     * @return the policy deciding when the MITAB documents are committed and the segments merged
+     */
+    public CommitPolicy getCommitPolicy() {
+        return commitPolicy;
+    }
 
-            handleCommitException( e, optimize, retriesLeft );
+    public void setCommitPolicy(CommitPolicy commitPolicy) {
+        if (commitPolicy == null) {
+            throw new IllegalArgumentException("The commit policy cannot be null");
         }
+        this.commitPolicy = commitPolicy;
+    }
+
+    /**
+     * @return the policy of the ontology indexers, null to use their default policy
+     */
+    public CommitPolicy getOntologyCommitPolicy() {
+        return ontologyCommitPolicy;
     }
 
-    private void handleCommitException( Exception e, boolean optimize, int retriesLeft ) throws IOException {
-        if (retriesLeft > 0) {
-            if (log.isErrorEnabled())
-                log.error("Error committing. Retrying in 10 seconds. Times to retry: " + retriesLeft, e);
+    public void setOntologyCommitPolicy(CommitPolicy ontologyCommitPolicy) {
+        this.ontologyCommitPolicy = ontologyCommitPolicy;
+    }
 
-            try {
-                Thread.sleep(10 * 1000);
-            } catch (InterruptedException e1) {
-                log.error("Interrupted thread", e1);
-            }
+    /**
+     * @return the commits and merges of the last MITAB index, null if nothing has been indexed yet
+     */
+    public CommitStatistics getLastCommitStatistics() {
+        return lastCommitStatistics;
+    }
 
-            commitSolr(optimize, retriesLeft - 1);
+    /**
+     * @return the number of documents sent between two commits
+     */
+    public int getCommitInterval() {
+        return commitPolicy.getMaxDocuments();
+    }
 
-        } else {
-            throw new IntactSolrException("Cannot add the document to the server, after retrying " + timesToRetry + " times");
-        }
+    /**
+     * Sets the number of documents of the commit policy.
+     */
+    public void setCommitInterval(int commitInterval) {
+        commitPolicy.setMaxDocuments(commitInterval);
     }
 
     public int getTimesToRetry() {
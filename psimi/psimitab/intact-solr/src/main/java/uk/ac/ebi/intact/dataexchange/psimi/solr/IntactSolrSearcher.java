@@ -26,6 +26,8 @@ import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.params.FacetParams;
 import org.hupo.psi.mi.psicquic.model.PsicquicSolrException;
 import org.hupo.psi.mi.psicquic.model.PsicquicSolrServer;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.cache.CachingSolrServer;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.cache.QueryResultCache;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -46,6 +48,21 @@ public class IntactSolrSearcher extends PsicquicSolrServer{
         super(solrServer);
     }
 
+    /**
+     * Creates a searcher answering the queries from the cache while the index does not change. The cache can be
+     * shared by the searchers of the same core.
+     */
+    public IntactSolrSearcher(SolrServer solrServer, QueryResultCache resultCache) {
+        super(new CachingSolrServer(solrServer, resultCache));
+    }
+
+    /**
+     * @return the cache of the query results, or null if the queries are not cached
+     */
+    public QueryResultCache getResultCache() {
+        return solrServer instanceof CachingSolrServer ? ((CachingSolrServer) solrServer).getCache() : null;
+    }
+
     public IntactSolrSearchResult search(SolrQuery query) throws PsicquicSolrException, SolrServerException {
 
         return (IntactSolrSearchResult) super.search(query, RETURN_TYPE_MITAB27);
@@ -0,0 +1,807 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr;
+
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.common.SolrInputDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint.IndexingCheckpoint;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint.PositionedLineReader;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.SolrCommitter;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.failure.ExponentialBackOff;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.failure.FailFastFailureHandling;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.failure.FailureHandlingStrategy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Indexes MITAB lines in stages connected by bounded queues:
+ * <ul>
+ *     <li>the calling thread reads the lines and hands them in chunks to the workers</li>
+ *     <li>a pool of workers converts the lines to solr documents, each worker with its own converter</li>
+ *     <li>a sender thread adds the documents to the server in batches, sent when they reach the batch size or
+ *     when their first document has waited for the maximum batch delay</li>
+ * </ul>
+ * A batch failing with a transient error, such as an unavailable server, is retried in the background with an
+ * exponential back-off while the sender goes on with the next batches; when too many batches are being retried,
+ * the sender retries the next one itself, which slows down the pipeline. A batch the server keeps rejecting after
+ * the retries, or rejects as invalid, is sent again one document at a time, so that the failures are reported for
+ * the lines causing them. Failures are given to the FailureHandlingStrategy with the line and its number; an
+ * exception thrown by the strategy stops the pipeline and is thrown by {@link #index}.
+ *
+ * The sender tells the SolrCommitter the documents it adds and the length of their lines, and the committer commits
+ * them when its CommitPolicy says so, also while no document is sent, and once more at the end.
+ *
+ * After each hard commit, a CheckpointListener can be told the position in the file up to which all the lines have
+ * been committed or reported as failed, the lines being converted and sent out of order. The documents of a soft
+ * commit can be lost, the next hard commit writes a checkpoint covering them.
+ *
+ * A pipeline runs one index at a time.
+ *
+ * @version $Id$
+ */
+public class MitabIndexingPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(MitabIndexingPipeline.class);
+
+    private static final long POLL_TIMEOUT = 100;
+
+    /**
+     * Converts a MITAB line to a solr document. A converter is used by one worker thread only.
+     */
+    public interface LineConverter {
+        SolrInputDocument toSolrDocument(String mitabLine) throws Exception;
+    }
+
+    /**
+     * Creates the converter of each worker.
+     */
+    public interface LineConverterFactory {
+        LineConverter createConverter();
+    }
+
+    /**
+     * Gets the checkpoints of an index read with a PositionedLineReader, called by the sender thread after the
+     * hard commits. The indexed count of the checkpoints only counts the lines indexed by this pipeline.
+     */
+    public interface CheckpointListener {
+        void checkpoint(IndexingCheckpoint checkpoint) throws IOException;
+    }
+
+    private interface LineSource {
+        String readLine() throws IOException;
+        long getBlockOffset();
+        long getOffsetInBlock();
+    }
+
+    private final SolrServer solrServer;
+    private final LineConverterFactory converterFactory;
+    private SolrCommitter committer;
+    private CheckpointListener checkpointListener;
+
+    private FailureHandlingStrategy failureHandlingStrategy = new FailFastFailureHandling();
+
+    private int workerThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private int chunkSize = 50;
+    private int documentBatchSize = 500;
+    private long maxBatchDelay = 5000;
+    private int queueCapacity = 2000;
+    private int progressInterval = 10000;
+    private int timesToRetry = 5;
+    private ExponentialBackOff backOff = new ExponentialBackOff();
+    private int maxRetryingBatches = 4;
+
+    private volatile Throwable failure;
+    private final AtomicInteger indexedCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private final Queue<Chunk> pendingChunks = new ConcurrentLinkedQueue<Chunk>();
+
+    public MitabIndexingPipeline(SolrServer solrServer, LineConverterFactory converterFactory) {
+        if (solrServer == null) {
+            throw new IllegalArgumentException("The solr server cannot be null");
+        }
+        if (converterFactory == null) {
+            throw new IllegalArgumentException("The converter factory cannot be null");
+        }
+        this.solrServer = solrServer;
+        this.converterFactory = converterFactory;
+    }
+
+    /**
+     * Indexes the lines of the reader numbered from first (included) to end (excluded), the first line of the
+     * reader being line 0.
+     *
+     * @return the number of lines indexed
+     * @throws IOException Thrown if there is a problem reading or sending the documents
+     */
+    public int index(final BufferedReader reader, int first, int end) throws IOException {
+        return index(new LineSource() {
+            public String readLine() throws IOException {
+                return reader.readLine();
+            }
+            public long getBlockOffset() {
+                return -1;
+            }
+            public long getOffsetInBlock() {
+                return -1;
+            }
+        }, 0, first, end);
+    }
+
+    /**
+     * Indexes the lines of the reader numbered from first (included) to end (excluded), giving the checkpoints to
+     * the CheckpointListener.
+     *
+     * @param lineNumber the number of the next line of the reader, 0 if it is at the beginning of the file
+     * @return the number of lines indexed
+     * @throws IOException Thrown if there is a problem reading or sending the documents
+     */
+    public int index(final PositionedLineReader reader, int lineNumber, int first, int end) throws IOException {
+        return index(new LineSource() {
+            public String readLine() throws IOException {
+                return reader.readLine();
+            }
+            public long getBlockOffset() {
+                return reader.getBlockOffset();
+            }
+            public long getOffsetInBlock() {
+                return reader.getOffsetInBlock();
+            }
+        }, lineNumber, first, end);
+    }
+
+    private int index(LineSource reader, int lineNumber, int first, int end) throws IOException {
+        failure = null;
+        indexedCount.set(0);
+        failedCount.set(0);
+        pendingChunks.clear();
+
+        BlockingQueue<Chunk> lineQueue = new ArrayBlockingQueue<Chunk>(Math.max(1, queueCapacity / chunkSize));
+        BlockingQueue<MitabLine> documentQueue = new ArrayBlockingQueue<MitabLine>(queueCapacity);
+
+        ExecutorService executor = Executors.newFixedThreadPool(workerThreads + 1, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "mitab-indexer-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        // a single thread retrying the failed batches, the sender retrying itself once the queue is full
+        ThreadPoolExecutor retryExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(Math.max(1, maxRetryingBatches)), new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "mitab-indexer-retry");
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        long start = System.currentTimeMillis();
+        try {
+            List<Future<?>> stages = new ArrayList<Future<?>>(workerThreads + 1);
+            for (int i = 0; i < workerThreads; i++) {
+                stages.add(executor.submit(new Worker(lineQueue, documentQueue)));
+            }
+            stages.add(executor.submit(new Sender(documentQueue, workerThreads, retryExecutor)));
+
+            try {
+                readLines(reader, lineNumber, first, end, lineQueue);
+            } catch (IOException e) {
+                abort(e);
+            } finally {
+                // one end marker per worker, which passes it on to the sender
+                for (int i = 0; i < workerThreads; i++) {
+                    put(lineQueue, Chunk.END, true);
+                }
+            }
+
+            for (Future<?> stage : stages) {
+                try {
+                    stage.get();
+                } catch (ExecutionException e) {
+                    abort(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(e);
+        } finally {
+            executor.shutdownNow();
+            retryExecutor.shutdownNow();
+        }
+
+        if (failure != null) {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new IntactSolrException("Problem indexing MITAB lines", failure);
+        }
+
+        if (log.isInfoEnabled()) log.info("Indexed " + indexedCount.get() + " lines in " + (System.currentTimeMillis() - start)
+                + " ms, " + failedCount.get() + " failed");
+
+        return indexedCount.get();
+    }
+
+    private void readLines(LineSource reader, int lineNumber, int first, int end, BlockingQueue<Chunk> lineQueue) throws IOException, InterruptedException {
+        if ( log.isDebugEnabled() ) log.debug( "Processing from " + first + ".." + end + ", starting at line " + lineNumber );
+
+        Chunk chunk = new Chunk(chunkSize);
+        int lineCount = lineNumber;
+        String line;
+
+        while (failure == null) {
+            // stop before reading the line after the end, so that the position of the reader is the one of the end
+            if (lineCount >= end) {
+                if ( log.isDebugEnabled() ) log.debug( "Reached the end of the chunk to be processed (lineCount:"+
+                        lineCount+", end:"+ end +"), stopping here. " );
+                break;
+            }
+            if ((line = reader.readLine()) == null) {
+                break;
+            }
+            if (lineCount >= first) {
+                chunk.lines.add(new MitabLine(lineCount, line, chunk));
+                if (chunk.lines.size() >= chunkSize) {
+                    if (!putChunk(lineQueue, chunk, reader, lineCount + 1)) {
+                        return;
+                    }
+                    chunk = new Chunk(chunkSize);
+                }
+            }
+            lineCount++;
+        }
+
+        if (!chunk.lines.isEmpty()) {
+            putChunk(lineQueue, chunk, reader, lineCount);
+        }
+    }
+
+    private boolean putChunk(BlockingQueue<Chunk> lineQueue, Chunk chunk, LineSource reader, int nextLineNumber) throws InterruptedException {
+        chunk.nextLineNumber = nextLineNumber;
+        chunk.nextBlockOffset = reader.getBlockOffset();
+        chunk.nextOffsetInBlock = reader.getOffsetInBlock();
+        chunk.pending.set(chunk.lines.size());
+        pendingChunks.add(chunk);
+        return put(lineQueue, chunk, false);
+    }
+
+    /**
+     * Waits for room in the queue, unless the pipeline is stopped and force is false. The end markers are
+     * forced: the consumers of a stopped pipeline keep emptying their queue until they get them.
+     *
+     * @return false if the element could not be added because the pipeline is stopped
+     */
+    private <T> boolean put(BlockingQueue<T> queue, T element, boolean force) throws InterruptedException {
+        while (!queue.offer(element, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            if (failure != null && !force) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void abort(Throwable t) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = t;
+            }
+        }
+    }
+
+    /**
+     * Reports the failure of a line, stopping the pipeline if the strategy throws an exception.
+     */
+    private void handleFailure(Throwable t, MitabLine line) {
+        failedCount.incrementAndGet();
+        line.chunk.pending.decrementAndGet();
+        try {
+            synchronized (failureHandlingStrategy) {
+                failureHandlingStrategy.handleFailure(t, line.line, line.lineNumber);
+            }
+        } catch (Throwable e) {
+            abort(e);
+        }
+    }
+
+    private class Worker implements Callable<Void> {
+
+        private final BlockingQueue<Chunk> lineQueue;
+        private final BlockingQueue<MitabLine> documentQueue;
+
+        private Worker(BlockingQueue<Chunk> lineQueue, BlockingQueue<MitabLine> documentQueue) {
+            this.lineQueue = lineQueue;
+            this.documentQueue = documentQueue;
+        }
+
+        public Void call() throws Exception {
+            try {
+                LineConverter converter = converterFactory.createConverter();
+
+                Chunk chunk;
+                while ((chunk = lineQueue.take()) != Chunk.END) {
+                    for (MitabLine line : chunk.lines) {
+                        if (failure != null) {
+                            break;
+                        }
+                        try {
+                            line.document = converter.toSolrDocument(line.line);
+                        } catch (Throwable t) {
+                            handleFailure(t, line);
+                            continue;
+                        }
+                        put(documentQueue, line, false);
+                    }
+                }
+            } catch (Throwable t) {
+                abort(t);
+                // keep taking the chunks until the end marker so that the reader is not blocked
+                while (lineQueue.take() != Chunk.END) {
+                }
+            } finally {
+                put(documentQueue, MitabLine.END, true);
+            }
+            return null;
+        }
+    }
+
+    private class Sender implements Callable<Void> {
+
+        private final BlockingQueue<MitabLine> documentQueue;
+        private final ExecutorService retryExecutor;
+        private final Queue<MitabLine> retriedLines = new ConcurrentLinkedQueue<MitabLine>();
+        private int runningWorkers;
+        private Chunk completedChunk;
+        private int completedIndexedCount;
+        private Chunk committedChunk;
+        private int checkpointIndexedCount;
+        private int lastProgress;
+
+        private Sender(BlockingQueue<MitabLine> documentQueue, int workers, ExecutorService retryExecutor) {
+            this.documentQueue = documentQueue;
+            this.runningWorkers = workers;
+            this.retryExecutor = retryExecutor;
+        }
+
+        public Void call() throws Exception {
+            List<MitabLine> batch = new ArrayList<MitabLine>(documentBatchSize);
+            long batchStart = 0;
+            long start = System.currentTimeMillis();
+
+            try {
+                while (runningWorkers > 0) {
+                    long timeout = batch.isEmpty() ? POLL_TIMEOUT : Math.max(0, batchStart + maxBatchDelay - System.currentTimeMillis());
+                    MitabLine line = documentQueue.poll(timeout, TimeUnit.MILLISECONDS);
+
+                    if (line == MitabLine.END) {
+                        runningWorkers--;
+                    } else if (line != null && failure == null) {
+                        if (batch.isEmpty()) {
+                            batchStart = System.currentTimeMillis();
+                        }
+                        batch.add(line);
+                    }
+
+                    if (!batch.isEmpty() && failure == null && (batch.size() >= documentBatchSize || runningWorkers == 0
+                            || System.currentTimeMillis() - batchStart >= maxBatchDelay)) {
+                        send(batch);
+                        batch.clear();
+                        logProgress(start);
+                    }
+                    retried();
+
+                    // the time trigger can be reached while no document is sent
+                    if (committer != null && failure == null) {
+                        pollCompletedChunks();
+                        if (committer.commitIfDue()) {
+                            committed();
+                        }
+                    }
+                }
+
+                // wait for the batches being retried
+                retryExecutor.shutdown();
+                while (!retryExecutor.awaitTermination(POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    retried();
+                }
+                retried();
+
+                if (committer != null && failure == null && committer.getUncommittedDocuments() > 0) {
+                    pollCompletedChunks();
+                    committer.commit();
+                    committed();
+                }
+            } catch (Throwable t) {
+                abort(t);
+                // drain the queue so that the workers can reach their end marker
+                while (runningWorkers > 0) {
+                    if (documentQueue.take() == MitabLine.END) {
+                        runningWorkers--;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void send(List<MitabLine> batch) throws IOException {
+            try {
+                solrServer.add(documents(batch));
+                for (MitabLine line : batch) {
+                    line.indexed();
+                }
+                documentsAdded(batch.size(), size(batch));
+            } catch (Exception e) {
+                if (timesToRetry > 0 && ExponentialBackOff.isTransient(e)) {
+                    retryExecutor.execute(new Retry(new ArrayList<MitabLine>(batch), e, retriedLines));
+                } else {
+                    sendOneByOne(batch, e, retriedLines);
+                }
+            }
+        }
+
+        /**
+         * Counts the documents added by the retries.
+         */
+        private void retried() throws IOException {
+            int count = 0;
+            long bytes = 0;
+            MitabLine line;
+            while ((line = retriedLines.poll()) != null) {
+                count++;
+                bytes += line.line.length();
+            }
+            if (count > 0) {
+                documentsAdded(count, bytes);
+            }
+        }
+
+        private void documentsAdded(int count, long bytes) throws IOException {
+            indexedCount.addAndGet(count);
+            if (committer != null) {
+                pollCompletedChunks();
+                if (committer.added(count, bytes)) {
+                    committed();
+                }
+            }
+        }
+
+        private long size(List<MitabLine> batch) {
+            long size = 0;
+            for (MitabLine line : batch) {
+                size += line.line.length();
+            }
+            return size;
+        }
+
+        /**
+         * Takes the chunks whose lines have all been sent or reported, before the committer may commit: a chunk
+         * completed by a retry during the commit may have documents sent after it.
+         */
+        private void pollCompletedChunks() {
+            Chunk chunk;
+            while ((chunk = pendingChunks.peek()) != null && chunk.pending.get() == 0) {
+                completedChunk = pendingChunks.poll();
+                completedIndexedCount += completedChunk.indexedCount.get();
+            }
+        }
+
+        /**
+         * Called after a commit of the committer. The last completed chunk is kept until a hard commit writes its
+         * checkpoint.
+         */
+        private void committed() throws IOException {
+            if (completedChunk != null) {
+                committedChunk = completedChunk;
+                checkpointIndexedCount += completedIndexedCount;
+                completedChunk = null;
+                completedIndexedCount = 0;
+            }
+
+            if (committedChunk != null && committer.isLastCommitHard()) {
+                if (checkpointListener != null && committedChunk.nextBlockOffset >= 0) {
+                    IndexingCheckpoint checkpoint = new IndexingCheckpoint();
+                    checkpoint.setLineNumber(committedChunk.nextLineNumber);
+                    checkpoint.setBlockOffset(committedChunk.nextBlockOffset);
+                    checkpoint.setOffsetInBlock(committedChunk.nextOffsetInBlock);
+                    checkpoint.setLastCommittedLine(committedChunk.lines.get(committedChunk.lines.size() - 1).lineNumber);
+                    checkpoint.setIndexedCount(checkpointIndexedCount);
+                    checkpointListener.checkpoint(checkpoint);
+                }
+                committedChunk = null;
+            }
+        }
+
+        private void logProgress(long start) {
+            int indexed = indexedCount.get();
+            if (progressInterval > 0 && indexed - lastProgress >= progressInterval) {
+                lastProgress = indexed;
+                long elapsed = Math.max(1, System.currentTimeMillis() - start);
+                if (log.isInfoEnabled()) log.info("Indexed: " + indexed + " lines (" + (indexed * 1000L / elapsed)
+                        + " lines/s), failed: " + failedCount.get());
+            }
+        }
+    }
+
+    /**
+     * Retries a batch with the back-off, then sends its documents one by one to find the rejected ones. The added
+     * lines are given back to the sender, which counts them.
+     */
+    private class Retry implements Runnable {
+
+        private final List<MitabLine> batch;
+        private final Queue<MitabLine> addedLines;
+        private Exception lastError;
+
+        private Retry(List<MitabLine> batch, Exception error, Queue<MitabLine> addedLines) {
+            this.batch = batch;
+            this.lastError = error;
+            this.addedLines = addedLines;
+        }
+
+        public void run() {
+            List<SolrInputDocument> documents = documents(batch);
+            try {
+                for (int retry = 1; retry <= timesToRetry && failure == null; retry++) {
+                    if (log.isWarnEnabled()) log.warn("Error adding " + documents.size() + " documents to the server. Retry "
+                            + retry + " of " + timesToRetry + ": " + lastError);
+                    backOff.waitBeforeRetry(retry);
+                    try {
+                        solrServer.add(documents);
+                        for (MitabLine line : batch) {
+                            line.indexed();
+                        }
+                        addedLines.addAll(batch);
+                        return;
+                    } catch (Exception e) {
+                        lastError = e;
+                        if (!ExponentialBackOff.isTransient(e)) {
+                            break;
+                        }
+                    }
+                }
+                sendOneByOne(batch, lastError, addedLines);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                abort(t);
+            }
+        }
+    }
+
+    /**
+     * Sends the documents of a batch one at a time, reporting the failures for the lines causing them.
+     */
+    private void sendOneByOne(List<MitabLine> batch, Exception batchError, Queue<MitabLine> addedLines) {
+        if (log.isErrorEnabled()) log.error("Cannot add the batch of " + batch.size() + " documents, adding them one by one", batchError);
+
+        for (MitabLine line : batch) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                solrServer.add(line.document);
+                line.indexed();
+                addedLines.add(line);
+            } catch (Exception e) {
+                handleFailure(e, line);
+            }
+        }
+    }
+
+    private static List<SolrInputDocument> documents(List<MitabLine> batch) {
+        List<SolrInputDocument> documents = new ArrayList<SolrInputDocument>(batch.size());
+        for (MitabLine line : batch) {
+            documents.add(line.document);
+        }
+        return documents;
+    }
+
+    /**
+     * Lines read together, with the position of the line following them. A chunk is done when none of its lines
+     * is pending, each having been sent or reported as failed.
+     */
+    private static class Chunk {
+
+        private static final Chunk END = new Chunk(0);
+
+        private final List<MitabLine> lines;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger indexedCount = new AtomicInteger();
+        private int nextLineNumber;
+        private long nextBlockOffset;
+        private long nextOffsetInBlock;
+
+        private Chunk(int size) {
+            this.lines = new ArrayList<MitabLine>(size);
+        }
+    }
+
+    /**
+     * A line with its number in the reader, and its document once converted.
+     */
+    private static class MitabLine {
+
+        private static final MitabLine END = new MitabLine(-1, null, null);
+
+        private final int lineNumber;
+        private final String line;
+        private final Chunk chunk;
+        private SolrInputDocument document;
+
+        private MitabLine(int lineNumber, String line, Chunk chunk) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.chunk = chunk;
+        }
+
+        private void indexed() {
+            chunk.indexedCount.incrementAndGet();
+            chunk.pending.decrementAndGet();
+        }
+    }
+
+    ///////////////////////////
+    // Getters and Setters
+
+    public int getIndexedCount() {
+        return indexedCount.get();
+    }
+
+    public int getFailedCount() {
+        return failedCount.get();
+    }
+
+    public SolrCommitter getCommitter() {
+        return committer;
+    }
+
+    public void setCommitter(SolrCommitter committer) {
+        this.committer = committer;
+    }
+
+    public CheckpointListener getCheckpointListener() {
+        return checkpointListener;
+    }
+
+    public void setCheckpointListener(CheckpointListener checkpointListener) {
+        this.checkpointListener = checkpointListener;
+    }
+
+    public FailureHandlingStrategy getFailureHandlingStrategy() {
+        return failureHandlingStrategy;
+    }
+
+    public void setFailureHandlingStrategy(FailureHandlingStrategy failureHandlingStrategy) {
+        this.failureHandlingStrategy = failureHandlingStrategy;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        if (workerThreads < 1) {
+            throw new IllegalArgumentException("At least one worker thread is needed: " + workerThreads);
+        }
+        this.workerThreads = workerThreads;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public int getDocumentBatchSize() {
+        return documentBatchSize;
+    }
+
+    public void setDocumentBatchSize(int documentBatchSize) {
+        this.documentBatchSize = Math.max(1, documentBatchSize);
+    }
+
+    /**
+     * @return the maximum time in milliseconds a converted document waits before being sent
+     */
+    public long getMaxBatchDelay() {
+        return maxBatchDelay;
+    }
+
+    public void setMaxBatchDelay(long maxBatchDelay) {
+        this.maxBatchDelay = maxBatchDelay;
+    }
+
+    /**
+     * @return the maximum number of converted documents waiting to be sent
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    public int getProgressInterval() {
+        return progressInterval;
+    }
+
+    public void setProgressInterval(int progressInterval) {
+        this.progressInterval = progressInterval;
+    }
+
+    public int getTimesToRetry() {
+        return timesToRetry;
+    }
+
+    public void setTimesToRetry(int timesToRetry) {
+        this.timesToRetry = timesToRetry;
+    }
+
+    /**
+     * @return the time in milliseconds to wait before the first retry of a rejected batch
+     */
+    public long getRetryDelay() {
+        return backOff.getInitialDelay();
+    }
+
+    /**
+     * Sets the initial delay of the back-off.
+     */
+    public void setRetryDelay(long retryDelay) {
+        backOff.setInitialDelay(retryDelay);
+    }
+
+    public ExponentialBackOff getBackOff() {
+        return backOff;
+    }
+
+    public void setBackOff(ExponentialBackOff backOff) {
+        if (backOff == null) {
+            throw new IllegalArgumentException("The back-off cannot be null");
+        }
+        this.backOff = backOff;
+    }
+
+    /**
+     * @return the number of failed batches waiting to be retried in the background, beyond which the sender
+     * retries the batches itself
+     */
+    public int getMaxRetryingBatches() {
+        return maxRetryingBatches;
+    }
+
+    public void setMaxRetryingBatches(int maxRetryingBatches) {
+        this.maxRetryingBatches = maxRetryingBatches;
+    }
+}
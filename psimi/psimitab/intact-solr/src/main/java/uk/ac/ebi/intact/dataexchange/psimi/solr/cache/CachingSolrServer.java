@@ -0,0 +1,284 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.cache;
+
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.*;
+
+/**
+ * Server answering the queries from a QueryResultCache, and sending everything else to another server.
+ *
+ * The raw responses of the queries are cached, keyed by the normalized query, filters, facets and paging, so that
+ * searches sending the same parameters in another order or with other spaces share their results. The cache is
+ * emptied when the version of the index reported by the core changes, the version being read with a Luke request
+ * at most once per version check interval of the cache. The queries streaming their results, or parsed by a
+ * specific response parser, are never cached.
+ *
+ * The cache keeps its own copy of the responses and returns a copy of it on each hit, so that the callers can
+ * modify the responses, for instance the documents of the results, without changing the cached ones.
+ *
+ * @version $Id$
+ */
+public class CachingSolrServer extends SolrServer {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingSolrServer.class);
+
+    private static final String LUKE_PATH = "/admin/luke";
+
+    private final SolrServer solrServer;
+    private final QueryResultCache cache;
+
+    public CachingSolrServer(SolrServer solrServer, QueryResultCache cache) {
+        if (solrServer == null) {
+            throw new IllegalArgumentException("The solr server cannot be null");
+        }
+        if (cache == null) {
+            throw new IllegalArgumentException("The cache cannot be null");
+        }
+        this.solrServer = solrServer;
+        this.cache = cache;
+    }
+
+    @Override
+    public NamedList<Object> request(SolrRequest request) throws SolrServerException, IOException {
+        if (!isCacheable(request)) {
+            return solrServer.request(request);
+        }
+
+        long version = checkIndexVersion();
+
+        String key = request.getPath() + "?" + normalize(request.getParams());
+        @SuppressWarnings("unchecked")
+        NamedList<Object> response = (NamedList<Object>) cache.get(key);
+        if (response != null) {
+            return copy(response);
+        }
+
+        response = solrServer.request(request);
+        cache.put(key, copy(response), version, estimateWeight(response));
+        return response;
+    }
+
+    private boolean isCacheable(SolrRequest request) {
+        return request instanceof QueryRequest
+                && request.getResponseParser() == null
+                && request.getStreamingResponseCallback() == null;
+    }
+
+    /**
+     * Reads the version of the index if the cache is due to check it, emptying the cache if it has changed.
+     *
+     * @return the version of the index the cached results are valid for
+     */
+    private long checkIndexVersion() {
+        if (cache.isVersionCheckDue()) {
+            try {
+                cache.setIndexVersion(readIndexVersion());
+            } catch (Exception e) {
+                if (log.isWarnEnabled()) log.warn("Cannot read the version of the index, the results are not cached", e);
+                cache.invalidate();
+            }
+        }
+        return cache.getIndexVersion();
+    }
+
+    /**
+     * @return the version of the index, changed by every commit, read without the fields and terms of the index
+     */
+    protected long readIndexVersion() throws SolrServerException, IOException {
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set("show", "index");
+        params.set("numTerms", 0);
+        QueryRequest lukeRequest = new QueryRequest(params);
+        lukeRequest.setPath(LUKE_PATH);
+
+        NamedList<Object> response = solrServer.request(lukeRequest);
+        NamedList<?> index = (NamedList<?>) response.get("index");
+        Object version = index != null ? index.get("version") : null;
+        if (!(version instanceof Number)) {
+            throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, "No index version in the response: " + response);
+        }
+        return ((Number) version).longValue();
+    }
+
+    @Override
+    public void shutdown() {
+        solrServer.shutdown();
+    }
+
+    public SolrServer getSolrServer() {
+        return solrServer;
+    }
+
+    public QueryResultCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Writes the parameters in a canonical form: the parameters sorted by name, the spaces of the query collapsed,
+     * the filter queries trimmed and sorted, as their order does not change the results. The values of other
+     * parameters keep their order, which can matter, for instance for the sort fields or the facet fields.
+     */
+    public static String normalize(SolrParams params) {
+        if (params == null) {
+            return "";
+        }
+
+        SortedMap<String,List<String>> sortedParams = new TreeMap<String,List<String>>();
+        for (Iterator<String> names = params.getParameterNamesIterator(); names.hasNext(); ) {
+            String name = names.next();
+            String[] values = params.getParams(name);
+            if (values == null) {
+                continue;
+            }
+
+            List<String> normalizedValues = new ArrayList<String>(values.length);
+            for (String value : values) {
+                if ("q".equals(name)) {
+                    normalizedValues.add(value.trim().replaceAll("\\s+", " "));
+                } else if ("fq".equals(name)) {
+                    normalizedValues.add(value.trim());
+                } else {
+                    normalizedValues.add(value);
+                }
+            }
+            if ("fq".equals(name)) {
+                Collections.sort(normalizedValues);
+            }
+            sortedParams.put(name, normalizedValues);
+        }
+
+        StringBuilder normalized = new StringBuilder();
+        for (Map.Entry<String,List<String>> param : sortedParams.entrySet()) {
+            for (String value : param.getValue()) {
+                if (normalized.length() > 0) {
+                    normalized.append('&');
+                }
+                normalized.append(encode(param.getKey())).append('=').append(encode(value));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return a copy of a response, copying its named lists, documents, maps and collections, the other values being
+     * immutable
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T copy(T value) {
+        if (value instanceof SolrDocumentList) {
+            SolrDocumentList documents = (SolrDocumentList) value;
+            SolrDocumentList copy = new SolrDocumentList();
+            copy.setNumFound(documents.getNumFound());
+            copy.setStart(documents.getStart());
+            copy.setMaxScore(documents.getMaxScore());
+            for (SolrDocument document : documents) {
+                copy.add(copy(document));
+            }
+            return (T) copy;
+        }
+        if (value instanceof SolrDocument) {
+            SolrDocument copy = new SolrDocument();
+            for (Map.Entry<String,Object> field : ((SolrDocument) value).entrySet()) {
+                copy.setField(field.getKey(), copy(field.getValue()));
+            }
+            return (T) copy;
+        }
+        if (value instanceof NamedList) {
+            NamedList<?> namedList = (NamedList<?>) value;
+            NamedList<Object> copy = value instanceof SimpleOrderedMap ? new SimpleOrderedMap<Object>() : new NamedList<Object>();
+            for (int i = 0; i < namedList.size(); i++) {
+                copy.add(namedList.getName(i), copy(namedList.getVal(i)));
+            }
+            return (T) copy;
+        }
+        if (value instanceof Map) {
+            Map<Object,Object> copy = new LinkedHashMap<Object,Object>();
+            for (Map.Entry<?,?> entry : ((Map<?,?>) value).entrySet()) {
+                copy.put(entry.getKey(), copy(entry.getValue()));
+            }
+            return (T) copy;
+        }
+        if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<Object>(((Collection<?>) value).size());
+            for (Object element : (Collection<?>) value) {
+                copy.add(copy(element));
+            }
+            return (T) copy;
+        }
+        return value;
+    }
+
+    /**
+     * @return the approximate size in bytes of a response, counting 2 bytes per character of its names and values
+     */
+    static long estimateWeight(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof NamedList) {
+            NamedList<?> namedList = (NamedList<?>) value;
+            long weight = 32;
+            for (int i = 0; i < namedList.size(); i++) {
+                String name = namedList.getName(i);
+                weight += 16 + (name != null ? 2 * name.length() : 0) + estimateWeight(namedList.getVal(i));
+            }
+            return weight;
+        }
+        if (value instanceof Map) {
+            long weight = 32;
+            for (Map.Entry<?,?> entry : ((Map<?,?>) value).entrySet()) {
+                weight += 16 + estimateWeight(entry.getKey()) + estimateWeight(entry.getValue());
+            }
+            return weight;
+        }
+        if (value instanceof Collection) {
+            long weight = 32;
+            for (Object element : (Collection<?>) value) {
+                weight += 8 + estimateWeight(element);
+            }
+            return weight;
+        }
+        if (value instanceof CharSequence) {
+            return 40 + 2 * ((CharSequence) value).length();
+        }
+        return 16;
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Results of queries kept in memory for a version of the index, the least recently used being evicted when the
+ * weight of the results, their approximate size in bytes, exceeds the maximum weight.
+ *
+ * The cache is told the version of the index by {@link #setIndexVersion}, checked by its user at most once per
+ * version check interval. The results are kept while the version is the same; a new version empties the cache,
+ * and a result computed for the previous version is not added. While the version is unknown, nothing is cached.
+ *
+ * A cache can be shared by several threads.
+ *
+ * @version $Id$
+ */
+public class QueryResultCache {
+
+    public static final long UNKNOWN_VERSION = -1;
+
+    private final long maxWeight;
+    private long versionCheckInterval = 10 * 1000;
+
+    private final LinkedHashMap<String,Entry> entries = new LinkedHashMap<String,Entry>(64, 0.75f, true);
+    private long weight;
+    private long indexVersion = UNKNOWN_VERSION;
+    private long lastVersionCheck;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Creates a cache of at most 32 MB.
+     */
+    public QueryResultCache() {
+        this(32 * 1024 * 1024);
+    }
+
+    /**
+     * @param maxWeight the maximum weight of the results, in bytes
+     */
+    public QueryResultCache(long maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("The maximum weight must be positive: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * @return the result cached for the key and the current version of the index, or null
+     */
+    public synchronized Object get(String key) {
+        Entry entry = indexVersion == UNKNOWN_VERSION ? null : entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Caches a result, unless it was computed for another version of the index or is heavier than a quarter of
+     * the cache, which would evict most of the other results.
+     *
+     * @param version the version of the index when the query was sent
+     * @param weight the approximate size in bytes of the result
+     * @return true if the result has been cached
+     */
+    public synchronized boolean put(String key, Object value, long version, long weight) {
+        if (version == UNKNOWN_VERSION || version != indexVersion || weight > maxWeight / 4) {
+            return false;
+        }
+
+        Entry previous = entries.put(key, new Entry(value, weight));
+        if (previous != null) {
+            this.weight -= previous.weight;
+        }
+        this.weight += weight;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (this.weight > maxWeight && iterator.hasNext()) {
+            this.weight -= iterator.next().weight;
+            iterator.remove();
+            evictions++;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the version of the index has not been checked for the version check interval
+     */
+    public synchronized boolean isVersionCheckDue() {
+        return System.currentTimeMillis() - lastVersionCheck >= versionCheckInterval;
+    }
+
+    /**
+     * Sets the version of the index, emptying the cache if it has changed.
+     */
+    public synchronized void setIndexVersion(long version) {
+        lastVersionCheck = System.currentTimeMillis();
+        if (version != indexVersion) {
+            if (!entries.isEmpty()) {
+                invalidations++;
+            }
+            clear();
+            indexVersion = version;
+        }
+    }
+
+    /**
+     * Empties the cache until the next version check, for instance when the version of the index cannot be read.
+     */
+    public synchronized void invalidate() {
+        setIndexVersion(UNKNOWN_VERSION);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    private static class Entry {
+
+        private final Object value;
+        private final long weight;
+
+        private Entry(Object value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    ///////////////////////////
+    // Statistics
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the approximate size in bytes of the cached results
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public synchronized long getIndexVersion() {
+        return indexVersion;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the ratio of the lookups finding a result, 0 if there has been none
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return the number of results evicted to stay under the maximum weight
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return the number of times the cache has been emptied by a new version of the index
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        invalidations = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return entries.size() + " results of " + weight + " bytes for index version " + indexVersion + ", "
+                + hits + " hits, " + misses + " misses (hit rate " + Math.round(getHitRate() * 100) + "%), "
+                + evictions + " evictions, " + invalidations + " invalidations";
+    }
+
+    ///////////////////////////
+    // Getters and Setters
+
+    /**
+     * @return the time in milliseconds between two checks of the version of the index
+     */
+    public synchronized long getVersionCheckInterval() {
+        return versionCheckInterval;
+    }
+
+    public synchronized void setVersionCheckInterval(long versionCheckInterval) {
+        this.versionCheckInterval = versionCheckInterval;
+    }
+}
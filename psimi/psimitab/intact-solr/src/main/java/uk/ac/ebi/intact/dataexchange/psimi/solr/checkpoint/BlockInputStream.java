@@ -0,0 +1,103 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * Stream of the decoded bytes of a file, which knows the position of the next byte as the offset in the file of
+ * the block where decoding can start again, and the number of decoded bytes to skip in that block.
+ *
+ * A read never returns bytes of two different blocks.
+ *
+ * @version $Id$
+ */
+abstract class BlockInputStream extends InputStream {
+
+    /**
+     * @return the offset in the file of the block holding the next byte
+     */
+    public abstract long getBlockOffset();
+
+    /**
+     * @return the number of decoded bytes before the next byte in its block
+     */
+    public abstract long getOffsetInBlock();
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n;
+        while ((n = read(b, 0, 1)) == 0) {
+        }
+        return n < 0 ? -1 : b[0] & 0xff;
+    }
+
+    /**
+     * Reads and discards the given number of decoded bytes.
+     */
+    protected void skipDecoded(long count) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (count > 0) {
+            int n = read(buffer, 0, (int) Math.min(buffer.length, count));
+            if (n < 0) {
+                throw new IOException("Unexpected end of file, " + count + " bytes could not be skipped");
+            }
+            count -= n;
+        }
+    }
+
+    /**
+     * A file which is not compressed, read as one block so that the offset in the block is the offset in the file.
+     */
+    static class Plain extends BlockInputStream {
+
+        private final RandomAccessFile file;
+        private long position;
+
+        Plain(RandomAccessFile file, long offset) throws IOException {
+            this.file = file;
+            this.position = offset;
+            file.seek(offset);
+        }
+
+        @Override
+        public long getBlockOffset() {
+            return 0;
+        }
+
+        @Override
+        public long getOffsetInBlock() {
+            return position;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = file.read(b, off, len);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}
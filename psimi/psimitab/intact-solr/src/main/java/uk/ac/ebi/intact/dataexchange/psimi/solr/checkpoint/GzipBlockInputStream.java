@@ -0,0 +1,187 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a gzip file member by member, the members being the blocks: decompression can start again at the
+ * beginning of any member. Files written by bgzip or by concatenating gzip files have many members and can be
+ * resumed close to any position; a file compressed in one member has to be decompressed from its start.
+ *
+ * @version $Id$
+ */
+class GzipBlockInputStream extends BlockInputStream {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final RandomAccessFile file;
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private final byte[] input = new byte[64 * 1024];
+
+    private long memberOffset;
+    private long dataOffset;
+    private long offsetInMember;
+    private boolean eof;
+
+    /**
+     * @param file the gzip file
+     * @param memberOffset the offset of the member where decompression starts
+     */
+    GzipBlockInputStream(RandomAccessFile file, long memberOffset) throws IOException {
+        this.file = file;
+        if (memberOffset >= file.length()) {
+            this.eof = true;
+            this.memberOffset = memberOffset;
+        } else {
+            openMember(memberOffset);
+        }
+    }
+
+    static boolean isGzip(RandomAccessFile file) throws IOException {
+        file.seek(0);
+        boolean gzip = file.length() >= 2 && file.read() == 0x1f && file.read() == 0x8b;
+        file.seek(0);
+        return gzip;
+    }
+
+    @Override
+    public long getBlockOffset() {
+        return memberOffset;
+    }
+
+    @Override
+    public long getOffsetInBlock() {
+        return offsetInMember;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (!eof) {
+            if (inflater.needsInput()) {
+                int n = file.read(input);
+                if (n < 0) {
+                    throw new EOFException("Unexpected end of the gzip member starting at " + memberOffset);
+                }
+                inflater.setInput(input, 0, n);
+            }
+
+            int n;
+            try {
+                n = inflater.inflate(b, off, len);
+            } catch (DataFormatException e) {
+                throw new ZipException("Invalid gzip member starting at " + memberOffset + ": " + e.getMessage());
+            }
+            crc.update(b, off, n);
+            offsetInMember += n;
+
+            // move to the next member straight away so that the position is never the end of a member
+            if (inflater.finished()) {
+                nextMember();
+            } else if (n == 0 && inflater.needsDictionary()) {
+                throw new ZipException("Invalid gzip member starting at " + memberOffset + ": needs a dictionary");
+            }
+            if (n > 0) {
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    private void nextMember() throws IOException {
+        long trailerOffset = dataOffset + inflater.getBytesRead();
+        file.seek(trailerOffset);
+        long checksum = readInt();
+        long size = readInt();
+        if (checksum != crc.getValue() || size != (offsetInMember & 0xffffffffL)) {
+            throw new ZipException("Corrupt gzip member starting at " + memberOffset);
+        }
+
+        long next = trailerOffset + 8;
+        if (next >= file.length()) {
+            eof = true;
+            memberOffset = next;
+            offsetInMember = 0;
+        } else {
+            openMember(next);
+        }
+    }
+
+    private void openMember(long offset) throws IOException {
+        file.seek(offset);
+        if (readByte() != 0x1f || readByte() != 0x8b || readByte() != 8) {
+            throw new ZipException("No gzip member starting at " + offset);
+        }
+        int flags = readByte();
+        // modification time, extra flags and operating system
+        skip(6);
+        if ((flags & FEXTRA) != 0) {
+            skip(readByte() | (readByte() << 8));
+        }
+        if ((flags & FNAME) != 0) {
+            while (readByte() != 0) {
+            }
+        }
+        if ((flags & FCOMMENT) != 0) {
+            while (readByte() != 0) {
+            }
+        }
+        if ((flags & FHCRC) != 0) {
+            skip(2);
+        }
+
+        memberOffset = offset;
+        dataOffset = file.getFilePointer();
+        offsetInMember = 0;
+        inflater.reset();
+        crc.reset();
+    }
+
+    private int readByte() throws IOException {
+        int b = file.read();
+        if (b < 0) {
+            throw new EOFException("Unexpected end of the gzip header at " + file.getFilePointer());
+        }
+        return b;
+    }
+
+    private long readInt() throws IOException {
+        return readByte() | (readByte() << 8) | (readByte() << 16) | ((long) readByte() << 24);
+    }
+
+    private void skip(int count) throws IOException {
+        file.seek(file.getFilePointer() + count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        file.close();
+    }
+}
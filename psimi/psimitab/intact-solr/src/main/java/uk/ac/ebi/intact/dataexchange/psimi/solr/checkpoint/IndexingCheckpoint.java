@@ -0,0 +1,244 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Position in a MITAB file up to which all the lines have been committed to the server, so that an interrupted
+ * index can be resumed from there.
+ *
+ * It is saved as a small properties file, together with the size and modification date of the MITAB file and the
+ * lines to index, so that it is not used to resume the index of another file.
+ *
+ * @version $Id$
+ */
+public class IndexingCheckpoint {
+
+    private String mitabFile;
+    private long mitabFileLength;
+    private long mitabFileLastModified;
+    private int firstLine;
+    private int endLine;
+
+    private int lineNumber;
+    private long blockOffset;
+    private long offsetInBlock;
+    private int lastCommittedLine = -1;
+    private int indexedCount;
+
+    public IndexingCheckpoint() {
+    }
+
+    /**
+     * Reads a checkpoint file.
+     *
+     * @return the checkpoint or null if the file does not exist
+     * @throws IOException Thrown if the file cannot be read or is not a checkpoint file
+     */
+    public static IndexingCheckpoint read(File checkpointFile) throws IOException {
+        if (!checkpointFile.exists()) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        InputStream inputStream = new FileInputStream(checkpointFile);
+        try {
+            properties.load(inputStream);
+        } finally {
+            inputStream.close();
+        }
+
+        try {
+            IndexingCheckpoint checkpoint = new IndexingCheckpoint();
+            checkpoint.setMitabFile(properties.getProperty("mitab.file"));
+            checkpoint.setMitabFileLength(Long.parseLong(properties.getProperty("mitab.file.length")));
+            checkpoint.setMitabFileLastModified(Long.parseLong(properties.getProperty("mitab.file.lastModified")));
+            checkpoint.setFirstLine(Integer.parseInt(properties.getProperty("line.first")));
+            checkpoint.setEndLine(Integer.parseInt(properties.getProperty("line.end")));
+            checkpoint.setLineNumber(Integer.parseInt(properties.getProperty("line.number")));
+            checkpoint.setBlockOffset(Long.parseLong(properties.getProperty("offset.block")));
+            checkpoint.setOffsetInBlock(Long.parseLong(properties.getProperty("offset.inBlock")));
+            checkpoint.setLastCommittedLine(Integer.parseInt(properties.getProperty("line.lastCommitted")));
+            checkpoint.setIndexedCount(Integer.parseInt(properties.getProperty("indexed")));
+            return checkpoint;
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid checkpoint file: " + checkpointFile, e);
+        }
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file first, then renames it, so that an interruption while writing
+     * leaves the previous checkpoint.
+     */
+    public void write(File checkpointFile) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("mitab.file", mitabFile == null ? "" : mitabFile);
+        properties.setProperty("mitab.file.length", String.valueOf(mitabFileLength));
+        properties.setProperty("mitab.file.lastModified", String.valueOf(mitabFileLastModified));
+        properties.setProperty("line.first", String.valueOf(firstLine));
+        properties.setProperty("line.end", String.valueOf(endLine));
+        properties.setProperty("line.number", String.valueOf(lineNumber));
+        properties.setProperty("offset.block", String.valueOf(blockOffset));
+        properties.setProperty("offset.inBlock", String.valueOf(offsetInBlock));
+        properties.setProperty("line.lastCommitted", String.valueOf(lastCommittedLine));
+        properties.setProperty("indexed", String.valueOf(indexedCount));
+
+        File tempFile = new File(checkpointFile.getAbsoluteFile().getParentFile(), checkpointFile.getName() + ".tmp");
+        OutputStream outputStream = new FileOutputStream(tempFile);
+        try {
+            properties.store(outputStream, "MITAB indexing checkpoint");
+        } finally {
+            outputStream.close();
+        }
+        Files.move(tempFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Records the MITAB file and the lines being indexed.
+     */
+    public void setIndexedFile(File mitabFile, int firstLine, int endLine) {
+        this.mitabFile = mitabFile.getAbsolutePath();
+        this.mitabFileLength = mitabFile.length();
+        this.mitabFileLastModified = mitabFile.lastModified();
+        this.firstLine = firstLine;
+        this.endLine = endLine;
+    }
+
+    /**
+     * @return true if the checkpoint has been written while indexing the same lines of the same, unchanged, file
+     */
+    public boolean isCheckpointOf(File mitabFile, int firstLine, int endLine) {
+        return mitabFile.getAbsolutePath().equals(this.mitabFile)
+                && mitabFile.length() == mitabFileLength
+                && mitabFile.lastModified() == mitabFileLastModified
+                && firstLine == this.firstLine
+                && endLine == this.endLine;
+    }
+
+    ///////////////////////////
+    // Getters and Setters
+
+    public String getMitabFile() {
+        return mitabFile;
+    }
+
+    public void setMitabFile(String mitabFile) {
+        this.mitabFile = mitabFile;
+    }
+
+    public long getMitabFileLength() {
+        return mitabFileLength;
+    }
+
+    public void setMitabFileLength(long mitabFileLength) {
+        this.mitabFileLength = mitabFileLength;
+    }
+
+    public long getMitabFileLastModified() {
+        return mitabFileLastModified;
+    }
+
+    public void setMitabFileLastModified(long mitabFileLastModified) {
+        this.mitabFileLastModified = mitabFileLastModified;
+    }
+
+    public int getFirstLine() {
+        return firstLine;
+    }
+
+    public void setFirstLine(int firstLine) {
+        this.firstLine = firstLine;
+    }
+
+    public int getEndLine() {
+        return endLine;
+    }
+
+    public void setEndLine(int endLine) {
+        this.endLine = endLine;
+    }
+
+    /**
+     * @return the number of the line at the checkpoint position, the first line of the file being line 0
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * @see PositionedLineReader#getBlockOffset()
+     */
+    public long getBlockOffset() {
+        return blockOffset;
+    }
+
+    public void setBlockOffset(long blockOffset) {
+        this.blockOffset = blockOffset;
+    }
+
+    /**
+     * @see PositionedLineReader#getOffsetInBlock()
+     */
+    public long getOffsetInBlock() {
+        return offsetInBlock;
+    }
+
+    public void setOffsetInBlock(long offsetInBlock) {
+        this.offsetInBlock = offsetInBlock;
+    }
+
+    /**
+     * @return the number of the last line whose document has been committed, -1 if none
+     */
+    public int getLastCommittedLine() {
+        return lastCommittedLine;
+    }
+
+    public void setLastCommittedLine(int lastCommittedLine) {
+        this.lastCommittedLine = lastCommittedLine;
+    }
+
+    /**
+     * @return the number of lines indexed before the checkpoint position
+     */
+    public int getIndexedCount() {
+        return indexedCount;
+    }
+
+    public void setIndexedCount(int indexedCount) {
+        this.indexedCount = indexedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexingCheckpoint{" +
+                "mitabFile='" + mitabFile + '\'' +
+                ", lineNumber=" + lineNumber +
+                ", blockOffset=" + blockOffset +
+                ", offsetInBlock=" + offsetInBlock +
+                ", lastCommittedLine=" + lastCommittedLine +
+                ", indexedCount=" + indexedCount +
+                '}';
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a MITAB file, plain or gzip compressed, knowing the position of the next line so that the
+ * reading can be started again from there.
+ *
+ * A position is a block offset and an offset in the block: for a plain file the block offset is always 0 and the
+ * offset in the block is the byte offset in the file; for a gzip file the block offset is the offset of a gzip
+ * member and the offset in the block the number of decompressed bytes to skip in that member.
+ *
+ * @version $Id$
+ */
+public class PositionedLineReader implements Closeable {
+
+    private final BlockInputStream stream;
+    private final Charset charset;
+
+    private final byte[] buffer = new byte[64 * 1024];
+    private int bufferPosition;
+    private int bufferLimit;
+    private long bufferBlockOffset;
+    private long bufferOffsetInBlock;
+
+    private byte[] line = new byte[1024];
+
+    /**
+     * Opens a file at its beginning.
+     */
+    public PositionedLineReader(File file) throws IOException {
+        this(file, 0, 0);
+    }
+
+    /**
+     * Opens a file at a position given by a previous reader of the same file.
+     */
+    public PositionedLineReader(File file, long blockOffset, long offsetInBlock) throws IOException {
+        this(file, blockOffset, offsetInBlock, Charset.defaultCharset());
+    }
+
+    public PositionedLineReader(File file, long blockOffset, long offsetInBlock, Charset charset) throws IOException {
+        this.charset = charset;
+
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            if (GzipBlockInputStream.isGzip(randomAccessFile)) {
+                stream = new GzipBlockInputStream(randomAccessFile, blockOffset);
+                stream.skipDecoded(offsetInBlock);
+            } else {
+                stream = new BlockInputStream.Plain(randomAccessFile, blockOffset + offsetInBlock);
+            }
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+
+        bufferBlockOffset = stream.getBlockOffset();
+        bufferOffsetInBlock = stream.getOffsetInBlock();
+    }
+
+    /**
+     * Reads a line, without its line terminator.
+     *
+     * @return the line or null if the end of the file has been reached
+     */
+    public String readLine() throws IOException {
+        int length = 0;
+
+        while (true) {
+            if (bufferPosition >= bufferLimit && !fill()) {
+                return length == 0 ? null : toString(length);
+            }
+
+            int start = bufferPosition;
+            int end = start;
+            while (end < bufferLimit && buffer[end] != '\n') {
+                end++;
+            }
+
+            int count = end - start;
+            if (length + count > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+            }
+            System.arraycopy(buffer, start, line, length, count);
+            length += count;
+
+            if (end < bufferLimit) {
+                bufferPosition = end + 1;
+                return toString(length);
+            }
+            bufferPosition = bufferLimit;
+        }
+    }
+
+    private String toString(int length) {
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, charset);
+    }
+
+    private boolean fill() throws IOException {
+        bufferBlockOffset = stream.getBlockOffset();
+        bufferOffsetInBlock = stream.getOffsetInBlock();
+        bufferPosition = 0;
+        bufferLimit = 0;
+
+        int n;
+        while ((n = stream.read(buffer, 0, buffer.length)) == 0) {
+        }
+        if (n < 0) {
+            return false;
+        }
+        bufferLimit = n;
+        return true;
+    }
+
+    /**
+     * @return the block offset of the next line
+     */
+    public long getBlockOffset() {
+        if (bufferPosition >= bufferLimit) {
+            return stream.getBlockOffset();
+        }
+        return bufferBlockOffset;
+    }
+
+    /**
+     * @return the offset in its block of the next line
+     */
+    public long getOffsetInBlock() {
+        if (bufferPosition >= bufferLimit) {
+            return stream.getOffsetInBlock();
+        }
+        return bufferOffsetInBlock + bufferPosition;
+    }
+
+    public void close() throws IOException {
+        stream.close();
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.commit;
+
+import java.io.Serializable;
+
+/**
+ * When an indexing job commits the documents sent to the server, and how it merges the segments of the index.
+ *
+ * A commit is due when one of the enabled triggers is reached by the documents sent since the last commit: their
+ * number, their approximate size in bytes or the time elapsed since the first of them was sent. A trigger set to 0
+ * is disabled.
+ *
+ * The commits can be soft commits, which make the documents searchable without flushing the index to disk. Every
+ * <code>hardCommitInterval</code> commits and at the end of the job, a hard commit is done instead.
+ *
+ * The segments are merged down to <code>maxSegments</code> every <code>mergeInterval</code> hard commits and/or
+ * at the end of the job. A merge down to one segment is the optimize of the previous versions of the indexers,
+ * which blocks the readers of large cores for a long time.
+ *
+ * @version $Id$
+ */
+public class CommitPolicy implements Serializable {
+
+    private int maxDocuments = 10000;
+    private long maxBytes;
+    private long maxTime;
+
+    private boolean softCommit;
+    private int hardCommitInterval = 10;
+    private boolean waitSearcher = true;
+
+    private int maxSegments = 1;
+    private int mergeInterval;
+    private boolean mergeAtEnd;
+
+    public CommitPolicy() {
+    }
+
+    public CommitPolicy(int maxDocuments) {
+        this.maxDocuments = maxDocuments;
+    }
+
+    /**
+     * The policy of the previous versions of the MITAB indexer: a hard commit every commitInterval documents and an
+     * optimize at the end.
+     */
+    public static CommitPolicy commitAndOptimize(int commitInterval) {
+        CommitPolicy policy = new CommitPolicy(commitInterval);
+        policy.setMergeAtEnd(true);
+        return policy;
+    }
+
+    /**
+     * @param documents the number of documents sent since the last commit
+     * @param bytes the approximate size of these documents
+     * @param elapsedTime the time in milliseconds since the first of these documents was sent
+     * @return true if these documents should be committed now
+     */
+    public boolean isCommitDue(int documents, long bytes, long elapsedTime) {
+        if (documents <= 0) {
+            return false;
+        }
+        return (maxDocuments > 0 && documents >= maxDocuments)
+                || (maxBytes > 0 && bytes >= maxBytes)
+                || (maxTime > 0 && elapsedTime >= maxTime);
+    }
+
+    /**
+     * @param commits the number of commits done so far, including the one about to be done
+     * @return true if the commit should be a soft commit
+     */
+    public boolean isSoftCommit(int commits) {
+        return softCommit && (hardCommitInterval <= 0 || commits % hardCommitInterval != 0);
+    }
+
+    /**
+     * @param hardCommits the number of hard commits done so far, including the last one
+     * @return true if the segments should be merged after the last hard commit
+     */
+    public boolean isMergeDue(int hardCommits) {
+        return mergeInterval > 0 && maxSegments > 0 && hardCommits > 0 && hardCommits % mergeInterval == 0;
+    }
+
+    ///////////////////////////
+    // Getters and Setters
+
+    /**
+     * @return the number of documents triggering a commit, 0 if disabled
+     */
+    public int getMaxDocuments() {
+        return maxDocuments;
+    }
+
+    public void setMaxDocuments(int maxDocuments) {
+        this.maxDocuments = maxDocuments;
+    }
+
+    /**
+     * @return the approximate size in bytes of the documents triggering a commit, 0 if disabled
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the time in milliseconds after which the documents sent are committed, 0 if disabled
+     */
+    public long getMaxTime() {
+        return maxTime;
+    }
+
+    public void setMaxTime(long maxTime) {
+        this.maxTime = maxTime;
+    }
+
+    public boolean isSoftCommit() {
+        return softCommit;
+    }
+
+    public void setSoftCommit(boolean softCommit) {
+        this.softCommit = softCommit;
+    }
+
+    /**
+     * @return with soft commits, the number of commits between two hard commits, 0 to only do a hard commit at the end
+     */
+    public int getHardCommitInterval() {
+        return hardCommitInterval;
+    }
+
+    public void setHardCommitInterval(int hardCommitInterval) {
+        this.hardCommitInterval = hardCommitInterval;
+    }
+
+    /**
+     * @return whether the commits wait for the new searcher to be opened
+     */
+    public boolean isWaitSearcher() {
+        return waitSearcher;
+    }
+
+    public void setWaitSearcher(boolean waitSearcher) {
+        this.waitSearcher = waitSearcher;
+    }
+
+    /**
+     * @return the number of segments left by a merge
+     */
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * @return the number of hard commits between two merges, 0 not to merge while indexing
+     */
+    public int getMergeInterval() {
+        return mergeInterval;
+    }
+
+    public void setMergeInterval(int mergeInterval) {
+        this.mergeInterval = mergeInterval;
+    }
+
+    /**
+     * @return whether the segments are merged at the end of the job
+     */
+    public boolean isMergeAtEnd() {
+        return mergeAtEnd;
+    }
+
+    public void setMergeAtEnd(boolean mergeAtEnd) {
+        this.mergeAtEnd = mergeAtEnd;
+    }
+
+    @Override
+    public String toString() {
+        return "CommitPolicy{" +
+                "maxDocuments=" + maxDocuments +
+                ", maxBytes=" + maxBytes +
+                ", maxTime=" + maxTime +
+                ", softCommit=" + softCommit +
+                ", hardCommitInterval=" + hardCommitInterval +
+                ", maxSegments=" + maxSegments +
+                ", mergeInterval=" + mergeInterval +
+                ", mergeAtEnd=" + mergeAtEnd +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.commit;
+
+/**
+ * Number of commits and merges done by a SolrCommitter, and the time spent in them.
+ *
+ * @version $Id$
+ */
+public class CommitStatistics {
+
+    private int hardCommits;
+    private int softCommits;
+    private int merges;
+    private long commitTime;
+    private long mergeTime;
+
+    synchronized void commitDone(boolean soft, long time) {
+        if (soft) {
+            softCommits++;
+        } else {
+            hardCommits++;
+        }
+        commitTime += time;
+    }
+
+    synchronized void mergeDone(long time) {
+        merges++;
+        mergeTime += time;
+    }
+
+    public synchronized int getHardCommits() {
+        return hardCommits;
+    }
+
+    public synchronized int getSoftCommits() {
+        return softCommits;
+    }
+
+    public synchronized int getMerges() {
+        return merges;
+    }
+
+    /**
+     * @return the time in milliseconds spent in the commits
+     */
+    public synchronized long getCommitTime() {
+        return commitTime;
+    }
+
+    /**
+     * @return the time in milliseconds spent in the merges
+     */
+    public synchronized long getMergeTime() {
+        return mergeTime;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return hardCommits + " hard commits and " + softCommits + " soft commits in " + commitTime + " ms, "
+                + merges + " merges in " + mergeTime + " ms";
+    }
+}
@@ -0,0 +1,282 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.commit;
+
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrException;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.failure.ExponentialBackOff;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Commits and merges the documents sent to a server by an indexing job, as decided by its CommitPolicy.
+ *
+ * The job tells the committer the documents it sends with {@link #added}, which commits them when the policy says
+ * so, and calls {@link #finish} at the end. A committer is used by one thread at a time.
+ *
+ * @version $Id$
+ */
+public class SolrCommitter {
+
+    private static final Logger log = LoggerFactory.getLogger(SolrCommitter.class);
+
+    private final SolrServer solrServer;
+    private final CommitPolicy commitPolicy;
+
+    private int timesToRetry = 5;
+    private ExponentialBackOff backOff = new ExponentialBackOff(2000, 60 * 1000);
+
+    private int uncommittedDocuments;
+    private long uncommittedBytes;
+    private long firstUncommittedTime;
+
+    private int commits;
+    private int hardCommits;
+    private boolean lastCommitHard = true;
+
+    private final CommitStatistics statistics = new CommitStatistics();
+
+    public SolrCommitter(SolrServer solrServer, CommitPolicy commitPolicy) {
+        if (solrServer == null) {
+            throw new IllegalArgumentException("The solr server cannot be null");
+        }
+        if (commitPolicy == null) {
+            throw new IllegalArgumentException("The commit policy cannot be null");
+        }
+        this.solrServer = solrServer;
+        this.commitPolicy = commitPolicy;
+    }
+
+    /**
+     * Records documents sent to the server, committing them if the policy says so.
+     *
+     * @param documents the number of documents sent
+     * @param bytes their approximate size, 0 if unknown
+     * @return true if a commit has been done
+     */
+    public boolean added(int documents, long bytes) throws IOException {
+        if (documents <= 0) {
+            return false;
+        }
+        if (uncommittedDocuments == 0) {
+            firstUncommittedTime = System.currentTimeMillis();
+        }
+        uncommittedDocuments += documents;
+        uncommittedBytes += bytes;
+
+        return commitIfDue();
+    }
+
+    /**
+     * Commits the documents sent so far if the policy says so, for instance once the maximum time is elapsed
+     * while no document is being sent.
+     *
+     * @return true if a commit has been done
+     */
+    public boolean commitIfDue() throws IOException {
+        if (commitPolicy.isCommitDue(uncommittedDocuments, uncommittedBytes, getUncommittedTime())) {
+            commit();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Commits the documents sent so far, with a soft or a hard commit as decided by the policy, and merges the
+     * segments after a hard commit if a merge is due.
+     */
+    public void commit() throws IOException {
+        boolean soft = commitPolicy.isSoftCommit(commits + 1);
+        commit(soft);
+
+        if (!soft && commitPolicy.isMergeDue(hardCommits)) {
+            merge();
+        }
+    }
+
+    /**
+     * Ends the job: a hard commit of the documents sent, then a merge if the policy merges at the end.
+     */
+    public void finish() throws IOException {
+        commit(false);
+
+        if (commitPolicy.isMergeAtEnd() && commitPolicy.getMaxSegments() > 0) {
+            merge();
+        }
+
+        if (log.isInfoEnabled()) log.info("Commits of the job: " + statistics);
+    }
+
+    /**
+     * Merges the segments of the index down to the maximum number of segments of the policy.
+     */
+    public void merge() throws IOException {
+        long start = System.currentTimeMillis();
+        Exception lastError = null;
+
+        for (int attempt = 0; attempt <= timesToRetry; attempt++) {
+            if (attempt > 0) {
+                waitBeforeRetry("merging", attempt, lastError);
+            }
+            try {
+                solrServer.optimize(true, commitPolicy.isWaitSearcher(), Math.max(1, commitPolicy.getMaxSegments()));
+
+                long time = System.currentTimeMillis() - start;
+                statistics.mergeDone(time);
+                if (log.isDebugEnabled()) log.debug("Merged down to " + commitPolicy.getMaxSegments() + " segments in " + time + " ms");
+                return;
+            } catch (SolrServerException e) {
+                lastError = e;
+            } catch (SolrException e) {
+                lastError = e;
+            }
+        }
+
+        throw new IntactSolrException("Cannot merge the segments, after retrying " + timesToRetry + " times", lastError);
+    }
+
+    private void commit(boolean soft) throws IOException {
+        long start = System.currentTimeMillis();
+        Exception lastError = null;
+
+        for (int attempt = 0; attempt <= timesToRetry; attempt++) {
+            if (attempt > 0) {
+                waitBeforeRetry("committing", attempt, lastError);
+            }
+            try {
+                solrServer.commit(true, commitPolicy.isWaitSearcher(), soft);
+
+                commits++;
+                if (!soft) {
+                    hardCommits++;
+                }
+                lastCommitHard = !soft;
+
+                long time = System.currentTimeMillis() - start;
+                statistics.commitDone(soft, time);
+                if (log.isDebugEnabled()) log.debug((soft ? "Soft" : "Hard") + " commit of " + uncommittedDocuments
+                        + " documents in " + time + " ms");
+
+                uncommittedDocuments = 0;
+                uncommittedBytes = 0;
+                return;
+            } catch (SolrServerException e) {
+                lastError = e;
+            } catch (SolrException e) {
+                lastError = e;
+            }
+        }
+
+        throw new IntactSolrException("Cannot commit to the server, after retrying " + timesToRetry + " times", lastError);
+    }
+
+    private void waitBeforeRetry(String operation, int attempt, Exception lastError) {
+        if (log.isErrorEnabled())
+            log.error("Error " + operation + ". Retry " + attempt + " of " + timesToRetry, lastError);
+
+        try {
+            backOff.waitBeforeRetry(attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IntactSolrException("Interrupted while " + operation, e);
+        }
+    }
+
+    private long getUncommittedTime() {
+        return uncommittedDocuments > 0 ? System.currentTimeMillis() - firstUncommittedTime : 0;
+    }
+
+    /**
+     * @return the approximate size in bytes of a document, counting the characters of its field names and values
+     */
+    public static long estimateSize(SolrInputDocument document) {
+        long size = 0;
+        for (String fieldName : document.getFieldNames()) {
+            Collection<Object> values = document.getFieldValues(fieldName);
+            if (values == null) {
+                continue;
+            }
+            for (Object value : values) {
+                size += fieldName.length() + String.valueOf(value).length();
+            }
+        }
+        return size;
+    }
+
+    ///////////////////////////
+    // Getters and Setters
+
+    public CommitPolicy getCommitPolicy() {
+        return commitPolicy;
+    }
+
+    public CommitStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return the number of documents sent since the last commit
+     */
+    public int getUncommittedDocuments() {
+        return uncommittedDocuments;
+    }
+
+    /**
+     * @return false if the last commit was a soft commit, whose documents may be lost if the server stops
+     */
+    public boolean isLastCommitHard() {
+        return lastCommitHard;
+    }
+
+    public int getTimesToRetry() {
+        return timesToRetry;
+    }
+
+    public void setTimesToRetry(int timesToRetry) {
+        this.timesToRetry = timesToRetry;
+    }
+
+    /**
+     * @return the time in milliseconds to wait before the first retry of a failed commit or merge
+     */
+    public long getRetryDelay() {
+        return backOff.getInitialDelay();
+    }
+
+    /**
+     * Sets the initial delay of the back-off.
+     */
+    public void setRetryDelay(long retryDelay) {
+        backOff.setInitialDelay(retryDelay);
+    }
+
+    public ExponentialBackOff getBackOff() {
+        return backOff;
+    }
+
+    public void setBackOff(ExponentialBackOff backOff) {
+        if (backOff == null) {
+            throw new IllegalArgumentException("The back-off cannot be null");
+        }
+        this.backOff = backOff;
+    }
+}
@@ -2,11 +2,13 @@ package uk.ac.ebi.intact.dataexchange.psimi.solr.complex;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.response.FacetField;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrException;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -25,13 +27,24 @@ public class ComplexResultIterator implements Iterator <ComplexSearchResults> {
     /********************************/
     /*      Private attributes      */
     /********************************/
-    private final Iterator <SolrDocument> iterator;
+    private Iterator <SolrDocument> iterator;
     private Map<String,List<FacetField.Count>> facetFields = null ;
     // we have been prepared the next value
     private ComplexSearchResults nextResult;
-    private final long numberOfResults;
+    private long numberOfResults;
     private long totalNumberOfResults = 0L;
     private final ObjectMapper mapper;
+    // used to load the next pages of results when the results are streamed
+    private PageLoader pageLoader = null ;
+    private int pageSize;
+    private long loadedResults;
+
+    /**
+     * Loads a page of the results of a search, sorted in a stable order
+     */
+    public interface PageLoader {
+        SolrDocumentList loadPage ( long firstResult, int maxResults ) throws SolrServerException ;
+    }
 
     /*************************/
     /*      Constructor      */
@@ -48,6 +61,24 @@ public class ComplexResultIterator implements Iterator <ComplexSearchResults> {
         }
     }
 
+    /**
+     * Creates an iterator over all the results of a search which loads them page by page, as they are read, so that
+     * only one page of results is held in memory at a time.
+     *
+     * @param firstPage the first page of results, loaded with the same page size
+     */
+    public ComplexResultIterator ( SolrDocumentList firstPage, int pageSize, PageLoader pageLoader ) {
+        this(firstPage);
+        if ( pageSize <= 0 ) {
+            throw new IllegalArgumentException ( "The page size must be greater than 0" ) ;
+        }
+        this.pageLoader = pageLoader ;
+        this.pageSize = pageSize ;
+        this.loadedResults = firstPage.size ( ) ;
+        this.numberOfResults = firstPage.getNumFound ( ) ;
+        this.totalNumberOfResults = firstPage.getNumFound ( ) ;
+    }
+
     public ComplexResultIterator ( SolrDocumentList results, List<FacetField> facets ) {
         this(results);
         this.facetFields = new HashMap<String, List<FacetField.Count>>();
@@ -59,6 +90,7 @@ public class ComplexResultIterator implements Iterator <ComplexSearchResults> {
     /*********************************/
     /*      Getters and Setters      */
     /*********************************/
+    // When the results are streamed, this is the iterator of the current page only
     public Iterator < SolrDocument > getIterator ( ) { return iterator ; }
     public long getNumberOfResults ( ) { return numberOfResults ; }
     public void setTotalNumberOfResults ( long total ) { totalNumberOfResults = total; }
@@ -143,6 +175,31 @@ public class ComplexResultIterator implements Iterator <ComplexSearchResults> {
     /*******************************/
     /*      Private Methods        */
     /*******************************/
+    // hasNextDocument is a method to check if there is another document, loading the next page of results if needed
+    private boolean hasNextDocument ( ) {
+        if ( iterator.hasNext ( ) ) {
+            return true ;
+        }
+        if ( pageLoader == null || loadedResults >= numberOfResults ) {
+            return false ;
+        }
+
+        SolrDocumentList page ;
+        try {
+            page = pageLoader.loadPage ( loadedResults, pageSize ) ;
+        } catch ( SolrServerException e ) {
+            throw new IntactSolrException ( "Problem loading the complex results from " + loadedResults, e ) ;
+        }
+        // the index has changed and there are fewer results than expected
+        if ( page == null || page.isEmpty ( ) ) {
+            loadedResults = numberOfResults ;
+            return false ;
+        }
+        loadedResults += page.size ( ) ;
+        iterator = page.iterator ( ) ;
+        return true ;
+    }
+
     private List<ComplexInteractor> getInteractors(SolrDocument solrDocument) {
         return getListOfFieldValues(solrDocument, ComplexFieldNames.SERIALISED_INTERACTION).stream()
                 .map(serialisedInteractor -> {
@@ -168,7 +225,7 @@ public class ComplexResultIterator implements Iterator <ComplexSearchResults> {
     @Override
     public ComplexSearchResults next ( ) {
         ComplexSearchResults result = null ;
-        if ( iterator != null && iterator.hasNext ( ) ) {
+        if ( iterator != null && hasNextDocument ( ) ) {
             // Swap values between nextResult and this result
             ComplexSearchResults swap = nextResult ;
             nextResult = getFieldValues ( ) ;
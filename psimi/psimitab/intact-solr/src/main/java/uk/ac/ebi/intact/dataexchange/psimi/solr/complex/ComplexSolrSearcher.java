@@ -9,6 +9,7 @@ import org.apache.solr.client.solrj.SolrServer;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.HttpSolrServer;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.params.FacetParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +38,7 @@ public class ComplexSolrSearcher {
     private final static String DISMAX_TYPE         = "edismax" ;
     private final static String DEFAULT_MM_PARAM    = "mm"      ;
     private final static String QUERY_TYPE          = "defType" ;
+    private final static String SCORE_FIELD         = "score"   ;
 
     /*********************************/
     /*      Getters for statics      */
@@ -281,6 +283,13 @@ public class ComplexSolrSearcher {
     /**************************************/
     protected QueryResponse search ( SolrQuery solrQuery )
         throws SolrServerException {
+        return search ( solrQuery, false ) ;
+    }
+
+    // stableOrder adds the score and the unique key to the sort so that the order is the same from one page of
+    // results to the next
+    protected QueryResponse search ( SolrQuery solrQuery, boolean stableOrder )
+        throws SolrServerException {
 
         // Set default fields to search
         setFields ( solrQuery );
@@ -298,6 +307,11 @@ public class ComplexSolrSearcher {
 
         // Sort by the predicted_complex field to have curated complexes first
         solrQuery.addSortField(ComplexFieldNames.PREDICTED_COMPLEX, SolrQuery.ORDER.asc);
+        if ( stableOrder ) {
+            // then by relevance, and by the unique key when the scores are equal
+            solrQuery.addSortField(SCORE_FIELD, SolrQuery.ORDER.desc);
+            solrQuery.addSortField(ComplexFieldNames.ID, SolrQuery.ORDER.asc);
+        }
 
         // Send the query to the Solr Server and return the answer
         return solrServer.query ( solrQuery ) ;
@@ -457,4 +471,81 @@ public class ComplexSolrSearcher {
         return iterator;
     }
 
+    /*************************************/
+    /*      Public Streaming Methods      */
+    /*************************************/
+
+    // This method is for make easier streaming with a filter. This filter can be null
+    public ComplexResultIterator stream ( String query,
+                                          String queryFilter,
+                                          int pageSize
+                                        )
+        throws SolrServerException {
+
+        return streamWithFilters ( query,
+                queryFilter != null ? new String[]{queryFilter} : null,
+                pageSize ) ;
+    }
+
+    // This method is for iterate over all the results of a search, loading pageSize results at a time
+    // as they are read instead of all the results in one response
+    public ComplexResultIterator streamWithFilters ( final String query,
+                                                     final String [ ] queryFilters,
+                                                     final int pageSize
+                                                   )
+        throws SolrServerException {
+        if ( logger.isInfoEnabled ( ) ) {
+            logger.info ( new StringBuilder ( )
+                    .append ( "Streaming with filters; Query: " )
+                    .append ( query )
+                    .append ( " Filters: " )
+                    .append ( queryFilters )
+                    .append ( " Page size: " )
+                    .append ( pageSize )
+                    .toString ( ) ) ;
+        }
+        if ( pageSize <= 0 ) {
+            throw new IllegalArgumentException ( "The page size must be greater than 0" ) ;
+        }
+        // First step, check query for null and wildcard
+        checkQuery ( query ) ;
+
+        ComplexResultIterator.PageLoader pageLoader = new ComplexResultIterator.PageLoader ( ) {
+            public SolrDocumentList loadPage ( long firstResult, int maxResults ) throws SolrServerException {
+                return searchPage ( query, queryFilters, firstResult, maxResults ) ;
+            }
+        } ;
+
+        SolrDocumentList firstPage = pageLoader.loadPage ( 0, pageSize ) ;
+        // no response, there are no results to stream
+        if ( firstPage == null ) {
+            firstPage = new SolrDocumentList ( ) ;
+        }
+        return new ComplexResultIterator ( firstPage, pageSize, pageLoader ) ;
+    }
+
+    // searchPage is a method to search one page of results, with a new query each time as search changes the query
+    protected SolrDocumentList searchPage ( String query, String [ ] queryFilters, long firstResult, int maxResults )
+        throws SolrServerException {
+        if ( firstResult > Integer.MAX_VALUE - maxResults ) {
+            throw new IllegalArgumentException ( "Cannot page over " + Integer.MAX_VALUE + " results" ) ;
+        }
+
+        // Create a new Solr Query using the query parameter
+        SolrQuery solrQuery = new SolrQuery ( query ) ;
+
+        // Set the parameters for the query
+        setParameters ( solrQuery ) ;
+
+        // Set the page using the firstResult and maxResults parameters
+        setFirstResult ( solrQuery, ( int ) firstResult ) ;
+        setMaxResults ( solrQuery, maxResults ) ;
+
+        // Apply any filter using queryFilter parameter
+        setFilters ( solrQuery, queryFilters ) ;
+
+        QueryResponse response = search ( solrQuery, true ) ;
+        return response != null ? response.getResults ( ) : null ;
+    }
+
 }
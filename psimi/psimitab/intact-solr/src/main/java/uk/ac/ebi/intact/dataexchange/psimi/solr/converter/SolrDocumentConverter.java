@@ -18,16 +18,21 @@ package uk.ac.ebi.intact.dataexchange.psimi.solr.converter;
 import org.apache.solr.client.solrj.SolrServer;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.hupo.psi.calimocho.io.IllegalFieldException;
 import org.hupo.psi.calimocho.io.IllegalRowException;
 import org.hupo.psi.calimocho.key.InteractionKeys;
+import org.hupo.psi.calimocho.model.DefaultRow;
 import org.hupo.psi.calimocho.model.Row;
 import org.hupo.psi.calimocho.tab.io.DefaultRowReader;
+import org.hupo.psi.calimocho.tab.io.FieldParser;
 import org.hupo.psi.calimocho.tab.io.IllegalColumnException;
 import org.hupo.psi.calimocho.tab.io.RowReader;
 import org.hupo.psi.calimocho.tab.io.formatter.AnnotationFieldFormatter;
 import org.hupo.psi.calimocho.tab.io.formatter.XrefFieldFormatter;
+import org.hupo.psi.calimocho.tab.model.ColumnBasedDocumentDefinition;
+import org.hupo.psi.calimocho.tab.model.ColumnDefinition;
 import org.hupo.psi.calimocho.tab.util.MitabDocumentDefinitionFactory;
 import org.hupo.psi.mi.psicquic.model.PsicquicSolrServer;
 import psidev.psi.mi.calimocho.solr.converter.Converter;
@@ -38,6 +43,7 @@ import psidev.psi.mi.tab.PsimiTabException;
 import psidev.psi.mi.tab.PsimiTabReader;
 import psidev.psi.mi.tab.model.BinaryInteraction;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.FieldNames;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrException;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.extension.AnnotationTopicsToEnrichConverter;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.extension.FeatureTypeToEnrichConverter;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.converter.extension.FieldToEnrichConverter;
@@ -53,9 +59,12 @@ import uk.ac.ebi.intact.dataexchange.psimi.solr.util.IntactSolrUtils;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.util.SchemaInfo;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Converts from Row to SolrDocument and vice-versa.
@@ -69,6 +78,12 @@ public class SolrDocumentConverter extends Converter{
     private RowReader rowReader;
     private PsimiTabReader mitabReader;
 
+    /**
+     * The MITAB 2.7 column of each stored field of PsicquicSolrServer.DATA_FIELDS_27, used to parse the stored
+     * values directly into the fields of a row.
+     */
+    private ColumnDefinition[] dataColumns;
+
     /**
      * Access to the Ontology index.
      */
@@ -97,7 +112,9 @@ public class SolrDocumentConverter extends Converter{
         } catch (IOException e) {
             throw new RuntimeException("Problem fetching schema info from solr server: "+solrServer);
         }
-        rowReader = new DefaultRowReader(MitabDocumentDefinitionFactory.mitab27());
+        ColumnBasedDocumentDefinition documentDefinition = MitabDocumentDefinitionFactory.mitab27();
+        rowReader = new DefaultRowReader(documentDefinition);
+        dataColumns = toDataColumns(documentDefinition);
         mitabReader = new PsimiTabReader();
 
         confidenceSelectiveAdder = new ConfidenceScoreSelectiveAdder(FieldNames.INTACT_SCORE_NAME.toLowerCase());
@@ -171,7 +188,9 @@ public class SolrDocumentConverter extends Converter{
         } catch (IOException e) {
             throw new RuntimeException("Problem fetching schema info from solr server: "+solrServer);
         }
-        rowReader = new DefaultRowReader(MitabDocumentDefinitionFactory.mitab27());
+        ColumnBasedDocumentDefinition documentDefinition = MitabDocumentDefinitionFactory.mitab27();
+        rowReader = new DefaultRowReader(documentDefinition);
+        dataColumns = toDataColumns(documentDefinition);
         mitabReader = new PsimiTabReader();
 
         confidenceSelectiveAdder = new ConfidenceScoreSelectiveAdder(FieldNames.INTACT_SCORE_NAME.toLowerCase());
@@ -199,7 +218,9 @@ public class SolrDocumentConverter extends Converter{
         } catch (IOException e) {
             throw new RuntimeException("Problem fetching schema info from solr server: "+solrServer);
         }
-        rowReader = new DefaultRowReader(MitabDocumentDefinitionFactory.mitab27());
+        ColumnBasedDocumentDefinition documentDefinition = MitabDocumentDefinitionFactory.mitab27();
+        rowReader = new DefaultRowReader(documentDefinition);
+        dataColumns = toDataColumns(documentDefinition);
         mitabReader = new PsimiTabReader();
 
         confidenceSelectiveAdder = new ConfidenceScoreSelectiveAdder(FieldNames.INTACT_SCORE_NAME.toLowerCase());
@@ -228,6 +249,15 @@ public class SolrDocumentConverter extends Converter{
         // use the same indexing logic as psicquic
         SolrInputDocument doc = super.toSolrDocument(row);
 
+        addIntactFields(row, doc);
+
+        return doc;
+    }
+
+    /**
+     * Adds the fields specific to IntAct to a document holding the fields of the PSICQUIC converter.
+     */
+    protected void addIntactFields(Row row, SolrInputDocument doc) {
         // add mi score
         addCustomFields(row, doc, confidenceSelectiveAdder);
 
@@ -243,9 +273,6 @@ public class SolrDocumentConverter extends Converter{
         }
 
         addCustomFields(row, doc, binarySelectiveAdder);
-
-
-        return doc;
     }
 
     public Row toRow(SolrDocument doc) throws IllegalFieldException, IllegalRowException, IllegalColumnException {
@@ -256,13 +283,108 @@ public class SolrDocumentConverter extends Converter{
         return toRow((Object)doc);
     }
 
+    /**
+     * Parses the stored values of each MITAB column with the field parser of the column, without writing and
+     * reading back a MITAB line. A stored field holds a whole column, its fields being separated by '|' as in the
+     * MITAB line, so each value is split on the separators which are not quoted before its fields are parsed.
+     */
     protected Row toRow(Object doc) throws IllegalFieldException, IllegalColumnException, IllegalRowException {
+        Row row = new DefaultRow();
+
+        for (int i = 0; i < dataColumns.length; i++) {
+            ColumnDefinition columnDefinition = dataColumns[i];
+            Collection<Object> fieldValues = getFieldValue(doc, PsicquicSolrServer.DATA_FIELDS_27[i]);
 
-        Row row = rowReader.readLine(toMitabLine(doc));
+            if (columnDefinition == null || fieldValues == null) {
+                continue;
+            }
+
+            FieldParser fieldParser = columnDefinition.getFieldParser();
+            for (Object fieldValue : fieldValues) {
+                for (String strField : splitFields(String.valueOf(fieldValue))) {
+                    if (strField.length() > 0 && !FIELD_EMPTY.equals(strField)) {
+                        row.addField(columnDefinition.getKey(), fieldParser.parse(strField, columnDefinition));
+                    }
+                }
+            }
+        }
 
         return row;
     }
 
+    /**
+     * Splits a MITAB column into its fields, ignoring the separators between double quotes, as the DefaultRowReader
+     * does. A quote escaped with a backslash does not open or close a quoted value.
+     */
+    static List<String> splitFields(String column) {
+        List<String> fields = new ArrayList<String>();
+        char separator = FIELD_SEPARATOR.charAt(0);
+        boolean quoted = false;
+        int start = 0;
+
+        for (int i = 0; i < column.length(); i++) {
+            char c = column.charAt(i);
+
+            if (c == '\\' && i + 1 < column.length()) {
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == separator && !quoted) {
+                fields.add(column.substring(start, i));
+                start = i + 1;
+            }
+        }
+        fields.add(column.substring(start));
+
+        return fields;
+    }
+
+    /**
+     * Converts the documents of a search result one by one, as the rows are read, so that the rows of a large
+     * result are not all held in memory at the same time.
+     *
+     * @throws IntactSolrException when reading a row if its document cannot be converted
+     */
+    public Iterator<Row> toRows(SolrDocumentList docs) {
+        final Iterator<SolrDocument> docIterator = docs.iterator();
+
+        return new Iterator<Row>() {
+            public boolean hasNext() {
+                return docIterator.hasNext();
+            }
+
+            public Row next() {
+                if (!docIterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                SolrDocument doc = docIterator.next();
+                try {
+                    return toRow(doc);
+                } catch (Exception e) {
+                    throw new IntactSolrException("Problem converting Solr document to row: "+doc, e);
+                }
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static ColumnDefinition[] toDataColumns(ColumnBasedDocumentDefinition documentDefinition) {
+        ColumnDefinition[] columns = new ColumnDefinition[PsicquicSolrServer.DATA_FIELDS_27.length];
+
+        for (ColumnDefinition columnDefinition : documentDefinition.getColumns()) {
+            int position = columnDefinition.getPosition();
+            if (position >= 0 && position < columns.length) {
+                columns[position] = columnDefinition;
+            }
+        }
+
+        return columns;
+    }
+
     public BinaryInteraction toBinaryInteraction(SolrDocument doc) throws PsimiTabException {
         return toBinaryInteraction((Object) doc);
     }
@@ -8,6 +8,8 @@ import org.hupo.psi.calimocho.model.Field;
 import uk.ac.ebi.intact.bridges.ontologies.term.OntologyTerm;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.LazyLoadedOntologyTerm;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologySearcher;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologySnapshot;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.SnapshotOntologyTerm;
 
 import java.util.Collection;
 import java.util.HashSet;
@@ -26,6 +28,7 @@ public abstract class AbstractOntologyEnricher implements OntologyEnricher {
     private static final Log log = LogFactory.getLog(AbstractOntologyEnricher.class);
 
     public OntologySearcher ontologySearcher;
+    private OntologySnapshot ontologySnapshot;
 
     private Map<String, Collection<Field>> cvCache;
     private Map<String,OntologyTerm> ontologyTermCache;
@@ -43,6 +46,14 @@ public abstract class AbstractOntologyEnricher implements OntologyEnricher {
         ontologyTermsToIgnore = new HashSet<String>();
     }
 
+    /**
+     * Creates an enricher finding the terms in the snapshot only, without any ontology index.
+     */
+    public AbstractOntologyEnricher(OntologySnapshot ontologySnapshot) {
+        this((OntologySearcher) null);
+        this.ontologySnapshot = ontologySnapshot;
+    }
+
     protected void initializeOntologyTermsToIgnore(){
         // molecular interaction is root term for psi mi
         ontologyTermsToIgnore.add("MI:0000");
@@ -51,7 +62,13 @@ public abstract class AbstractOntologyEnricher implements OntologyEnricher {
     @Override
     public boolean isExpandableOntology( final String name ) {
         if (expandableOntologies == null) {
-            if (ontologySearcher == null) {
+            final OntologySnapshot snapshot = getOntologySnapshot();
+            if (snapshot != null) {
+                expandableOntologies = new HashSet<String>(snapshot.getOntologyNames());
+                if (expandableOntologies.contains("uniprot taxonomy")) {
+                    expandableOntologies.add("taxid");
+                }
+            } else if (ontologySearcher == null) {
                 expandableOntologies = new HashSet<String>();
             } else {
                 try {
@@ -70,6 +87,11 @@ public abstract class AbstractOntologyEnricher implements OntologyEnricher {
     }
 
     public OntologyTerm findOntologyTermByName(String name) throws SolrServerException {
+        final OntologySnapshot snapshot = getOntologySnapshot();
+        if (snapshot != null) {
+            return findOntologyTerm(snapshot, null, name);
+        }
+
         if (ontologySearcher == null) {
             return null;
         }
@@ -88,6 +110,11 @@ public abstract class AbstractOntologyEnricher implements OntologyEnricher {
     }
 
     public OntologyTerm findOntologyTerm(String id, String name) throws SolrServerException {
+        final OntologySnapshot snapshot = getOntologySnapshot();
+        if (snapshot != null) {
+            return findOntologyTerm(snapshot, id, name);
+        }
+
         if (ontologySearcher == null) {
             return null;
         }
@@ -105,10 +132,30 @@ public abstract class AbstractOntologyEnricher implements OntologyEnricher {
         return term;
     }
 
+    private OntologyTerm findOntologyTerm(OntologySnapshot snapshot, String id, String name) {
+        // as the lazy loaded terms, search by id and by name when there is no id
+        int index = id != null ? snapshot.indexOf(id) : snapshot.indexOfName(name);
+
+        if (index < 0) {
+            return new SnapshotOntologyTerm(snapshot, id, name);
+        }
+        return new SnapshotOntologyTerm(snapshot, index, snapshot.getName(index) != null ? snapshot.getName(index) : name);
+    }
+
     protected OntologySearcher getOntologySearcher() {
         return ontologySearcher;
     }
 
+    /**
+     * @return the snapshot given to the enricher or loaded in its searcher, null if there is none
+     */
+    protected OntologySnapshot getOntologySnapshot() {
+        if (ontologySnapshot != null) {
+            return ontologySnapshot;
+        }
+        return ontologySearcher != null ? ontologySearcher.getSnapshot() : null;
+    }
+
     protected Map<String, Collection<Field>> getCvCache() {
         return cvCache;
     }
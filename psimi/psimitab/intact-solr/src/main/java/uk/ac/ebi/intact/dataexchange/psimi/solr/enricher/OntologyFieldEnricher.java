@@ -21,6 +21,7 @@ import org.hupo.psi.calimocho.model.DefaultField;
 import org.hupo.psi.calimocho.model.Field;
 import uk.ac.ebi.intact.bridges.ontologies.term.OntologyTerm;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologySearcher;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.ontology.OntologySnapshot;
 
 import java.util.*;
 
@@ -36,6 +37,10 @@ public class OntologyFieldEnricher extends AbstractOntologyEnricher implements F
         super(ontologySearcher);
     }
 
+    public OntologyFieldEnricher(OntologySnapshot ontologySnapshot) {
+        super(ontologySnapshot);
+    }
+
     protected void initializeOntologyTermsToIgnore(){
         // molecular interaction is root term for psi mi
         getOntologyTermsToIgnore().add("MI:0000");
@@ -86,7 +91,7 @@ public class OntologyFieldEnricher extends AbstractOntologyEnricher implements F
      * @return list of cv terms with parents and itself
      */
     public Collection<Field> getAllParents(Field field, boolean includeItself, boolean includeSynonyms) throws SolrServerException {
-        if (ontologySearcher == null) {
+        if (ontologySearcher == null && getOntologySnapshot() == null) {
             return Collections.EMPTY_LIST;
         }
 
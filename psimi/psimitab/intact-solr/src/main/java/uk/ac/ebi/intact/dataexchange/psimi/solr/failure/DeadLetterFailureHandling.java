@@ -0,0 +1,140 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.failure;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Failure handling that writes the failed lines to a dead-letter file and carries on, so that they can be indexed
+ * again later with the DeadLetterReplay.
+ *
+ * Each failure is written on one line: the line number, the reason and the MITAB line, separated by tabs. The
+ * file is appended to, and flushed after each failure.
+ *
+ * @version $Id$
+ */
+public class DeadLetterFailureHandling extends AbstractFailureHandlingStrategy implements Closeable {
+
+    private static final String HEADER = "#line\treason\tMITAB line";
+
+    private final File deadLetterFile;
+    private Writer writer;
+
+    public DeadLetterFailureHandling(File deadLetterFile) {
+        if (deadLetterFile == null) {
+            throw new IllegalArgumentException("You must give a non null dead-letter file");
+        }
+        this.deadLetterFile = deadLetterFile;
+    }
+
+    public synchronized void handleFailure(Throwable t, String mitabLine, int lineCount) {
+        try {
+            if (writer == null) {
+                boolean newFile = !deadLetterFile.exists() || deadLetterFile.length() == 0;
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(deadLetterFile, true), StandardCharsets.UTF_8));
+                if (newFile) {
+                    writer.write(HEADER + "\n");
+                }
+            }
+            writer.write(lineCount + "\t" + reason(t) + "\t" + mitabLine + "\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write the failure of line " + lineCount + " to " + deadLetterFile, e);
+        }
+        setFailureCount(getFailureCount() + 1);
+    }
+
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    public File getDeadLetterFile() {
+        return deadLetterFile;
+    }
+
+    /**
+     * @return the exception and its causes on one line, without tabs
+     */
+    private static String reason(Throwable t) {
+        if (t == null) {
+            return "-";
+        }
+        StringBuilder reason = new StringBuilder();
+        for (Throwable cause = t; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (reason.length() > 0) {
+                reason.append(" <- ");
+            }
+            reason.append(cause.getClass().getName());
+            if (cause.getMessage() != null) {
+                reason.append(": ").append(cause.getMessage());
+            }
+        }
+        return reason.toString().replaceAll("[\\t\\r\\n]+", " ");
+    }
+
+    /**
+     * Reads a line of a dead-letter file.
+     *
+     * @return the failure, or null if the line is the header or empty
+     * @throws IOException Thrown if the line is not a line of a dead-letter file
+     */
+    public static DeadLetter parse(String line) throws IOException {
+        if (line.length() == 0 || line.startsWith("#")) {
+            return null;
+        }
+        String[] fields = line.split("\t", 3);
+        if (fields.length < 3) {
+            throw new IOException("Not a dead-letter line: " + line);
+        }
+        try {
+            return new DeadLetter(Integer.parseInt(fields[0]), fields[1], fields[2]);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a dead-letter line: " + line, e);
+        }
+    }
+
+    /**
+     * A failed MITAB line read from a dead-letter file.
+     */
+    public static class DeadLetter {
+
+        private final int lineNumber;
+        private final String reason;
+        private final String mitabLine;
+
+        public DeadLetter(int lineNumber, String reason, String mitabLine) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+            this.mitabLine = mitabLine;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public String getMitabLine() {
+            return mitabLine;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.failure;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrIndexer;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitPolicy;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Indexes again the MITAB lines of a dead-letter file, writing the lines failing again to another dead-letter file.
+ *
+ * Usage: <code>DeadLetterReplay deadLetterFile solrUrl [ontologySolrUrl]</code>, the lines failing again being
+ * written to <code>deadLetterFile.replay</code>.
+ *
+ * @version $Id$
+ */
+public class DeadLetterReplay {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadLetterReplay.class);
+
+    private final IntactSolrIndexer indexer;
+
+    // the replayed lines go to a live core, which must not be optimized for a few documents
+    private CommitPolicy commitPolicy = new CommitPolicy();
+
+    public DeadLetterReplay(IntactSolrIndexer indexer) {
+        if (indexer == null) {
+            throw new IllegalArgumentException("The indexer cannot be null");
+        }
+        this.indexer = indexer;
+    }
+
+    /**
+     * Indexes the lines of the dead-letter file. The failure handling and the commit policy of the indexer are
+     * replaced by a dead-letter file and the commit policy of the replay for the duration of the replay.
+     *
+     * @param deadLetterFile the file to replay
+     * @param newDeadLetterFile the file where the lines failing again are written
+     * @return the number of lines indexed
+     */
+    public int replay(File deadLetterFile, File newDeadLetterFile) throws IOException {
+        if (deadLetterFile.getAbsoluteFile().equals(newDeadLetterFile.getAbsoluteFile())) {
+            throw new IllegalArgumentException("The lines failing again cannot be written to the replayed file: " + deadLetterFile);
+        }
+
+        File mitabFile = File.createTempFile("dead-letters", ".txt");
+        FailureHandlingStrategy previousStrategy = indexer.getFailureHandlingStrategy();
+        CommitPolicy previousCommitPolicy = indexer.getCommitPolicy();
+        DeadLetterFailureHandling failureHandling = new DeadLetterFailureHandling(newDeadLetterFile);
+        try {
+            int lineCount = extractMitabLines(deadLetterFile, mitabFile);
+            if (log.isInfoEnabled()) log.info("Replaying " + lineCount + " lines of " + deadLetterFile);
+
+            indexer.setFailureHandlingStrategy(failureHandling);
+            indexer.setCommitPolicy(commitPolicy);
+            int indexed = indexer.indexMitab(mitabFile, false);
+
+            if (log.isInfoEnabled()) log.info("Replayed " + indexed + " lines of " + deadLetterFile + ", "
+                    + failureHandling.getFailureCount() + " failed again, written to " + newDeadLetterFile);
+            return indexed;
+        } finally {
+            indexer.setFailureHandlingStrategy(previousStrategy);
+            indexer.setCommitPolicy(previousCommitPolicy);
+            failureHandling.close();
+            mitabFile.delete();
+        }
+    }
+
+    private static int extractMitabLines(File deadLetterFile, File mitabFile) throws IOException {
+        int lineCount = 0;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(deadLetterFile), StandardCharsets.UTF_8));
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(mitabFile), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    DeadLetterFailureHandling.DeadLetter deadLetter = DeadLetterFailureHandling.parse(line);
+                    if (deadLetter != null) {
+                        writer.write(deadLetter.getMitabLine());
+                        writer.write('\n');
+                        lineCount++;
+                    }
+                }
+            } finally {
+                writer.close();
+            }
+        } finally {
+            reader.close();
+        }
+        return lineCount;
+    }
+
+    /**
+     * @return the policy committing the replayed lines, by default a hard commit every 10000 documents without merge
+     */
+    public CommitPolicy getCommitPolicy() {
+        return commitPolicy;
+    }
+
+    public void setCommitPolicy(CommitPolicy commitPolicy) {
+        if (commitPolicy == null) {
+            throw new IllegalArgumentException("The commit policy cannot be null");
+        }
+        this.commitPolicy = commitPolicy;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: DeadLetterReplay <dead-letter file> <solr url> [<ontology solr url>]");
+            System.exit(1);
+        }
+
+        File deadLetterFile = new File(args[0]);
+        IntactSolrIndexer indexer = args.length == 3 ? new IntactSolrIndexer(args[1], args[2]) : new IntactSolrIndexer(args[1]);
+        try {
+            new DeadLetterReplay(indexer).replay(deadLetterFile, new File(deadLetterFile.getPath() + ".replay"));
+        } finally {
+            indexer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.failure;
+
+import org.apache.solr.common.SolrException;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delays between the retries of a request to the server, growing exponentially up to a maximum delay.
+ *
+ * Each delay is shortened by a random part of up to <code>jitter</code> times the delay, so that the clients
+ * failing together do not retry together.
+ *
+ * @version $Id$
+ */
+public class ExponentialBackOff {
+
+    private long initialDelay = 1000;
+    private double multiplier = 2;
+    private long maxDelay = 60 * 1000;
+    private double jitter = 0.5;
+
+    public ExponentialBackOff() {
+    }
+
+    public ExponentialBackOff(long initialDelay, long maxDelay) {
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * @param retry the number of the retry, starting at 1
+     * @return the time in milliseconds to wait before the retry
+     */
+    public long getDelay(int retry) {
+        if (initialDelay <= 0) {
+            return 0;
+        }
+        double delay = Math.min(maxDelay, initialDelay * Math.pow(multiplier, Math.max(0, retry - 1)));
+        return (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * Waits before a retry.
+     *
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting
+     */
+    public void waitBeforeRetry(int retry) throws InterruptedException {
+        long delay = getDelay(retry);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * @return false if the server has rejected the request itself, for instance an invalid document, which fails
+     * again when retried; true for the other failures, such as an unavailable or overloaded server
+     */
+    public static boolean isTransient(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SolrException) {
+                int code = ((SolrException) cause).code();
+                return code < 400 || code >= 500;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    ///////////////////////////
+    // Getters and Setters
+
+    /**
+     * @return the time in milliseconds before the first retry, 0 not to wait
+     */
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+    public void setInitialDelay(long initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public void setMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public void setMaxDelay(long maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * @return the maximum part of the delay removed at random, between 0 and 1
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("The jitter must be between 0 and 1: " + jitter);
+        }
+        this.jitter = jitter;
+    }
+}
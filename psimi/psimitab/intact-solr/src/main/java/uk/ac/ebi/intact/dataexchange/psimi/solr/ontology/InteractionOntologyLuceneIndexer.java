@@ -11,6 +11,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.util.Version;
@@ -27,10 +28,17 @@ import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrSearcher;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class will index in LUCENE ontology terms that are indexed in interaction index so ti can be retrieved easily by the website
  *
+ * The facet fields are loaded in parallel, each by its own thread, and the terms of all the facet fields are merged
+ * in a concurrent map. The lucene documents are written by a separate thread, which clears the previous index while the
+ * facet fields are loaded and then writes the terms of each facet field as soon as the field is loaded. A term shared
+ * by several facet fields is written again, with the merged results, when each of these fields is loaded.
+ *
  * @author Marine Dumousseau (marine@ebi.ac.uk)
  * @version $Id$
  * @since <pre>23/08/12</pre>
@@ -40,14 +48,29 @@ public class InteractionOntologyLuceneIndexer {
 
     private static final Log log = LogFactory.getLog(InteractionOntologyLuceneIndexer.class);
 
+    private static final InteractionOntologyTerm END_OF_TERMS = new InteractionOntologyTerm(null, null);
+
+    /**
+     * Not analyzed field identifying the document of a term, so that it can be replaced
+     */
+    private static final String TERM_KEY = "termKey";
+
+    private HttpSolrServer ontologySolrServer;
     private OntologySearcher ontologySearcher;
     private IntactSolrSearcher interactionSearcher;
-    private Map<InteractionOntologyTerm, InteractionOntologyTermResults> processedTerms;
+    private ConcurrentMap<InteractionOntologyTerm, InteractionOntologyTermResults> processedTerms;
 
     private String [] xrefFilters = new String[] {"chebi", "interpro", "go"};
 
     private int numberRetries = 10;
 
+    private int facetChunkSize = 200;
+
+    /**
+     * Maximum number of facet fields loaded at the same time
+     */
+    private int numberOfThreads = 4;
+
     public InteractionOntologyLuceneIndexer(String ontologySolrUrl, String interactionOntologyUrl) {
         if (ontologySolrUrl == null){
             throw new IllegalArgumentException("The ontology solr url cannot bet null");
@@ -56,9 +79,16 @@ public class InteractionOntologyLuceneIndexer {
             throw new IllegalArgumentException("The interaction solr url cannot bet null");
         }
 
-        this.ontologySearcher = new OntologySearcher(createSolrServer(ontologySolrUrl));
+        this.ontologySolrServer = createSolrServer(ontologySolrUrl);
+        this.ontologySearcher = new OntologySearcher(ontologySolrServer);
         this.interactionSearcher = new IntactSolrSearcher(createSolrServer(interactionOntologyUrl));
-        this.processedTerms = new HashMap<InteractionOntologyTerm, InteractionOntologyTermResults>();
+        this.processedTerms = new ConcurrentHashMap<InteractionOntologyTerm, InteractionOntologyTermResults>();
+    }
+
+    InteractionOntologyLuceneIndexer(OntologySearcher ontologySearcher, IntactSolrSearcher interactionSearcher) {
+        this.ontologySearcher = ontologySearcher;
+        this.interactionSearcher = interactionSearcher;
+        this.processedTerms = new ConcurrentHashMap<InteractionOntologyTerm, InteractionOntologyTermResults>();
     }
 
     private HttpClient createHttpClient() {
@@ -96,34 +126,137 @@ public class InteractionOntologyLuceneIndexer {
 
         final IndexWriter termIndexWriter = new IndexWriter(luceneDirectory, indexConfig);
 
-        clearpreviousIndex(termIndexWriter);
+        // the writer thread clears the previous index while the facet fields are loaded
+        final BlockingQueue<InteractionOntologyTerm> termQueue = new ArrayBlockingQueue<InteractionOntologyTerm>(1000);
+        final AtomicBoolean aborted = new AtomicBoolean(false);
+        ExecutorService writerExecutor = Executors.newSingleThreadExecutor();
+        Future<Integer> writerFuture = writerExecutor.submit(new Callable<Integer>() {
+            public Integer call() throws Exception {
+                return writeDocuments(termIndexWriter, termQueue, aborted);
+            }
+        });
 
-        List<String> facetFieldsWithResults = initializeListOfFacetFieldsToRetrieve();
-        int first = 0;
-        int chunk = 200;
+        boolean termsQueued = false;
+        try {
+            List<String> facetFieldsWithResults = initializeListOfFacetFieldsToRetrieve();
 
-        log.info("Loading facet fields with ontology terms...");
-        System.out.println("Loading facet fields with ontology terms...");
-        Collection<FieldCount> fieldCounts = loadFieldCountsFor(first, chunk, facetFieldsWithResults.toArray(new String[]{}), facetFieldsWithResults);
-        registerFieldCountResultsFor(fieldCounts);
+            log.info("Loading and indexing facet fields with ontology terms...");
+            loadAllFacetFields(facetFieldsWithResults, termQueue, writerFuture);
 
-        while (!facetFieldsWithResults.isEmpty()){
-            log.info("loaded " + first + " terms");
-            System.out.println("loaded " + first + " terms");
-            first+=chunk;
+            putTerm(termQueue, writerFuture, END_OF_TERMS);
+            termsQueued = true;
 
-            fieldCounts = loadFieldCountsFor(first, chunk, facetFieldsWithResults.toArray(new String[]{}), facetFieldsWithResults);
-            registerFieldCountResultsFor(fieldCounts);
+            int numberOfDocuments = getResult(writerFuture);
+            log.info("Indexed " + numberOfDocuments + " ontology terms");
+        } finally {
+            if (!termsQueued){
+                // the writer is not interrupted as lucene would close the index files
+                aborted.set(true);
+                waitForWriter(writerFuture);
+            }
+            writerExecutor.shutdown();
         }
+    }
+
+    private void loadAllFacetFields(List<String> facetFieldNames, BlockingQueue<InteractionOntologyTerm> termQueue, Future<Integer> writerFuture) throws SolrServerException, PsicquicSolrException, IOException {
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.max(1, Math.min(numberOfThreads, facetFieldNames.size())));
 
-        // index registered terms
-        log.info("Indexing facet fields with ontology terms...");
-        System.out.println("Indexing facet fields with ontology terms...");
-        for (Map.Entry<InteractionOntologyTerm, InteractionOntologyTermResults> termResult : this.processedTerms.entrySet()){
-            createAndIndexDocumentsFor(termResult.getKey(), termResult.getValue(), termIndexWriter);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>(facetFieldNames.size());
+            for (int i = 0; i < facetFieldNames.size(); i++){
+                futures.add(executorService.submit(new FacetFieldLoader(facetFieldNames.get(i), i, termQueue, writerFuture)));
+            }
+
+            for (Future<Integer> future : futures){
+                getResult(future);
+            }
+        } finally {
+            executorService.shutdownNow();
         }
+    }
+
+    private int writeDocuments(IndexWriter termIndexWriter, BlockingQueue<InteractionOntologyTerm> termQueue, AtomicBoolean aborted) throws IOException, InterruptedException {
+        clearpreviousIndex(termIndexWriter);
 
+        Set<InteractionOntologyTerm> writtenTerms = new HashSet<InteractionOntologyTerm>();
+        boolean documentsReplaced = false;
+        InteractionOntologyTerm term;
+        while ((term = termQueue.poll(1, TimeUnit.SECONDS)) != END_OF_TERMS){
+            if (aborted.get()){
+                // discards the documents written since the previous index was cleared
+                termIndexWriter.rollback();
+                return writtenTerms.size();
+            }
+            else if (term == null){
+                continue;
+            }
+
+            // the document is created now so that it contains the results merged by all the facet fields loaded so far
+            Document document = createDocumentFor(term, this.processedTerms.get(term));
+            if (writtenTerms.add(term)){
+                termIndexWriter.addDocument(document);
+            }
+            else {
+                termIndexWriter.updateDocument(new Term(TERM_KEY, getTermKey(term)), document);
+                documentsReplaced = true;
+            }
+        }
+
+        // the searcher filters the documents by number, which must not include the replaced documents
+        if (documentsReplaced){
+            termIndexWriter.expungeDeletes();
+        }
         termIndexWriter.commit();
+        return writtenTerms.size();
+    }
+
+    private void putTerm(BlockingQueue<InteractionOntologyTerm> termQueue, Future<Integer> writerFuture, InteractionOntologyTerm term) throws SolrServerException, PsicquicSolrException, IOException {
+        try {
+            // stop waiting for space in the queue if the writer has failed
+            while (!termQueue.offer(term, 1, TimeUnit.SECONDS)){
+                if (writerFuture.isDone()){
+                    getResult(writerFuture);
+                    throw new IOException("The lucene writer has stopped before all the documents were written");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing lucene documents", e);
+        }
+    }
+
+    private void waitForWriter(Future<Integer> writerFuture) {
+        try {
+            writerFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("The lucene writer has failed", e.getCause());
+        }
+    }
+
+    private int getResult(Future<Integer> future) throws SolrServerException, PsicquicSolrException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while indexing ontology terms", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SolrServerException){
+                throw (SolrServerException) cause;
+            }
+            else if (cause instanceof PsicquicSolrException){
+                throw (PsicquicSolrException) cause;
+            }
+            else if (cause instanceof IOException){
+                throw (IOException) cause;
+            }
+            else if (cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            throw new SolrServerException("Problem indexing ontology terms", cause);
+        }
     }
 
     private void clearpreviousIndex(IndexWriter termIndexWriter) throws IOException {
@@ -131,23 +264,24 @@ public class InteractionOntologyLuceneIndexer {
         termIndexWriter.commit();
     }
 
-    private void registerFieldCountResultsFor(Collection<FieldCount> fieldCounts) throws SolrServerException {
+    private void registerFieldCountResultsFor(Collection<FieldCount> fieldCounts, OntologySearcher ontologySearcher, int fieldOrder,
+                                              Set<InteractionOntologyTerm> fieldTerms) throws SolrServerException {
 
         for (FieldCount fieldCount : fieldCounts){
 
             String db = fieldCount.getType() != null ? fieldCount.getType() : "psi-mi";
 
-            LazyLoadedOntologyTerm term = loadOntologyTerm(fieldCount);
+            LazyLoadedOntologyTerm term = loadOntologyTerm(fieldCount, ontologySearcher);
 
             try{
                 // register term
-                createAndRegisterInteractionTerm(fieldCount, db, term);
+                createAndRegisterInteractionTerm(fieldCount, db, term, fieldOrder, fieldTerms);
 
                 // register parents
                 Set<OntologyTerm> parents = term.getAllParentsToRoot();
                 for (OntologyTerm parent : parents){
                     LazyLoadedOntologyTerm lazyParent = (LazyLoadedOntologyTerm) parent;
-                    createAndRegisterInteractionTerm(fieldCount, db, lazyParent);
+                    createAndRegisterInteractionTerm(fieldCount, db, lazyParent, fieldOrder, fieldTerms);
                 }
             }
             catch (IllegalStateException e){
@@ -158,13 +292,13 @@ public class InteractionOntologyLuceneIndexer {
                         Thread.sleep(4000);
                         try{
                             // register term
-                            createAndRegisterInteractionTerm(fieldCount, db, term);
+                            createAndRegisterInteractionTerm(fieldCount, db, term, fieldOrder, fieldTerms);
 
                             // register parents
                             Set<OntologyTerm> parents = term.getAllParentsToRoot();
                             for (OntologyTerm parent : parents){
                                 LazyLoadedOntologyTerm lazyParent = (LazyLoadedOntologyTerm) parent;
-                                createAndRegisterInteractionTerm(fieldCount, db, lazyParent);
+                                createAndRegisterInteractionTerm(fieldCount, db, lazyParent, fieldOrder, fieldTerms);
                             }
 
                             break;
@@ -183,7 +317,7 @@ public class InteractionOntologyLuceneIndexer {
         }
     }
 
-    private LazyLoadedOntologyTerm loadOntologyTerm(FieldCount fieldCount) throws SolrServerException {
+    private LazyLoadedOntologyTerm loadOntologyTerm(FieldCount fieldCount, OntologySearcher ontologySearcher) throws SolrServerException {
         LazyLoadedOntologyTerm term;
         try{
             // feature type and annotation topic : only the name, no id is provided.
@@ -225,37 +359,46 @@ public class InteractionOntologyLuceneIndexer {
         return term;
     }
 
-    private void createAndRegisterInteractionTerm(FieldCount fieldCount, String db, LazyLoadedOntologyTerm term) {
+    private void createAndRegisterInteractionTerm(FieldCount fieldCount, String db, LazyLoadedOntologyTerm term, int fieldOrder,
+                                                  Set<InteractionOntologyTerm> fieldTerms) {
         // register the term
         InteractionOntologyTerm interactionTerm = new InteractionOntologyTerm(term.getName(), term.getId());
-        registerOntologyTermResults(fieldCount, db, interactionTerm);
+        registerOntologyTermResults(fieldCount, db, interactionTerm, fieldOrder);
+        fieldTerms.add(interactionTerm);
 
         // register synonyms
         if (term.getSynonymsStr() != null){
             for (String synonym : term.getSynonymsStr()){
                 InteractionOntologyTerm termSynonym = new InteractionOntologyTerm(synonym, term.getId());
-                registerOntologyTermResults(fieldCount, db, termSynonym);
+                registerOntologyTermResults(fieldCount, db, termSynonym, fieldOrder);
+                fieldTerms.add(termSynonym);
             }
         }
     }
 
-    private void registerOntologyTermResults(FieldCount fieldCount, String db, InteractionOntologyTerm interactionTerm) {
-        if (this.processedTerms.containsKey(interactionTerm)){
-            this.processedTerms.get(interactionTerm).addToCount(fieldCount.getCount());
-        }
-        else {
-            InteractionOntologyTermResults results = new InteractionOntologyTermResults(db, fieldCount.getSearchFieldName(), fieldCount.getCount());
-            this.processedTerms.put(interactionTerm, results);
+    private void registerOntologyTermResults(FieldCount fieldCount, String db, InteractionOntologyTerm interactionTerm, int fieldOrder) {
+        InteractionOntologyTermResults results = this.processedTerms.get(interactionTerm);
+
+        if (results == null){
+            results = this.processedTerms.putIfAbsent(interactionTerm,
+                    new InteractionOntologyTermResults(db, fieldCount.getSearchFieldName(), fieldCount.getCount(), fieldOrder));
+
+            if (results == null){
+                return;
+            }
         }
+
+        // the term has been registered by another facet field
+        results.merge(db, fieldCount.getSearchFieldName(), fieldCount.getCount(), fieldOrder);
     }
 
-    private void createAndIndexDocumentsFor(InteractionOntologyTerm ontologyTerm, InteractionOntologyTermResults results, IndexWriter termIndexWriter) throws SolrServerException, IOException {
+    private Document createDocumentFor(InteractionOntologyTerm ontologyTerm, InteractionOntologyTermResults results) {
         String value = ontologyTerm.getIdentifier();
 
-        log.info("Indexing term " + ontologyTerm.getIdentifier() + ", name = " + ontologyTerm.getName());
-        System.out.println("Indexing term " + ontologyTerm.getIdentifier() + ", name = " + ontologyTerm.getName());
+        if (log.isDebugEnabled()) log.debug("Indexing term " + ontologyTerm.getIdentifier() + ", name = " + ontologyTerm.getName());
         // index current term
         Document document = new Document();
+        document.add(new Field(TERM_KEY, getTermKey(ontologyTerm), Field.Store.NO, Field.Index.NOT_ANALYZED));
         if (ontologyTerm.getIdentifier() != null) {
             document.add(new Field("identifier", value, Field.Store.YES, Field.Index.NOT_ANALYZED));
         }
@@ -274,7 +417,11 @@ public class InteractionOntologyLuceneIndexer {
             }
         }
 
-        termIndexWriter.addDocument(document);
+        return document;
+    }
+
+    private String getTermKey(InteractionOntologyTerm ontologyTerm) {
+        return ontologyTerm.getIdentifier() + "\t" + ontologyTerm.getName();
     }
 
     private List<String> initializeListOfFacetFieldsToRetrieve() {
@@ -300,175 +447,81 @@ public class InteractionOntologyLuceneIndexer {
         return  facetFieldsWithResults;
     }
 
-    private Collection<FieldCount> loadFieldCountsFor(int first, int max, String[] facetFieldNames, List<String> fieldsWithResults) throws SolrServerException, PsicquicSolrException {
+    private List<FacetField.Count> loadFacetCountsFor(String facetFieldName, int first, int max) throws SolrServerException, PsicquicSolrException {
+        int numberTries = 1;
 
-        fieldsWithResults.clear();
-
-        IntactSolrSearchResult result = null;
-        try{
-            result = interactionSearcher.searchWithFacets("*", 0, 0, PsicquicSolrServer.RETURN_TYPE_MITAB27, null, facetFieldNames, first, max);
-        }
-        catch (SolrServerException e){
-            int numberTries = 1;
+        while (true){
+            try{
+                IntactSolrSearchResult result = interactionSearcher.searchWithFacets("*", 0, 0, PsicquicSolrServer.RETURN_TYPE_MITAB27, null, new String[] {facetFieldName}, first, max);
 
-            while (numberTries < numberRetries){
+                for (FacetField facetField : result.getFacetFieldList()){
+                    if (facetFieldName.equals(facetField.getName())){
+                        return facetField.getValues();
+                    }
+                }
+                return null;
+            }
+            catch (SolrServerException e){
+                if (numberTries >= numberRetries){
+                    throw e;
+                }
                 numberTries++;
-                try{
-                    Thread.sleep(4000);
+                log.error("Number of tries : " +numberTries, e);
 
-                    result = interactionSearcher.searchWithFacets("*", 0, 0, PsicquicSolrServer.RETURN_TYPE_MITAB27, null, facetFieldNames, first, max);
-                    break;
-                }
-                catch (SolrServerException e2){
-                    log.error("Number of tries : " +numberTries);
+                try {
+                    Thread.sleep(4000);
                 } catch (InterruptedException e1) {
                     throw new SolrServerException("Impossible to connect to solr server", e1);
                 }
             }
-
-            throw new SolrServerException(e);
         }
+    }
 
-        List<FacetField> facetFields = result.getFacetFieldList();
-
-        Collection<FieldCount> facetFieldCounts = new ArrayList<FieldCount>(facetFields.size());
-
-        for (FacetField facetField : facetFields){
-            // uniprot taxonomy
-            if (FieldNames.SPECIES_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.SPECIES_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.SPECIES);
-            }
-            // CHEBI taxonomy
-            else if (FieldNames.ID_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.ID_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.ID, "chebi");
-            }
-            // add detection methods fields
-            else if (FieldNames.DETMETHOD_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.DETMETHOD_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.DETMETHOD);
-            }
-            // add interaction type fields
-            else if (FieldNames.TYPE_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.TYPE_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.TYPE);
-            }
-            // add biological role fields
-            else if (FieldNames.BIOLOGICAL_ROLE_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.BIOLOGICAL_ROLE_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.BIOLOGICAL_ROLE);
-            }
-            // add interactor types fields
-            else if (FieldNames.INTERACTOR_TYPE_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.INTERACTOR_TYPE_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTOR_TYPE);
-            }
-            // add biological role fields
-            else if (FieldNames.INTERACTOR_DET_METHOD_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.INTERACTOR_DET_METHOD_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTOR_DET_METHOD);
-            }
-            // add annotation fields for interaction
-            else if (FieldNames.INTERACTION_ANNOTATIONS_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.INTERACTION_ANNOTATIONS_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTION_ANNOTATIONS);
-            }
-            // add feature type fields for interactors
-            else if (FieldNames.INTERACTOR_FEATURE_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.INTERACTOR_FEATURE_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTOR_FEATURE);
-            }
-            // add interactionXrefs
-            else if (FieldNames.INTERACTION_XREF_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.INTERACTION_XREF_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTION_XREF, xrefFilters);
-            }
-            // add interactor
-            else if (FieldNames.INTERACTOR_XREF_FACET.equals(facetField.getName())){
-
-                List<FacetField.Count> facetCounts = facetField.getValues();
-
-                // we reached the max number of results
-                if (facetCounts != null && facetCounts.size() == max){
-                    fieldsWithResults.add(FieldNames.INTERACTOR_XREF_FACET);
-                }
-
-                collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTOR_XREF, xrefFilters);
-            }
+    private void collectFacetCountsFor(Collection<FieldCount> facetFieldCounts, String facetFieldName, List<FacetField.Count> facetCounts) {
+        // uniprot taxonomy
+        if (FieldNames.SPECIES_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.SPECIES);
+        }
+        // CHEBI taxonomy
+        else if (FieldNames.ID_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.ID, "chebi");
+        }
+        // add detection methods fields
+        else if (FieldNames.DETMETHOD_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.DETMETHOD);
+        }
+        // add interaction type fields
+        else if (FieldNames.TYPE_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.TYPE);
+        }
+        // add biological role fields
+        else if (FieldNames.BIOLOGICAL_ROLE_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.BIOLOGICAL_ROLE);
+        }
+        // add interactor types fields
+        else if (FieldNames.INTERACTOR_TYPE_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTOR_TYPE);
+        }
+        // add participant identification method fields
+        else if (FieldNames.INTERACTOR_DET_METHOD_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTOR_DET_METHOD);
+        }
+        // add annotation fields for interaction
+        else if (FieldNames.INTERACTION_ANNOTATIONS_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTION_ANNOTATIONS);
+        }
+        // add feature type fields for interactors
+        else if (FieldNames.INTERACTOR_FEATURE_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTOR_FEATURE);
+        }
+        // add interactionXrefs
+        else if (FieldNames.INTERACTION_XREF_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTION_XREF, xrefFilters);
+        }
+        // add interactor
+        else if (FieldNames.INTERACTOR_XREF_FACET.equals(facetFieldName)){
+            collectFacetCountsFor(facetFieldCounts, facetCounts, FieldNames.INTERACTOR_XREF, xrefFilters);
         }
-
-        return facetFieldCounts;
     }
 
     private void collectFacetCountsFor(Collection<FieldCount> facetFieldCounts, List<FacetField.Count> facetCounts, String searchFieldName) {
@@ -516,6 +569,60 @@ public class InteractionOntologyLuceneIndexer {
         this.interactionSearcher.shutdown();
     }
 
+    /**
+     * Creates the ontology searcher of a facet field loader
+     */
+    protected OntologySearcher createOntologySearcher() {
+        return new OntologySearcher(ontologySolrServer);
+    }
+
+    /**
+     * Loads all the facet counts of a facet field, chunk by chunk, and registers their terms with an ontology
+     * searcher of its own as the searchers are not thread safe. The terms of the facet field are given to the
+     * writer once the whole facet field is loaded.
+     */
+    private class FacetFieldLoader implements Callable<Integer> {
+
+        private String facetFieldName;
+        private int fieldOrder;
+        private BlockingQueue<InteractionOntologyTerm> termQueue;
+        private Future<Integer> writerFuture;
+
+        private FacetFieldLoader(String facetFieldName, int fieldOrder, BlockingQueue<InteractionOntologyTerm> termQueue, Future<Integer> writerFuture) {
+            this.facetFieldName = facetFieldName;
+            this.fieldOrder = fieldOrder;
+            this.termQueue = termQueue;
+            this.writerFuture = writerFuture;
+        }
+
+        public Integer call() throws Exception {
+            OntologySearcher fieldOntologySearcher = createOntologySearcher();
+            Set<InteractionOntologyTerm> fieldTerms = new HashSet<InteractionOntologyTerm>();
+
+            int first = 0;
+            List<FacetField.Count> facetCounts;
+            do {
+                facetCounts = loadFacetCountsFor(facetFieldName, first, facetChunkSize);
+
+                Collection<FieldCount> fieldCounts = new ArrayList<FieldCount>(facetChunkSize);
+                collectFacetCountsFor(fieldCounts, facetFieldName, facetCounts);
+                registerFieldCountResultsFor(fieldCounts, fieldOntologySearcher, fieldOrder, fieldTerms);
+
+                first += facetCounts != null ? facetCounts.size() : 0;
+                log.info("loaded " + first + " terms of " + facetFieldName);
+
+                // we reached the max number of results, there may be more
+            } while (facetCounts != null && facetCounts.size() == facetChunkSize);
+
+            for (InteractionOntologyTerm term : fieldTerms){
+                putTerm(termQueue, writerFuture, term);
+            }
+            log.info("queued " + fieldTerms.size() + " ontology terms of " + facetFieldName);
+
+            return first;
+        }
+    }
+
     private static class FieldCount {
 
         private String field;
@@ -570,6 +677,22 @@ public class InteractionOntologyLuceneIndexer {
         this.xrefFilters = xrefFilters;
     }
 
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public int getFacetChunkSize() {
+        return facetChunkSize;
+    }
+
+    public void setFacetChunkSize(int facetChunkSize) {
+        this.facetChunkSize = facetChunkSize;
+    }
+
     /*public static void main(String[] args) throws IOException, SolrServerException, PsicquicSolrException {
          InteractionOntologyLuceneIndexer indexer = new InteractionOntologyLuceneIndexer("http://jweb-2b.ebi.ac.uk:21030/intact/solr/core_ontology_pub","http://jweb-2b.ebi.ac.uk:21030/intact/solr/core_pub");
 
@@ -14,25 +14,49 @@ public class InteractionOntologyTermResults {
     private String searchField;
     private long count;
 
+    /**
+     * Order of the facet field where the database and search field come from
+     */
+    private int fieldOrder;
+
     public InteractionOntologyTermResults(String db, String searchField, long count){
         this.databaseLabel = db;
         this.searchField = searchField;
         this.count = count;
     }
 
-    public String getDatabaseLabel() {
+    InteractionOntologyTermResults(String db, String searchField, long count, int fieldOrder){
+        this(db, searchField, count);
+        this.fieldOrder = fieldOrder;
+    }
+
+    public synchronized String getDatabaseLabel() {
         return databaseLabel;
     }
 
-    public String getSearchField() {
+    public synchronized String getSearchField() {
         return searchField;
     }
 
-    public long getCount() {
+    public synchronized long getCount() {
         return count;
     }
 
-    public void addToCount(long count) {
+    public synchronized void addToCount(long count) {
         this.count+=count;
     }
+
+    /**
+     * Adds the count of the term in another facet field, keeping the database and search field of the first facet
+     * field in order, whatever the order the facet fields have been loaded in.
+     */
+    synchronized void merge(String db, String searchField, long count, int fieldOrder) {
+        this.count+=count;
+
+        if (fieldOrder < this.fieldOrder){
+            this.databaseLabel = db;
+            this.searchField = searchField;
+            this.fieldOrder = fieldOrder;
+        }
+    }
 }
@@ -27,10 +27,14 @@ import uk.ac.ebi.intact.bridges.ontologies.iterator.OntologyIterator;
 import uk.ac.ebi.intact.bridges.ontologies.iterator.UniprotTaxonomyOntologyIterator;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrException;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.SolrLogger;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitPolicy;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitStatistics;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.SolrCommitter;
 
 import java.io.IOException;
 import java.net.URL;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Indexes in a SOLR instance the ontologies passed as URL. The created index is useful
@@ -45,8 +49,11 @@ public class OntologyIndexer {
 
     private HttpSolrServer solrServer;
 
-    private int commitInterval = 50000;
+    private CommitPolicy commitPolicy = new CommitPolicy(50000);
     private int numberOfTries = 5;
+    private CommitStatistics lastCommitStatistics;
+    private List<OntologyIndexingStatistics> lastIndexingStatistics;
+    private int parallelThreads;
 
     public OntologyIndexer(HttpSolrServer solrServer) {
         this.solrServer = solrServer;
@@ -58,9 +65,29 @@ public class OntologyIndexer {
         indexObo(ontologyMappings, new DefaultDocumentFilter());
     }
 
+    /**
+     * Indexes the ontologies at the same time with a ParallelOntologyIndexer.
+     */
     public void indexObo(OntologyMapping[] ontologyMappings, DocumentFilter documentFilter) throws IntactSolrException {
-        for (OntologyMapping om : ontologyMappings) {
-            indexObo(om.getName(), om.getUrl(), documentFilter);
+        indexOntologies(OntologySource.obo(ontologyMappings), documentFilter);
+    }
+
+    /**
+     * Indexes the ontologies at the same time with a ParallelOntologyIndexer, using the commit policy and the
+     * number of tries of this indexer.
+     */
+    public void indexOntologies(List<OntologySource> sources, DocumentFilter documentFilter) throws IntactSolrException {
+        ParallelOntologyIndexer parallelIndexer = new ParallelOntologyIndexer(solrServer);
+        parallelIndexer.setCommitPolicy(commitPolicy);
+        parallelIndexer.setTimesToRetry(numberOfTries);
+        if (parallelThreads > 0) {
+            parallelIndexer.setParserThreads(parallelThreads);
+        }
+
+        try {
+            lastIndexingStatistics = parallelIndexer.index(sources, documentFilter);
+        } finally {
+            lastCommitStatistics = parallelIndexer.getLastCommitStatistics();
         }
     }
 
@@ -101,39 +128,43 @@ public class OntologyIndexer {
     public void indexOntology(OntologyIterator ontologyIterator, DocumentFilter documentFilter) {
         Iterator<SolrInputDocument> iter = new SolrInputDocumentIterator(ontologyIterator, documentFilter);
 
-        int numberDoc = 0;
-        while (iter.hasNext()){
-            numberDoc++;
-
-            // flush every commit interval
-            if (numberDoc >= commitInterval){
-                commitSolr(false);
-                numberDoc = 0;
-            }
+        SolrCommitter committer = new SolrCommitter(solrServer, commitPolicy);
+        committer.setTimesToRetry(numberOfTries);
+        committer.setRetryDelay(0);
 
-            try {
+        try {
+            while (iter.hasNext()){
                 SolrInputDocument doc = iter.next();
-                solrServer.add(doc);
-            } catch (Throwable e) {
-                int numberOfTries = 1;
-                boolean isSuccessful = false;
-
-                while (numberOfTries <= this.numberOfTries && !isSuccessful){
-                    try {
-                        SolrInputDocument doc = iter.next();
-                        solrServer.add(doc);
-                        isSuccessful = true;
-                    } catch (Exception e2) {
-                        numberOfTries++;
+
+                try {
+                    solrServer.add(doc);
+                } catch (Throwable e) {
+                    int numberOfTries = 1;
+                    boolean isSuccessful = false;
+
+                    while (numberOfTries <= this.numberOfTries && !isSuccessful){
+                        try {
+                            solrServer.add(doc);
+                            isSuccessful = true;
+                        } catch (Exception e2) {
+                            numberOfTries++;
+                        }
                     }
-                }
 
-                if (!isSuccessful){
-                    throw new IntactSolrException("Problem indexing documents using iterator", e);
+                    if (!isSuccessful){
+                        throw new IntactSolrException("Problem indexing documents using iterator", e);
+                    }
                 }
+
+                // commit when the policy says so
+                committer.added(1, SolrCommitter.estimateSize(doc));
             }
+            committer.finish();
+        } catch (IOException e) {
+            throw new IntactSolrException("Problem during commit", e);
+        } finally {
+            lastCommitStatistics = committer.getStatistics();
         }
-        commitSolr(false);
     }
 
     public void index(OntologyDocument ontologyDocument) throws IntactSolrException {
@@ -167,7 +198,7 @@ public class OntologyIndexer {
         }
     }
 
-    private SolrInputDocument createSolrInputDocument(OntologyDocument ontologyDocument) {
+    static SolrInputDocument createSolrInputDocument(OntologyDocument ontologyDocument) {
         SolrInputDocument doc = new SolrInputDocument();
 
         String uniqueKey = ontologyDocument.getOntology() + "_" + ontologyDocument.getParentId() + "_" + ontologyDocument.getChildId() + "_" + ontologyDocument.getRelationshipType();
@@ -191,7 +222,7 @@ public class OntologyIndexer {
         return doc;
     }
 
-    private void addField(SolrInputDocument doc, String fieldName, Object value, boolean addTextCopy) {
+    private static void addField(SolrInputDocument doc, String fieldName, Object value, boolean addTextCopy) {
         if (value != null) {
             doc.addField(fieldName, value);
 
@@ -201,39 +232,6 @@ public class OntologyIndexer {
         }
     }
 
-    private void commitSolr(boolean optimize) throws IntactSolrException {
-        try {
-            if (optimize) {
-                solrServer.optimize();
-            }
-            else {
-                solrServer.commit();
-            }
-        } catch (Exception e) {
-            int numberOfTries = 1;
-            boolean isSuccessful = false;
-
-            while (numberOfTries <= this.numberOfTries && !isSuccessful){
-                try {
-                    if (optimize) {
-                        solrServer.optimize();
-                    }
-                    else {
-                        solrServer.commit();
-                    }
-
-                    isSuccessful = true;
-                } catch (Exception e2) {
-                    numberOfTries++;
-                }
-            }
-
-            if (!isSuccessful){
-                throw new IntactSolrException("Problem during commit", e);
-            }
-        }
-    }
-
     public void shutDown() throws IOException, SolrServerException {
         if (solrServer != null){
             solrServer.optimize();
@@ -248,11 +246,51 @@ public class OntologyIndexer {
     }
 
     public int getCommitInterval() {
-        return commitInterval;
+        return commitPolicy.getMaxDocuments();
     }
 
     public void setCommitInterval(int commitInterval) {
-        this.commitInterval = commitInterval;
+        commitPolicy.setMaxDocuments(commitInterval);
+    }
+
+    /**
+     * @return the policy deciding when the documents are committed, by default every 50000 documents without merge
+     */
+    public CommitPolicy getCommitPolicy() {
+        return commitPolicy;
+    }
+
+    public void setCommitPolicy(CommitPolicy commitPolicy) {
+        if (commitPolicy == null) {
+            throw new IllegalArgumentException("The commit policy cannot be null");
+        }
+        this.commitPolicy = commitPolicy;
+    }
+
+    /**
+     * @return the commits and merges of the last ontology indexed, null if none has been indexed yet
+     */
+    public CommitStatistics getLastCommitStatistics() {
+        return lastCommitStatistics;
+    }
+
+    /**
+     * @return the documents indexed for each ontology by the last parallel index, null if none has been run yet
+     */
+    public List<OntologyIndexingStatistics> getLastIndexingStatistics() {
+        return lastIndexingStatistics;
+    }
+
+    public int getParallelThreads() {
+        return parallelThreads;
+    }
+
+    /**
+     * Sets the maximum number of ontologies loaded at the same time by the parallel index, 0 for the default of
+     * the ParallelOntologyIndexer.
+     */
+    public void setParallelThreads(int parallelThreads) {
+        this.parallelThreads = parallelThreads;
     }
 
     public void setNumberOfTries(int numberOfTries) {
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.ontology;
+
+/**
+ * Number of documents indexed for an ontology by the ParallelOntologyIndexer, and the time spent loading and
+ * indexing them.
+ *
+ * The throughput is counted from the start of the loading of the ontology to the last of its documents added to
+ * the server, so that it includes the time spent waiting for the server and for the other ontologies.
+ *
+ * @version $Id$
+ */
+public class OntologyIndexingStatistics {
+
+    private final String ontologyName;
+
+    private long startTime;
+    private long loadTime;
+    private long parseTime;
+    private long lastSentTime;
+    private int documents;
+    private int sentDocuments;
+    private int batches;
+
+    public OntologyIndexingStatistics(String ontologyName) {
+        this.ontologyName = ontologyName;
+    }
+
+    synchronized void started() {
+        startTime = System.currentTimeMillis();
+    }
+
+    synchronized void loaded() {
+        loadTime = System.currentTimeMillis() - startTime;
+    }
+
+    synchronized void parsed(int documents) {
+        this.documents = documents;
+        parseTime = System.currentTimeMillis() - startTime;
+    }
+
+    synchronized void sent(int documents) {
+        sentDocuments += documents;
+        batches++;
+        lastSentTime = System.currentTimeMillis();
+    }
+
+    public String getOntologyName() {
+        return ontologyName;
+    }
+
+    /**
+     * @return the number of documents created from the ontology, after filtering
+     */
+    public synchronized int getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @return the number of documents added to the server
+     */
+    public synchronized int getSentDocuments() {
+        return sentDocuments;
+    }
+
+    public synchronized int getBatches() {
+        return batches;
+    }
+
+    /**
+     * @return the time in milliseconds spent loading the ontology before its first document, mostly the parsing
+     * of the OBO file
+     */
+    public synchronized long getLoadTime() {
+        return loadTime;
+    }
+
+    /**
+     * @return the time in milliseconds from the start of the loading to the last document created
+     */
+    public synchronized long getParseTime() {
+        return parseTime;
+    }
+
+    /**
+     * @return the time in milliseconds from the start of the loading to the last document added to the server
+     */
+    public synchronized long getIndexingTime() {
+        return sentDocuments == 0 ? parseTime : lastSentTime - startTime;
+    }
+
+    /**
+     * @return the number of documents added to the server per second of indexing time
+     */
+    public synchronized double getDocumentsPerSecond() {
+        long time = getIndexingTime();
+        return time > 0 ? sentDocuments * 1000d / time : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return ontologyName + ": " + sentDocuments + " documents in " + getIndexingTime() + " ms ("
+                + Math.round(getDocumentsPerSecond()) + " documents/s), loaded in " + loadTime + " ms, parsed in "
+                + parseTime + " ms";
+    }
+}
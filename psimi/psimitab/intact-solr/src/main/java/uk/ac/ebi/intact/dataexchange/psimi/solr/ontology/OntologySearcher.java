@@ -35,6 +35,9 @@ import java.util.*;
 /**
  * Searches the ontology, using a SolrServer pointing to an ontology core.
  *
+ * The searcher can also hold an <code>OntologySnapshot</code> of the core, which the ontology enrichers use
+ * instead of querying the core for every term.
+ *
  * @author Bruno Aranda (baranda@ebi.ac.uk)
  * @version $Id$
  */
@@ -51,6 +54,8 @@ public class OntologySearcher implements Serializable {
 
     private Set<String> ontologyNames;
 
+    private OntologySnapshot snapshot;
+
     public  OntologySearcher(SolrServer solrServer) {
         if ( solrServer == null ) {
             throw new IllegalArgumentException( "You must give a non null solrServer" );
@@ -63,6 +68,30 @@ public class OntologySearcher implements Serializable {
         synonymsSearchesMap = new LRUMap( PARENTS_CACHE_SIZE );
     }
 
+    public OntologySearcher(SolrServer solrServer, OntologySnapshot snapshot) {
+        this(solrServer);
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Loads the snapshot of the whole ontology core, used from then on by the enrichers using this searcher.
+     */
+    public OntologySnapshot loadSnapshot() throws SolrServerException {
+        this.snapshot = OntologySnapshot.load(this);
+        return snapshot;
+    }
+
+    /**
+     * @return the snapshot of the ontology core, null if it has not been loaded
+     */
+    public OntologySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(OntologySnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
     public OntologyNames findNameAndSynonyms(String termId, String termName) throws SolrServerException {
         OntologyNames names = null;
 
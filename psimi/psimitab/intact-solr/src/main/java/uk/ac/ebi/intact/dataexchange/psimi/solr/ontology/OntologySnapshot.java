@@ -0,0 +1,456 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.ontology;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
+import org.apache.solr.common.SolrDocument;
+import uk.ac.ebi.intact.bridges.ontologies.OntologyDocument;
+import uk.ac.ebi.intact.bridges.ontologies.OntologyMapping;
+import uk.ac.ebi.intact.bridges.ontologies.iterator.OboOntologyIterator;
+import uk.ac.ebi.intact.bridges.ontologies.iterator.OntologyIterator;
+import uk.ac.ebi.intact.bridges.ontologies.term.OntologyTerm;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrException;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * The terms of the indexed ontologies held in memory, with the closure of their parents precomputed, so that
+ * terms can be found and expanded to all their parents without querying the ontology index.
+ *
+ * A snapshot is loaded once from the ontology core or from the OBO files given to the OntologyIndexer. The terms
+ * are kept in arrays sorted by id, and the relationships as arrays of term indexes: the memory used grows with
+ * the number of terms times their depth, which is small for the PSI-MI and GO ontologies but large for the whole
+ * Uniprot taxonomy.
+ *
+ * A snapshot is immutable and can be shared by several threads.
+ *
+ * @version $Id$
+ */
+public class OntologySnapshot implements Serializable {
+
+    private static final Log log = LogFactory.getLog( OntologySnapshot.class );
+
+    private static final int PAGE_SIZE = 10000;
+    private static final int[] NO_TERMS = new int[0];
+    private static final String[] NO_SYNONYMS = new String[0];
+
+    private final String[] ids;
+    private final String[] names;
+    private final String[][] synonyms;
+    private final int[][] parents;
+    private final int[][] children;
+    private final int[][] ancestors;
+
+    private final Map<String,Integer> idIndex;
+    private final Map<String,Integer> nameIndex;
+    private final Set<String> ontologyNames;
+
+    private OntologySnapshot(Builder builder) {
+        List<String> sortedIds = new ArrayList<String>(builder.terms.keySet());
+        Collections.sort(sortedIds);
+
+        int size = sortedIds.size();
+        ids = sortedIds.toArray(new String[size]);
+        names = new String[size];
+        synonyms = new String[size][];
+        parents = new int[size][];
+        children = new int[size][];
+        ancestors = new int[size][];
+
+        idIndex = new HashMap<String,Integer>(size * 2);
+        nameIndex = new HashMap<String,Integer>(size * 2);
+        for (int i = 0; i < size; i++) {
+            idIndex.put(ids[i], i);
+        }
+
+        int[] childCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            TermBuilder term = builder.terms.get(ids[i]);
+            names[i] = term.name;
+            synonyms[i] = term.synonyms == null ? NO_SYNONYMS : term.synonyms.toArray(new String[term.synonyms.size()]);
+
+            if (term.name != null && !nameIndex.containsKey(term.name)) {
+                nameIndex.put(term.name, i);
+            }
+
+            parents[i] = toSortedIndexes(term.parentIds);
+            for (int parent : parents[i]) {
+                childCounts[parent]++;
+            }
+        }
+
+        // children, in the order of their ids as the parents are visited in that order
+        for (int i = 0; i < size; i++) {
+            children[i] = childCounts[i] == 0 ? NO_TERMS : new int[childCounts[i]];
+            childCounts[i] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (int parent : parents[i]) {
+                children[parent][childCounts[parent]++] = i;
+            }
+        }
+
+        computeAncestors();
+
+        ontologyNames = Collections.unmodifiableSet(new HashSet<String>(builder.ontologyNames));
+    }
+
+    private int[] toSortedIndexes(Set<String> termIds) {
+        if (termIds == null || termIds.isEmpty()) {
+            return NO_TERMS;
+        }
+        int[] indexes = new int[termIds.size()];
+        int i = 0;
+        for (String termId : termIds) {
+            indexes[i++] = idIndex.get(termId);
+        }
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+    /**
+     * Computes the parents up to the roots of every term, each term once.
+     *
+     * The terms of a cycle all have the same parents up to the roots, which are only known once the whole cycle is
+     * visited. The cycles are found as the strongly connected components of the parent relationships, visited
+     * depth first: a component is complete when its first visited term has visited all its parents, and each term
+     * of the component then gets the other terms of the component and their parents up to the roots, but not itself.
+     */
+    private void computeAncestors() {
+        int size = ids.length;
+        int[] visitOrders = new int[size];
+        int[] lowLinks = new int[size];
+        int[] stack = new int[size];
+        boolean[] onStack = new boolean[size];
+        int[] marks = new int[size];
+        // visit counter, stack size and mark stamp
+        int[] counters = new int[3];
+
+        for (int i = 0; i < size; i++) {
+            if (visitOrders[i] == 0) {
+                computeAncestors(i, visitOrders, lowLinks, stack, onStack, marks, counters);
+            }
+        }
+    }
+
+    private void computeAncestors(int term, int[] visitOrders, int[] lowLinks, int[] stack, boolean[] onStack,
+                                  int[] marks, int[] counters) {
+        visitOrders[term] = lowLinks[term] = ++counters[0];
+        stack[counters[1]++] = term;
+        onStack[term] = true;
+
+        for (int parent : parents[term]) {
+            if (visitOrders[parent] == 0) {
+                computeAncestors(parent, visitOrders, lowLinks, stack, onStack, marks, counters);
+                lowLinks[term] = Math.min(lowLinks[term], lowLinks[parent]);
+            } else if (onStack[parent]) {
+                // cycle still open
+                lowLinks[term] = Math.min(lowLinks[term], visitOrders[parent]);
+            }
+        }
+
+        if (lowLinks[term] != visitOrders[term]) {
+            // part of a cycle closed by a term visited before
+            return;
+        }
+
+        // the component is the term and the terms visited after it still on the stack
+        int first = counters[1] - 1;
+        while (stack[first] != term) {
+            first--;
+        }
+        int last = counters[1];
+        counters[1] = first;
+
+        int currentStamp = ++counters[2];
+        int maxSize = last - first;
+        for (int i = first; i < last; i++) {
+            onStack[stack[i]] = false;
+            marks[stack[i]] = currentStamp;
+            for (int parent : parents[stack[i]]) {
+                maxSize += 1 + (ancestors[parent] != null ? ancestors[parent].length : 0);
+            }
+        }
+
+        // the parents outside of the component have been completed before it
+        int[] buffer = new int[maxSize];
+        int count = 0;
+        for (int i = first; i < last; i++) {
+            buffer[count++] = stack[i];
+        }
+        for (int i = first; i < last; i++) {
+            for (int parent : parents[stack[i]]) {
+                if (marks[parent] != currentStamp) {
+                    marks[parent] = currentStamp;
+                    buffer[count++] = parent;
+                    for (int ancestor : ancestors[parent]) {
+                        if (marks[ancestor] != currentStamp) {
+                            marks[ancestor] = currentStamp;
+                            buffer[count++] = ancestor;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (last - first == 1) {
+            int[] termAncestors = count == 1 ? NO_TERMS : Arrays.copyOfRange(buffer, 1, count);
+            Arrays.sort(termAncestors);
+            ancestors[term] = termAncestors;
+            return;
+        }
+
+        int[] componentAncestors = Arrays.copyOf(buffer, count);
+        Arrays.sort(componentAncestors);
+        for (int i = first; i < last; i++) {
+            int member = stack[i];
+            int position = Arrays.binarySearch(componentAncestors, member);
+            int[] memberAncestors = new int[count - 1];
+            System.arraycopy(componentAncestors, 0, memberAncestors, 0, position);
+            System.arraycopy(componentAncestors, position + 1, memberAncestors, position, count - position - 1);
+            ancestors[member] = memberAncestors;
+        }
+    }
+
+    /**
+     * Loads all the documents of the ontology core used by the searcher.
+     */
+    public static OntologySnapshot load(OntologySearcher ontologySearcher) throws SolrServerException {
+        long start = System.currentTimeMillis();
+        Builder builder = new Builder();
+
+        String[] fields = new String[] {OntologyFieldNames.ID, OntologyFieldNames.ONTOLOGY,
+                OntologyFieldNames.PARENT_ID, OntologyFieldNames.PARENT_NAME, OntologyFieldNames.PARENT_SYNONYMS,
+                OntologyFieldNames.CHILD_ID, OntologyFieldNames.CHILD_NAME, OntologyFieldNames.CHILDREN_SYNONYMS};
+
+        // pages of documents after the last id read, cheaper than increasing offsets on a large core
+        String lastId = null;
+        int count;
+        do {
+            SolrQuery query = new SolrQuery(lastId == null ? "*:*"
+                    : OntologyFieldNames.ID + ":{" + ClientUtils.escapeQueryChars(lastId) + " TO *]");
+            query.setRows(PAGE_SIZE);
+
+            QueryResponse response = ontologySearcher.search(query, fields);
+            count = 0;
+            for (SolrDocument solrDocument : response.getResults()) {
+                builder.addRelationship((String) solrDocument.getFieldValue(OntologyFieldNames.ONTOLOGY),
+                        (String) solrDocument.getFieldValue(OntologyFieldNames.PARENT_ID),
+                        (String) solrDocument.getFieldValue(OntologyFieldNames.PARENT_NAME),
+                        solrDocument.getFieldValues(OntologyFieldNames.PARENT_SYNONYMS),
+                        (String) solrDocument.getFieldValue(OntologyFieldNames.CHILD_ID),
+                        (String) solrDocument.getFieldValue(OntologyFieldNames.CHILD_NAME),
+                        solrDocument.getFieldValues(OntologyFieldNames.CHILDREN_SYNONYMS));
+                lastId = (String) solrDocument.getFieldValue(OntologyFieldNames.ID);
+                count++;
+            }
+        } while (count == PAGE_SIZE);
+
+        OntologySnapshot snapshot = builder.build();
+
+        if (log.isInfoEnabled()) log.info("Loaded ontology snapshot of " + snapshot.size() + " terms from the ontology index in "
+                + (System.currentTimeMillis() - start) + " ms");
+
+        return snapshot;
+    }
+
+    /**
+     * Loads the OBO files, keeping the documents the OntologyIndexer would index by default.
+     */
+    public static OntologySnapshot load(OntologyMapping[] ontologyMappings) throws IntactSolrException {
+        Builder builder = new Builder();
+
+        for (OntologyMapping om : ontologyMappings) {
+            OntologyIterator oboIterator;
+            try {
+                oboIterator = new OboOntologyIterator(om.getName(), om.getUrl());
+            } catch (Throwable e) {
+                throw new IntactSolrException("Problem creating OBO iterator for: "+om.getName()+" URL: "+om.getUrl(), e);
+            }
+            builder.addAll(oboIterator, new DefaultDocumentFilter());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * @return the index of the term or -1 if it is not in the snapshot
+     */
+    public int indexOf(String id) {
+        Integer index = idIndex.get(id);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the index of the term with this name (the first by id if there are several) or -1 if there is none
+     */
+    public int indexOfName(String name) {
+        Integer index = nameIndex.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return the term or null if it is not in the snapshot
+     */
+    public OntologyTerm findTerm(String id) {
+        int index = indexOf(id);
+        return index < 0 ? null : new SnapshotOntologyTerm(this, index);
+    }
+
+    /**
+     * @return the term with this name or null if there is none
+     */
+    public OntologyTerm findTermByName(String name) {
+        int index = indexOfName(name);
+        return index < 0 ? null : new SnapshotOntologyTerm(this, index);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String getId(int index) {
+        return ids[index];
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * The arrays returned by the following methods are shared and must not be modified.
+     */
+    public String[] getSynonyms(int index) {
+        return synonyms[index];
+    }
+
+    public int[] getParents(int index) {
+        return parents[index];
+    }
+
+    public int[] getChildren(int index) {
+        return children[index];
+    }
+
+    /**
+     * @return the indexes of all the parents of the term up to the roots, sorted
+     */
+    public int[] getAncestors(int index) {
+        return ancestors[index];
+    }
+
+    public Set<String> getOntologyNames() {
+        return ontologyNames;
+    }
+
+    /**
+     * Collects the relationships of the ontology documents before building a snapshot.
+     */
+    public static class Builder {
+
+        private final Map<String,TermBuilder> terms = new HashMap<String,TermBuilder>();
+        private final Set<String> ontologyNames = new HashSet<String>();
+
+        public Builder addAll(OntologyIterator ontologyIterator, DocumentFilter documentFilter) {
+            while (ontologyIterator.hasNext()) {
+                OntologyDocument ontologyDocument = ontologyIterator.next();
+                if (documentFilter == null || documentFilter.accept(ontologyDocument)) {
+                    add(ontologyDocument);
+                }
+            }
+            return this;
+        }
+
+        public Builder add(OntologyDocument ontologyDocument) {
+            return addRelationship(ontologyDocument.getOntology(),
+                    ontologyDocument.getParentId(), ontologyDocument.getParentName(), ontologyDocument.getParentSynonyms(),
+                    ontologyDocument.getChildId(), ontologyDocument.getChildName(), ontologyDocument.getChildSynonyms());
+        }
+
+        /**
+         * Adds a document of the ontology index, where either the parent or the child can be missing.
+         */
+        public Builder addRelationship(String ontology,
+                                       String parentId, String parentName, Collection<?> parentSynonyms,
+                                       String childId, String childName, Collection<?> childSynonyms) {
+            if (ontology != null) {
+                ontologyNames.add(ontology);
+            }
+
+            TermBuilder parent = term(parentId, parentName, parentSynonyms, false);
+            TermBuilder child = term(childId, childName, childSynonyms, true);
+
+            if (parent != null && child != null && !parent.id.equals(child.id)) {
+                if (child.parentIds == null) {
+                    child.parentIds = new HashSet<String>(2);
+                }
+                child.parentIds.add(parent.id);
+            }
+            return this;
+        }
+
+        private TermBuilder term(String id, String name, Collection<?> termSynonyms, boolean isChild) {
+            if (id == null || id.length() == 0) {
+                return null;
+            }
+
+            TermBuilder term = terms.get(id);
+            if (term == null) {
+                term = new TermBuilder(id);
+                terms.put(id, term);
+            }
+
+            // the searcher takes the names from the child documents
+            if (name != null && (term.name == null || (isChild && !term.nameFromChild))) {
+                term.name = name;
+                term.nameFromChild = isChild;
+            }
+
+            if (termSynonyms != null && !termSynonyms.isEmpty()) {
+                if (term.synonyms == null) {
+                    term.synonyms = new LinkedHashSet<String>();
+                }
+                for (Object synonym : termSynonyms) {
+                    term.synonyms.add(synonym.toString());
+                }
+            }
+            return term;
+        }
+
+        public OntologySnapshot build() {
+            return new OntologySnapshot(this);
+        }
+    }
+
+    private static class TermBuilder {
+
+        private final String id;
+        private String name;
+        private boolean nameFromChild;
+        private Set<String> synonyms;
+        private Set<String> parentIds;
+
+        private TermBuilder(String id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.ontology;
+
+import uk.ac.ebi.intact.bridges.ontologies.OntologyMapping;
+import uk.ac.ebi.intact.bridges.ontologies.iterator.OboOntologyIterator;
+import uk.ac.ebi.intact.bridges.ontologies.iterator.OntologyIterator;
+import uk.ac.ebi.intact.bridges.ontologies.iterator.UniprotTaxonomyOntologyIterator;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ontology to index with the ParallelOntologyIndexer. The iterator is created by the thread indexing the
+ * ontology, as creating it loads the whole ontology.
+ *
+ * @version $Id$
+ */
+public abstract class OntologySource {
+
+    public static final String UNIPROT_TAXONOMY = "uniprot taxonomy";
+
+    private final String name;
+
+    protected OntologySource(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("The name of the ontology cannot be null");
+        }
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the iterator of the documents of the ontology
+     * @throws Exception Thrown if the ontology cannot be loaded
+     */
+    public abstract OntologyIterator createIterator() throws Exception;
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    public static OntologySource obo(final String ontologyName, final URL oboUrl) {
+        return new OntologySource(ontologyName) {
+            public OntologyIterator createIterator() throws Exception {
+                return new OboOntologyIterator(ontologyName, oboUrl);
+            }
+
+            @Override
+            public String toString() {
+                return ontologyName + " (" + oboUrl + ")";
+            }
+        };
+    }
+
+    public static OntologySource obo(OntologyMapping ontologyMapping) {
+        return obo(ontologyMapping.getName(), ontologyMapping.getUrl());
+    }
+
+    public static List<OntologySource> obo(OntologyMapping[] ontologyMappings) {
+        List<OntologySource> sources = new ArrayList<OntologySource>(ontologyMappings.length);
+        for (OntologyMapping om : ontologyMappings) {
+            sources.add(obo(om));
+        }
+        return sources;
+    }
+
+    /**
+     * @return the Uniprot taxonomy, downloaded from Uniprot
+     */
+    public static OntologySource uniprotTaxonomy() {
+        return new OntologySource(UNIPROT_TAXONOMY) {
+            public OntologyIterator createIterator() throws Exception {
+                return new UniprotTaxonomyOntologyIterator();
+            }
+        };
+    }
+
+    /**
+     * @return the Uniprot taxonomy, read from a copy of the Uniprot taxonomy file
+     */
+    public static OntologySource uniprotTaxonomy(final URL taxonomyUrl) {
+        return new OntologySource(UNIPROT_TAXONOMY) {
+            public OntologyIterator createIterator() throws Exception {
+                return new UniprotTaxonomyOntologyIterator(taxonomyUrl);
+            }
+
+            @Override
+            public String toString() {
+                return UNIPROT_TAXONOMY + " (" + taxonomyUrl + ")";
+            }
+        };
+    }
+
+    /**
+     * @return a source of the documents of an iterator already created, which can be indexed only once
+     */
+    public static OntologySource of(String ontologyName, final OntologyIterator ontologyIterator) {
+        return new OntologySource(ontologyName) {
+            public OntologyIterator createIterator() {
+                return ontologyIterator;
+            }
+        };
+    }
+}
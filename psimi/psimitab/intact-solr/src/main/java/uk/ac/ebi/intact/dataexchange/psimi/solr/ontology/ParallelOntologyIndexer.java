@@ -0,0 +1,452 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.ontology;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import uk.ac.ebi.intact.bridges.ontologies.OntologyDocument;
+import uk.ac.ebi.intact.bridges.ontologies.OntologyMapping;
+import uk.ac.ebi.intact.bridges.ontologies.iterator.OntologyIterator;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrException;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitPolicy;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitStatistics;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.SolrCommitter;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.failure.ExponentialBackOff;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Indexes several ontologies at the same time in the ontology core:
+ * <ul>
+ *     <li>a pool of parser threads loads the ontologies, one ontology per thread, and creates the documents of
+ *     their relationships, each ontology being loaded and walked once</li>
+ *     <li>a small pool of sender threads adds the documents to the server in batches</li>
+ * </ul>
+ * The parsers hand the batches to the senders through a bounded queue, so that a large ontology such as the
+ * Uniprot taxonomy is not held in memory as documents while the server is busy.
+ *
+ * A batch failing with a transient error is retried with an exponential back-off; a batch still failing, or
+ * rejected as invalid, stops the indexing and its error is thrown by {@link #index}, as an ontology core missing
+ * part of an ontology would give wrong parents when enriching the interactions.
+ *
+ * The documents are committed when the CommitPolicy says so, and once more at the end. The number of documents
+ * and the throughput of each ontology are logged at the end and returned by {@link #index}.
+ *
+ * An indexer runs one index at a time.
+ *
+ * @version $Id$
+ */
+public class ParallelOntologyIndexer {
+
+    private static final Log log = LogFactory.getLog( ParallelOntologyIndexer.class );
+
+    private static final long POLL_TIMEOUT = 100;
+
+    private final SolrServer solrServer;
+
+    private int parserThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private int senderThreads = 2;
+    private int batchSize = 1000;
+    private int queueCapacity = 8;
+    private CommitPolicy commitPolicy = new CommitPolicy(50000);
+    private int timesToRetry = 5;
+    private ExponentialBackOff backOff = new ExponentialBackOff();
+
+    private volatile Throwable failure;
+    private CommitStatistics lastCommitStatistics;
+
+    public ParallelOntologyIndexer(SolrServer solrServer) {
+        if (solrServer == null) {
+            throw new IllegalArgumentException("The solr server cannot be null");
+        }
+        this.solrServer = solrServer;
+    }
+
+    public List<OntologyIndexingStatistics> indexObo(OntologyMapping[] ontologyMappings) throws IntactSolrException {
+        return indexObo(ontologyMappings, new DefaultDocumentFilter());
+    }
+
+    public List<OntologyIndexingStatistics> indexObo(OntologyMapping[] ontologyMappings, DocumentFilter documentFilter) throws IntactSolrException {
+        return index(OntologySource.obo(ontologyMappings), documentFilter);
+    }
+
+    public List<OntologyIndexingStatistics> index(List<OntologySource> sources) throws IntactSolrException {
+        return index(sources, new DefaultDocumentFilter());
+    }
+
+    /**
+     * Indexes the ontologies, keeping the documents accepted by the filter.
+     *
+     * @param documentFilter the filter of the documents, shared by the parser threads; null to keep all the
+     * documents
+     * @return the statistics of each ontology, in the order of the sources
+     * @throws IntactSolrException Thrown if an ontology cannot be loaded or its documents cannot be added
+     */
+    public List<OntologyIndexingStatistics> index(List<OntologySource> sources, DocumentFilter documentFilter) throws IntactSolrException {
+        failure = null;
+
+        List<OntologyIndexingStatistics> statistics = new ArrayList<OntologyIndexingStatistics>(sources.size());
+        if (sources.isEmpty()) {
+            return statistics;
+        }
+
+        if ( log.isInfoEnabled() ) log.info( "Starting to index " + sources.size() + " ontologies: " + sources );
+
+        BlockingQueue<Batch> batchQueue = new ArrayBlockingQueue<Batch>(Math.max(1, queueCapacity));
+
+        SolrCommitter committer = new SolrCommitter(solrServer, commitPolicy);
+        committer.setTimesToRetry(timesToRetry);
+        committer.setBackOff(backOff);
+
+        int parsers = Math.max(1, Math.min(parserThreads, sources.size()));
+        int senders = Math.max(1, senderThreads);
+        ExecutorService parserExecutor = Executors.newFixedThreadPool(parsers, new NamedThreadFactory("ontology-parser-"));
+        ExecutorService senderExecutor = Executors.newFixedThreadPool(senders, new NamedThreadFactory("ontology-sender-"));
+
+        long start = System.currentTimeMillis();
+        try {
+            List<Future<?>> senderFutures = new ArrayList<Future<?>>(senders);
+            for (int i = 0; i < senders; i++) {
+                senderFutures.add(senderExecutor.submit(new Sender(batchQueue, committer)));
+            }
+
+            List<Future<?>> parserFutures = new ArrayList<Future<?>>(sources.size());
+            for (OntologySource source : sources) {
+                OntologyIndexingStatistics ontologyStatistics = new OntologyIndexingStatistics(source.getName());
+                statistics.add(ontologyStatistics);
+                parserFutures.add(parserExecutor.submit(new Parser(source, documentFilter, ontologyStatistics, batchQueue)));
+            }
+
+            try {
+                waitFor(parserFutures);
+            } finally {
+                // one end marker per sender
+                for (int i = 0; i < senders; i++) {
+                    put(batchQueue, Batch.END, true);
+                }
+            }
+            waitFor(senderFutures);
+
+            if (failure == null) {
+                committer.finish();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(e);
+        } catch (Throwable e) {
+            abort(e);
+        } finally {
+            parserExecutor.shutdownNow();
+            senderExecutor.shutdownNow();
+            lastCommitStatistics = committer.getStatistics();
+        }
+
+        if (failure != null) {
+            if (failure instanceof IntactSolrException) {
+                throw (IntactSolrException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new IntactSolrException("Problem indexing the ontologies " + sources, failure);
+        }
+
+        if ( log.isInfoEnabled() ) {
+            log.info( "Indexed " + sources.size() + " ontologies in " + (System.currentTimeMillis() - start) + " ms" );
+            for (OntologyIndexingStatistics ontologyStatistics : statistics) {
+                log.info( "Indexed " + ontologyStatistics );
+            }
+        }
+
+        return statistics;
+    }
+
+    private void waitFor(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                abort(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Waits for room in the queue, unless the indexing is stopped and force is false.
+     *
+     * @return false if the batch could not be added because the indexing is stopped
+     */
+    private boolean put(BlockingQueue<Batch> queue, Batch batch, boolean force) throws InterruptedException {
+        while (!queue.offer(batch, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            if (failure != null && !force) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void abort(Throwable t) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = t;
+            }
+        }
+    }
+
+    private class Parser implements Callable<Void> {
+
+        private final OntologySource source;
+        private final DocumentFilter documentFilter;
+        private final OntologyIndexingStatistics statistics;
+        private final BlockingQueue<Batch> batchQueue;
+
+        private Parser(OntologySource source, DocumentFilter documentFilter, OntologyIndexingStatistics statistics, BlockingQueue<Batch> batchQueue) {
+            this.source = source;
+            this.documentFilter = documentFilter;
+            this.statistics = statistics;
+            this.batchQueue = batchQueue;
+        }
+
+        public Void call() throws Exception {
+            if (failure != null) {
+                return null;
+            }
+            statistics.started();
+
+            OntologyIterator ontologyIterator;
+            try {
+                ontologyIterator = source.createIterator();
+            } catch (Throwable e) {
+                throw new IntactSolrException("Problem loading the ontology " + source, e);
+            }
+            statistics.loaded();
+
+            if ( log.isDebugEnabled() ) log.debug( "Loaded " + source + " in " + statistics.getLoadTime() + " ms" );
+
+            int count = 0;
+            Batch batch = new Batch(statistics, batchSize);
+            while (failure == null && ontologyIterator.hasNext()) {
+                OntologyDocument ontologyDocument = ontologyIterator.next();
+                if (documentFilter != null && !documentFilter.accept(ontologyDocument)) {
+                    continue;
+                }
+
+                SolrInputDocument doc = OntologyIndexer.createSolrInputDocument(ontologyDocument);
+                batch.documents.add(doc);
+                batch.bytes += SolrCommitter.estimateSize(doc);
+                count++;
+
+                if (batch.documents.size() >= batchSize) {
+                    if (!put(batchQueue, batch, false)) {
+                        return null;
+                    }
+                    batch = new Batch(statistics, batchSize);
+                }
+            }
+
+            if (!batch.documents.isEmpty()) {
+                put(batchQueue, batch, false);
+            }
+            statistics.parsed(count);
+            return null;
+        }
+    }
+
+    private class Sender implements Callable<Void> {
+
+        private final BlockingQueue<Batch> batchQueue;
+        private final SolrCommitter committer;
+
+        private Sender(BlockingQueue<Batch> batchQueue, SolrCommitter committer) {
+            this.batchQueue = batchQueue;
+            this.committer = committer;
+        }
+
+        public Void call() throws Exception {
+            try {
+                Batch batch;
+                while ((batch = batchQueue.take()) != Batch.END) {
+                    // a stopped indexing only empties the queue, so that the parsers are not blocked
+                    if (failure == null) {
+                        send(batch);
+                    }
+                }
+            } catch (Throwable t) {
+                abort(t);
+                while (batchQueue.take() != Batch.END) {
+                }
+            }
+            return null;
+        }
+
+        private void send(Batch batch) throws IOException, InterruptedException {
+            Exception lastError = null;
+
+            for (int attempt = 0; attempt <= timesToRetry; attempt++) {
+                if (attempt > 0) {
+                    if ( log.isWarnEnabled() ) log.warn( "Error adding " + batch.documents.size() + " documents of "
+                            + batch.statistics.getOntologyName() + ". Retry " + attempt + " of " + timesToRetry, lastError );
+                    backOff.waitBeforeRetry(attempt);
+                }
+                try {
+                    solrServer.add(batch.documents);
+                    lastError = null;
+                    break;
+                } catch (SolrServerException e) {
+                    lastError = e;
+                } catch (SolrException e) {
+                    lastError = e;
+                } catch (IOException e) {
+                    lastError = e;
+                }
+                if (!ExponentialBackOff.isTransient(lastError)) {
+                    break;
+                }
+            }
+
+            if (lastError != null) {
+                throw new IntactSolrException("Problem adding " + batch.documents.size() + " documents of the ontology "
+                        + batch.statistics.getOntologyName(), lastError);
+            }
+
+            batch.statistics.sent(batch.documents.size());
+
+            // the committer is used by one thread at a time
+            synchronized (committer) {
+                committer.added(batch.documents.size(), batch.bytes);
+            }
+        }
+    }
+
+    private static class Batch {
+
+        private static final Batch END = new Batch(null, 0);
+
+        private final OntologyIndexingStatistics statistics;
+        private final List<SolrInputDocument> documents;
+        private long bytes;
+
+        private Batch(OntologyIndexingStatistics statistics, int size) {
+            this.statistics = statistics;
+            this.documents = new ArrayList<SolrInputDocument>(size);
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        private NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    ///////////////////////////
+    // Getters and Setters
+
+    public int getParserThreads() {
+        return parserThreads;
+    }
+
+    /**
+     * Sets the maximum number of ontologies loaded at the same time.
+     */
+    public void setParserThreads(int parserThreads) {
+        this.parserThreads = parserThreads;
+    }
+
+    public int getSenderThreads() {
+        return senderThreads;
+    }
+
+    public void setSenderThreads(int senderThreads) {
+        this.senderThreads = senderThreads;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the maximum number of batches waiting for a sender
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * @return the policy deciding when the documents are committed, by default every 50000 documents without merge
+     */
+    public CommitPolicy getCommitPolicy() {
+        return commitPolicy;
+    }
+
+    public void setCommitPolicy(CommitPolicy commitPolicy) {
+        if (commitPolicy == null) {
+            throw new IllegalArgumentException("The commit policy cannot be null");
+        }
+        this.commitPolicy = commitPolicy;
+    }
+
+    /**
+     * @return the commits and merges of the last index, null if none has been run yet
+     */
+    public CommitStatistics getLastCommitStatistics() {
+        return lastCommitStatistics;
+    }
+
+    public int getTimesToRetry() {
+        return timesToRetry;
+    }
+
+    public void setTimesToRetry(int timesToRetry) {
+        this.timesToRetry = timesToRetry;
+    }
+
+    public ExponentialBackOff getBackOff() {
+        return backOff;
+    }
+
+    public void setBackOff(ExponentialBackOff backOff) {
+        if (backOff == null) {
+            throw new IllegalArgumentException("The back-off cannot be null");
+        }
+        this.backOff = backOff;
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.ontology;
+
+import uk.ac.ebi.intact.bridges.ontologies.term.OntologyTerm;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A term of an <code>OntologySnapshot</code>, whose parents, children and synonyms are read from the snapshot.
+ *
+ * As with the <code>LazyLoadedOntologyTerm</code>, a synonym is a term with the id of the term and the synonym as
+ * name, and a term which is not in the ontology has no parents, children or synonyms.
+ *
+ * @version $Id$
+ */
+public class SnapshotOntologyTerm implements OntologyTerm, Serializable {
+
+    private final OntologySnapshot snapshot;
+    private final int index;
+    private final String id;
+    private final String name;
+    private final boolean synonym;
+
+    public SnapshotOntologyTerm(OntologySnapshot snapshot, int index) {
+        this(snapshot, index, snapshot.getName(index));
+    }
+
+    /**
+     * Creates a term of the snapshot with another name than the one in the snapshot.
+     */
+    public SnapshotOntologyTerm(OntologySnapshot snapshot, int index, String name) {
+        this(snapshot, index, snapshot.getId(index), name, false);
+    }
+
+    /**
+     * Creates a term which is not in the snapshot.
+     */
+    public SnapshotOntologyTerm(OntologySnapshot snapshot, String id, String name) {
+        this(snapshot, -1, id, name, false);
+    }
+
+    private SnapshotOntologyTerm(OntologySnapshot snapshot, int index, String id, String name, boolean synonym) {
+        this.snapshot = snapshot;
+        this.index = index;
+        this.id = id;
+        this.name = name;
+        this.synonym = synonym;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<OntologyTerm> getParents() {
+        return getParents(false);
+    }
+
+    public List<OntologyTerm> getParents(boolean includeCyclic) {
+        if (index < 0) {
+            return new ArrayList<OntologyTerm>(0);
+        }
+        return toTerms(snapshot.getParents(index));
+    }
+
+    public List<OntologyTerm> getChildren() {
+        return getChildren(false);
+    }
+
+    public List<OntologyTerm> getChildren(boolean includeCyclic) {
+        if (index < 0) {
+            return new ArrayList<OntologyTerm>(0);
+        }
+        return toTerms(snapshot.getChildren(index));
+    }
+
+    @Override
+    public Set<OntologyTerm> getSynonyms() {
+        if (index < 0 || synonym) {
+            return new HashSet<OntologyTerm>(0);
+        }
+        return synonymsOf(index);
+    }
+
+    public Set<OntologyTerm> getAllParentsToRoot() {
+        return getAllParentsToRoot(false);
+    }
+
+    @Override
+    public Set<OntologyTerm> getAllParentsToRoot(boolean includeSynonyms) {
+        if (index < 0) {
+            return new HashSet<OntologyTerm>(0);
+        }
+
+        int[] ancestors = snapshot.getAncestors(index);
+        Set<OntologyTerm> parents = new HashSet<OntologyTerm>(ancestors.length * 2);
+
+        for (int ancestor : ancestors) {
+            parents.add(new SnapshotOntologyTerm(snapshot, ancestor));
+
+            if (includeSynonyms) {
+                parents.addAll(synonymsOf(ancestor));
+            }
+        }
+
+        return parents;
+    }
+
+    public Collection<OntologyTerm> getChildrenAtDepth(int depth) {
+        Set<OntologyTerm> terms = new HashSet<OntologyTerm>();
+        terms.add(this);
+
+        for (int currentDepth = 0; currentDepth < depth && !terms.isEmpty(); currentDepth++) {
+            Set<OntologyTerm> children = new HashSet<OntologyTerm>();
+            for (OntologyTerm term : terms) {
+                children.addAll(term.getChildren());
+            }
+            terms = children;
+        }
+
+        return terms;
+    }
+
+    private List<OntologyTerm> toTerms(int[] indexes) {
+        List<OntologyTerm> terms = new ArrayList<OntologyTerm>(indexes.length);
+        for (int i : indexes) {
+            terms.add(new SnapshotOntologyTerm(snapshot, i));
+        }
+        return terms;
+    }
+
+    private Set<OntologyTerm> synonymsOf(int termIndex) {
+        String[] synonyms = snapshot.getSynonyms(termIndex);
+        Set<OntologyTerm> terms = new HashSet<OntologyTerm>(synonyms.length * 2);
+        for (String synonymName : synonyms) {
+            terms.add(new SnapshotOntologyTerm(snapshot, termIndex, snapshot.getId(termIndex), synonymName, true));
+        }
+        return terms;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        SnapshotOntologyTerm that = (SnapshotOntologyTerm) o;
+
+        if (id != null ? !id.equals(that.id) : that.id != null) return false;
+        if (name != null ? !name.equals(that.name) : that.name != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = id != null ? id.hashCode() : 0;
+        result = 31 * result + (name != null ? name.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("SnapshotOntologyTerm");
+        sb.append("{id='").append(id).append('\'');
+        sb.append(", name='").append(name).append('\'');
+        sb.append('}');
+        return sb.toString();
+    }
+}
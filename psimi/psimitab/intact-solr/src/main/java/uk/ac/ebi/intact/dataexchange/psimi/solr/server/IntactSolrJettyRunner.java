@@ -38,6 +38,7 @@ public class IntactSolrJettyRunner extends SolrJettyRunner {
 
     private static Logger log = LoggerFactory.getLogger(IntactSolrHomeBuilder.class);
 
+    private Integer port;
 
     public IntactSolrJettyRunner() {
         this(new File(System.getProperty("java.io.tmpdir"), "solr-home-"+System.currentTimeMillis()));
@@ -92,6 +93,18 @@ public class IntactSolrJettyRunner extends SolrJettyRunner {
         server.start();
     }
 
+    @Override
+    public int getPort() {
+        return port != null ? port : super.getPort();
+    }
+
+    /**
+     * Sets the port of the server, instead of the default port of the runner.
+     */
+    public void setPort(int port) {
+        this.port = port;
+    }
+
     public String getSolrUrl(String coreName) {
         return "http://localhost:"+getPort()+"/solr/"+coreName;
     }
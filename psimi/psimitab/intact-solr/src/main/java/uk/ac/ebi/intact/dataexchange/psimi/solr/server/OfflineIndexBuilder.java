@@ -0,0 +1,260 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.server;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.BinaryRequestWriter;
+import org.apache.solr.client.solrj.impl.HttpSolrServer;
+import org.apache.solr.client.solrj.request.CoreAdminRequest;
+import org.apache.solr.common.params.CoreAdminParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.CoreNames;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrIndexer;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitPolicy;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the IntAct cores offline: the documents are indexed in a fresh IntAct solr home, served by a Solr
+ * started in this JVM on a free local port, and the finished cores are then handed over to the live server.
+ *
+ * The live server does not share its disk and caches with the build, and no running Solr server is needed to
+ * build an index. The documents are sent in the binary format of SolrJ, and the indexer only commits and
+ * merges at the end.
+ *
+ * A finished core is handed over either by replacing the data directory of a stopped server with
+ * {@link #handOver}, or by moving the built core next to the cores of a running server on the same host,
+ * registering it and swapping it with the live core with {@link #swapInto}.
+ *
+ * @version $Id$
+ */
+public class OfflineIndexBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(OfflineIndexBuilder.class);
+
+    /**
+     * The instance directories of the cores in the solr.xml of the IntAct solr home.
+     */
+    private static final Map<String, String> INSTANCE_DIRS = new HashMap<String, String>();
+
+    static {
+        INSTANCE_DIRS.put(CoreNames.CORE_PUB, "core0");
+        INSTANCE_DIRS.put(CoreNames.CORE_ONTOLOGY_PUB, "core_ontology0");
+        INSTANCE_DIRS.put(CoreNames.CORE_COMPLEX_PUB, "core_complex0");
+    }
+
+    private final File workingDir;
+    private IntactSolrJettyRunner solrJettyRunner;
+
+    /**
+     * @param workingDir the directory where the solr home is installed, which must not exist yet so that the
+     * cores are built from scratch
+     */
+    public OfflineIndexBuilder(File workingDir) {
+        if (workingDir.exists()) {
+            throw new IllegalArgumentException("The working directory of an offline build must not exist: " + workingDir);
+        }
+        this.workingDir = workingDir;
+    }
+
+    /**
+     * Installs the solr home and starts the local server.
+     */
+    public void start() throws Exception {
+        if (solrJettyRunner != null) {
+            throw new IllegalStateException("The offline build is already started");
+        }
+
+        if (log.isInfoEnabled()) log.info("Starting offline build in " + workingDir);
+
+        solrJettyRunner = new IntactSolrJettyRunner(workingDir);
+        solrJettyRunner.setPort(findFreePort());
+        solrJettyRunner.start();
+    }
+
+    /**
+     * Stops the local server, which closes the index of the cores.
+     */
+    public void stop() throws Exception {
+        if (solrJettyRunner != null) {
+            solrJettyRunner.stop();
+            solrJettyRunner = null;
+        }
+    }
+
+    /**
+     * @return a server for a core of the build, sending the documents in the binary format
+     */
+    public HttpSolrServer getSolrServer(String coreName) {
+        if (solrJettyRunner == null) {
+            throw new IllegalStateException("The offline build is not started");
+        }
+        HttpSolrServer solrServer = solrJettyRunner.getSolrServer(coreName);
+        solrServer.setRequestWriter(new BinaryRequestWriter());
+        return solrServer;
+    }
+
+    /**
+     * @return an indexer for the interaction and ontology cores of the build, with the bulk commit policy
+     */
+    public IntactSolrIndexer createIndexer() {
+        IntactSolrIndexer indexer = new IntactSolrIndexer(getSolrServer(CoreNames.CORE_PUB), getSolrServer(CoreNames.CORE_ONTOLOGY_PUB));
+        indexer.setCommitPolicy(bulkCommitPolicy());
+        indexer.setOntologyCommitPolicy(bulkCommitPolicy());
+        return indexer;
+    }
+
+    /**
+     * No one searches the cores during the build: a single commit at the end, merged down to one segment.
+     */
+    public static CommitPolicy bulkCommitPolicy() {
+        CommitPolicy commitPolicy = new CommitPolicy(0);
+        commitPolicy.setMergeAtEnd(true);
+        return commitPolicy;
+    }
+
+    public File getSolrHome() {
+        return new File(workingDir, "home");
+    }
+
+    public File getInstanceDir(String coreName) {
+        String instanceDir = INSTANCE_DIRS.get(coreName);
+        if (instanceDir == null) {
+            throw new IllegalArgumentException("Unknown core: " + coreName);
+        }
+        return new File(getSolrHome(), instanceDir);
+    }
+
+    public File getDataDir(String coreName) {
+        return new File(getInstanceDir(coreName), "data");
+    }
+
+    /**
+     * Stops the build and replaces the data directory of a core of a stopped server by the data directory of the
+     * built core.
+     *
+     * The built directory is first moved, or copied if it is on another file system, next to the target
+     * directory, so that the target is then replaced by renames: the previous data directory is renamed with the
+     * time of the hand over, and kept until it is deleted by the caller.
+     *
+     * @param coreName the built core
+     * @param targetDataDir the data directory of the core to replace
+     * @return the previous data directory, null if there was none
+     */
+    public File handOver(String coreName, File targetDataDir) throws Exception {
+        stop();
+
+        Path built = getDataDir(coreName).toPath();
+        if (!Files.isDirectory(built)) {
+            throw new IOException("The core " + coreName + " has not been built: " + built);
+        }
+
+        Path target = targetDataDir.getAbsoluteFile().toPath();
+        Files.createDirectories(target.getParent());
+        Path staging = target.resolveSibling(target.getFileName() + ".new");
+        FileUtils.deleteQuietly(staging.toFile());
+
+        moveDirectory(built, staging);
+
+        Path previous = null;
+        if (Files.exists(target)) {
+            previous = target.resolveSibling(target.getFileName() + ".previous-" + System.currentTimeMillis());
+            Files.move(target, previous, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+
+        if (log.isInfoEnabled()) log.info("Core " + coreName + " handed over to " + target
+                + (previous != null ? ", previous data in " + previous : ""));
+
+        return previous != null ? previous.toFile() : null;
+    }
+
+    /**
+     * Stops the build, moves the built core in the directory of the cores of a running server of the same host,
+     * registers it and swaps it with a live core, which Solr does atomically. After the swap, the previous live core
+     * is still registered under the name of the built core, to be unloaded or swapped back.
+     *
+     * The built core is moved because the running server keeps its instance directory in its solr.xml: it must not
+     * stay in the working directory of the build, which is usually temporary.
+     *
+     * @param coreName the built core
+     * @param coreAdminServer a server on the base url of the running server, to send the core admin requests
+     * @param liveCoreName the core of the running server to replace
+     * @param coresDir the directory where the running server keeps the instance directories of its cores
+     * @return the name of the previous live core
+     */
+    public String swapInto(String coreName, SolrServer coreAdminServer, String liveCoreName, File coresDir) throws Exception {
+        stop();
+
+        Path built = getInstanceDir(coreName).toPath();
+        if (!Files.isDirectory(built)) {
+            throw new IOException("The core " + coreName + " has not been built: " + built);
+        }
+
+        String builtCoreName = liveCoreName + "_build_" + System.currentTimeMillis();
+        Path instanceDir = coresDir.getAbsoluteFile().toPath().resolve(builtCoreName);
+        Files.createDirectories(instanceDir.getParent());
+        moveDirectory(built, instanceDir);
+
+        try {
+            CoreAdminRequest.createCore(builtCoreName, instanceDir.toString(), coreAdminServer);
+
+            CoreAdminRequest swapRequest = new CoreAdminRequest();
+            swapRequest.setAction(CoreAdminParams.CoreAdminAction.SWAP);
+            swapRequest.setCoreName(liveCoreName);
+            swapRequest.setOtherCoreName(builtCoreName);
+            swapRequest.process(coreAdminServer);
+        } catch (SolrServerException e) {
+            throw new IOException("Cannot swap the core " + liveCoreName + " with the built core " + coreName, e);
+        }
+
+        if (log.isInfoEnabled()) log.info("Core " + coreName + " swapped into " + liveCoreName + ", previous core registered as " + builtCoreName);
+
+        return builtCoreName;
+    }
+
+    /**
+     * Moves a directory, or copies it if the target is on another file system.
+     */
+    private static void moveDirectory(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            if (log.isInfoEnabled()) log.info("Copying " + source + " to " + target + ", on another file system");
+            FileUtils.copyDirectory(source.toFile(), target.toFile());
+        }
+    }
+
+    private static int findFreePort() throws IOException {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr;
+
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint.IndexingCheckpoint;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint.PositionedLineReader;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitPolicy;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.SolrCommitter;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.failure.AbstractFailureHandlingStrategy;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * @version $Id$
+ */
+public class MitabIndexingPipelineTest {
+
+    @Test
+    public void index_allLinesInBatches() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        MitabIndexingPipeline pipeline = createPipeline(solrServer);
+        pipeline.setWorkerThreads(3);
+        pipeline.setDocumentBatchSize(7);
+
+        int indexed = pipeline.index(createReader(100), 0, Integer.MAX_VALUE);
+
+        Assert.assertEquals(100, indexed);
+        Assert.assertEquals(100, solrServer.lines.size());
+        Assert.assertEquals(100, new HashSet<String>(solrServer.lines).size());
+        for (int size : solrServer.batchSizes) {
+            Assert.assertTrue(size <= 7);
+        }
+        Assert.assertTrue(solrServer.batchSizes.size() >= 15);
+    }
+
+    @Test
+    public void index_window() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        MitabIndexingPipeline pipeline = createPipeline(solrServer);
+
+        int indexed = pipeline.index(createReader(100), 10, 30);
+
+        Assert.assertEquals(20, indexed);
+        Assert.assertTrue(solrServer.lines.contains("line10"));
+        Assert.assertTrue(solrServer.lines.contains("line29"));
+        Assert.assertFalse(solrServer.lines.contains("line9"));
+        Assert.assertFalse(solrServer.lines.contains("line30"));
+    }
+
+    @Test
+    public void index_conversionFailuresReportedPerLine() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        MitabIndexingPipeline pipeline = createPipeline(solrServer);
+        RecordingFailureHandling failures = new RecordingFailureHandling();
+        pipeline.setFailureHandlingStrategy(failures);
+
+        String mitab = "line0\nbad line\nline2\nbad line\nline4\n";
+        int indexed = pipeline.index(new BufferedReader(new StringReader(mitab)), 0, Integer.MAX_VALUE);
+
+        Assert.assertEquals(3, indexed);
+        Assert.assertEquals(2, pipeline.getFailedCount());
+        Assert.assertEquals(new TreeSet<Integer>(Arrays.asList(1, 3)), new TreeSet<Integer>(failures.lineNumbers));
+    }
+
+    @Test
+    public void index_rejectedDocumentsReportedPerLine() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        solrServer.rejectedLine = "line5";
+        MitabIndexingPipeline pipeline = createPipeline(solrServer);
+        pipeline.setWorkerThreads(1);
+        pipeline.setTimesToRetry(1);
+        RecordingFailureHandling failures = new RecordingFailureHandling();
+        pipeline.setFailureHandlingStrategy(failures);
+
+        int indexed = pipeline.index(createReader(10), 0, Integer.MAX_VALUE);
+
+        Assert.assertEquals(9, indexed);
+        Assert.assertEquals(Collections.singletonList(5), failures.lineNumbers);
+        Assert.assertFalse(solrServer.lines.contains("line5"));
+    }
+
+    @Test
+    public void index_invalidDocumentsNotRetried() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        solrServer.rejectedLine = "line5";
+        solrServer.badRequest = true;
+        MitabIndexingPipeline pipeline = createPipeline(solrServer);
+        pipeline.setWorkerThreads(1);
+        RecordingFailureHandling failures = new RecordingFailureHandling();
+        pipeline.setFailureHandlingStrategy(failures);
+
+        int indexed = pipeline.index(createReader(10), 0, Integer.MAX_VALUE);
+
+        Assert.assertEquals(9, indexed);
+        Assert.assertEquals(Collections.singletonList(5), failures.lineNumbers);
+        // the batch, then the line alone
+        Assert.assertEquals(2, solrServer.rejections);
+    }
+
+    @Test
+    public void index_transientErrorsRetriedInBackground() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        solrServer.unavailableRequests = 3;
+        MitabIndexingPipeline pipeline = createPipeline(solrServer);
+        pipeline.setDocumentBatchSize(10);
+        pipeline.setMaxRetryingBatches(1);
+        RecordingFailureHandling failures = new RecordingFailureHandling();
+        pipeline.setFailureHandlingStrategy(failures);
+        SolrCommitter committer = new SolrCommitter(solrServer, new CommitPolicy(10000));
+        pipeline.setCommitter(committer);
+
+        int indexed = pipeline.index(createReader(100), 0, Integer.MAX_VALUE);
+
+        Assert.assertEquals(100, indexed);
+        Assert.assertEquals(100, new HashSet<String>(solrServer.lines).size());
+        Assert.assertTrue(failures.lineNumbers.isEmpty());
+        Assert.assertEquals(1, committer.getStatistics().getHardCommits());
+        Assert.assertEquals(0, committer.getUncommittedDocuments());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void index_failFast() throws Exception {
+        MitabIndexingPipeline pipeline = createPipeline(new RecordingSolrServer());
+
+        pipeline.index(new BufferedReader(new StringReader("line0\nbad line\nline2\n")), 0, Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void index_commits() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        MitabIndexingPipeline pipeline = createPipeline(solrServer);
+        pipeline.setDocumentBatchSize(10);
+        SolrCommitter committer = new SolrCommitter(solrServer, new CommitPolicy(20));
+        pipeline.setCommitter(committer);
+
+        pipeline.index(createReader(50), 0, Integer.MAX_VALUE);
+
+        // after 20 and 40 documents, then the last 10
+        Assert.assertEquals(3, committer.getStatistics().getHardCommits());
+        Assert.assertEquals(0, committer.getUncommittedDocuments());
+    }
+
+    @Test
+    public void index_checkpointsAfterHardCommits() throws Exception {
+        File file = createFile(100);
+        try {
+            RecordingSolrServer solrServer = new RecordingSolrServer();
+            MitabIndexingPipeline pipeline = createPipeline(solrServer);
+            pipeline.setWorkerThreads(3);
+            pipeline.setChunkSize(5);
+            pipeline.setDocumentBatchSize(10);
+            CommitPolicy policy = new CommitPolicy(20);
+            policy.setSoftCommit(true);
+            policy.setHardCommitInterval(2);
+            final SolrCommitter committer = new SolrCommitter(solrServer, policy);
+            pipeline.setCommitter(committer);
+            final List<IndexingCheckpoint> checkpoints = new ArrayList<IndexingCheckpoint>();
+            final List<Boolean> hardCommits = new ArrayList<Boolean>();
+            pipeline.setCheckpointListener(checkpoint -> {
+                checkpoints.add(checkpoint);
+                hardCommits.add(committer.isLastCommitHard());
+            });
+
+            PositionedLineReader reader = new PositionedLineReader(file);
+            try {
+                Assert.assertEquals(99, pipeline.index(reader, 0, 1, 100));
+            } finally {
+                reader.close();
+            }
+
+            // one soft commit out of two, the lines of the soft commits being checkpointed by the next hard commit
+            Assert.assertTrue(committer.getStatistics().getSoftCommits() >= 2);
+            Assert.assertFalse(checkpoints.isEmpty());
+            Assert.assertTrue(checkpoints.size() <= committer.getStatistics().getHardCommits());
+            Assert.assertFalse(hardCommits.contains(false));
+            for (IndexingCheckpoint checkpoint : checkpoints) {
+                Assert.assertEquals(checkpoint.getLineNumber() - 1, checkpoint.getIndexedCount());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void index_checkpointsAndResume() throws Exception {
+        File file = createFile(100);
+        try {
+            RecordingSolrServer solrServer = new RecordingSolrServer();
+            MitabIndexingPipeline pipeline = createPipeline(solrServer);
+            pipeline.setWorkerThreads(3);
+            pipeline.setChunkSize(5);
+            pipeline.setDocumentBatchSize(10);
+            pipeline.setCommitter(new SolrCommitter(solrServer, new CommitPolicy(20)));
+            final List<IndexingCheckpoint> checkpoints = new ArrayList<IndexingCheckpoint>();
+            pipeline.setCheckpointListener(checkpoints::add);
+
+            PositionedLineReader reader = new PositionedLineReader(file);
+            try {
+                Assert.assertEquals(99, pipeline.index(reader, 0, 1, 100));
+            } finally {
+                reader.close();
+            }
+
+            Assert.assertFalse(checkpoints.isEmpty());
+            IndexingCheckpoint previous = null;
+            for (IndexingCheckpoint checkpoint : checkpoints) {
+                Assert.assertEquals(checkpoint.getLineNumber() - 1, checkpoint.getLastCommittedLine());
+                Assert.assertEquals(checkpoint.getLineNumber() - 1, checkpoint.getIndexedCount());
+                Assert.assertTrue(previous == null || checkpoint.getLineNumber() > previous.getLineNumber());
+                previous = checkpoint;
+            }
+            Assert.assertEquals(100, previous.getLineNumber());
+
+            // resume from the first checkpoint
+            IndexingCheckpoint checkpoint = checkpoints.get(0);
+            solrServer = new RecordingSolrServer();
+            pipeline = createPipeline(solrServer);
+            reader = new PositionedLineReader(file, checkpoint.getBlockOffset(), checkpoint.getOffsetInBlock());
+            try {
+                Assert.assertEquals(100 - checkpoint.getLineNumber(), pipeline.index(reader, checkpoint.getLineNumber(), 1, 100));
+            } finally {
+                reader.close();
+            }
+            Assert.assertTrue(solrServer.lines.contains("line" + checkpoint.getLineNumber()));
+            Assert.assertFalse(solrServer.lines.contains("line" + checkpoint.getLastCommittedLine()));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static MitabIndexingPipeline createPipeline(SolrServer solrServer) {
+        MitabIndexingPipeline pipeline = new MitabIndexingPipeline(solrServer, () -> line -> {
+            if (line.startsWith("bad")) {
+                throw new IllegalArgumentException("Cannot convert " + line);
+            }
+            SolrInputDocument document = new SolrInputDocument();
+            document.addField("line", line);
+            return document;
+        });
+        pipeline.setRetryDelay(0);
+        pipeline.setMaxBatchDelay(50);
+        return pipeline;
+    }
+
+    private static File createFile(int lineCount) throws IOException {
+        File file = File.createTempFile("mitab", ".txt");
+        Writer writer = new FileWriter(file);
+        for (int i = 0; i < lineCount; i++) {
+            writer.write("line" + i + "\n");
+        }
+        writer.close();
+        return file;
+    }
+
+    private static BufferedReader createReader(int lineCount) {
+        StringBuilder mitab = new StringBuilder();
+        for (int i = 0; i < lineCount; i++) {
+            mitab.append("line").append(i).append('\n');
+        }
+        return new BufferedReader(new StringReader(mitab.toString()));
+    }
+
+    private static class RecordingSolrServer extends SolrServer {
+
+        private final List<String> lines = Collections.synchronizedList(new ArrayList<String>());
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        private String rejectedLine;
+        private boolean badRequest;
+        private int rejections;
+        private int unavailableRequests;
+
+        @Override
+        public synchronized NamedList<Object> request(SolrRequest request) throws SolrServerException, IOException {
+            Collection<SolrInputDocument> documents = ((UpdateRequest) request).getDocuments();
+            if (documents != null) {
+                if (unavailableRequests > 0) {
+                    unavailableRequests--;
+                    throw new SolrServerException("Server unavailable", new IOException("Connection refused"));
+                }
+                List<String> batch = new ArrayList<String>();
+                for (SolrInputDocument document : documents) {
+                    String line = (String) document.getFieldValue("line");
+                    if (line.equals(rejectedLine)) {
+                        rejections++;
+                        if (badRequest) {
+                            throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, "Invalid " + line);
+                        }
+                        throw new SolrServerException("Rejected " + line);
+                    }
+                    batch.add(line);
+                }
+                lines.addAll(batch);
+                batchSizes.add(batch.size());
+            }
+            return new NamedList<Object>();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    private static class RecordingFailureHandling extends AbstractFailureHandlingStrategy {
+
+        private final List<Integer> lineNumbers = new ArrayList<Integer>();
+
+        @Override
+        public void handleFailure(Throwable t, String mitabLine, int lineCount) {
+            lineNumbers.add(lineCount);
+        }
+    }
+}
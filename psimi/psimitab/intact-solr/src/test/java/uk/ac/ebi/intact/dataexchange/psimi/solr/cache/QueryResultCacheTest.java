@@ -0,0 +1,182 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.cache;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.QueryRequest;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * @version $Id$
+ */
+public class QueryResultCacheTest {
+
+    @Test
+    public void normalize_sameSearchSameKey() throws Exception {
+        SolrQuery query = new SolrQuery("  brca2   AND  human ");
+        query.addFilterQuery("species:9606 ", "type:physical");
+        query.setRows(10);
+
+        SolrQuery sameQuery = new SolrQuery();
+        sameQuery.setRows(10);
+        sameQuery.addFilterQuery("type:physical", "species:9606");
+        sameQuery.setQuery("brca2 AND human");
+
+        Assert.assertEquals(CachingSolrServer.normalize(query), CachingSolrServer.normalize(sameQuery));
+
+        sameQuery.setStart(10);
+        Assert.assertFalse(CachingSolrServer.normalize(query).equals(CachingSolrServer.normalize(sameQuery)));
+    }
+
+    @Test
+    public void normalize_facetFieldsKeepTheirOrder() throws Exception {
+        SolrQuery query = new SolrQuery("*:*");
+        query.addFacetField("typeA", "typeB");
+
+        SolrQuery otherQuery = new SolrQuery("*:*");
+        otherQuery.addFacetField("typeB", "typeA");
+
+        Assert.assertFalse(CachingSolrServer.normalize(query).equals(CachingSolrServer.normalize(otherQuery)));
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() throws Exception {
+        QueryResultCache cache = new QueryResultCache(400);
+        cache.setIndexVersion(1);
+
+        cache.put("a", "A", 1, 100);
+        cache.put("b", "B", 1, 100);
+        cache.put("c", "C", 1, 100);
+        cache.put("d", "D", 1, 100);
+        Assert.assertEquals("A", cache.get("a"));
+
+        cache.put("e", "E", 1, 100);
+
+        Assert.assertEquals(4, cache.size());
+        Assert.assertEquals(400, cache.getWeight());
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("A", cache.get("a"));
+
+        // heavier than a quarter of the cache
+        Assert.assertFalse(cache.put("f", "F", 1, 101));
+    }
+
+    @Test
+    public void setIndexVersion_emptiesTheCache() throws Exception {
+        QueryResultCache cache = new QueryResultCache(1000);
+
+        // unknown version
+        Assert.assertFalse(cache.put("a", "A", QueryResultCache.UNKNOWN_VERSION, 10));
+
+        cache.setIndexVersion(1);
+        Assert.assertTrue(cache.put("a", "A", 1, 10));
+        cache.setIndexVersion(1);
+        Assert.assertEquals("A", cache.get("a"));
+
+        cache.setIndexVersion(2);
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(1, cache.getInvalidations());
+
+        // computed before the new version
+        Assert.assertFalse(cache.put("a", "A", 1, 10));
+
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(0.5, cache.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void request_queriesAnsweredFromTheCache() throws Exception {
+        CountingSolrServer solrServer = new CountingSolrServer();
+        QueryResultCache cache = new QueryResultCache();
+        cache.setVersionCheckInterval(0);
+        CachingSolrServer cachingServer = new CachingSolrServer(solrServer, cache);
+
+        NamedList<Object> response = cachingServer.request(new QueryRequest(new SolrQuery("brca2")));
+        NamedList<Object> cachedResponse = cachingServer.request(new QueryRequest(new SolrQuery(" brca2")));
+        Assert.assertEquals("brca2", cachedResponse.get("q"));
+        Assert.assertEquals(1, solrServer.queries);
+
+        // the cached response is not changed by the callers
+        response.add("modified", true);
+        cachedResponse.add("modified", true);
+        Assert.assertNull(cachingServer.request(new QueryRequest(new SolrQuery("brca2"))).get("modified"));
+
+        cachingServer.request(new QueryRequest(new SolrQuery("brca1")));
+        Assert.assertEquals(2, solrServer.queries);
+
+        // updates are not cached, and a commit changes the version
+        cachingServer.request(new UpdateRequest());
+        solrServer.version++;
+
+        cachingServer.request(new QueryRequest(new SolrQuery("brca2")));
+        Assert.assertEquals(3, solrServer.queries);
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    public void request_versionUnavailable() throws Exception {
+        CountingSolrServer solrServer = new CountingSolrServer();
+        solrServer.version = -1;
+        QueryResultCache cache = new QueryResultCache();
+        CachingSolrServer cachingServer = new CachingSolrServer(solrServer, cache);
+
+        cachingServer.request(new QueryRequest(new SolrQuery("brca2")));
+        cachingServer.request(new QueryRequest(new SolrQuery("brca2")));
+
+        Assert.assertEquals(2, solrServer.queries);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    private static class CountingSolrServer extends SolrServer {
+
+        private long version = 1;
+        private int queries;
+
+        @Override
+        public NamedList<Object> request(SolrRequest request) throws SolrServerException, IOException {
+            NamedList<Object> response = new NamedList<Object>();
+            if ("/admin/luke".equals(request.getPath())) {
+                Assert.assertEquals("index", request.getParams().get("show"));
+                Assert.assertEquals("0", request.getParams().get("numTerms"));
+                if (version < 0) {
+                    throw new SolrServerException("Luke request handler not available");
+                }
+                NamedList<Object> index = new NamedList<Object>();
+                index.add("version", version);
+                response.add("index", index);
+            } else if (request instanceof QueryRequest) {
+                queries++;
+                response.add("q", request.getParams().get("q"));
+            }
+            return response;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
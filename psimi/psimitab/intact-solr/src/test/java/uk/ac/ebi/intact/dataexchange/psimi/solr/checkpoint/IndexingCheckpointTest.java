@@ -0,0 +1,59 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+/**
+ * @version $Id$
+ */
+public class IndexingCheckpointTest {
+
+    @Test
+    public void write_read() throws Exception {
+        File file = File.createTempFile("mitab", ".txt");
+        file.deleteOnExit();
+
+        IndexingCheckpoint checkpoint = new IndexingCheckpoint();
+        checkpoint.setIndexedFile(file, 1, 501);
+        checkpoint.setLineNumber(201);
+        checkpoint.setBlockOffset(12345L);
+        checkpoint.setOffsetInBlock(678L);
+        checkpoint.setLastCommittedLine(200);
+        checkpoint.setIndexedCount(198);
+
+        File checkpointFile = File.createTempFile("mitab", ".checkpoint");
+        try {
+            checkpoint.write(checkpointFile);
+            IndexingCheckpoint read = IndexingCheckpoint.read(checkpointFile);
+
+            Assert.assertTrue(read.isCheckpointOf(file, 1, 501));
+            Assert.assertFalse(read.isCheckpointOf(file, 0, 500));
+            Assert.assertEquals(201, read.getLineNumber());
+            Assert.assertEquals(12345L, read.getBlockOffset());
+            Assert.assertEquals(678L, read.getOffsetInBlock());
+            Assert.assertEquals(200, read.getLastCommittedLine());
+            Assert.assertEquals(198, read.getIndexedCount());
+        } finally {
+            checkpointFile.delete();
+        }
+
+        Assert.assertNull(IndexingCheckpoint.read(checkpointFile));
+    }
+}
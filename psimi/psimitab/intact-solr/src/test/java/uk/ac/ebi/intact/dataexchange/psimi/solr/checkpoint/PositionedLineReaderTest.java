@@ -0,0 +1,170 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.checkpoint;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @version $Id$
+ */
+public class PositionedLineReaderTest {
+
+    private File file;
+
+    @Before
+    public void before() throws Exception {
+        file = File.createTempFile("mitab", ".txt");
+    }
+
+    @After
+    public void after() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void readLine_plain() throws Exception {
+        write(new FileOutputStream(file), 0, 100);
+
+        assertResumesAt(37);
+    }
+
+    @Test
+    public void readLine_gzipOneMember() throws Exception {
+        write(new GZIPOutputStream(new FileOutputStream(file)), 0, 100);
+
+        assertResumesAt(37);
+    }
+
+    @Test
+    public void readLine_gzipMembers() throws Exception {
+        // one member every 10 lines, as bgzip or concatenated files
+        OutputStream outputStream = new FileOutputStream(file);
+        for (int i = 0; i < 100; i += 10) {
+            write(new GZIPOutputStream(new NonClosingOutputStream(outputStream)), i, i + 10);
+        }
+        outputStream.close();
+
+        assertResumesAt(0);
+        assertResumesAt(37);
+        assertResumesAt(40);
+        assertResumesAt(99);
+
+        PositionedLineReader reader = new PositionedLineReader(file);
+        try {
+            for (int i = 0; i < 40; i++) {
+                reader.readLine();
+            }
+            Assert.assertTrue(reader.getBlockOffset() > 0);
+            Assert.assertEquals(0, reader.getOffsetInBlock());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void readLine_longLinesAndCarriageReturns() throws Exception {
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            longLine.append('a');
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file));
+        writer.write("first\r\n" + longLine + "\nlast");
+        writer.close();
+
+        PositionedLineReader reader = new PositionedLineReader(file);
+        try {
+            Assert.assertEquals("first", reader.readLine());
+            Assert.assertEquals(longLine.toString(), reader.readLine());
+            Assert.assertEquals("last", reader.readLine());
+            Assert.assertNull(reader.readLine());
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the given number of lines, then checks that a reader opened at the position of the next line reads
+     * the remaining lines.
+     */
+    private void assertResumesAt(int lineNumber) throws IOException {
+        long blockOffset;
+        long offsetInBlock;
+        PositionedLineReader reader = new PositionedLineReader(file);
+        try {
+            for (int i = 0; i < lineNumber; i++) {
+                Assert.assertEquals(line(i), reader.readLine());
+            }
+            blockOffset = reader.getBlockOffset();
+            offsetInBlock = reader.getOffsetInBlock();
+        } finally {
+            reader.close();
+        }
+
+        List<String> lines = new ArrayList<String>();
+        reader = new PositionedLineReader(file, blockOffset, offsetInBlock);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+
+        Assert.assertEquals(100 - lineNumber, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Assert.assertEquals(line(lineNumber + i), lines.get(i));
+        }
+    }
+
+    private static void write(OutputStream outputStream, int first, int end) throws IOException {
+        Writer writer = new OutputStreamWriter(outputStream);
+        for (int i = first; i < end; i++) {
+            writer.write(line(i));
+            writer.write('\n');
+        }
+        writer.close();
+    }
+
+    private static String line(int i) {
+        return "uniprotkb:P" + (10000 + i) + "\tuniprotkb:Q" + (20000 + i) + "\t-\t-";
+    }
+
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.commit;
+
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.UpdateResponse;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @version $Id$
+ */
+public class SolrCommitterTest {
+
+    private RecordingSolrServer solrServer;
+
+    @Before
+    public void before() throws Exception {
+        solrServer = new RecordingSolrServer();
+    }
+
+    @Test
+    public void isCommitDue() throws Exception {
+        CommitPolicy policy = new CommitPolicy(100);
+        policy.setMaxBytes(1000);
+        policy.setMaxTime(5000);
+
+        Assert.assertFalse(policy.isCommitDue(0, 5000, 10000));
+        Assert.assertFalse(policy.isCommitDue(99, 999, 4999));
+        Assert.assertTrue(policy.isCommitDue(100, 0, 0));
+        Assert.assertTrue(policy.isCommitDue(1, 1000, 0));
+        Assert.assertTrue(policy.isCommitDue(1, 0, 5000));
+
+        policy.setMaxDocuments(0);
+        Assert.assertFalse(policy.isCommitDue(1000000, 0, 0));
+    }
+
+    @Test
+    public void added_documents() throws Exception {
+        SolrCommitter committer = new SolrCommitter(solrServer, new CommitPolicy(10));
+
+        for (int i = 0; i < 25; i++) {
+            committer.added(1, 0);
+        }
+        Assert.assertEquals(5, committer.getUncommittedDocuments());
+
+        committer.finish();
+
+        Assert.assertEquals(Arrays.asList("hard", "hard", "hard"), solrServer.operations);
+        Assert.assertEquals(3, committer.getStatistics().getHardCommits());
+        Assert.assertEquals(0, committer.getStatistics().getMerges());
+    }
+
+    @Test
+    public void added_bytes() throws Exception {
+        CommitPolicy policy = new CommitPolicy(0);
+        policy.setMaxBytes(100);
+        SolrCommitter committer = new SolrCommitter(solrServer, policy);
+
+        Assert.assertFalse(committer.added(10, 60));
+        Assert.assertTrue(committer.added(10, 60));
+        Assert.assertFalse(committer.added(10, 60));
+
+        Assert.assertEquals(Arrays.asList("hard"), solrServer.operations);
+    }
+
+    @Test
+    public void softCommits() throws Exception {
+        CommitPolicy policy = new CommitPolicy(1);
+        policy.setSoftCommit(true);
+        policy.setHardCommitInterval(3);
+        SolrCommitter committer = new SolrCommitter(solrServer, policy);
+
+        for (int i = 0; i < 4; i++) {
+            committer.added(1, 0);
+            Assert.assertEquals(i == 2, committer.isLastCommitHard());
+        }
+        committer.finish();
+
+        Assert.assertEquals(Arrays.asList("soft", "soft", "hard", "soft", "hard"), solrServer.operations);
+        Assert.assertEquals(3, committer.getStatistics().getSoftCommits());
+        Assert.assertEquals(2, committer.getStatistics().getHardCommits());
+    }
+
+    @Test
+    public void merges() throws Exception {
+        CommitPolicy policy = new CommitPolicy(1);
+        policy.setMaxSegments(4);
+        policy.setMergeInterval(2);
+        policy.setMergeAtEnd(true);
+        SolrCommitter committer = new SolrCommitter(solrServer, policy);
+
+        for (int i = 0; i < 3; i++) {
+            committer.added(1, 0);
+        }
+        committer.finish();
+
+        Assert.assertEquals(Arrays.asList("hard", "hard", "merge 4", "hard", "hard", "merge 4"), solrServer.operations);
+        Assert.assertEquals(2, committer.getStatistics().getMerges());
+    }
+
+    @Test
+    public void commitAndOptimize() throws Exception {
+        SolrCommitter committer = new SolrCommitter(solrServer, CommitPolicy.commitAndOptimize(10000));
+
+        committer.added(20, 0);
+        committer.finish();
+
+        Assert.assertEquals(Arrays.asList("hard", "merge 1"), solrServer.operations);
+    }
+
+    @Test
+    public void retries() throws Exception {
+        solrServer.failures = 2;
+        SolrCommitter committer = new SolrCommitter(solrServer, new CommitPolicy(1));
+        committer.setRetryDelay(0);
+        committer.setTimesToRetry(2);
+
+        committer.added(1, 0);
+        Assert.assertEquals(Arrays.asList("hard"), solrServer.operations);
+
+        solrServer.failures = 3;
+        try {
+            committer.added(1, 0);
+            Assert.fail("The commit should fail after the retries");
+        } catch (IntactSolrException e) {
+            Assert.assertEquals(1, committer.getUncommittedDocuments());
+        }
+    }
+
+    private static class RecordingSolrServer extends SolrServer {
+
+        private final List<String> operations = new ArrayList<String>();
+        private int failures;
+
+        @Override
+        public UpdateResponse commit(boolean waitFlush, boolean waitSearcher, boolean softCommit) throws SolrServerException, IOException {
+            fail();
+            operations.add(softCommit ? "soft" : "hard");
+            return null;
+        }
+
+        @Override
+        public UpdateResponse optimize(boolean waitFlush, boolean waitSearcher, int maxSegments) throws SolrServerException, IOException {
+            fail();
+            operations.add("merge " + maxSegments);
+            return null;
+        }
+
+        private void fail() throws SolrServerException {
+            if (failures > 0) {
+                failures--;
+                throw new SolrServerException("Server not available");
+            }
+        }
+
+        @Override
+        public NamedList<Object> request(SolrRequest request) throws SolrServerException, IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -6,7 +6,9 @@ import org.apache.solr.common.SolrDocumentList;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * @author Oscar Forner (oforner@ebi.ac.uk)
@@ -99,4 +101,42 @@ public class ComplexResultIteratorTest {
         }
         Assert.assertTrue ( "Test remove method", exception instanceof UnsupportedOperationException ) ;
     }
+
+    @Test
+    public void testPages() throws Exception {
+        final SolrDocumentList allResults = new SolrDocumentList ( ) ;
+        for ( int i = 0 ; i < 5 ; i++ ) {
+            SolrDocument aux = new SolrDocument ( ) ;
+            aux.addField ( ComplexFieldNames.COMPLEX_AC, "EBI-" + i ) ;
+            allResults.add ( aux ) ;
+        }
+        allResults.setNumFound ( allResults.size ( ) ) ;
+
+        final List < Long > loadedPages = new ArrayList < Long > ( ) ;
+        ComplexResultIterator.PageLoader pageLoader = new ComplexResultIterator.PageLoader ( ) {
+            public SolrDocumentList loadPage ( long firstResult, int maxResults ) {
+                loadedPages.add ( firstResult ) ;
+                SolrDocumentList page = new SolrDocumentList ( ) ;
+                page.addAll ( allResults.subList ( ( int ) firstResult, Math.min ( allResults.size ( ), ( int ) firstResult + maxResults ) ) ) ;
+                page.setNumFound ( allResults.size ( ) ) ;
+                return page ;
+            }
+        } ;
+
+        ComplexResultIterator iterator = new ComplexResultIterator ( pageLoader.loadPage ( 0, 2 ), 2, pageLoader ) ;
+        Assert.assertEquals ( "Test number of results", 5, iterator.getNumberOfResults ( ) ) ;
+        Assert.assertEquals ( "Test total number of results", 5, iterator.getTotalNumberOfResults ( ) ) ;
+
+        for ( int i = 0 ; i < 5 ; i++ ) {
+            Assert.assertTrue ( "Test has next " + i, iterator.hasNext ( ) ) ;
+            Assert.assertEquals ( "Test complex_ac " + i, "EBI-" + i, iterator.next ( ) .getComplexAC ( ) ) ;
+        }
+        Assert.assertFalse ( "Test has next, false", iterator.hasNext ( ) ) ;
+        Assert.assertNull ( "Test what happens when it does not have next", iterator.next ( ) ) ;
+
+        // the pages are loaded one by one, as the results are read
+        Assert.assertEquals ( "Test loaded pages", 3, loadedPages.size ( ) ) ;
+        Assert.assertEquals ( "Test second page", Long.valueOf ( 2 ), loadedPages.get ( 1 ) ) ;
+        Assert.assertEquals ( "Test third page", Long.valueOf ( 4 ), loadedPages.get ( 2 ) ) ;
+    }
 }
@@ -5,6 +5,8 @@ import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServer;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.FacetParams;
 import org.apache.solr.common.util.NamedList;
 import org.junit.After;
@@ -13,6 +15,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *  Test all methods of ComplexSolrSearcher
@@ -303,4 +307,42 @@ public class ComplexSolrSearcherTest {
     public void testSearchWithFacets() throws Exception {
 
     }
+
+    @Test
+    public void testSearchPageSortedInStableOrder() throws Exception {
+        final List<String> sorts = new ArrayList<String> ( ) ;
+        ComplexSolrSearcher searcher = new ComplexSolrSearcher ( new SolrServer ( ) {
+            @Override
+            public NamedList<Object> request(SolrRequest solrRequest) throws SolrServerException, IOException {
+                sorts.add ( solrRequest.getParams ( ) .get ( CommonParams.SORT ) ) ;
+                NamedList<Object> response = new NamedList<Object> ( ) ;
+                response.add ( "response", new SolrDocumentList ( ) ) ;
+                return response ;
+            }
+        } ) ;
+
+        searcher.searchWithFilters ( "*", 0, 10, null ) ;
+        searcher.searchPage ( "*", null, 0, 10 ) ;
+
+        // the tiebreak on the score and the unique key is only needed to page over the results
+        Assert.assertEquals ( 2, sorts.size ( ) ) ;
+        Assert.assertArrayEquals ( new String[] { ComplexFieldNames.PREDICTED_COMPLEX + " asc" },
+                sorts.get ( 0 ) .split ( "," ) ) ;
+        Assert.assertArrayEquals ( new String[] { ComplexFieldNames.PREDICTED_COMPLEX + " asc", "score desc", ComplexFieldNames.ID + " asc" },
+                sorts.get ( 1 ) .split ( "," ) ) ;
+    }
+
+    @Test
+    public void testStreamWithoutResponse() throws Exception {
+        ComplexSolrSearcher searcher = new ComplexSolrSearcher ( this.solrServer ) {
+            @Override
+            protected SolrDocumentList searchPage ( String query, String [ ] queryFilters, long firstResult, int maxResults ) {
+                return null ;
+            }
+        } ;
+
+        ComplexResultIterator iterator = searcher.stream ( "*", null, 10 ) ;
+        Assert.assertFalse ( iterator.hasNext ( ) ) ;
+        Assert.assertEquals ( 0, iterator.getTotalNumberOfResults ( ) ) ;
+    }
 }
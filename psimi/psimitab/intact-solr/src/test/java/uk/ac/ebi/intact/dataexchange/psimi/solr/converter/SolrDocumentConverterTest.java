@@ -15,8 +15,17 @@
  */
 package uk.ac.ebi.intact.dataexchange.psimi.solr.converter;
 
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.SolrInputField;
+import org.hupo.psi.calimocho.key.CalimochoKeys;
+import org.hupo.psi.calimocho.key.InteractionKeys;
+import org.hupo.psi.calimocho.model.Field;
+import org.hupo.psi.calimocho.model.Row;
+import org.hupo.psi.calimocho.tab.io.DefaultRowReader;
+import org.hupo.psi.calimocho.tab.util.MitabDocumentDefinitionFactory;
 import org.junit.Assert;
 import org.junit.Test;
 import psidev.psi.mi.tab.PsimiTabWriter;
@@ -26,6 +35,12 @@ import uk.ac.ebi.intact.dataexchange.psimi.solr.AbstractSolrTestCase;
 import uk.ac.ebi.intact.dataexchange.psimi.solr.FieldNames;
 
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * SolrDocumentConverter Tester.
@@ -148,4 +163,94 @@ public class SolrDocumentConverterTest extends AbstractSolrTestCase {
         Assert.assertTrue(field.getValues().contains("Bpag1"));
 
     }
+
+    @Test
+    public void toRow() throws Exception {
+        String psiMiTabLine = "intact:EBI-12345\tintact:EBI-54321|uniprotkb:P12345\tuniprotkb:Nefh(gene name)\tuniprotkb:Dst(gene name)" +
+                              "\tintact:Nfh\tintact:Bpag1\tMI:0018(2 hybrid)\tLeung et al. (1999)\tpubmed:9971739" +
+                              "\ttaxid:10116(rat)\ttaxid:10090(mouse)\tMI:0218(physical interaction)\tMI:0469(intact)" +
+                              "\tintact:EBI-446356|irefindex:arigidblabla(rigid)\t-\t-\tMI:0499(unspecified role)" +
+                              "\tMI:0499(unspecified role)\tMI:0498(prey)\tMI:0496(bait)\tMI:0326(protein)\tMI:0326(protein)\tinterpro:IPR004829|\tgo:\"GO:0030246\"\t-\t-\t-\t-\tyeast:4932\t-\t-\t-\t-" +
+                "\t-\t-\t-\t-\t-\t-\t-\t-\t-";
+
+        SolrDocumentConverter converter = new SolrDocumentConverter(getSolrServer());
+        SolrInputDocument inputDoc = converter.toSolrDocument(psiMiTabLine);
+
+        SolrDocument doc = new SolrDocument();
+        for (String fieldName : inputDoc.getFieldNames()) {
+            doc.setField(fieldName, inputDoc.getFieldValues(fieldName));
+        }
+
+        // the same row as when the MITAB line of the document is read again
+        Row expected = new DefaultRowReader(MitabDocumentDefinitionFactory.mitab27()).readLine(converter.toMitabLine(inputDoc));
+        Row row = converter.toRow(doc);
+
+        String[] keys = new String[] {InteractionKeys.KEY_ID_A, InteractionKeys.KEY_ID_B, InteractionKeys.KEY_ALTID_A,
+                InteractionKeys.KEY_TAXID_A, InteractionKeys.KEY_DETMETHOD, InteractionKeys.KEY_INTERACTION_TYPE,
+                InteractionKeys.KEY_INTERACTION_ID, InteractionKeys.KEY_INTERACTOR_TYPE_A, InteractionKeys.KEY_XREFS_B,
+                InteractionKeys.KEY_CONFIDENCE};
+        for (String key : keys) {
+            Assert.assertEquals(key, values(expected.getFields(key)), values(row.getFields(key)));
+        }
+
+        SolrDocumentList docs = new SolrDocumentList();
+        docs.add(doc);
+        docs.add(doc);
+
+        Iterator<Row> rows = converter.toRows(docs);
+        Assert.assertEquals(values(row.getFields(InteractionKeys.KEY_ID_B)), values(rows.next().getFields(InteractionKeys.KEY_ID_B)));
+        Assert.assertTrue(rows.hasNext());
+        rows.next();
+        Assert.assertFalse(rows.hasNext());
+    }
+
+    @Test
+    public void toRow_documentStoredInSolr() throws Exception {
+        String psiMiTabLine = "intact:EBI-12345\tintact:EBI-54321|uniprotkb:P12345\tuniprotkb:Nefh(gene name)\tuniprotkb:Dst(gene name)|uniprotkb:\"Dst|2\"(gene name synonym)" +
+                              "\tintact:Nfh\tintact:Bpag1\tMI:0018(2 hybrid)\tLeung et al. (1999)\tpubmed:9971739" +
+                              "\ttaxid:10116(rat)\ttaxid:10090(mouse)\tMI:0218(physical interaction)\tMI:0469(intact)" +
+                              "\tintact:EBI-446356|irefindex:arigidblabla(rigid)\t-\t-\tMI:0499(unspecified role)" +
+                              "\tMI:0499(unspecified role)\tMI:0498(prey)\tMI:0496(bait)\tMI:0326(protein)\tMI:0326(protein)\tinterpro:IPR004829|\tgo:\"GO:0030246\"\t-\t-\t-\t-\tyeast:4932\t-\t-\t-\t-" +
+                "\t-\t-\t-\t-\t-\t-\t-\t-\t-";
+
+        SolrDocumentConverter converter = new SolrDocumentConverter(getSolrServer());
+        getSolrServer().add(converter.toSolrDocument(psiMiTabLine));
+        getSolrServer().commit();
+
+        SolrDocumentList docs = getSolrServer().query(new SolrQuery("*:*")).getResults();
+        Assert.assertEquals(1, docs.size());
+
+        // the same row as when the MITAB line is read
+        Row expected = new DefaultRowReader(MitabDocumentDefinitionFactory.mitab27()).readLine(psiMiTabLine);
+        Row row = converter.toRow(docs.get(0));
+
+        Assert.assertEquals(2, row.getFields(InteractionKeys.KEY_ID_B).size());
+        Assert.assertEquals(2, row.getFields(InteractionKeys.KEY_ALIAS_B).size());
+        String[] keys = new String[] {InteractionKeys.KEY_ID_A, InteractionKeys.KEY_ID_B, InteractionKeys.KEY_ALIAS_B,
+                InteractionKeys.KEY_INTERACTION_ID, InteractionKeys.KEY_XREFS_B, InteractionKeys.KEY_CONFIDENCE};
+        for (String key : keys) {
+            Assert.assertEquals(key, values(expected.getFields(key)), values(row.getFields(key)));
+        }
+    }
+
+    @Test
+    public void splitFields() throws Exception {
+        Assert.assertEquals(Arrays.asList("intact:EBI-54321", "uniprotkb:P12345"),
+                SolrDocumentConverter.splitFields("intact:EBI-54321|uniprotkb:P12345"));
+        Assert.assertEquals(Arrays.asList("go:\"GO:0030246|x\"(a b)", "-"),
+                SolrDocumentConverter.splitFields("go:\"GO:0030246|x\"(a b)|-"));
+        Assert.assertEquals(Arrays.asList("psi-mi:\"MI:\\\"0326\"", "x"),
+                SolrDocumentConverter.splitFields("psi-mi:\"MI:\\\"0326\"|x"));
+        Assert.assertEquals(Collections.singletonList("-"), SolrDocumentConverter.splitFields("-"));
+    }
+
+    private static List<String> values(Collection<Field> fields) {
+        List<String> values = new ArrayList<String>();
+        if (fields != null) {
+            for (Field field : fields) {
+                values.add(field.get(CalimochoKeys.DB) + ":" + field.get(CalimochoKeys.VALUE) + "(" + field.get(CalimochoKeys.TEXT) + ")");
+            }
+        }
+        return values;
+    }
 }
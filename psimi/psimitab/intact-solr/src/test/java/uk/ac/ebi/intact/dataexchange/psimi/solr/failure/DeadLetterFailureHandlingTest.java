@@ -0,0 +1,126 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.failure;
+
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.SolrException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @version $Id$
+ */
+public class DeadLetterFailureHandlingTest {
+
+    private File file;
+
+    @Before
+    public void before() throws Exception {
+        file = File.createTempFile("dead-letters", ".txt");
+        file.delete();
+    }
+
+    @After
+    public void after() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void handleFailure() throws Exception {
+        DeadLetterFailureHandling failureHandling = new DeadLetterFailureHandling(file);
+        failureHandling.handleFailure(new IllegalArgumentException("Cannot convert\tthe line\nat all"), "uniprotkb:P12345\tuniprotkb:Q12345\t-", 12);
+        failureHandling.handleFailure(new SolrServerException("Rejected", new IOException("Connection reset")), "uniprotkb:P23456\t-\t-", 40);
+        failureHandling.close();
+
+        // appended to the existing file
+        failureHandling = new DeadLetterFailureHandling(file);
+        failureHandling.handleFailure(null, "uniprotkb:P34567\t-\t-", 41);
+        failureHandling.close();
+
+        Assert.assertEquals(1, failureHandling.getFailureCount());
+
+        List<DeadLetterFailureHandling.DeadLetter> deadLetters = read();
+        Assert.assertEquals(3, deadLetters.size());
+
+        Assert.assertEquals(12, deadLetters.get(0).getLineNumber());
+        Assert.assertEquals("java.lang.IllegalArgumentException: Cannot convert the line at all", deadLetters.get(0).getReason());
+        Assert.assertEquals("uniprotkb:P12345\tuniprotkb:Q12345\t-", deadLetters.get(0).getMitabLine());
+
+        Assert.assertTrue(deadLetters.get(1).getReason().endsWith("<- java.io.IOException: Connection reset"));
+        Assert.assertEquals("uniprotkb:P23456\t-\t-", deadLetters.get(1).getMitabLine());
+
+        Assert.assertEquals(41, deadLetters.get(2).getLineNumber());
+        Assert.assertEquals("-", deadLetters.get(2).getReason());
+    }
+
+    @Test(expected = IOException.class)
+    public void parse_invalidLine() throws Exception {
+        DeadLetterFailureHandling.parse("uniprotkb:P12345\tuniprotkb:Q12345\t-");
+    }
+
+    @Test
+    public void backOff() throws Exception {
+        ExponentialBackOff backOff = new ExponentialBackOff(100, 1000);
+
+        for (int i = 0; i < 20; i++) {
+            long first = backOff.getDelay(1);
+            Assert.assertTrue(first > 50 && first <= 100);
+
+            long third = backOff.getDelay(3);
+            Assert.assertTrue(third > 200 && third <= 400);
+
+            Assert.assertTrue(backOff.getDelay(20) <= 1000);
+        }
+
+        backOff.setInitialDelay(0);
+        Assert.assertEquals(0, backOff.getDelay(5));
+    }
+
+    @Test
+    public void isTransient() throws Exception {
+        Assert.assertTrue(ExponentialBackOff.isTransient(new SolrServerException("Server down", new IOException("Connection refused"))));
+        Assert.assertTrue(ExponentialBackOff.isTransient(new SolrException(SolrException.ErrorCode.SERVICE_UNAVAILABLE, "Overloaded")));
+        Assert.assertFalse(ExponentialBackOff.isTransient(new SolrException(SolrException.ErrorCode.BAD_REQUEST, "Unknown field")));
+        Assert.assertFalse(ExponentialBackOff.isTransient(new SolrServerException("Rejected",
+                new SolrException(SolrException.ErrorCode.BAD_REQUEST, "Unknown field"))));
+    }
+
+    private List<DeadLetterFailureHandling.DeadLetter> read() throws IOException {
+        List<DeadLetterFailureHandling.DeadLetter> deadLetters = new ArrayList<DeadLetterFailureHandling.DeadLetter>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                DeadLetterFailureHandling.DeadLetter deadLetter = DeadLetterFailureHandling.parse(line);
+                if (deadLetter != null) {
+                    deadLetters.add(deadLetter);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return deadLetters;
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.ontology;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.FacetField;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.intact.bridges.ontologies.term.OntologyTerm;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.FieldNames;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrSearchResult;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrSearcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * @version $Id$
+ */
+public class InteractionOntologyLuceneIndexerTest {
+
+    private static final Map<String, String> NAMES = new HashMap<String, String>();
+    private static final Map<String, String> PARENTS = new HashMap<String, String>();
+
+    static {
+        addTerm("MI:0001", "interaction detection method", null);
+        addTerm("MI:0045", "experimental interaction detection", "MI:0001");
+        addTerm("MI:0018", "two hybrid", "MI:0045");
+        addTerm("MI:0006", "anti bait coimmunoprecipitation", "MI:0045");
+        addTerm("MI:0007", "anti tag coimmunoprecipitation", "MI:0045");
+        addTerm("MI:0096", "pull down", "MI:0045");
+        addTerm("MI:0019", "coimmunoprecipitation", "MI:0045");
+        addTerm("MI:0190", "interaction type", "MI:0001");
+        addTerm("MI:0915", "physical association", "MI:0190");
+    }
+
+    private File indexDirectory;
+
+    @Before
+    public void before() throws Exception {
+        indexDirectory = new File(System.getProperty("java.io.tmpdir"), "ontology-index-" + System.currentTimeMillis());
+    }
+
+    @After
+    public void after() throws Exception {
+        FileUtils.deleteQuietly(indexDirectory);
+    }
+
+    @Test
+    public void loadAndIndexAllFacetFieldCounts() throws Exception {
+        Map<String, List<FacetField.Count>> facetCounts = new HashMap<String, List<FacetField.Count>>();
+        // loaded in three chunks
+        facetCounts.put(FieldNames.DETMETHOD_FACET, createCounts(FieldNames.DETMETHOD_FACET,
+                "psi-mi:MI:0018", 10, "psi-mi:MI:0006", 20, "psi-mi:MI:0007", 30, "psi-mi:MI:0096", 40, "psi-mi:MI:0019", 50));
+        facetCounts.put(FieldNames.TYPE_FACET, createCounts(FieldNames.TYPE_FACET, "psi-mi:MI:0915", 5));
+
+        InteractionOntologyLuceneIndexer indexer = new InteractionOntologyLuceneIndexer(new StubOntologySearcher(),
+                new StubInteractionSearcher(facetCounts)) {
+            @Override
+            protected OntologySearcher createOntologySearcher() {
+                return new StubOntologySearcher();
+            }
+        };
+        indexer.setFacetChunkSize(2);
+        indexer.setNumberOfThreads(2);
+
+        indexer.loadAndIndexAllFacetFieldCounts(indexDirectory);
+
+        IndexReader reader = IndexReader.open(FSDirectory.open(indexDirectory));
+        try {
+            // the replaced documents have been removed
+            Assert.assertEquals(9, reader.numDocs());
+            Assert.assertEquals(9, reader.maxDoc());
+
+            Map<String, Document> documents = new HashMap<String, Document>();
+            for (int i = 0; i < reader.maxDoc(); i++) {
+                Document document = reader.document(i);
+                documents.put(document.get("identifier"), document);
+            }
+            Assert.assertEquals(NAMES.keySet(), documents.keySet());
+
+            Assert.assertEquals("50", documents.get("MI:0019").get("count"));
+            Assert.assertEquals("150", documents.get("MI:0045").get("count"));
+            Assert.assertEquals(FieldNames.DETMETHOD, documents.get("MI:0045").get("fieldName"));
+            Assert.assertEquals(FieldNames.TYPE, documents.get("MI:0915").get("fieldName"));
+
+            // the root is shared by the two facet fields and keeps the field of the detection methods
+            Document root = documents.get("MI:0001");
+            Assert.assertEquals("155", root.get("count"));
+            Assert.assertEquals(FieldNames.DETMETHOD, root.get("fieldName"));
+            Assert.assertEquals("psi-mi", root.get("databaseLabel"));
+            Assert.assertEquals("interaction detection method", root.get("label"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void addTerm(String id, String name, String parentId) {
+        NAMES.put(id, name);
+        if (parentId != null) {
+            PARENTS.put(id, parentId);
+        }
+    }
+
+    private static List<FacetField.Count> createCounts(String facetFieldName, Object... namesAndCounts) {
+        FacetField facetField = new FacetField(facetFieldName);
+        for (int i = 0; i < namesAndCounts.length; i += 2) {
+            facetField.add((String) namesAndCounts[i], ((Integer) namesAndCounts[i + 1]).longValue());
+        }
+        return facetField.getValues();
+    }
+
+    private static class StubOntologySearcher extends OntologySearcher {
+
+        private StubOntologySearcher() {
+            super(new UnusedSolrServer());
+        }
+
+        @Override
+        public OntologyNames findNameAndSynonyms(String termId, String termName) throws SolrServerException {
+            return new OntologyNames(NAMES.get(termId), termId);
+        }
+
+        @Override
+        public List<OntologyTerm> searchByChildId(String id, Integer firstResult, Integer maxResults) throws SolrServerException {
+            String parentId = PARENTS.get(id);
+            if (parentId == null) {
+                return Collections.emptyList();
+            }
+            return Collections.<OntologyTerm>singletonList(new LazyLoadedOntologyTerm(this, parentId, NAMES.get(parentId),
+                    Collections.<OntologyTerm>emptySet()));
+        }
+    }
+
+    /**
+     * Returns the facet counts of a facet field chunk by chunk.
+     */
+    private static class StubInteractionSearcher extends IntactSolrSearcher {
+
+        private final Map<String, List<FacetField.Count>> facetCounts;
+
+        private StubInteractionSearcher(Map<String, List<FacetField.Count>> facetCounts) {
+            super(new UnusedSolrServer());
+            this.facetCounts = facetCounts;
+        }
+
+        @Override
+        public IntactSolrSearchResult searchWithFacets(String q, Integer firstResult, Integer maxResults, String returnType,
+                                                       String[] queryFilter, String[] facets, Integer firstFacet, Integer maxFacet) {
+            List<FacetField> facetFields = new ArrayList<FacetField>(facets.length);
+            for (String facet : facets) {
+                FacetField facetField = new FacetField(facet);
+                List<FacetField.Count> counts = facetCounts.get(facet);
+                if (counts != null) {
+                    for (FacetField.Count count : counts.subList(Math.min(firstFacet, counts.size()),
+                            Math.min(firstFacet + maxFacet, counts.size()))) {
+                        facetField.add(count.getName(), count.getCount());
+                    }
+                }
+                facetFields.add(facetField);
+            }
+            return new IntactSolrSearchResult(new SolrDocumentList(), null, facetFields);
+        }
+    }
+
+    private static class UnusedSolrServer extends SolrServer {
+
+        @Override
+        public NamedList<Object> request(SolrRequest request) throws SolrServerException, IOException {
+            throw new UnsupportedOperationException("The stub searchers do not query solr");
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.ontology;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.intact.bridges.ontologies.OntologyDocument;
+import uk.ac.ebi.intact.bridges.ontologies.term.OntologyTerm;
+
+import java.util.*;
+
+/**
+ * @version $Id$
+ */
+public class OntologySnapshotTest {
+
+    private OntologySnapshot snapshot;
+
+    @Before
+    public void before() throws Exception {
+        //    root
+        //    / |\
+        // c11  | \
+        //  |  /   \
+        //  c21    c22          || -> disjoint_from "cyclic" dependency
+        //  ||   __/
+        //  ||  /
+        //  c31
+        //
+        OntologyDocument c31 = new OntologyDocument("test", "C3-1", "children 3-1", null, null, null, false);
+        c31.getParentSynonyms().add("child 3-1");
+
+        List<OntologyDocument> documents = Arrays.asList(
+                new OntologyDocument("test", null, null, "ROOT", "root", null, false),
+                new OntologyDocument("test", "ROOT", "root", "C1-1", "children 1-1", "OBO_REL:is_a", false),
+                new OntologyDocument("test", "ROOT", "root", "C2-1", "children 2-1", "regulates", false),
+                new OntologyDocument("test", "ROOT", "root", "C2-2", "children 2-2", "OBO_REL:is_a", false),
+                new OntologyDocument("test", "C1-1", "children 1-1", "C2-1", "children 2-1", "OBO_REL:is_a", false),
+                new OntologyDocument("test", "C2-1", "children 2-1", "C3-1", "children 3-1", "regulates", false),
+                new OntologyDocument("test", "C3-1", "children 3-1", "C2-1", "children 2-1", "disjoint_from", false),
+                new OntologyDocument("test", "C2-2", "children 2-2", "C3-1", "children 3-1", "OBO_REL:is_a", false),
+                c31);
+
+        DocumentFilter filter = new DefaultDocumentFilter();
+        OntologySnapshot.Builder builder = new OntologySnapshot.Builder();
+        for (OntologyDocument document : documents) {
+            if (filter.accept(document)) {
+                builder.add(document);
+            }
+        }
+        snapshot = builder.build();
+    }
+
+    @Test
+    public void findTerm() throws Exception {
+        Assert.assertEquals(5, snapshot.size());
+        Assert.assertEquals(Collections.singleton("test"), snapshot.getOntologyNames());
+
+        OntologyTerm term = snapshot.findTerm("C2-1");
+        Assert.assertEquals("C2-1", term.getId());
+        Assert.assertEquals("children 2-1", term.getName());
+
+        Assert.assertEquals("C2-2", snapshot.findTermByName("children 2-2").getId());
+
+        Assert.assertNull(snapshot.findTerm("C9-9"));
+        Assert.assertNull(snapshot.findTermByName("children 9-9"));
+    }
+
+    @Test
+    public void parentsAndChildren() throws Exception {
+        OntologyTerm root = snapshot.findTerm("ROOT");
+        Assert.assertEquals(0, root.getParents().size());
+        Assert.assertEquals(2, root.getChildren().size());
+        Assert.assertEquals("C1-1", root.getChildren().get(0).getId());
+        Assert.assertEquals("C2-2", root.getChildren().get(1).getId());
+
+        OntologyTerm c21 = snapshot.findTerm("C2-1");
+        Assert.assertEquals(1, c21.getParents().size());
+        Assert.assertEquals("C1-1", c21.getParents().get(0).getId());
+        Assert.assertEquals("children 1-1", c21.getParents().get(0).getName());
+    }
+
+    @Test
+    public void allParentsToRoot() throws Exception {
+        Assert.assertEquals(ids("C1-1", "ROOT"), ids(snapshot.findTerm("C2-1").getAllParentsToRoot()));
+        Assert.assertEquals(ids("C2-2", "ROOT"), ids(snapshot.findTerm("C3-1").getAllParentsToRoot()));
+        Assert.assertEquals(0, snapshot.findTerm("ROOT").getAllParentsToRoot().size());
+    }
+
+    @Test
+    public void allParentsToRoot_cycle() throws Exception {
+        // ROOT <- A <- B <- C <- A, and D child of B
+        OntologySnapshot.Builder builder = new OntologySnapshot.Builder();
+        builder.add(new OntologyDocument("test", "ROOT", "root", "A", "a", "OBO_REL:is_a", false));
+        builder.add(new OntologyDocument("test", "A", "a", "B", "b", "OBO_REL:is_a", false));
+        builder.add(new OntologyDocument("test", "B", "b", "C", "c", "OBO_REL:is_a", false));
+        builder.add(new OntologyDocument("test", "C", "c", "A", "a", "OBO_REL:is_a", false));
+        builder.add(new OntologyDocument("test", "B", "b", "D", "d", "OBO_REL:is_a", false));
+        OntologySnapshot cyclicSnapshot = builder.build();
+
+        // the terms of the cycle all reach the root and each other, whatever the order they are visited in
+        Assert.assertEquals(ids("B", "C", "ROOT"), ids(cyclicSnapshot.findTerm("A").getAllParentsToRoot()));
+        Assert.assertEquals(ids("A", "C", "ROOT"), ids(cyclicSnapshot.findTerm("B").getAllParentsToRoot()));
+        Assert.assertEquals(ids("A", "B", "ROOT"), ids(cyclicSnapshot.findTerm("C").getAllParentsToRoot()));
+        Assert.assertEquals(ids("A", "B", "C", "ROOT"), ids(cyclicSnapshot.findTerm("D").getAllParentsToRoot()));
+        Assert.assertEquals(0, cyclicSnapshot.findTerm("ROOT").getAllParentsToRoot().size());
+    }
+
+    @Test
+    public void synonyms() throws Exception {
+        OntologyTerm c31 = snapshot.findTerm("C3-1");
+
+        Set<OntologyTerm> synonyms = c31.getSynonyms();
+        Assert.assertEquals(1, synonyms.size());
+        OntologyTerm synonym = synonyms.iterator().next();
+        Assert.assertEquals("C3-1", synonym.getId());
+        Assert.assertEquals("child 3-1", synonym.getName());
+        Assert.assertEquals(0, synonym.getSynonyms().size());
+
+        Set<OntologyTerm> parents = snapshot.findTerm("C2-2").getChildren().get(0).getAllParentsToRoot(true);
+        Assert.assertEquals(2, parents.size());
+    }
+
+    @Test
+    public void childrenAtDepth() throws Exception {
+        OntologyTerm root = snapshot.findTerm("ROOT");
+
+        Assert.assertEquals(1, root.getChildrenAtDepth(0).size());
+        Assert.assertEquals(ids("C1-1", "C2-2"), ids(root.getChildrenAtDepth(1)));
+        Assert.assertEquals(ids("C2-1", "C3-1"), ids(root.getChildrenAtDepth(2)));
+        Assert.assertEquals(0, root.getChildrenAtDepth(40).size());
+    }
+
+    @Test
+    public void unknownTerm() throws Exception {
+        OntologyTerm term = new SnapshotOntologyTerm(snapshot, "C9-9", "unknown");
+
+        Assert.assertEquals("C9-9", term.getId());
+        Assert.assertEquals("unknown", term.getName());
+        Assert.assertEquals(0, term.getParents().size());
+        Assert.assertEquals(0, term.getChildren().size());
+        Assert.assertEquals(0, term.getAllParentsToRoot().size());
+    }
+
+    private static Set<String> ids(String... ids) {
+        return new HashSet<String>(Arrays.asList(ids));
+    }
+
+    private static Set<String> ids(Collection<OntologyTerm> terms) {
+        Set<String> ids = new HashSet<String>();
+        for (OntologyTerm term : terms) {
+            ids.add(term.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.ontology;
+
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.request.UpdateRequest;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Assert;
+import org.junit.Test;
+import uk.ac.ebi.intact.bridges.ontologies.OntologyDocument;
+import uk.ac.ebi.intact.bridges.ontologies.iterator.OntologyIterator;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrException;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.commit.CommitPolicy;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.failure.ExponentialBackOff;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * @version $Id$
+ */
+public class ParallelOntologyIndexerTest {
+
+    @Test
+    public void index_severalOntologies() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        ParallelOntologyIndexer indexer = createIndexer(solrServer);
+
+        List<OntologyIndexingStatistics> statistics = indexer.index(Arrays.asList(
+                OntologySource.of("big", new ListOntologyIterator(createDocuments("big", 2500))),
+                OntologySource.of("small", new ListOntologyIterator(createDocuments("small", 10)))),
+                new DefaultDocumentFilter());
+
+        // the relationships other than is_a and part_of are filtered
+        Assert.assertEquals(2500 + 10, solrServer.ids.size());
+        Assert.assertEquals(2500 + 10, new HashSet<String>(solrServer.ids).size());
+        for (int size : solrServer.batchSizes) {
+            Assert.assertTrue(size <= 100);
+        }
+
+        Assert.assertEquals(2, statistics.size());
+        Assert.assertEquals("big", statistics.get(0).getOntologyName());
+        Assert.assertEquals(2500, statistics.get(0).getDocuments());
+        Assert.assertEquals(2500, statistics.get(0).getSentDocuments());
+        Assert.assertEquals(25, statistics.get(0).getBatches());
+        Assert.assertEquals("small", statistics.get(1).getOntologyName());
+        Assert.assertEquals(10, statistics.get(1).getSentDocuments());
+        Assert.assertEquals(1, statistics.get(1).getBatches());
+
+        // a commit every 1000 documents and one at the end
+        Assert.assertTrue(indexer.getLastCommitStatistics().getHardCommits() >= 3);
+        Assert.assertTrue(solrServer.commits >= 3);
+    }
+
+    @Test
+    public void index_transientErrorsRetried() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        solrServer.unavailableRequests = 3;
+        ParallelOntologyIndexer indexer = createIndexer(solrServer);
+
+        indexer.index(Collections.singletonList(
+                OntologySource.of("big", new ListOntologyIterator(createDocuments("big", 500)))), null);
+
+        // without filter, the regulates relationships are kept
+        Assert.assertEquals(500 + 4, solrServer.ids.size());
+    }
+
+    @Test
+    public void index_rejectedBatchStopsIndexing() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        solrServer.rejectedId = "big_big:00100_big:00101_OBO_REL:is_a";
+        ParallelOntologyIndexer indexer = createIndexer(solrServer);
+        indexer.setQueueCapacity(1);
+
+        try {
+            indexer.index(Arrays.asList(
+                    OntologySource.of("big", new ListOntologyIterator(createDocuments("big", 20000))),
+                    OntologySource.of("small", new ListOntologyIterator(createDocuments("small", 10)))));
+            Assert.fail("The rejected batch should stop the indexing");
+        } catch (IntactSolrException e) {
+            Assert.assertTrue(e.getCause() instanceof SolrException);
+        }
+
+        Assert.assertEquals(1, solrServer.rejections);
+        Assert.assertTrue(solrServer.ids.size() < 20000);
+    }
+
+    @Test(expected = IntactSolrException.class)
+    public void index_ontologyNotLoaded() throws Exception {
+        RecordingSolrServer solrServer = new RecordingSolrServer();
+        ParallelOntologyIndexer indexer = createIndexer(solrServer);
+
+        indexer.index(Arrays.asList(
+                OntologySource.of("small", new ListOntologyIterator(createDocuments("small", 10))),
+                new OntologySource("missing") {
+                    public OntologyIterator createIterator() throws Exception {
+                        throw new IOException("Not found");
+                    }
+                }));
+    }
+
+    private ParallelOntologyIndexer createIndexer(SolrServer solrServer) {
+        ParallelOntologyIndexer indexer = new ParallelOntologyIndexer(solrServer);
+        indexer.setParserThreads(2);
+        indexer.setSenderThreads(2);
+        indexer.setBatchSize(100);
+        indexer.setCommitPolicy(new CommitPolicy(1000));
+        indexer.setBackOff(new ExponentialBackOff(0, 0));
+        return indexer;
+    }
+
+    /**
+     * A chain of terms, each the child of the previous one, and a relationship filtered every 100 terms.
+     */
+    private static List<OntologyDocument> createDocuments(String ontology, int count) {
+        List<OntologyDocument> documents = new ArrayList<OntologyDocument>(count);
+        documents.add(new OntologyDocument(ontology, null, null, id(ontology, 0), "term 0", null, false));
+        for (int i = 1; i < count; i++) {
+            documents.add(new OntologyDocument(ontology, id(ontology, i - 1), "term " + (i - 1), id(ontology, i), "term " + i, "OBO_REL:is_a", false));
+            if (i % 100 == 0) {
+                documents.add(new OntologyDocument(ontology, id(ontology, i - 1), "term " + (i - 1), id(ontology, i), "term " + i, "regulates", false));
+            }
+        }
+        return documents;
+    }
+
+    private static String id(String ontology, int i) {
+        return ontology + ":" + String.format("%05d", i);
+    }
+
+    private static class ListOntologyIterator implements OntologyIterator {
+
+        private final Iterator<OntologyDocument> iterator;
+
+        private ListOntologyIterator(List<OntologyDocument> documents) {
+            this.iterator = documents.iterator();
+        }
+
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        public OntologyDocument next() {
+            return iterator.next();
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class RecordingSolrServer extends SolrServer {
+
+        private final List<String> ids = Collections.synchronizedList(new ArrayList<String>());
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        private String rejectedId;
+        private int rejections;
+        private int unavailableRequests;
+        private int commits;
+
+        @Override
+        public synchronized NamedList<Object> request(SolrRequest request) throws SolrServerException, IOException {
+            Collection<SolrInputDocument> documents = ((UpdateRequest) request).getDocuments();
+            if (documents == null) {
+                commits++;
+                return new NamedList<Object>();
+            }
+            if (unavailableRequests > 0) {
+                unavailableRequests--;
+                throw new SolrServerException("Server unavailable", new IOException("Connection refused"));
+            }
+            List<String> batch = new ArrayList<String>();
+            for (SolrInputDocument document : documents) {
+                String id = (String) document.getFieldValue(OntologyFieldNames.ID);
+                if (id.equals(rejectedId)) {
+                    rejections++;
+                    throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, "Invalid " + id);
+                }
+                batch.add(id);
+            }
+            ids.addAll(batch);
+            batchSizes.add(batch.size());
+            return new NamedList<Object>();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
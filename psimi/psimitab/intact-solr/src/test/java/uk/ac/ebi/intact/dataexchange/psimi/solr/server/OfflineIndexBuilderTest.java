@@ -0,0 +1,136 @@
+/**
+ * Copyright 2009 The European Bioinformatics Institute, and others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.ebi.intact.dataexchange.psimi.solr.server;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.SolrServer;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.common.params.CoreAdminParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.CoreNames;
+import uk.ac.ebi.intact.dataexchange.psimi.solr.IntactSolrIndexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @version $Id$
+ */
+public class OfflineIndexBuilderTest {
+
+    private File tempDir;
+
+    @Before
+    public void before() throws Exception {
+        tempDir = new File(System.getProperty("java.io.tmpdir"), "offline-build-" + System.currentTimeMillis());
+        tempDir.mkdirs();
+    }
+
+    @After
+    public void after() throws Exception {
+        FileUtils.deleteQuietly(tempDir);
+    }
+
+    @Test
+    public void buildAndHandOver() throws Exception {
+        OfflineIndexBuilder builder = new OfflineIndexBuilder(new File(tempDir, "build"));
+        try {
+            builder.start();
+
+            IntactSolrIndexer indexer = builder.createIndexer();
+            Assert.assertEquals(200, indexer.indexMitabFromClasspath("/mitab_samples/intact200.txt", true));
+            Assert.assertEquals(1, indexer.getLastCommitStatistics().getMerges());
+
+            long count = builder.getSolrServer(CoreNames.CORE_PUB).query(new SolrQuery("*:*")).getResults().getNumFound();
+            Assert.assertEquals(200, count);
+        } finally {
+            builder.stop();
+        }
+
+        File target = new File(tempDir, "live/data");
+        Assert.assertNull(builder.handOver(CoreNames.CORE_PUB, target));
+
+        Assert.assertTrue(new File(target, "index").isDirectory());
+        Assert.assertFalse(builder.getDataDir(CoreNames.CORE_PUB).exists());
+    }
+
+    @Test
+    public void handOver_keepsPreviousData() throws Exception {
+        OfflineIndexBuilder builder = new OfflineIndexBuilder(new File(tempDir, "build"));
+
+        // a built core, without starting the server
+        File built = builder.getDataDir(CoreNames.CORE_ONTOLOGY_PUB);
+        FileUtils.writeStringToFile(new File(built, "index/segments.gen"), "built");
+
+        File target = new File(tempDir, "live/data");
+        FileUtils.writeStringToFile(new File(target, "index/segments.gen"), "live");
+
+        File previous = builder.handOver(CoreNames.CORE_ONTOLOGY_PUB, target);
+
+        Assert.assertEquals("built", FileUtils.readFileToString(new File(target, "index/segments.gen")));
+        Assert.assertEquals("live", FileUtils.readFileToString(new File(previous, "index/segments.gen")));
+        Assert.assertEquals(target.getParentFile().getAbsoluteFile(), previous.getParentFile().getAbsoluteFile());
+        Assert.assertFalse(built.exists());
+        Assert.assertFalse(new File(tempDir, "live/data.new").exists());
+    }
+
+    @Test
+    public void swapInto_movesTheCoreNextToTheLiveCores() throws Exception {
+        OfflineIndexBuilder builder = new OfflineIndexBuilder(new File(tempDir, "build"));
+
+        // a built core, without starting the server
+        FileUtils.writeStringToFile(new File(builder.getInstanceDir(CoreNames.CORE_PUB), "data/index/segments.gen"), "built");
+
+        final List<SolrParams> requests = new ArrayList<SolrParams>();
+        SolrServer coreAdminServer = new SolrServer() {
+            @Override
+            public NamedList<Object> request(SolrRequest request) throws SolrServerException, IOException {
+                requests.add(request.getParams());
+                return new NamedList<Object>();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        };
+
+        File coresDir = new File(tempDir, "live/cores");
+        String builtCoreName = builder.swapInto(CoreNames.CORE_PUB, coreAdminServer, "core_pub", coresDir);
+
+        File instanceDir = new File(coresDir, builtCoreName);
+        Assert.assertEquals("built", FileUtils.readFileToString(new File(instanceDir, "data/index/segments.gen")));
+        Assert.assertFalse(builder.getInstanceDir(CoreNames.CORE_PUB).exists());
+
+        Assert.assertEquals(2, requests.size());
+        Assert.assertEquals("CREATE", requests.get(0).get(CoreAdminParams.ACTION));
+        Assert.assertEquals(instanceDir.getAbsolutePath(), requests.get(0).get(CoreAdminParams.INSTANCE_DIR));
+        Assert.assertEquals("SWAP", requests.get(1).get(CoreAdminParams.ACTION));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void existingWorkingDir() throws Exception {
+        new OfflineIndexBuilder(tempDir);
+    }
+}